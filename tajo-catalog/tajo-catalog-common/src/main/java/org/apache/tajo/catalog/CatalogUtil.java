@@ -119,6 +119,8 @@ public class CatalogUtil {
       return StoreType.RCFILE;
     } else if (typeStr.equalsIgnoreCase(StoreType.TREVNI.name())) {
       return StoreType.TREVNI;
+    } else if (typeStr.equalsIgnoreCase(StoreType.COLUMNAR.name())) {
+      return StoreType.COLUMNAR;
     } else {
       return null;
     }
@@ -142,6 +142,15 @@ public class TajoConf extends Configuration {
     SHUFFLE_SSL_ENABLED_KEY("tajo.pullserver.ssl.enabled", false),
     SHUFFLE_FILE_FORMAT("tajo.shuffle.file-format", "RAW"),
     SHUFFLE_FETCHER_PARALLEL_EXECUTION_MAX_NUM("tajo.shuffle.fetcher.parallel-execution.max-num", 2),
+    SHUFFLE_HASH_CONSOLIDATED_ENABLED("tajo.shuffle.hash.consolidated.enabled", true),
+    SHUFFLE_HASH_CONSOLIDATED_BUFFER_SIZE("tajo.shuffle.hash.consolidated.buffer-mb", 64),
+    // the codec class compressing hash shuffle outputs in RAW. They are not compressed if it is empty.
+    SHUFFLE_COMPRESSION_CODEC("tajo.shuffle.compression.codec", ""),
+    SHUFFLE_COMPRESSION_MAX_RATIO("tajo.shuffle.compression.max-ratio", 0.9f),
+    SHUFFLE_FETCHER_STREAMING_ENABLED("tajo.shuffle.fetcher.streaming.enabled", false),
+    SHUFFLE_FETCHER_STREAMING_BUFFER_SIZE("tajo.shuffle.fetcher.streaming.buffer-mb", 64),
+    SHUFFLE_FETCHER_BATCH_ENABLED("tajo.shuffle.fetcher.batch.enabled", true),
+    SHUFFLE_FETCHER_BATCH_MAX_NUM("tajo.shuffle.fetcher.batch.max-num", 32),
 
     //////////////////////////////////
     // Storage Configuration
@@ -150,6 +159,11 @@ public class TajoConf extends Configuration {
     MINIMUM_SPLIT_SIZE("tajo.min.split.size", (long) 1),
     // for RCFile
     HIVEUSEEXPLICITRCFILEHEADER("tajo.exec.rcfile.use.explicit.header", true),
+    // for asynchronous read-ahead of file scanners
+    STORAGE_PREFETCH_ENABLED("tajo.storage.prefetch.enabled", false),
+    STORAGE_PREFETCH_BUFFER_SIZE("tajo.storage.prefetch.buffer-size", 1024 * 1024),
+    STORAGE_PREFETCH_MAX_BUFFER_NUM("tajo.storage.prefetch.max-buffers", 64),
+    STORAGE_PREFETCH_THREAD_NUM("tajo.storage.prefetch.threads", 8),
 
     // for Storage Manager v2
     STORAGE_MANAGER_VERSION_2("tajo.storage-manager.v2", false),
@@ -170,20 +184,47 @@ public class TajoConf extends Configuration {
     DIST_QUERY_SORT_PARTITION_VOLUME("tajo.dist-query.sort.partition-volume-mb", 256),
     DIST_QUERY_GROUPBY_PARTITION_VOLUME("tajo.dist-query.groupby.partition-volume-mb", 256),
 
+    // A hash partition is regarded as skewed if it is larger than both the factor times the average partition
+    // volume and the task volume. The probe side of a skewed join partition is split across several tasks.
+    DIST_QUERY_SKEW_JOIN_ENABLED("tajo.dist-query.join.skew.enabled", true),
+    DIST_QUERY_SKEW_PARTITION_FACTOR("tajo.dist-query.skew.partition-factor", 4.0f),
+
+    // If enabled, a hash shuffle with consolidated outputs is over-partitioned by the factor, and adjacent
+    // partitions are coalesced into tasks of about *_TASK_VOLUME after the child block finishes.
+    DIST_QUERY_ADAPTIVE_PARTITION_ENABLED("tajo.dist-query.shuffle.adaptive.enabled", true),
+    DIST_QUERY_ADAPTIVE_PARTITION_FACTOR("tajo.dist-query.shuffle.adaptive.partition-factor", 4),
+
+    // If enabled, the parent block of a hash shuffle is started once the fraction of the tasks of the child block
+    // are completed, and its tasks fetch the outputs of the child tasks as they are completed.
+    DIST_QUERY_PIPELINED_ENABLED("tajo.dist-query.pipelined.enabled", false),
+    DIST_QUERY_PIPELINED_SLOWSTART_FRACTION("tajo.dist-query.pipelined.slowstart-fraction", 0.5f),
+    DIST_QUERY_PIPELINED_FETCH_INTERVAL("tajo.dist-query.pipelined.fetch-interval-ms", 500),
+
     //////////////////////////////////
     // Physical Executors
     //////////////////////////////////
     EXECUTOR_EXTERNAL_SORT_THREAD_NUM("tajo.executor.external-sort.thread-num", 1),
     EXECUTOR_EXTERNAL_SORT_BUFFER_SIZE("tajo.executor.external-sort.buffer-mb", 200L),
     EXECUTOR_EXTERNAL_SORT_FANOUT("tajo.executor.external-sort.fanout-num", 8),
+    EXECUTOR_SORT_NORMALIZED_KEY_ENABLED("tajo.executor.sort.normalized-key.enabled", true),
 
     EXECUTOR_INNER_JOIN_INMEMORY_HASH_TABLE_SIZE("tajo.executor.join.inner.in-memory-table-num", (long)1000000),
     EXECUTOR_INNER_JOIN_INMEMORY_HASH_THRESHOLD("tajo.executor.join.inner.in-memory-hash-threshold-bytes",
         (long)256 * 1048576),
+    EXECUTOR_INNER_JOIN_HASH_TABLE_VOLUME_RATIO("tajo.executor.join.inner.hash-table.volume-ratio", 1.0f),
+    EXECUTOR_HYBRID_HASH_JOIN_ENABLED("tajo.executor.join.hybrid-hash.enabled", false),
+    EXECUTOR_HYBRID_HASH_JOIN_PARTITION_NUM("tajo.executor.join.hybrid-hash.partition-num", 32),
     EXECUTOR_OUTER_JOIN_INMEMORY_HASH_THRESHOLD("tajo.executor.join.outer.in-memory-hash-threshold-bytes",
         (long)256 * 1048576),
     EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD("tajo.executor.groupby.in-memory-hash-threshold-bytes",
         (long)256 * 1048576),
+    EXECUTOR_GROUPBY_SPILL_PARTITION_NUM("tajo.executor.groupby.spill.partition-num", 32),
+    EXECUTOR_GROUPBY_PARTIAL_ADAPTIVE_ENABLED("tajo.executor.groupby.partial.adaptive.enabled", true),
+    EXECUTOR_GROUPBY_PARTIAL_PASSTHROUGH_RATIO("tajo.executor.groupby.partial.passthrough-ratio", 0.8f),
+    EXECUTOR_JOIN_RUNTIME_FILTER_ENABLED("tajo.executor.join.runtime-filter.enabled", true),
+    EXECUTOR_JOIN_RUNTIME_FILTER_MAX_KEY_NUM("tajo.executor.join.runtime-filter.max-key-num", 4 * 1024 * 1024),
+    EXECUTOR_VECTORIZED_SCAN_ENABLED("tajo.executor.scan.vectorized", false),
+    EXECUTOR_SCAN_PREDICATE_PUSHDOWN_ENABLED("tajo.executor.scan.predicate-pushdown", true),
 
     //////////////////////////////////
     // RPC
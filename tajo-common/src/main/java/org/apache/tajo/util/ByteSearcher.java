@@ -0,0 +1,231 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.util;
+
+import com.google.common.annotations.VisibleForTesting;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.nio.ByteOrder;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+
+/**
+ * It searches a byte array for single byte characters, such as field delimiters, quotes and line terminators.
+ *
+ * When {@link sun.misc.Unsafe} is available, it reads 8 bytes in a long word at a time and finds the matched bytes
+ * in the word with a few bit operations (SWAR, SIMD within a register). Otherwise, it falls back to a byte-at-a-time
+ * implementation.
+ */
+public class ByteSearcher {
+
+  /**
+   * @return the index of the first <code>b</code> in <code>bytes[from, to)</code>, or -1 if not found
+   */
+  public static int indexOf(byte [] bytes, int from, int to, byte b) {
+    return SearcherHolder.BEST_SEARCHER.indexOf(bytes, from, to, b);
+  }
+
+  /**
+   * @return the index of the first <code>b1</code> or <code>b2</code> in <code>bytes[from, to)</code>,
+   * or -1 if not found
+   */
+  public static int indexOfAny(byte [] bytes, int from, int to, byte b1, byte b2) {
+    return SearcherHolder.BEST_SEARCHER.indexOfAny(bytes, from, to, b1, b2);
+  }
+
+  /**
+   * @return true if word-at-a-time search is used
+   */
+  public static boolean isWordAtATime() {
+    return SearcherHolder.BEST_SEARCHER != SearcherHolder.PureJavaSearcher.INSTANCE;
+  }
+
+  interface Searcher {
+    int indexOf(byte [] bytes, int from, int to, byte b);
+    int indexOfAny(byte [] bytes, int from, int to, byte b1, byte b2);
+  }
+
+  @VisibleForTesting
+  static Searcher pureJavaSearcher() {
+    return SearcherHolder.PureJavaSearcher.INSTANCE;
+  }
+
+  @VisibleForTesting
+  static Searcher bestSearcher() {
+    return SearcherHolder.BEST_SEARCHER;
+  }
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+
+  /**
+   * @return a long word of which each byte is a copy of a given byte
+   */
+  @VisibleForTesting
+  static long broadcast(byte b) {
+    return (b & 0xFFL) * ONES;
+  }
+
+  /**
+   * Each byte of the result is 0x80 if the corresponding byte of <code>word</code> is equal to that of
+   * <code>pattern</code>. Otherwise, it is 0. Unlike <code>(x - ONES) & ~x & HIGH_BITS</code>, no borrow crosses
+   * bytes, so every byte of the result is exact.
+   */
+  @VisibleForTesting
+  static long matches(long word, long pattern) {
+    long x = word ^ pattern;
+    return ~(((x & LOW_BITS) + LOW_BITS) | x | LOW_BITS);
+  }
+
+  /**
+   * Provides a searcher; either a byte-at-a-time implementation or a word-at-a-time implementation based on
+   * {@link sun.misc.Unsafe}. Like {@link Bytes#compareTo(byte[], byte[])}, it uses reflection to gracefully fall back
+   * to the pure Java implementation if {@code Unsafe} isn't available.
+   */
+  static class SearcherHolder {
+    static final String UNSAFE_SEARCHER_NAME = SearcherHolder.class.getName() + "$UnsafeSearcher";
+
+    static final Searcher BEST_SEARCHER = getBestSearcher();
+
+    static Searcher getBestSearcher() {
+      try {
+        Class<?> theClass = Class.forName(UNSAFE_SEARCHER_NAME);
+        return (Searcher) theClass.getEnumConstants()[0];
+      } catch (Throwable t) { // ensure we really catch *everything*
+        return PureJavaSearcher.INSTANCE;
+      }
+    }
+
+    enum PureJavaSearcher implements Searcher {
+      INSTANCE;
+
+      @Override
+      public int indexOf(byte[] bytes, int from, int to, byte b) {
+        for (int i = from; i < to; i++) {
+          if (bytes[i] == b) {
+            return i;
+          }
+        }
+        return -1;
+      }
+
+      @Override
+      public int indexOfAny(byte[] bytes, int from, int to, byte b1, byte b2) {
+        for (int i = from; i < to; i++) {
+          if (bytes[i] == b1 || bytes[i] == b2) {
+            return i;
+          }
+        }
+        return -1;
+      }
+    }
+
+    enum UnsafeSearcher implements Searcher {
+      INSTANCE;
+
+      static final Unsafe theUnsafe;
+
+      /** The offset to the first element in a byte array. */
+      static final long BYTE_ARRAY_BASE_OFFSET;
+
+      static {
+        theUnsafe = (Unsafe) AccessController.doPrivileged(
+            new PrivilegedAction<Object>() {
+              @Override
+              public Object run() {
+                try {
+                  Field f = Unsafe.class.getDeclaredField("theUnsafe");
+                  f.setAccessible(true);
+                  return f.get(null);
+                } catch (NoSuchFieldException e) {
+                  // It doesn't matter what we throw;
+                  // it's swallowed in getBestSearcher().
+                  throw new Error();
+                } catch (IllegalAccessException e) {
+                  throw new Error();
+                }
+              }
+            });
+
+        BYTE_ARRAY_BASE_OFFSET = theUnsafe.arrayBaseOffset(byte[].class);
+
+        // sanity check - this should never fail
+        if (theUnsafe.arrayIndexScale(byte[].class) != 1) {
+          throw new AssertionError();
+        }
+      }
+
+      static final boolean littleEndian = ByteOrder.nativeOrder().equals(ByteOrder.LITTLE_ENDIAN);
+
+      /**
+       * @return the position of the first matched byte in memory order
+       */
+      static int firstMatched(long mask) {
+        return (littleEndian ? Long.numberOfTrailingZeros(mask) : Long.numberOfLeadingZeros(mask)) >>> 3;
+      }
+
+      @Override
+      public int indexOf(byte[] bytes, int from, int to, byte b) {
+        if (from < 0 || to > bytes.length) {
+          throw new ArrayIndexOutOfBoundsException("[" + from + ", " + to + ") of " + bytes.length);
+        }
+
+        long pattern = broadcast(b);
+        int i = from;
+        for (; i + Bytes.SIZEOF_LONG <= to; i += Bytes.SIZEOF_LONG) {
+          long mask = matches(theUnsafe.getLong(bytes, BYTE_ARRAY_BASE_OFFSET + i), pattern);
+          if (mask != 0) {
+            return i + firstMatched(mask);
+          }
+        }
+        for (; i < to; i++) {
+          if (bytes[i] == b) {
+            return i;
+          }
+        }
+        return -1;
+      }
+
+      @Override
+      public int indexOfAny(byte[] bytes, int from, int to, byte b1, byte b2) {
+        if (from < 0 || to > bytes.length) {
+          throw new ArrayIndexOutOfBoundsException("[" + from + ", " + to + ") of " + bytes.length);
+        }
+
+        long pattern1 = broadcast(b1);
+        long pattern2 = broadcast(b2);
+        int i = from;
+        for (; i + Bytes.SIZEOF_LONG <= to; i += Bytes.SIZEOF_LONG) {
+          long word = theUnsafe.getLong(bytes, BYTE_ARRAY_BASE_OFFSET + i);
+          long mask = matches(word, pattern1) | matches(word, pattern2);
+          if (mask != 0) {
+            return i + firstMatched(mask);
+          }
+        }
+        for (; i < to; i++) {
+          if (bytes[i] == b1 || bytes[i] == b2) {
+            return i;
+          }
+        }
+        return -1;
+      }
+    }
+  }
+}
@@ -1482,7 +1482,13 @@ public class Bytes {
       }
       lastMatch = false;
       match = true;
-      i++;
+      if (separatorChar < 0x80) {
+        // jumps to the next separator
+        int next = ByteSearcher.indexOf(str, i + 1 + offset, len + offset, (byte) separatorChar);
+        i = next < 0 ? len : next - offset;
+      } else {
+        i++;
+      }
     }
     if (match || (preserveAllTokens && lastMatch)) {
       if (target == null) {
@@ -1813,6 +1819,46 @@ public class Bytes {
     return parseInt(bytes, start, length, 10);
   }
 
+  /**
+   * Parses the byte array argument as a signed decimal long value like {@link Long#parseLong(String)}, but without
+   * creating any string.
+   *
+   * @return long the value represented by the argument
+   * @throws NumberFormatException if the argument could not be parsed as a long quantity.
+   */
+  public static long parseLong(byte[] bytes, int start, int length) {
+    if (length == 0) {
+      throw new NumberFormatException("Empty byte array!");
+    }
+
+    int offset = start;
+    int end = start + length;
+    boolean negative = bytes[start] == '-';
+    if (negative || bytes[start] == '+') {
+      offset++;
+      if (length == 1) {
+        throw new NumberFormatException(new String(bytes, start, length));
+      }
+    }
+
+    // accumulates negatively to cover Long.MIN_VALUE
+    long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    long multmin = limit / 10;
+    long result = 0;
+    while (offset < end) {
+      int digit = bytes[offset++] - '0';
+      if (digit < 0 || digit > 9 || result < multmin) {
+        throw new NumberFormatException(new String(bytes, start, length));
+      }
+      result *= 10;
+      if (result < limit + digit) {
+        throw new NumberFormatException(new String(bytes, start, length));
+      }
+      result -= digit;
+    }
+    return negative ? result : -result;
+  }
+
   /**
    * Parses the byte array argument as if it was an int value and returns the
    * result. Throws NumberFormatException if the byte array does not represent an
@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.util;
+
+/**
+ * 64-bit MurmurHash functions. They are used for hash partitioning and hash tables, where the low bits of
+ * a hash value should depend on all bits of the input.
+ */
+public class MurmurHash {
+  private static final long M = 0xc6a4a7935bd1e995L;
+  private static final int R = 47;
+
+  /**
+   * Finalization mix of MurmurHash3. It makes every input bit affect every output bit.
+   */
+  public static long fmix64(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  /**
+   * MurmurHash64A over a byte range
+   */
+  public static long hash64(byte [] data, int offset, int length, long seed) {
+    long h = seed ^ (length * M);
+
+    int blockEnd = offset + (length & ~7);
+    for (int i = offset; i < blockEnd; i += 8) {
+      long k = (data[i] & 0xffL)
+          | ((data[i + 1] & 0xffL) << 8)
+          | ((data[i + 2] & 0xffL) << 16)
+          | ((data[i + 3] & 0xffL) << 24)
+          | ((data[i + 4] & 0xffL) << 32)
+          | ((data[i + 5] & 0xffL) << 40)
+          | ((data[i + 6] & 0xffL) << 48)
+          | ((data[i + 7] & 0xffL) << 56);
+
+      k *= M;
+      k ^= k >>> R;
+      k *= M;
+
+      h ^= k;
+      h *= M;
+    }
+
+    int remaining = length & 7;
+    if (remaining > 0) {
+      for (int i = remaining - 1; i >= 0; i--) {
+        h ^= (data[blockEnd + i] & 0xffL) << (i * 8);
+      }
+      h *= M;
+    }
+
+    h ^= h >>> R;
+    h *= M;
+    h ^= h >>> R;
+    return h;
+  }
+
+  public static long hash64(byte [] data) {
+    return hash64(data, 0, data.length, 0x9747b28cL);
+  }
+}
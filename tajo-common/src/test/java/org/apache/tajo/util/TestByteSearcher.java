@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestByteSearcher {
+
+  private static int naiveIndexOf(byte [] bytes, int from, int to, byte b1, byte b2) {
+    for (int i = from; i < to; i++) {
+      if (bytes[i] == b1 || bytes[i] == b2) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Test
+  public void testMatches() {
+    for (int b = Byte.MIN_VALUE; b <= Byte.MAX_VALUE; b++) {
+      long pattern = ByteSearcher.broadcast((byte) b);
+      for (int other = Byte.MIN_VALUE; other <= Byte.MAX_VALUE; other++) {
+        // the matched byte is put between bytes with all bits set or cleared to detect any borrow or carry.
+        long word = ((other & 0xFFL) << 24) | 0xFFFF00FF00FFL;
+        long mask = ByteSearcher.matches(word, pattern);
+        assertEquals((byte) b == (byte) other, (mask & 0x80000000L) != 0);
+        for (int i = 0; i < 8; i++) {
+          if (i != 3) {
+            long expected = (byte) (word >>> (i * 8)) == (byte) b ? 0x80L : 0L;
+            assertEquals(expected, (mask >>> (i * 8)) & 0xFFL);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testIndexOf() {
+    Random rnd = new Random(1234);
+    byte [] bytes = new byte[100];
+    byte [] candidates = new byte[] {'|', '\n', '\r', '"', (byte) 0x80, (byte) 0xFF, 0};
+
+    ByteSearcher.Searcher [] searchers = new ByteSearcher.Searcher[] {
+        ByteSearcher.pureJavaSearcher(), ByteSearcher.bestSearcher()};
+    for (int round = 0; round < 10; round++) {
+      for (int i = 0; i < bytes.length; i++) {
+        // sparse matches like delimiters in a text row
+        bytes[i] = rnd.nextInt(10) == 0 ?
+            candidates[rnd.nextInt(candidates.length)] : (byte) ('a' + rnd.nextInt(26));
+      }
+
+      for (int from = 0; from < 20; from++) {
+        for (int to = from; to <= bytes.length; to++) {
+          for (byte b : candidates) {
+            for (ByteSearcher.Searcher searcher : searchers) {
+              assertEquals(naiveIndexOf(bytes, from, to, b, b), searcher.indexOf(bytes, from, to, b));
+              assertEquals(naiveIndexOf(bytes, from, to, b, (byte) '\n'),
+                  searcher.indexOfAny(bytes, from, to, b, (byte) '\n'));
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testIndexOfOutOfBounds() {
+    byte [] bytes = "abcdefghijklmnop".getBytes();
+    assertEquals(-1, ByteSearcher.indexOf(bytes, 10, 5, (byte) 'a'));
+    try {
+      ByteSearcher.indexOf(bytes, 0, bytes.length + 1, (byte) 'z');
+      fail("ArrayIndexOutOfBoundsException is expected");
+    } catch (ArrayIndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testSplitLongLine() {
+    String text = "127.0.0.1|-|frank|[10/Oct/2000:13:55:36 -0700]|GET /apache_pb.gif HTTP/1.0||200|2326|" +
+        "http://www.example.com/start.html|Mozilla/4.08 [en] (Win98; I ;Nav)|";
+    char separatorChar = '|';
+
+    String[] textArray = StringUtils.splitPreserveAllTokens(text, separatorChar);
+    byte[][] bytesArray =  Bytes.splitPreserveAllTokens(text.getBytes(), separatorChar);
+
+    assertEquals(textArray.length, bytesArray.length);
+    for (int i = 0; i < textArray.length; i++){
+      assertArrayEquals(textArray[i].getBytes(), bytesArray[i]);
+    }
+
+    byte [] padded = ("xx" + text + "yy").getBytes();
+    bytesArray = Bytes.splitPreserveAllTokens(padded, 2, text.length(), separatorChar, new int[] {3, 9});
+    assertEquals(textArray.length, bytesArray.length);
+    assertArrayEquals(textArray[3].getBytes(), bytesArray[3]);
+    assertArrayEquals(textArray[9].getBytes(), bytesArray[9]);
+    assertNull(bytesArray[4]);
+  }
+}
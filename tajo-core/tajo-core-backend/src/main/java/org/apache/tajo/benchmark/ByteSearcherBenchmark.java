@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.benchmark;
+
+import org.apache.tajo.util.ByteSearcher;
+
+import java.util.Random;
+
+/**
+ * It compares a byte-at-a-time loop, which the delimited text readers used before, with {@link ByteSearcher} on
+ * access log lines. It measures finding line terminators and finding field delimiters.
+ *
+ * <pre>
+ * java -cp ... org.apache.tajo.benchmark.MicroBenchmarkDriver \
+ *   org.apache.tajo.benchmark.ByteSearcherBenchmark warmups iterations [line num]
+ * </pre>
+ */
+public class ByteSearcherBenchmark extends MicroBenchmark {
+  private static final String [] CASE_NAMES = {"lines", "fields"};
+  private static final String [] METHODS = new String[] {"GET", "GET", "GET", "POST", "HEAD"};
+  private static final String [] PATHS = new String[] {
+      "/index.html", "/images/logo.png", "/api/v1/orders?customer=%d&page=%d", "/static/js/app.%d.js"};
+  private static final String [] AGENTS = new String[] {
+      "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/58.0.3029.110",
+      "Mozilla/5.0 (X11; Linux x86_64; rv:45.0) Gecko/20100101 Firefox/45.0",
+      "curl/7.47.0"};
+
+  private byte [] data;
+
+  @Override
+  public void init(String [] args) {
+    int lineNum = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+    Random rnd = new Random(lineNum);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < lineNum; i++) {
+      sb.append("10.").append(rnd.nextInt(256)).append('.').append(rnd.nextInt(256)).append('.')
+          .append(rnd.nextInt(256)).append('|')
+          .append('-').append('|')
+          .append("user").append(rnd.nextInt(1000)).append('|')
+          .append("[10/Oct/2013:13:").append(10 + rnd.nextInt(50)).append(':').append(10 + rnd.nextInt(50))
+          .append(" -0700]").append('|')
+          .append(METHODS[rnd.nextInt(METHODS.length)]).append(' ')
+          .append(String.format(PATHS[rnd.nextInt(PATHS.length)], rnd.nextInt(100000), rnd.nextInt(10)))
+          .append(" HTTP/1.1").append('|')
+          .append(rnd.nextInt(10) == 0 ? 404 : 200).append('|')
+          .append(rnd.nextInt(100000)).append('|')
+          .append("http://www.example.com/").append(rnd.nextInt(100)).append(".html").append('|')
+          .append(AGENTS[rnd.nextInt(AGENTS.length)]).append('\n');
+    }
+    data = sb.toString().getBytes();
+  }
+
+  @Override
+  public String [] getCaseNames() {
+    return CASE_NAMES;
+  }
+
+  @Override
+  public String getBaselineName() {
+    return "byte-at-a-time";
+  }
+
+  @Override
+  public String getCandidateName() {
+    return ByteSearcher.isWordAtATime() ? "word-at-a-time" : "ByteSearcher (byte-at-a-time)";
+  }
+
+  private static boolean isFieldCase(String caseName) {
+    if (CASE_NAMES[0].equals(caseName)) {
+      return false;
+    } else if (CASE_NAMES[1].equals(caseName)) {
+      return true;
+    }
+    throw new IllegalArgumentException("Unknown case: " + caseName);
+  }
+
+  @Override
+  public long runBaseline(String caseName) {
+    long found = 0;
+    if (isFieldCase(caseName)) {
+      for (int i = 0; i < data.length; i++) {
+        if (data[i] == '|') {
+          found++;
+        }
+      }
+    } else {
+      for (int i = 0; i < data.length; i++) {
+        if (data[i] == '\n' || data[i] == '\r') {
+          found++;
+        }
+      }
+    }
+    return found;
+  }
+
+  @Override
+  public long runCandidate(String caseName) {
+    long found = 0;
+    int posn = 0;
+    if (isFieldCase(caseName)) {
+      while ((posn = ByteSearcher.indexOf(data, posn, data.length, (byte) '|')) >= 0) {
+        found++;
+        posn++;
+      }
+    } else {
+      while ((posn = ByteSearcher.indexOfAny(data, posn, data.length, (byte) '\n', (byte) '\r')) >= 0) {
+        found++;
+        posn++;
+      }
+    }
+    return found;
+  }
+}
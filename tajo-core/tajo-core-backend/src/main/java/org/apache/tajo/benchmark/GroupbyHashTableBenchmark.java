@@ -0,0 +1,168 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.benchmark;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.planner.physical.GroupbyHashTable;
+import org.apache.tajo.engine.planner.physical.HashAggregateExec;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * It compares {@link GroupbyHashTable} with the HashMap of key tuples that {@link HashAggregateExec} used before.
+ * Both compute a sum for each group over the same rows, and rows are generated on the fly, so that a large number of
+ * groups does not need a materialized input.
+ *
+ * <pre>
+ * java -Xmx32g -cp ... org.apache.tajo.benchmark.MicroBenchmarkDriver \
+ *   org.apache.tajo.benchmark.GroupbyHashTableBenchmark warmups iterations [group num] [rows per group]
+ * </pre>
+ *
+ * For example, 1000000 and 100000000 groups show the in-cache and the out-of-cache cases.
+ */
+public class GroupbyHashTableBenchmark extends MicroBenchmark {
+  private static final String [] CASE_NAMES = {"long", "fixed", "text"};
+  private static final int [][] CASE_KEY_IDS = {{0}, {0, 1}, {2}};
+  /** a prime which is used to visit groups in a scattered order */
+  private static final long SCATTER_PRIME = 2654435761L;
+
+  private final Schema schema;
+  private final Tuple row;
+  private int groupNum;
+  private long rowNum;
+
+  public GroupbyHashTableBenchmark() {
+    schema = new Schema();
+    schema.addColumn("long_key", Type.INT8);
+    schema.addColumn("int_key", Type.INT4);
+    schema.addColumn("text_key", Type.TEXT);
+    schema.addColumn("value", Type.INT8);
+    row = new VTuple(schema.size());
+  }
+
+  @Override
+  public void init(String [] args) {
+    groupNum = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+    int rowsPerGroup = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    rowNum = (long) groupNum * rowsPerGroup;
+  }
+
+  @Override
+  public String [] getCaseNames() {
+    return CASE_NAMES;
+  }
+
+  @Override
+  public String getBaselineName() {
+    return "HashMap";
+  }
+
+  @Override
+  public String getCandidateName() {
+    return "GroupbyHashTable";
+  }
+
+  private static int [] getKeyIds(String caseName) {
+    for (int i = 0; i < CASE_NAMES.length; i++) {
+      if (CASE_NAMES[i].equals(caseName)) {
+        return CASE_KEY_IDS[i];
+      }
+    }
+    throw new IllegalArgumentException("Unknown case: " + caseName);
+  }
+
+  /**
+   * It fills the reused row with the r-th input row. Each group appears once in every groupNum rows.
+   */
+  private Tuple generate(long r) {
+    long key = (r * SCATTER_PRIME) % groupNum;
+    row.put(0, DatumFactory.createInt8(key));
+    row.put(1, DatumFactory.createInt4((int) (key % 1000)));
+    row.put(2, DatumFactory.createText("customer#" + key));
+    row.put(3, DatumFactory.createInt8(r & 0xFF));
+    return row;
+  }
+
+  @Override
+  public long runBaseline(String caseName) {
+    int [] keyIds = getKeyIds(caseName);
+    Map<Tuple, long []> hashTable = new HashMap<Tuple, long[]>(100000);
+    Tuple tuple;
+    Tuple keyTuple;
+    for (long r = 0; r < rowNum; r++) {
+      tuple = generate(r);
+      keyTuple = new VTuple(keyIds.length);
+      for (int i = 0; i < keyIds.length; i++) {
+        keyTuple.put(i, tuple.get(keyIds[i]));
+      }
+
+      if (hashTable.containsKey(keyTuple)) {
+        hashTable.get(keyTuple)[0] += tuple.get(3).asInt8();
+      } else {
+        hashTable.put(keyTuple, new long[] {tuple.get(3).asInt8()});
+      }
+    }
+
+    long sum = 0;
+    for (long [] context : hashTable.values()) {
+      sum += context[0];
+    }
+    checkGroupNum(hashTable.size());
+    return sum;
+  }
+
+  @Override
+  public long runCandidate(String caseName) {
+    GroupbyHashTable hashTable = GroupbyHashTable.newInstance(schema, getKeyIds(caseName));
+    List<long []> groupContexts = new ArrayList<long[]>(100000);
+    Tuple tuple;
+    int groupId;
+    for (long r = 0; r < rowNum; r++) {
+      tuple = generate(r);
+      groupId = hashTable.findOrInsert(tuple);
+
+      if (groupId < groupContexts.size()) {
+        groupContexts.get(groupId)[0] += tuple.get(3).asInt8();
+      } else {
+        groupContexts.add(new long[] {tuple.get(3).asInt8()});
+      }
+    }
+
+    long sum = 0;
+    for (long [] context : groupContexts) {
+      sum += context[0];
+    }
+    checkGroupNum(hashTable.size());
+    return sum;
+  }
+
+  private void checkGroupNum(int found) {
+    if (found != groupNum) {
+      throw new IllegalStateException(groupNum + " groups expected, but " + found + " found");
+    }
+  }
+}
@@ -0,0 +1,52 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.benchmark;
+
+/**
+ * A micro benchmark compares a baseline implementation with a candidate implementation over the same input.
+ * It consists of several cases, and each case is run by {@link MicroBenchmarkDriver}.
+ *
+ * Both implementations of a case return a checksum of their results. The driver checks that the checksums are equal,
+ * so that a benchmark does not measure an implementation computing a wrong result.
+ */
+public abstract class MicroBenchmark {
+
+  /**
+   * It prepares the input of this benchmark.
+   *
+   * @param args benchmark specific arguments, which may be empty
+   */
+  public abstract void init(String [] args);
+
+  public abstract String [] getCaseNames();
+
+  public abstract String getBaselineName();
+
+  public abstract String getCandidateName();
+
+  /**
+   * @return the checksum of the result
+   */
+  public abstract long runBaseline(String caseName);
+
+  /**
+   * @return the checksum of the result, which should be equal to that of {@link #runBaseline(String)}
+   */
+  public abstract long runCandidate(String caseName);
+}
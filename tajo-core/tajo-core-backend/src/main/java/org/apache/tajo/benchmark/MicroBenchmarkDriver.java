@@ -0,0 +1,131 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * It runs the cases of a {@link MicroBenchmark}. Both implementations of a case are warmed up, and then they are
+ * measured alternately so that a drift of the machine affects both of them.
+ *
+ * <pre>
+ * java -cp ... org.apache.tajo.benchmark.MicroBenchmarkDriver BenchmarkClass warmups iterations [benchmark args]
+ * </pre>
+ */
+public class MicroBenchmarkDriver {
+
+  /**
+   * The average elapsed times of a case
+   */
+  public static class Result {
+    private final String caseName;
+    private final long baselineNanos;
+    private final long candidateNanos;
+
+    Result(String caseName, long baselineNanos, long candidateNanos) {
+      this.caseName = caseName;
+      this.baselineNanos = baselineNanos;
+      this.candidateNanos = candidateNanos;
+    }
+
+    public String getCaseName() {
+      return caseName;
+    }
+
+    public long getBaselineNanos() {
+      return baselineNanos;
+    }
+
+    public long getCandidateNanos() {
+      return candidateNanos;
+    }
+
+    /**
+     * @return how many times the candidate is faster than the baseline
+     */
+    public double getSpeedup() {
+      return (double) baselineNanos / Math.max(1, candidateNanos);
+    }
+  }
+
+  /**
+   * It runs all cases of an initialized benchmark.
+   *
+   * @throws IllegalStateException if the baseline and the candidate compute different results
+   */
+  public static List<Result> run(MicroBenchmark benchmark, int warmupIterations, int iterations) {
+    List<Result> results = new ArrayList<Result>();
+    for (String caseName : benchmark.getCaseNames()) {
+      for (int i = 0; i < warmupIterations; i++) {
+        checkResult(benchmark, caseName, benchmark.runBaseline(caseName), benchmark.runCandidate(caseName));
+      }
+
+      long baselineNanos = 0;
+      long candidateNanos = 0;
+      for (int i = 0; i < iterations; i++) {
+        long start = System.nanoTime();
+        long expected = benchmark.runBaseline(caseName);
+        baselineNanos += System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long actual = benchmark.runCandidate(caseName);
+        candidateNanos += System.nanoTime() - start;
+
+        checkResult(benchmark, caseName, expected, actual);
+      }
+      results.add(new Result(caseName, baselineNanos / Math.max(1, iterations),
+          candidateNanos / Math.max(1, iterations)));
+    }
+    return results;
+  }
+
+  private static void checkResult(MicroBenchmark benchmark, String caseName, long expected, long actual) {
+    if (expected != actual) {
+      throw new IllegalStateException(caseName + ": " + benchmark.getBaselineName() + " computes " + expected
+          + ", but " + benchmark.getCandidateName() + " computes " + actual);
+    }
+  }
+
+  private static void printUsage() {
+    System.out.println("microbenchmark BenchmarkClass warmups iterations [benchmark args]");
+  }
+
+  public static void main(String [] args) throws Exception {
+    if (args.length < 3) {
+      printUsage();
+      System.exit(-1);
+    }
+
+    MicroBenchmark benchmark = (MicroBenchmark) Class.forName(args[0]).newInstance();
+    benchmark.init(Arrays.copyOfRange(args, 3, args.length));
+    List<Result> results = run(benchmark, Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+
+    System.out.println("====================================");
+    System.out.println("Benchmark: " + benchmark.getClass().getSimpleName());
+    for (Result result : results) {
+      System.out.println(String.format("%-8s %s: %8d ms, %s: %8d ms (%.2fx)", result.getCaseName(),
+          benchmark.getBaselineName(), result.getBaselineNanos() / 1000000,
+          benchmark.getCandidateName(), result.getCandidateNanos() / 1000000, result.getSpeedup()));
+    }
+    System.out.println("====================================");
+    System.exit(0);
+  }
+}
@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.benchmark;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.storage.NormalizedKeyEncoder;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.TupleComparator;
+import org.apache.tajo.storage.TupleHash;
+import org.apache.tajo.storage.VTuple;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * It compares sorting by {@link TupleComparator} with sorting by normalized keys. The time of normalized key sorting
+ * includes encoding keys.
+ *
+ * <pre>
+ * java -cp ... org.apache.tajo.benchmark.MicroBenchmarkDriver \
+ *   org.apache.tajo.benchmark.NormalizedKeyBenchmark warmups iterations [row num]
+ * </pre>
+ */
+public class NormalizedKeyBenchmark extends MicroBenchmark {
+  private static final String [] CASE_NAMES = {"int", "text", "mixed"};
+  private static final int [][] CASE_KEY_IDS = {{0}, {2}, {1, 2, 3}};
+
+  private final Schema schema;
+  private List<Tuple> tuples;
+
+  public NormalizedKeyBenchmark() {
+    schema = new Schema();
+    schema.addColumn("int_key", Type.INT4);
+    schema.addColumn("long_key", Type.INT8);
+    schema.addColumn("text_key", Type.TEXT);
+    schema.addColumn("double_key", Type.FLOAT8);
+  }
+
+  @Override
+  public void init(String [] args) {
+    int rowNum = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+    Random rnd = new Random(rowNum);
+    tuples = new ArrayList<Tuple>(rowNum);
+    for (int i = 0; i < rowNum; i++) {
+      tuples.add(new VTuple(new Datum[] {
+          DatumFactory.createInt4(rnd.nextInt()),
+          DatumFactory.createInt8(rnd.nextInt(1000)),
+          // a long common prefix makes text comparisons go beyond the 8-byte prefix.
+          DatumFactory.createText("customer#" + rnd.nextInt(100000)),
+          DatumFactory.createFloat8(rnd.nextDouble())
+      }));
+    }
+  }
+
+  @Override
+  public String [] getCaseNames() {
+    return CASE_NAMES;
+  }
+
+  @Override
+  public String getBaselineName() {
+    return "comparator";
+  }
+
+  @Override
+  public String getCandidateName() {
+    return "normalized key";
+  }
+
+  private static int [] getKeyIds(String caseName) {
+    for (int i = 0; i < CASE_NAMES.length; i++) {
+      if (CASE_NAMES[i].equals(caseName)) {
+        return CASE_KEY_IDS[i];
+      }
+    }
+    throw new IllegalArgumentException("Unknown case: " + caseName);
+  }
+
+  private SortSpec [] createSortSpecs(int [] keyIds) {
+    SortSpec [] sortSpecs = new SortSpec[keyIds.length];
+    for (int i = 0; i < keyIds.length; i++) {
+      sortSpecs[i] = new SortSpec(schema.getColumn(keyIds[i]), i % 2 == 0, false);
+    }
+    return sortSpecs;
+  }
+
+  /**
+   * Only sort keys are hashed, because tuples with equal keys may be sorted in any order.
+   */
+  private static long checksum(List<Tuple> sorted, int [] keyIds) {
+    long checksum = 0;
+    for (Tuple tuple : sorted) {
+      checksum = checksum * 31 + TupleHash.hash(tuple, keyIds);
+    }
+    return checksum;
+  }
+
+  @Override
+  public long runBaseline(String caseName) {
+    int [] keyIds = getKeyIds(caseName);
+    List<Tuple> copied = new ArrayList<Tuple>(tuples);
+    Collections.sort(copied, new TupleComparator(schema, createSortSpecs(keyIds)));
+    return checksum(copied, keyIds);
+  }
+
+  @Override
+  public long runCandidate(String caseName) {
+    int [] keyIds = getKeyIds(caseName);
+    List<Tuple> copied = new ArrayList<Tuple>(tuples);
+    new NormalizedKeyEncoder(schema, createSortSpecs(keyIds)).sort(copied);
+    return checksum(copied, keyIds);
+  }
+}
@@ -32,6 +32,7 @@ public class AggregationFunctionCallEval extends FunctionEval implements Cloneab
   @Expose protected AggFunction instance;
   @Expose boolean firstPhase = false;
   private Tuple params;
+  private Tuple partialParams;
 
   public AggregationFunctionCallEval(FunctionDesc desc, AggFunction instance, EvalNode[] givenArgs) {
     super(EvalType.AGG_FUNCTION, desc, givenArgs);
@@ -60,6 +61,25 @@ public class AggregationFunctionCallEval extends FunctionEval implements Cloneab
     }
   }
 
+  /**
+   * It merges a partial result, which is produced by {@link #getPartialResult(FunctionContext)}, into the context.
+   */
+  public void mergePartial(FunctionContext context, Datum partialResult) {
+    if (partialParams == null) {
+      this.partialParams = new VTuple(1);
+    }
+    partialParams.put(0, partialResult);
+    instance.merge(context, partialParams);
+  }
+
+  public Datum getPartialResult(FunctionContext context) {
+    return instance.getPartialResult(context);
+  }
+
+  public DataType getPartialResultType() {
+    return instance.getPartialResultType();
+  }
+
   @Override
   public Datum eval(Schema schema, Tuple tuple) {
     throw new UnsupportedOperationException("Cannot execute eval() of aggregation function");
@@ -89,4 +109,8 @@ public class AggregationFunctionCallEval extends FunctionEval implements Cloneab
   public void setFirstPhase() {
     this.firstPhase = true;
   }
+
+  public boolean isFirstPhase() {
+    return firstPhase;
+  }
 }
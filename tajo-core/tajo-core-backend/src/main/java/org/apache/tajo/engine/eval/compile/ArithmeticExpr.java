@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.eval.compile;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.engine.eval.EvalType;
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * An arithmetic operator (+, -, *, /, %) over INT4, INT8 and FLOAT8 operands. The result type follows
+ * the datum arithmetic: INT4 op INT4 is INT4, an operation with INT8 is INT8, and an operation with FLOAT8 is
+ * FLOAT8. INT4 results wrap around exactly like {@link org.apache.tajo.datum.Int4Datum}.
+ */
+class ArithmeticExpr extends PrimitiveExpr {
+  final EvalType op;
+  final PrimitiveExpr left;
+  final PrimitiveExpr right;
+
+  ArithmeticExpr(EvalType op, Type type, PrimitiveExpr left, PrimitiveExpr right) {
+    super(kindOf(type), type);
+    this.op = op;
+    this.left = left;
+    this.right = right;
+  }
+
+  static Type resultType(Type left, Type right) {
+    if (left == Type.FLOAT8 || right == Type.FLOAT8) {
+      return Type.FLOAT8;
+    } else if (left == Type.INT8 || right == Type.INT8) {
+      return Type.INT8;
+    } else {
+      return Type.INT4;
+    }
+  }
+
+  @Override
+  long evalLong(Tuple tuple) {
+    long lhs = left.evalLong(tuple);
+    if (left.isNull) {
+      isNull = true;
+      return 0;
+    }
+    long rhs = right.evalLong(tuple);
+    if (right.isNull) {
+      isNull = true;
+      return 0;
+    }
+    isNull = false;
+
+    long result;
+    switch (op) {
+    case PLUS: result = lhs + rhs; break;
+    case MINUS: result = lhs - rhs; break;
+    case MULTIPLY: result = lhs * rhs; break;
+    case DIVIDE: result = lhs / rhs; break;
+    case MODULAR: result = lhs % rhs; break;
+    default:
+      throw new IllegalStateException("Not an arithmetic operator: " + op);
+    }
+    return type == Type.INT4 ? (int) result : result;
+  }
+
+  @Override
+  double evalDouble(Tuple tuple) {
+    double lhs = left.evalAsDouble(tuple);
+    if (left.isNull) {
+      isNull = true;
+      return 0;
+    }
+    double rhs = right.evalAsDouble(tuple);
+    if (right.isNull) {
+      isNull = true;
+      return 0;
+    }
+    isNull = false;
+
+    switch (op) {
+    case PLUS: return lhs + rhs;
+    case MINUS: return lhs - rhs;
+    case MULTIPLY: return lhs * rhs;
+    case DIVIDE: return lhs / rhs;
+    case MODULAR: return lhs % rhs;
+    default:
+      throw new IllegalStateException("Not an arithmetic operator: " + op);
+    }
+  }
+}
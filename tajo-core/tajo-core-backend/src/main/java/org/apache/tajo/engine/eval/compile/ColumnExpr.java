@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.eval.compile;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * It reads a column value through the primitive getters of {@link Tuple}.
+ */
+class ColumnExpr extends PrimitiveExpr {
+  final int columnId;
+
+  ColumnExpr(Type type, int columnId) {
+    super(kindOf(type), type);
+    this.columnId = columnId;
+  }
+
+  /**
+   * An unset field, i.e., a Java null, is also a null value as FieldEval returns it as it is.
+   */
+  static boolean isNull(Tuple tuple, int columnId) {
+    return tuple.get(columnId) == null || tuple.isNull(columnId);
+  }
+
+  @Override
+  long evalLong(Tuple tuple) {
+    if (isNull(tuple, columnId)) {
+      isNull = true;
+      return 0;
+    }
+    isNull = false;
+    return tuple.getInt8(columnId);
+  }
+
+  @Override
+  double evalDouble(Tuple tuple) {
+    if (isNull(tuple, columnId)) {
+      isNull = true;
+      return 0;
+    }
+    isNull = false;
+    return tuple.getFloat8(columnId);
+  }
+
+  @Override
+  int evalBool(Tuple tuple) {
+    if (isNull(tuple, columnId)) {
+      return UNKNOWN;
+    }
+    return tuple.getBool(columnId) ? TRUE : FALSE;
+  }
+
+  @Override
+  Datum evalDatum(Tuple tuple) {
+    return tuple.get(columnId);
+  }
+}
@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.eval.compile;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.engine.eval.EvalType;
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * A comparison (=, <>, <, <=, >, >=) between two numeric operands. Like the compareTo() of numeric datums,
+ * operands are compared as double if either is FLOAT8, as float if either is FLOAT4, and as long otherwise.
+ *
+ * Equality uses ==, whereas the other operators use the sign of compareTo(), which regards NaN as equal to any
+ * value. This follows {@link org.apache.tajo.datum.Datum} exactly.
+ */
+class ComparisonExpr extends PrimitiveExpr {
+  enum Domain {LONG, FLOAT, DOUBLE}
+
+  final EvalType op;
+  final Domain domain;
+  final PrimitiveExpr left;
+  final PrimitiveExpr right;
+
+  ComparisonExpr(EvalType op, PrimitiveExpr left, PrimitiveExpr right) {
+    super(Kind.BOOL, Type.BOOLEAN);
+    this.op = op;
+    this.left = left;
+    this.right = right;
+
+    if (left.type == Type.FLOAT8 || right.type == Type.FLOAT8) {
+      domain = Domain.DOUBLE;
+    } else if (left.type == Type.FLOAT4 || right.type == Type.FLOAT4) {
+      domain = Domain.FLOAT;
+    } else {
+      domain = Domain.LONG;
+    }
+  }
+
+  @Override
+  int evalBool(Tuple tuple) {
+    boolean equal;
+    int cmp;
+
+    switch (domain) {
+    case LONG: {
+      long lhs = left.evalLong(tuple);
+      if (left.isNull) {
+        return UNKNOWN;
+      }
+      long rhs = right.evalLong(tuple);
+      if (right.isNull) {
+        return UNKNOWN;
+      }
+      equal = lhs == rhs;
+      cmp = lhs < rhs ? -1 : (lhs > rhs ? 1 : 0);
+      break;
+    }
+    case FLOAT: {
+      float lhs = left.evalAsFloat(tuple);
+      if (left.isNull) {
+        return UNKNOWN;
+      }
+      float rhs = right.evalAsFloat(tuple);
+      if (right.isNull) {
+        return UNKNOWN;
+      }
+      equal = lhs == rhs;
+      cmp = lhs < rhs ? -1 : (lhs > rhs ? 1 : 0);
+      break;
+    }
+    default: {
+      double lhs = left.evalAsDouble(tuple);
+      if (left.isNull) {
+        return UNKNOWN;
+      }
+      double rhs = right.evalAsDouble(tuple);
+      if (right.isNull) {
+        return UNKNOWN;
+      }
+      equal = lhs == rhs;
+      cmp = lhs < rhs ? -1 : (lhs > rhs ? 1 : 0);
+    }
+    }
+
+    boolean result;
+    switch (op) {
+    case EQUAL: result = equal; break;
+    case NOT_EQUAL: result = cmp != 0; break;
+    case LTH: result = cmp < 0; break;
+    case LEQ: result = cmp <= 0; break;
+    case GTH: result = cmp > 0; break;
+    case GEQ: result = cmp >= 0; break;
+    default:
+      throw new IllegalStateException("Not a comparison operator: " + op);
+    }
+    return result ? TRUE : FALSE;
+  }
+}
@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.eval.compile;
+
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * An eval tree compiled by {@link EvalCompiler}. It is bound to the input schema given at compile time.
+ *
+ * A compiled eval keeps intermediate states, so an instance must not be shared by multiple threads.
+ */
+public class CompiledEval {
+  private final PrimitiveExpr root;
+
+  CompiledEval(PrimitiveExpr root) {
+    this.root = root;
+  }
+
+  /**
+   * It is equivalent to {@link org.apache.tajo.engine.eval.EvalNode#eval}.
+   */
+  public Datum eval(Tuple tuple) {
+    return root.evalDatum(tuple);
+  }
+
+  /**
+   * It is equivalent to <code>eval(tuple).isTrue()</code>, but it does not create any datum if the root is
+   * a compiled predicate.
+   */
+  public boolean isTrue(Tuple tuple) {
+    if (root.kind == PrimitiveExpr.Kind.BOOL) {
+      return root.evalBool(tuple) == PrimitiveExpr.TRUE;
+    } else {
+      return root.evalDatum(tuple).isTrue();
+    }
+  }
+
+  /**
+   * @return true if the root of the eval tree is compiled. Otherwise, the whole tree is interpreted.
+   */
+  public boolean isCompiled() {
+    return !(root instanceof InterpretedExpr);
+  }
+
+  /**
+   * @return true if the eval tree is generated into bytecode
+   */
+  boolean isGenerated() {
+    return root instanceof GeneratedExpr;
+  }
+
+  /**
+   * @return the generated class evaluating the tree, or null if it is not generated
+   */
+  Class<?> getGeneratedClass() {
+    return isGenerated() ? ((GeneratedExpr) root).getCodeClass() : null;
+  }
+}
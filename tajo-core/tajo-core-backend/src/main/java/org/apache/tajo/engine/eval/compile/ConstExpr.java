@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.eval.compile;
+
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * A constant value. Its primitive value is unboxed once at compile time.
+ */
+class ConstExpr extends PrimitiveExpr {
+  private final Datum value;
+  final long longValue;
+  final double doubleValue;
+  final int boolValue;
+
+  ConstExpr(Datum value) {
+    super(value.isNull() ? Kind.DATUM : kindOf(value.type()), value.type());
+    this.value = value;
+    this.isNull = value.isNull();
+    this.longValue = kind == Kind.LONG ? value.asInt8() : 0;
+    this.doubleValue = kind == Kind.DOUBLE ? value.asFloat8() : 0;
+    this.boolValue = kind == Kind.BOOL ? (value.asBool() ? TRUE : FALSE) : UNKNOWN;
+  }
+
+  @Override
+  long evalLong(Tuple tuple) {
+    return longValue;
+  }
+
+  @Override
+  double evalDouble(Tuple tuple) {
+    return doubleValue;
+  }
+
+  @Override
+  int evalBool(Tuple tuple) {
+    return boolValue;
+  }
+
+  @Override
+  Datum evalDatum(Tuple tuple) {
+    return value;
+  }
+}
@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.eval.compile;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.engine.eval.EvalType;
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * A comparison between non-numeric operands, such as texts or dates. It delegates to the comparison methods of
+ * {@link Datum} in order to keep their semantics.
+ */
+class DatumComparisonExpr extends PrimitiveExpr {
+  private final EvalType op;
+  private final PrimitiveExpr left;
+  private final PrimitiveExpr right;
+
+  DatumComparisonExpr(EvalType op, PrimitiveExpr left, PrimitiveExpr right) {
+    super(Kind.BOOL, Type.BOOLEAN);
+    this.op = op;
+    this.left = left;
+    this.right = right;
+  }
+
+  @Override
+  int evalBool(Tuple tuple) {
+    Datum lhs = left.evalDatum(tuple);
+    Datum rhs = right.evalDatum(tuple);
+
+    Datum result;
+    switch (op) {
+    case EQUAL: result = lhs.equalsTo(rhs); break;
+    case NOT_EQUAL: result = lhs.notEqualsTo(rhs); break;
+    case LTH: result = lhs.lessThan(rhs); break;
+    case LEQ: result = lhs.lessThanEqual(rhs); break;
+    case GTH: result = lhs.greaterThan(rhs); break;
+    case GEQ: result = lhs.greaterThanEqual(rhs); break;
+    default:
+      throw new IllegalStateException("Not a comparison operator: " + op);
+    }
+    return result.isNull() ? UNKNOWN : (result.asBool() ? TRUE : FALSE);
+  }
+}
@@ -0,0 +1,657 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.eval.compile;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * It generates the bytecode of a compiled eval tree with ASM. The whole tree becomes the body of one method of a
+ * {@link GeneratedEval} subclass, so operators are inlined and evaluating the tree involves no virtual call per
+ * node. Intermediate values are kept in local variables, and a null operand jumps to the null result directly.
+ *
+ * Fields, constants, arithmetic operators, numeric comparisons, AND, OR, NOT and IS NULL are generated. Any other
+ * node, e.g., a datum comparison or an interpreted subtree, is called as it is through {@link GeneratedEval}.
+ * If a class cannot be generated, the tree of evaluator objects is used instead.
+ *
+ * Every operator of every task compiles its eval trees, so generated classes are cached. The bytecode of a tree
+ * encodes everything the tree depends on, i.e., column ids and types of the input schema, constants and operators,
+ * so the bytecode itself is the key of the cache. Nodes which are not generated are not part of the bytecode; they
+ * are given to each instance.
+ */
+class EvalCodeGenerator implements Opcodes {
+  private static final Log LOG = LogFactory.getLog(EvalCodeGenerator.class);
+
+  private static final String BASE_CLASS = "org/apache/tajo/engine/eval/compile/GeneratedEval";
+  private static final String TUPLE = "org/apache/tajo/storage/Tuple";
+  private static final String DATUM = "org/apache/tajo/datum/Datum";
+  // Each class has its own class loader, so all generated classes can have the same name.
+  private static final String CLASS_NAME = BASE_CLASS + "Impl";
+  private static final int MAX_CACHED_CLASS_NUM = 1024;
+
+  /** generated classes in the LRU order, keyed by their bytecode */
+  private static final Map<Bytecode, Class<?>> classCache =
+      new LinkedHashMap<Bytecode, Class<?>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Bytecode, Class<?>> eldest) {
+          return size() > MAX_CACHED_CLASS_NUM;
+        }
+      };
+
+  private final List<PrimitiveExpr> opaqueExprs = new ArrayList<PrimitiveExpr>();
+  private MethodVisitor mv;
+  // 0 is this, and 1 is the tuple.
+  private int nextLocal = 2;
+
+  private EvalCodeGenerator() {
+  }
+
+  /**
+   * It generates the bytecode of a compiled eval tree.
+   *
+   * @return the generated root, or the given root if it is not worth or not possible to be generated
+   */
+  static PrimitiveExpr generate(PrimitiveExpr root) {
+    if (root.kind == PrimitiveExpr.Kind.DATUM || !isOperator(root)) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("No bytecode is generated for " + root.getClass().getSimpleName());
+      }
+      return root;
+    }
+
+    try {
+      return new EvalCodeGenerator().generateClass(root);
+    } catch (Exception e) {
+      LOG.warn("Cannot generate the bytecode of an eval tree, so it is evaluated without code generation", e);
+    } catch (LinkageError e) {
+      LOG.warn("Cannot generate the bytecode of an eval tree, so it is evaluated without code generation", e);
+    }
+    return root;
+  }
+
+  private static boolean isOperator(PrimitiveExpr expr) {
+    return expr instanceof ArithmeticExpr || expr instanceof ComparisonExpr || expr instanceof AndExpr ||
+        expr instanceof OrExpr || expr instanceof NotExpr || expr instanceof IsNullExpr;
+  }
+
+  private GeneratedExpr generateClass(PrimitiveExpr root) throws Exception {
+    Bytecode bytecode = new Bytecode(generateBytecode(root));
+    Class<?> clazz;
+    synchronized (classCache) {
+      clazz = classCache.get(bytecode);
+    }
+    if (clazz == null) {
+      clazz = new GeneratedClassLoader(EvalCodeGenerator.class.getClassLoader())
+          .define(CLASS_NAME.replace('/', '.'), bytecode.bytes);
+      synchronized (classCache) {
+        // another thread may have defined the same class in the meantime.
+        Class<?> cached = classCache.get(bytecode);
+        if (cached == null) {
+          classCache.put(bytecode, clazz);
+        } else {
+          clazz = cached;
+        }
+      }
+    }
+
+    GeneratedEval code = (GeneratedEval) clazz.newInstance();
+    code.setOpaqueExprs(opaqueExprs.toArray(new PrimitiveExpr[opaqueExprs.size()]));
+    return new GeneratedExpr(root, code);
+  }
+
+  static int getCachedClassNum() {
+    synchronized (classCache) {
+      return classCache.size();
+    }
+  }
+
+  private byte [] generateBytecode(PrimitiveExpr root) {
+    ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    // no stack map frames are needed for this version.
+    cw.visit(V1_5, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, CLASS_NAME, null, BASE_CLASS, null);
+
+    MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+    init.visitCode();
+    init.visitVarInsn(ALOAD, 0);
+    init.visitMethodInsn(INVOKESPECIAL, BASE_CLASS, "<init>", "()V");
+    init.visitInsn(RETURN);
+    init.visitMaxs(0, 0);
+    init.visitEnd();
+
+    switch (root.kind) {
+    case LONG: {
+      mv = cw.visitMethod(ACC_PUBLIC, "evalLong", "(L" + TUPLE + ";)J", null, null);
+      mv.visitCode();
+      Label nullLabel = new Label();
+      genLong(root, nullLabel);
+      int value = newLocal(2);
+      mv.visitVarInsn(LSTORE, value);
+      setIsNull(false);
+      mv.visitVarInsn(LLOAD, value);
+      mv.visitInsn(LRETURN);
+      mv.visitLabel(nullLabel);
+      setIsNull(true);
+      mv.visitInsn(LCONST_0);
+      mv.visitInsn(LRETURN);
+      break;
+    }
+    case DOUBLE: {
+      mv = cw.visitMethod(ACC_PUBLIC, "evalDouble", "(L" + TUPLE + ";)D", null, null);
+      mv.visitCode();
+      Label nullLabel = new Label();
+      genDouble(root, nullLabel);
+      int value = newLocal(2);
+      mv.visitVarInsn(DSTORE, value);
+      setIsNull(false);
+      mv.visitVarInsn(DLOAD, value);
+      mv.visitInsn(DRETURN);
+      mv.visitLabel(nullLabel);
+      setIsNull(true);
+      mv.visitInsn(DCONST_0);
+      mv.visitInsn(DRETURN);
+      break;
+    }
+    default:
+      mv = cw.visitMethod(ACC_PUBLIC, "evalBool", "(L" + TUPLE + ";)I", null, null);
+      mv.visitCode();
+      genBool(root);
+      mv.visitInsn(IRETURN);
+    }
+    mv.visitMaxs(0, 0);
+    mv.visitEnd();
+    cw.visitEnd();
+    return cw.toByteArray();
+  }
+
+  private int newLocal(int size) {
+    int local = nextLocal;
+    nextLocal += size;
+    return local;
+  }
+
+  private void setIsNull(boolean isNull) {
+    mv.visitVarInsn(ALOAD, 0);
+    mv.visitInsn(isNull ? ICONST_1 : ICONST_0);
+    mv.visitFieldInsn(PUTFIELD, BASE_CLASS, "isNull", "Z");
+  }
+
+  private void pushInt(int value) {
+    if (value >= -1 && value <= 5) {
+      mv.visitInsn(ICONST_0 + value);
+    } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+      mv.visitIntInsn(BIPUSH, value);
+    } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+      mv.visitIntInsn(SIPUSH, value);
+    } else {
+      mv.visitLdcInsn(value);
+    }
+  }
+
+  /**
+   * It jumps to <code>nullLabel</code> if the value of a column is null. It is equivalent to
+   * {@link ColumnExpr#isNull}, so an unset field is null as well.
+   */
+  private void genColumnNullCheck(ColumnExpr column, Label nullLabel) {
+    mv.visitVarInsn(ALOAD, 1);
+    pushInt(column.columnId);
+    mv.visitMethodInsn(INVOKEINTERFACE, TUPLE, "get", "(I)L" + DATUM + ";");
+    mv.visitJumpInsn(IFNULL, nullLabel);
+    mv.visitVarInsn(ALOAD, 1);
+    pushInt(column.columnId);
+    mv.visitMethodInsn(INVOKEINTERFACE, TUPLE, "isNull", "(I)Z");
+    mv.visitJumpInsn(IFNE, nullLabel);
+  }
+
+  private int addOpaque(PrimitiveExpr expr) {
+    opaqueExprs.add(expr);
+    return opaqueExprs.size() - 1;
+  }
+
+  /**
+   * It calls an evaluation method of a node which is not generated.
+   */
+  private void genOpaqueCall(int idx, String method, String returnType) {
+    mv.visitVarInsn(ALOAD, 0);
+    pushInt(idx);
+    mv.visitVarInsn(ALOAD, 1);
+    mv.visitMethodInsn(INVOKEVIRTUAL, BASE_CLASS, method, "(IL" + TUPLE + ";)" + returnType);
+  }
+
+  private void genOpaqueNullCheck(int idx, Label nullLabel) {
+    mv.visitVarInsn(ALOAD, 0);
+    pushInt(idx);
+    mv.visitMethodInsn(INVOKEVIRTUAL, BASE_CLASS, "isOpaqueNull", "(I)Z");
+    mv.visitJumpInsn(IFNE, nullLabel);
+  }
+
+  /**
+   * It pushes the long value of a node, or it jumps to <code>nullLabel</code> with an empty stack if the value is
+   * null. Like the other generating methods, it must be called with an empty operand stack.
+   */
+  private void genLong(PrimitiveExpr expr, Label nullLabel) {
+    if (expr instanceof ColumnExpr) {
+      ColumnExpr column = (ColumnExpr) expr;
+      genColumnNullCheck(column, nullLabel);
+      mv.visitVarInsn(ALOAD, 1);
+      pushInt(column.columnId);
+      mv.visitMethodInsn(INVOKEINTERFACE, TUPLE, "getInt8", "(I)J");
+
+    } else if (expr instanceof ConstExpr) {
+      mv.visitLdcInsn(((ConstExpr) expr).longValue);
+
+    } else if (expr instanceof ArithmeticExpr) {
+      ArithmeticExpr arithmetic = (ArithmeticExpr) expr;
+      genLong(arithmetic.left, nullLabel);
+      int lhs = newLocal(2);
+      mv.visitVarInsn(LSTORE, lhs);
+      genLong(arithmetic.right, nullLabel);
+      int rhs = newLocal(2);
+      mv.visitVarInsn(LSTORE, rhs);
+
+      mv.visitVarInsn(LLOAD, lhs);
+      mv.visitVarInsn(LLOAD, rhs);
+      switch (arithmetic.op) {
+      case PLUS: mv.visitInsn(LADD); break;
+      case MINUS: mv.visitInsn(LSUB); break;
+      case MULTIPLY: mv.visitInsn(LMUL); break;
+      case DIVIDE: mv.visitInsn(LDIV); break;
+      case MODULAR: mv.visitInsn(LREM); break;
+      default:
+        throw new IllegalStateException("Not an arithmetic operator: " + arithmetic.op);
+      }
+      if (arithmetic.type == Type.INT4) {
+        // it wraps around like Int4Datum.
+        mv.visitInsn(L2I);
+        mv.visitInsn(I2L);
+      }
+
+    } else {
+      int idx = addOpaque(expr);
+      genOpaqueCall(idx, "evalOpaqueLong", "J");
+      int value = newLocal(2);
+      mv.visitVarInsn(LSTORE, value);
+      genOpaqueNullCheck(idx, nullLabel);
+      mv.visitVarInsn(LLOAD, value);
+    }
+  }
+
+  /**
+   * It pushes the double value of a node, or it jumps to <code>nullLabel</code> if the value is null.
+   */
+  private void genDouble(PrimitiveExpr expr, Label nullLabel) {
+    if (expr instanceof ColumnExpr) {
+      ColumnExpr column = (ColumnExpr) expr;
+      genColumnNullCheck(column, nullLabel);
+      mv.visitVarInsn(ALOAD, 1);
+      pushInt(column.columnId);
+      mv.visitMethodInsn(INVOKEINTERFACE, TUPLE, "getFloat8", "(I)D");
+
+    } else if (expr instanceof ConstExpr) {
+      mv.visitLdcInsn(((ConstExpr) expr).doubleValue);
+
+    } else if (expr instanceof ArithmeticExpr) {
+      ArithmeticExpr arithmetic = (ArithmeticExpr) expr;
+      genAsDouble(arithmetic.left, nullLabel);
+      int lhs = newLocal(2);
+      mv.visitVarInsn(DSTORE, lhs);
+      genAsDouble(arithmetic.right, nullLabel);
+      int rhs = newLocal(2);
+      mv.visitVarInsn(DSTORE, rhs);
+
+      mv.visitVarInsn(DLOAD, lhs);
+      mv.visitVarInsn(DLOAD, rhs);
+      switch (arithmetic.op) {
+      case PLUS: mv.visitInsn(DADD); break;
+      case MINUS: mv.visitInsn(DSUB); break;
+      case MULTIPLY: mv.visitInsn(DMUL); break;
+      case DIVIDE: mv.visitInsn(DDIV); break;
+      case MODULAR: mv.visitInsn(DREM); break;
+      default:
+        throw new IllegalStateException("Not an arithmetic operator: " + arithmetic.op);
+      }
+
+    } else {
+      int idx = addOpaque(expr);
+      genOpaqueCall(idx, "evalOpaqueDouble", "D");
+      int value = newLocal(2);
+      mv.visitVarInsn(DSTORE, value);
+      genOpaqueNullCheck(idx, nullLabel);
+      mv.visitVarInsn(DLOAD, value);
+    }
+  }
+
+  /**
+   * It is equivalent to {@link PrimitiveExpr#evalAsDouble}.
+   */
+  private void genAsDouble(PrimitiveExpr expr, Label nullLabel) {
+    if (expr.kind == PrimitiveExpr.Kind.LONG) {
+      genLong(expr, nullLabel);
+      mv.visitInsn(L2D);
+    } else {
+      genDouble(expr, nullLabel);
+    }
+  }
+
+  /**
+   * It is equivalent to {@link PrimitiveExpr#evalAsFloat}.
+   */
+  private void genAsFloat(PrimitiveExpr expr, Label nullLabel) {
+    if (expr.kind == PrimitiveExpr.Kind.LONG) {
+      genLong(expr, nullLabel);
+      mv.visitInsn(L2F);
+    } else {
+      genDouble(expr, nullLabel);
+      mv.visitInsn(D2F);
+    }
+  }
+
+  /**
+   * It pushes the three-valued result of a node, which is one of {@link PrimitiveExpr#TRUE},
+   * {@link PrimitiveExpr#FALSE} and {@link PrimitiveExpr#UNKNOWN}.
+   */
+  private void genBool(PrimitiveExpr expr) {
+    Label end = new Label();
+
+    if (expr instanceof ColumnExpr) {
+      Label unknown = new Label();
+      ColumnExpr column = (ColumnExpr) expr;
+      genColumnNullCheck(column, unknown);
+      mv.visitVarInsn(ALOAD, 1);
+      pushInt(column.columnId);
+      // TRUE and FALSE are the same as the values of boolean.
+      mv.visitMethodInsn(INVOKEINTERFACE, TUPLE, "getBool", "(I)Z");
+      mv.visitJumpInsn(GOTO, end);
+      mv.visitLabel(unknown);
+      pushInt(PrimitiveExpr.UNKNOWN);
+
+    } else if (expr instanceof ConstExpr) {
+      pushInt(((ConstExpr) expr).boolValue);
+
+    } else if (expr instanceof ComparisonExpr) {
+      genComparison((ComparisonExpr) expr, end);
+
+    } else if (expr instanceof AndExpr) {
+      AndExpr and = (AndExpr) expr;
+      Label falseLabel = new Label();
+      Label unknown = new Label();
+      int lhs = genBoolToLocal(and.left);
+      mv.visitVarInsn(ILOAD, lhs);
+      mv.visitJumpInsn(IFEQ, falseLabel);
+      int rhs = genBoolToLocal(and.right);
+      mv.visitVarInsn(ILOAD, rhs);
+      mv.visitJumpInsn(IFEQ, falseLabel);
+      genJumpIfNotTrue(lhs, unknown);
+      genJumpIfNotTrue(rhs, unknown);
+      pushInt(PrimitiveExpr.TRUE);
+      mv.visitJumpInsn(GOTO, end);
+      mv.visitLabel(unknown);
+      pushInt(PrimitiveExpr.UNKNOWN);
+      mv.visitJumpInsn(GOTO, end);
+      mv.visitLabel(falseLabel);
+      pushInt(PrimitiveExpr.FALSE);
+
+    } else if (expr instanceof OrExpr) {
+      OrExpr or = (OrExpr) expr;
+      Label trueLabel = new Label();
+      Label unknown = new Label();
+      int lhs = genBoolToLocal(or.left);
+      genJumpIfTrue(lhs, trueLabel);
+      int rhs = genBoolToLocal(or.right);
+      genJumpIfTrue(rhs, trueLabel);
+      mv.visitVarInsn(ILOAD, lhs);
+      mv.visitJumpInsn(IFNE, unknown);
+      mv.visitVarInsn(ILOAD, rhs);
+      mv.visitJumpInsn(IFNE, unknown);
+      pushInt(PrimitiveExpr.FALSE);
+      mv.visitJumpInsn(GOTO, end);
+      mv.visitLabel(unknown);
+      pushInt(PrimitiveExpr.UNKNOWN);
+      mv.visitJumpInsn(GOTO, end);
+      mv.visitLabel(trueLabel);
+      pushInt(PrimitiveExpr.TRUE);
+
+    } else if (expr instanceof NotExpr) {
+      Label unknown = new Label();
+      int value = genBoolToLocal(((NotExpr) expr).child);
+      mv.visitVarInsn(ILOAD, value);
+      pushInt(PrimitiveExpr.UNKNOWN);
+      mv.visitJumpInsn(IF_ICMPEQ, unknown);
+      // TRUE - value swaps TRUE and FALSE.
+      pushInt(PrimitiveExpr.TRUE);
+      mv.visitVarInsn(ILOAD, value);
+      mv.visitInsn(ISUB);
+      mv.visitJumpInsn(GOTO, end);
+      mv.visitLabel(unknown);
+      pushInt(PrimitiveExpr.UNKNOWN);
+
+    } else if (expr instanceof IsNullExpr) {
+      genIsNull((IsNullExpr) expr, end);
+
+    } else {
+      genOpaqueCall(addOpaque(expr), "evalOpaqueBool", "I");
+    }
+
+    mv.visitLabel(end);
+  }
+
+  private int genBoolToLocal(PrimitiveExpr expr) {
+    genBool(expr);
+    int local = newLocal(1);
+    mv.visitVarInsn(ISTORE, local);
+    return local;
+  }
+
+  private void genJumpIfTrue(int local, Label label) {
+    mv.visitVarInsn(ILOAD, local);
+    pushInt(PrimitiveExpr.TRUE);
+    mv.visitJumpInsn(IF_ICMPEQ, label);
+  }
+
+  private void genJumpIfNotTrue(int local, Label label) {
+    mv.visitVarInsn(ILOAD, local);
+    pushInt(PrimitiveExpr.TRUE);
+    mv.visitJumpInsn(IF_ICMPNE, label);
+  }
+
+  /**
+   * It is equivalent to {@link ComparisonExpr#evalBool}. Equality uses ==, and the other operators follow
+   * the sign of compareTo(), which regards NaN as equal to any value. So, the NaN result of FCMPx and DCMPx is
+   * chosen to make such comparisons true or false accordingly.
+   */
+  private void genComparison(ComparisonExpr comparison, Label end) {
+    Label unknown = new Label();
+    int loadOp;
+    int lhs;
+    int rhs;
+
+    switch (comparison.domain) {
+    case LONG:
+      genLong(comparison.left, unknown);
+      lhs = newLocal(2);
+      mv.visitVarInsn(LSTORE, lhs);
+      genLong(comparison.right, unknown);
+      rhs = newLocal(2);
+      mv.visitVarInsn(LSTORE, rhs);
+      loadOp = LLOAD;
+      break;
+    case FLOAT:
+      genAsFloat(comparison.left, unknown);
+      lhs = newLocal(1);
+      mv.visitVarInsn(FSTORE, lhs);
+      genAsFloat(comparison.right, unknown);
+      rhs = newLocal(1);
+      mv.visitVarInsn(FSTORE, rhs);
+      loadOp = FLOAD;
+      break;
+    default:
+      genAsDouble(comparison.left, unknown);
+      lhs = newLocal(2);
+      mv.visitVarInsn(DSTORE, lhs);
+      genAsDouble(comparison.right, unknown);
+      rhs = newLocal(2);
+      mv.visitVarInsn(DSTORE, rhs);
+      loadOp = DLOAD;
+    }
+
+    // a comparison instruction which returns 1 or -1 for NaN
+    int cmpNaNGreater;
+    int cmpNaNLess;
+    switch (comparison.domain) {
+    case LONG:
+      cmpNaNGreater = LCMP;
+      cmpNaNLess = LCMP;
+      break;
+    case FLOAT:
+      cmpNaNGreater = FCMPG;
+      cmpNaNLess = FCMPL;
+      break;
+    default:
+      cmpNaNGreater = DCMPG;
+      cmpNaNLess = DCMPL;
+    }
+
+    Label trueLabel = new Label();
+    Label falseLabel = new Label();
+    mv.visitVarInsn(loadOp, lhs);
+    mv.visitVarInsn(loadOp, rhs);
+    switch (comparison.op) {
+    case EQUAL:
+      mv.visitInsn(cmpNaNLess);
+      mv.visitJumpInsn(IFNE, falseLabel);
+      break;
+    case NOT_EQUAL:
+      // lhs < rhs || lhs > rhs
+      mv.visitInsn(cmpNaNGreater);
+      mv.visitJumpInsn(IFLT, trueLabel);
+      mv.visitVarInsn(loadOp, lhs);
+      mv.visitVarInsn(loadOp, rhs);
+      mv.visitInsn(cmpNaNLess);
+      mv.visitJumpInsn(IFLE, falseLabel);
+      break;
+    case LTH:
+      mv.visitInsn(cmpNaNGreater);
+      mv.visitJumpInsn(IFGE, falseLabel);
+      break;
+    case LEQ:
+      mv.visitInsn(cmpNaNLess);
+      mv.visitJumpInsn(IFGT, falseLabel);
+      break;
+    case GTH:
+      mv.visitInsn(cmpNaNLess);
+      mv.visitJumpInsn(IFLE, falseLabel);
+      break;
+    case GEQ:
+      mv.visitInsn(cmpNaNGreater);
+      mv.visitJumpInsn(IFLT, falseLabel);
+      break;
+    default:
+      throw new IllegalStateException("Not a comparison operator: " + comparison.op);
+    }
+
+    mv.visitLabel(trueLabel);
+    pushInt(PrimitiveExpr.TRUE);
+    mv.visitJumpInsn(GOTO, end);
+    mv.visitLabel(falseLabel);
+    pushInt(PrimitiveExpr.FALSE);
+    mv.visitJumpInsn(GOTO, end);
+    mv.visitLabel(unknown);
+    pushInt(PrimitiveExpr.UNKNOWN);
+  }
+
+  /**
+   * It is equivalent to {@link IsNullExpr#evalBool}, which is never unknown.
+   */
+  private void genIsNull(IsNullExpr isNullExpr, Label end) {
+    int notNullResult = isNullExpr.isNot ? PrimitiveExpr.TRUE : PrimitiveExpr.FALSE;
+    int nullResult = isNullExpr.isNot ? PrimitiveExpr.FALSE : PrimitiveExpr.TRUE;
+    PrimitiveExpr child = isNullExpr.child;
+    Label nullLabel = new Label();
+
+    switch (child.kind) {
+    case LONG:
+      genLong(child, nullLabel);
+      mv.visitInsn(POP2);
+      break;
+    case DOUBLE:
+      genDouble(child, nullLabel);
+      mv.visitInsn(POP2);
+      break;
+    case BOOL:
+      genBool(child);
+      pushInt(PrimitiveExpr.UNKNOWN);
+      mv.visitJumpInsn(IF_ICMPEQ, nullLabel);
+      break;
+    default:
+      genOpaqueCall(addOpaque(child), "evalOpaqueIsNull", "Z");
+      mv.visitJumpInsn(IFNE, nullLabel);
+    }
+
+    pushInt(notNullResult);
+    mv.visitJumpInsn(GOTO, end);
+    mv.visitLabel(nullLabel);
+    pushInt(nullResult);
+  }
+
+  /**
+   * The key of a generated class in the cache
+   */
+  private static class Bytecode {
+    private final byte [] bytes;
+    private final int hashCode;
+
+    Bytecode(byte [] bytes) {
+      this.bytes = bytes;
+      this.hashCode = Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof Bytecode && Arrays.equals(bytes, ((Bytecode) obj).bytes);
+    }
+  }
+
+  /**
+   * A class loader for one generated class. A generated class can be unloaded once it is evicted from the cache and is no longer used.
+   */
+  private static class GeneratedClassLoader extends ClassLoader {
+    GeneratedClassLoader(ClassLoader parent) {
+      super(parent);
+    }
+
+    Class<?> define(String name, byte [] bytecode) {
+      return defineClass(name, bytecode, 0, bytecode.length);
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.eval.compile;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.engine.eval.*;
+import org.apache.tajo.engine.planner.Target;
+
+/**
+ * It compiles an eval tree into a tree of {@link PrimitiveExpr}, whose nodes are specialized to their operand types
+ * and pass primitive values to each other instead of datums. Column values are read through the primitive getters
+ * of {@link org.apache.tajo.storage.Tuple}, and column ids are resolved once at compile time.
+ *
+ * Fields, constants, arithmetic operators over INT4, INT8 and FLOAT8, comparisons, AND, OR, NOT and IS NULL are
+ * compiled. Any other subtree is kept as it is and evaluated by the interpreter, so every eval tree can be compiled.
+ * A compiled eval tree returns the same results as the interpreter.
+ *
+ * Finally, {@link EvalCodeGenerator} generates the bytecode of the compiled tree, so the operators are inlined into
+ * a single method. If it fails, the tree of evaluator objects is used as it is.
+ */
+public class EvalCompiler {
+  private static final Log LOG = LogFactory.getLog(EvalCompiler.class);
+
+  /**
+   * @param schema the input schema of the tuples to be evaluated
+   * @param eval an eval tree
+   * @return a compiled eval, or null if eval is null
+   */
+  public static CompiledEval compile(Schema schema, EvalNode eval) {
+    if (eval == null) {
+      return null;
+    }
+    return new CompiledEval(EvalCodeGenerator.generate(translate(schema, eval)));
+  }
+
+  public static CompiledEval [] compile(Schema schema, Target [] targets) {
+    CompiledEval [] evals = new CompiledEval[targets.length];
+    for (int i = 0; i < targets.length; i++) {
+      evals[i] = compile(schema, targets[i].getEvalTree());
+    }
+    return evals;
+  }
+
+  private static PrimitiveExpr translate(Schema schema, EvalNode eval) {
+    switch (eval.getType()) {
+    case FIELD: {
+      if (schema == null || !(eval instanceof FieldEval)) {
+        break;
+      }
+      FieldEval field = (FieldEval) eval;
+      int columnId = schema.getColumnId(field.getColumnRef().getQualifiedName());
+      if (columnId < 0) {
+        break;
+      }
+      return new ColumnExpr(field.getValueType().getType(), columnId);
+    }
+
+    case CONST:
+      if (eval instanceof ConstEval) {
+        return new ConstExpr(((ConstEval) eval).getValue());
+      }
+      break;
+
+    case PLUS:
+    case MINUS:
+    case MULTIPLY:
+    case DIVIDE:
+    case MODULAR: {
+      PrimitiveExpr left = translate(schema, eval.getLeftExpr());
+      PrimitiveExpr right = translate(schema, eval.getRightExpr());
+      if (isArithmeticOperand(left) && isArithmeticOperand(right)) {
+        return new ArithmeticExpr(eval.getType(), ArithmeticExpr.resultType(left.type, right.type), left, right);
+      }
+      break;
+    }
+
+    case EQUAL:
+    case NOT_EQUAL:
+    case LTH:
+    case LEQ:
+    case GTH:
+    case GEQ: {
+      PrimitiveExpr left = translate(schema, eval.getLeftExpr());
+      PrimitiveExpr right = translate(schema, eval.getRightExpr());
+      if (isNumeric(left) && isNumeric(right)) {
+        return new ComparisonExpr(eval.getType(), left, right);
+      } else {
+        return new DatumComparisonExpr(eval.getType(), left, right);
+      }
+    }
+
+    case AND:
+    case OR: {
+      PrimitiveExpr left = translate(schema, eval.getLeftExpr());
+      PrimitiveExpr right = translate(schema, eval.getRightExpr());
+      if (left.kind == PrimitiveExpr.Kind.BOOL && right.kind == PrimitiveExpr.Kind.BOOL) {
+        return eval.getType() == EvalType.AND ? new AndExpr(left, right) : new OrExpr(left, right);
+      }
+      break;
+    }
+
+    case NOT: {
+      if (!(eval instanceof NotEval)) {
+        break;
+      }
+      PrimitiveExpr child = translate(schema, ((NotEval) eval).getChild());
+      if (child.kind == PrimitiveExpr.Kind.BOOL) {
+        return new NotExpr(child);
+      }
+      break;
+    }
+
+    case IS_NULL: {
+      if (!(eval instanceof IsNullEval)) {
+        break;
+      }
+      IsNullEval isNullEval = (IsNullEval) eval;
+      return new IsNullExpr(translate(schema, isNullEval.getLeftExpr()), isNullEval.isNot());
+    }
+
+    default:
+      break;
+    }
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Not compiled, so interpreted: " + eval);
+    }
+    return new InterpretedExpr(schema, eval);
+  }
+
+  private static boolean isNumeric(PrimitiveExpr expr) {
+    return expr.kind == PrimitiveExpr.Kind.LONG || expr.kind == PrimitiveExpr.Kind.DOUBLE;
+  }
+
+  /**
+   * INT2 and FLOAT4 operands are excluded because their datum arithmetic does not always follow the numeric
+   * promotion, e.g., INT2 + INT2 is INT2 and FLOAT4 + INT4 is computed in float.
+   */
+  private static boolean isArithmeticOperand(PrimitiveExpr expr) {
+    return expr.type == Type.INT4 || expr.type == Type.INT8 || expr.type == Type.FLOAT8;
+  }
+}
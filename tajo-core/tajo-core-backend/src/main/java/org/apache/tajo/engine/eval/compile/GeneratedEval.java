@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.eval.compile;
+
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * The base class of the evaluators generated by {@link EvalCodeGenerator}. A generated class overrides one of the
+ * evaluation methods according to the kind of the compiled tree.
+ *
+ * Generated classes are defined by their own class loaders, so this class and the members used by them must be
+ * public or protected. Nodes which are not generated into bytecode are called through the protected methods.
+ */
+public abstract class GeneratedEval {
+  /** whether the last result of {@link #evalLong(Tuple)} or {@link #evalDouble(Tuple)} is null */
+  protected boolean isNull;
+  private PrimitiveExpr [] opaqueExprs;
+
+  protected GeneratedEval() {
+  }
+
+  void setOpaqueExprs(PrimitiveExpr [] opaqueExprs) {
+    this.opaqueExprs = opaqueExprs;
+  }
+
+  public long evalLong(Tuple tuple) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be evaluated as long");
+  }
+
+  public double evalDouble(Tuple tuple) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be evaluated as double");
+  }
+
+  public int evalBool(Tuple tuple) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " cannot be evaluated as boolean");
+  }
+
+  public final boolean wasNull() {
+    return isNull;
+  }
+
+  protected final long evalOpaqueLong(int idx, Tuple tuple) {
+    return opaqueExprs[idx].evalLong(tuple);
+  }
+
+  protected final double evalOpaqueDouble(int idx, Tuple tuple) {
+    return opaqueExprs[idx].evalDouble(tuple);
+  }
+
+  protected final int evalOpaqueBool(int idx, Tuple tuple) {
+    return opaqueExprs[idx].evalBool(tuple);
+  }
+
+  protected final boolean evalOpaqueIsNull(int idx, Tuple tuple) {
+    return opaqueExprs[idx].evalIsNull(tuple);
+  }
+
+  /**
+   * @return true if the last result of {@link #evalOpaqueLong} or {@link #evalOpaqueDouble} is null
+   */
+  protected final boolean isOpaqueNull(int idx) {
+    return opaqueExprs[idx].isNull;
+  }
+}
@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.eval.compile;
+
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * The root of a compiled eval tree which is generated into bytecode. It delegates to the generated evaluator, so
+ * evaluating the whole tree takes a single virtual call.
+ */
+class GeneratedExpr extends PrimitiveExpr {
+  private final GeneratedEval code;
+
+  GeneratedExpr(PrimitiveExpr root, GeneratedEval code) {
+    super(root.kind, root.type);
+    this.code = code;
+  }
+
+  Class<?> getCodeClass() {
+    return code.getClass();
+  }
+
+  @Override
+  long evalLong(Tuple tuple) {
+    long value = code.evalLong(tuple);
+    isNull = code.wasNull();
+    return value;
+  }
+
+  @Override
+  double evalDouble(Tuple tuple) {
+    double value = code.evalDouble(tuple);
+    isNull = code.wasNull();
+    return value;
+  }
+
+  @Override
+  int evalBool(Tuple tuple) {
+    return code.evalBool(tuple);
+  }
+}
@@ -0,0 +1,58 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.eval.compile;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.engine.eval.EvalNode;
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * A subtree which cannot be compiled. It is evaluated by the eval tree interpreter.
+ *
+ * The actual datum type of an interpreted subtree may be different from its declared value type, so it only serves
+ * as a datum, except that a boolean subtree can be evaluated by {@link #evalBool(Tuple)}.
+ */
+class InterpretedExpr extends PrimitiveExpr {
+  private final Schema schema;
+  private final EvalNode eval;
+
+  InterpretedExpr(Schema schema, EvalNode eval) {
+    super(valueTypeOf(eval) == Type.BOOLEAN ? Kind.BOOL : Kind.DATUM, valueTypeOf(eval));
+    this.schema = schema;
+    this.eval = eval;
+  }
+
+  private static Type valueTypeOf(EvalNode eval) {
+    return eval.getValueType() != null ? eval.getValueType().getType() : Type.NULL_TYPE;
+  }
+
+  @Override
+  int evalBool(Tuple tuple) {
+    Datum value = eval.eval(schema, tuple);
+    return value.isTrue() ? TRUE : (value.isNull() ? UNKNOWN : FALSE);
+  }
+
+  @Override
+  Datum evalDatum(Tuple tuple) {
+    return eval.eval(schema, tuple);
+  }
+}
@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.eval.compile;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * OR in three-valued logic. The right operand is not evaluated if the left operand is true.
+ */
+class OrExpr extends PrimitiveExpr {
+  final PrimitiveExpr left;
+  final PrimitiveExpr right;
+
+  OrExpr(PrimitiveExpr left, PrimitiveExpr right) {
+    super(Kind.BOOL, Type.BOOLEAN);
+    this.left = left;
+    this.right = right;
+  }
+
+  @Override
+  int evalBool(Tuple tuple) {
+    int lhs = left.evalBool(tuple);
+    if (lhs == TRUE) {
+      return TRUE;
+    }
+    int rhs = right.evalBool(tuple);
+    if (rhs == TRUE) {
+      return TRUE;
+    }
+    return lhs == FALSE && rhs == FALSE ? FALSE : UNKNOWN;
+  }
+}
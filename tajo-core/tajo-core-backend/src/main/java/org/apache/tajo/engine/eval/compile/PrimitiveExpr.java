@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.eval.compile;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.BooleanDatum;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.Tuple;
+
+/**
+ * A node of a compiled eval tree. Unlike {@link org.apache.tajo.engine.eval.EvalNode}, a node of
+ * {@link Kind#LONG}, {@link Kind#DOUBLE} or {@link Kind#BOOL} returns a primitive value, so evaluating inner nodes
+ * does not create any intermediate datum.
+ *
+ * After {@link #evalLong(Tuple)} or {@link #evalDouble(Tuple)} is called, {@link #isNull} indicates whether
+ * the result is null. {@link #evalBool(Tuple)} returns one of {@link #TRUE}, {@link #FALSE} and {@link #UNKNOWN}.
+ */
+abstract class PrimitiveExpr {
+  static final int FALSE = 0;
+  static final int TRUE = 1;
+  static final int UNKNOWN = 2;
+
+  enum Kind {
+    /** INT2, INT4 and INT8 values evaluated by {@link #evalLong(Tuple)} */
+    LONG,
+    /** FLOAT4 and FLOAT8 values evaluated by {@link #evalDouble(Tuple)} */
+    DOUBLE,
+    /** three-valued logic evaluated by {@link #evalBool(Tuple)} */
+    BOOL,
+    /** values only available through {@link #evalDatum(Tuple)} */
+    DATUM
+  }
+
+  final Kind kind;
+  final Type type;
+  boolean isNull;
+
+  PrimitiveExpr(Kind kind, Type type) {
+    this.kind = kind;
+    this.type = type;
+  }
+
+  static Kind kindOf(Type type) {
+    switch (type) {
+    case INT2:
+    case INT4:
+    case INT8:
+      return Kind.LONG;
+    case FLOAT4:
+    case FLOAT8:
+      return Kind.DOUBLE;
+    case BOOLEAN:
+      return Kind.BOOL;
+    default:
+      return Kind.DATUM;
+    }
+  }
+
+  long evalLong(Tuple tuple) {
+    throw new UnsupportedOperationException(kind + " expression cannot be evaluated as long");
+  }
+
+  double evalDouble(Tuple tuple) {
+    throw new UnsupportedOperationException(kind + " expression cannot be evaluated as double");
+  }
+
+  int evalBool(Tuple tuple) {
+    throw new UnsupportedOperationException(kind + " expression cannot be evaluated as boolean");
+  }
+
+  /**
+   * It evaluates this node as a datum. It is only called for the root node or for the operands of datum-level
+   * operators.
+   */
+  Datum evalDatum(Tuple tuple) {
+    switch (kind) {
+    case LONG: {
+      long value = evalLong(tuple);
+      if (isNull) {
+        return NullDatum.get();
+      }
+      switch (type) {
+      case INT2: return DatumFactory.createInt2((short) value);
+      case INT4: return DatumFactory.createInt4((int) value);
+      default: return DatumFactory.createInt8(value);
+      }
+    }
+    case DOUBLE: {
+      double value = evalDouble(tuple);
+      if (isNull) {
+        return NullDatum.get();
+      }
+      return type == Type.FLOAT4 ? DatumFactory.createFloat4((float) value) : DatumFactory.createFloat8(value);
+    }
+    case BOOL: {
+      int value = evalBool(tuple);
+      return value == UNKNOWN ? NullDatum.get() : (value == TRUE ? BooleanDatum.TRUE : BooleanDatum.FALSE);
+    }
+    default:
+      throw new UnsupportedOperationException(getClass().getSimpleName() + " must override evalDatum()");
+    }
+  }
+
+  /**
+   * It evaluates this node as a double value. A long node is widened to double like Java's numeric promotion.
+   */
+  final double evalAsDouble(Tuple tuple) {
+    return kind == Kind.LONG ? (double) evalLong(tuple) : evalDouble(tuple);
+  }
+
+  /**
+   * It evaluates this node as a float value. A long node is narrowed to float like Java's numeric promotion.
+   */
+  final float evalAsFloat(Tuple tuple) {
+    return kind == Kind.LONG ? (float) evalLong(tuple) : (float) evalDouble(tuple);
+  }
+
+  /**
+   * @return true if the result of this node is null. It evaluates this node.
+   */
+  final boolean evalIsNull(Tuple tuple) {
+    switch (kind) {
+    case LONG:
+      evalLong(tuple);
+      return isNull;
+    case DOUBLE:
+      evalDouble(tuple);
+      return isNull;
+    case BOOL:
+      return evalBool(tuple) == UNKNOWN;
+    default:
+      // an unset field is returned as a Java null.
+      Datum datum = evalDatum(tuple);
+      return datum == null || datum.isNull();
+    }
+  }
+}
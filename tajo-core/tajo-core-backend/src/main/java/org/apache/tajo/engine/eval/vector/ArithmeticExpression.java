@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.eval.vector;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.engine.eval.EvalType;
+import org.apache.tajo.storage.vector.*;
+
+/**
+ * A vectorized PLUS, MINUS or MULTIPLY of {@link org.apache.tajo.engine.eval.BinaryEval}. Both operands must be
+ * long vectors for an INT4 or INT8 result, and double vectors for a FLOAT8 result. An INT4 result wraps around
+ * like the integer arithmetic of Java.
+ */
+public class ArithmeticExpression extends VectorExpression {
+  private final EvalType op;
+  private final VectorExpression left;
+  private final VectorExpression right;
+  private final ColumnVector output;
+
+  public ArithmeticExpression(EvalType op, Type type, VectorExpression left, VectorExpression right, int capacity) {
+    super(type);
+    this.op = op;
+    this.left = left;
+    this.right = right;
+    this.output = VectorizedRowBatch.createVector(type, capacity);
+  }
+
+  @Override
+  public ColumnVector evaluate(VectorizedRowBatch batch) {
+    ColumnVector lhs = left.evaluate(batch);
+    ColumnVector rhs = right.evaluate(batch);
+    output.reset();
+    output.noNulls = lhs.noNulls && rhs.noNulls;
+    output.isRepeating = lhs.isRepeating && rhs.isRepeating;
+
+    int size = output.isRepeating ? 1 : batch.size;
+    boolean selectedInUse = !output.isRepeating && batch.selectedInUse;
+    int [] selected = batch.selected;
+    int lMask = indexMask(lhs);
+    int rMask = indexMask(rhs);
+
+    if (!output.noNulls) {
+      boolean [] lNulls = lhs.isNull;
+      boolean [] rNulls = rhs.isNull;
+      boolean [] outNulls = output.isNull;
+      for (int j = 0; j < size; j++) {
+        int i = selectedInUse ? selected[j] : j;
+        outNulls[i] = lNulls[i & lMask] || rNulls[i & rMask];
+      }
+    }
+
+    if (output instanceof LongColumnVector) {
+      long [] l = ((LongColumnVector) lhs).vector;
+      long [] r = ((LongColumnVector) rhs).vector;
+      long [] out = ((LongColumnVector) output).vector;
+
+      switch (op) {
+      case PLUS:
+        for (int j = 0; j < size; j++) {
+          int i = selectedInUse ? selected[j] : j;
+          out[i] = l[i & lMask] + r[i & rMask];
+        }
+        break;
+      case MINUS:
+        for (int j = 0; j < size; j++) {
+          int i = selectedInUse ? selected[j] : j;
+          out[i] = l[i & lMask] - r[i & rMask];
+        }
+        break;
+      case MULTIPLY:
+        for (int j = 0; j < size; j++) {
+          int i = selectedInUse ? selected[j] : j;
+          out[i] = l[i & lMask] * r[i & rMask];
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unsupported vectorized arithmetic: " + op);
+      }
+
+      if (type == Type.INT4) {
+        for (int j = 0; j < size; j++) {
+          int i = selectedInUse ? selected[j] : j;
+          out[i] = (int) out[i];
+        }
+      }
+
+    } else {
+      double [] l = ((DoubleColumnVector) lhs).vector;
+      double [] r = ((DoubleColumnVector) rhs).vector;
+      double [] out = ((DoubleColumnVector) output).vector;
+
+      switch (op) {
+      case PLUS:
+        for (int j = 0; j < size; j++) {
+          int i = selectedInUse ? selected[j] : j;
+          out[i] = l[i & lMask] + r[i & rMask];
+        }
+        break;
+      case MINUS:
+        for (int j = 0; j < size; j++) {
+          int i = selectedInUse ? selected[j] : j;
+          out[i] = l[i & lMask] - r[i & rMask];
+        }
+        break;
+      case MULTIPLY:
+        for (int j = 0; j < size; j++) {
+          int i = selectedInUse ? selected[j] : j;
+          out[i] = l[i & lMask] * r[i & rMask];
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unsupported vectorized arithmetic: " + op);
+      }
+    }
+
+    return output;
+  }
+}
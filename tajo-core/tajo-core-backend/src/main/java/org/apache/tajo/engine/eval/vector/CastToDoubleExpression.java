@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.eval.vector;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.storage.vector.DoubleColumnVector;
+import org.apache.tajo.storage.vector.LongColumnVector;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+
+/**
+ * It widens integral values to double values, so that they can be compared or computed with real values.
+ * If the target type is FLOAT4, values are rounded to float values like the implicit conversion of Java.
+ */
+public class CastToDoubleExpression extends VectorExpression {
+  private final VectorExpression child;
+  private final DoubleColumnVector output;
+
+  public CastToDoubleExpression(VectorExpression child, Type targetType, int capacity) {
+    super(targetType);
+    this.child = child;
+    this.output = new DoubleColumnVector(targetType, capacity);
+  }
+
+  @Override
+  public DoubleColumnVector evaluate(VectorizedRowBatch batch) {
+    LongColumnVector in = (LongColumnVector) child.evaluate(batch);
+    output.reset();
+    output.noNulls = in.noNulls;
+    output.isRepeating = in.isRepeating;
+
+    long [] inVector = in.vector;
+    double [] outVector = output.vector;
+    boolean [] inNulls = in.isNull;
+    boolean [] outNulls = output.isNull;
+
+    if (in.isRepeating) {
+      outNulls[0] = inNulls[0];
+      outVector[0] = type == Type.FLOAT4 ? (float) inVector[0] : (double) inVector[0];
+      return output;
+    }
+
+    int [] selected = batch.selected;
+    int size = batch.size;
+    if (type == Type.FLOAT4) {
+      for (int j = 0; j < size; j++) {
+        int i = batch.selectedInUse ? selected[j] : j;
+        outVector[i] = (float) inVector[i];
+        outNulls[i] = inNulls[i];
+      }
+    } else {
+      for (int j = 0; j < size; j++) {
+        int i = batch.selectedInUse ? selected[j] : j;
+        outVector[i] = inVector[i];
+        outNulls[i] = inNulls[i];
+      }
+    }
+    return output;
+  }
+}
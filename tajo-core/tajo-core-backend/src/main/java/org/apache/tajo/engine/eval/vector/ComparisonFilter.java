@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.eval.vector;
+
+import org.apache.tajo.engine.eval.EvalType;
+import org.apache.tajo.storage.vector.ColumnVector;
+import org.apache.tajo.storage.vector.DoubleColumnVector;
+import org.apache.tajo.storage.vector.LongColumnVector;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+
+/**
+ * A vectorized comparison (=, <>, <, <=, >, >=) between two long vectors or two double vectors.
+ *
+ * Each comparison is turned into a bit mask over the outcomes, i.e., less, equal, greater and unordered (NaN).
+ * So, one branch-free loop serves all comparison operators.
+ */
+public class ComparisonFilter extends VectorFilter {
+  private static final int LESS = 1;
+  private static final int EQUAL = 1 << 1;
+  private static final int GREATER = 1 << 2;
+  private static final int UNORDERED = 1 << 3;
+
+  private final VectorExpression left;
+  private final VectorExpression right;
+  private final int acceptMask;
+
+  public ComparisonFilter(EvalType op, VectorExpression left, VectorExpression right) {
+    this.left = left;
+    this.right = right;
+
+    switch (op) {
+    case EQUAL: acceptMask = EQUAL; break;
+    case NOT_EQUAL: acceptMask = LESS | GREATER | UNORDERED; break;
+    case LTH: acceptMask = LESS; break;
+    case LEQ: acceptMask = LESS | EQUAL; break;
+    case GTH: acceptMask = GREATER; break;
+    case GEQ: acceptMask = GREATER | EQUAL; break;
+    default:
+      throw new IllegalArgumentException("Not a comparison: " + op);
+    }
+  }
+
+  @Override
+  public void filter(VectorizedRowBatch batch) {
+    ColumnVector lhs = left.evaluate(batch);
+    ColumnVector rhs = right.evaluate(batch);
+
+    int size = batch.size;
+    boolean selectedInUse = batch.selectedInUse;
+    int [] selected = batch.selected;
+    int lMask = VectorExpression.indexMask(lhs);
+    int rMask = VectorExpression.indexMask(rhs);
+    boolean noNulls = lhs.noNulls && rhs.noNulls;
+    boolean [] lNulls = lhs.isNull;
+    boolean [] rNulls = rhs.isNull;
+    int newSize = 0;
+
+    if (lhs instanceof LongColumnVector) {
+      long [] l = ((LongColumnVector) lhs).vector;
+      long [] r = ((LongColumnVector) rhs).vector;
+      for (int j = 0; j < size; j++) {
+        int i = selectedInUse ? selected[j] : j;
+        long a = l[i & lMask];
+        long b = r[i & rMask];
+        int outcome = a < b ? LESS : (a == b ? EQUAL : GREATER);
+        if ((outcome & acceptMask) != 0 && (noNulls || !(lNulls[i & lMask] || rNulls[i & rMask]))) {
+          selected[newSize++] = i;
+        }
+      }
+    } else {
+      double [] l = ((DoubleColumnVector) lhs).vector;
+      double [] r = ((DoubleColumnVector) rhs).vector;
+      for (int j = 0; j < size; j++) {
+        int i = selectedInUse ? selected[j] : j;
+        double a = l[i & lMask];
+        double b = r[i & rMask];
+        int outcome = a < b ? LESS : (a == b ? EQUAL : (a > b ? GREATER : UNORDERED));
+        if ((outcome & acceptMask) != 0 && (noNulls || !(lNulls[i & lMask] || rNulls[i & rMask]))) {
+          selected[newSize++] = i;
+        }
+      }
+    }
+
+    batch.size = newSize;
+    batch.selectedInUse = true;
+  }
+}
@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.eval.vector;
+
+import org.apache.tajo.storage.vector.ColumnVector;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+
+/**
+ * A vectorized {@link org.apache.tajo.engine.eval.IsNullEval}
+ */
+public class IsNullFilter extends VectorFilter {
+  private final VectorExpression child;
+  private final boolean isNot;
+
+  public IsNullFilter(VectorExpression child, boolean isNot) {
+    this.child = child;
+    this.isNot = isNot;
+  }
+
+  @Override
+  public void filter(VectorizedRowBatch batch) {
+    ColumnVector vector = child.evaluate(batch);
+
+    if (vector.noNulls) { // all rows are alive for IS NOT NULL, and no row is alive for IS NULL.
+      if (!isNot) {
+        batch.size = 0;
+      }
+      return;
+    }
+
+    int size = batch.size;
+    boolean selectedInUse = batch.selectedInUse;
+    int [] selected = batch.selected;
+    int mask = VectorExpression.indexMask(vector);
+    boolean [] isNull = vector.isNull;
+    int newSize = 0;
+
+    for (int j = 0; j < size; j++) {
+      int i = selectedInUse ? selected[j] : j;
+      if (isNull[i & mask] != isNot) {
+        selected[newSize++] = i;
+      }
+    }
+
+    batch.size = newSize;
+    batch.selectedInUse = true;
+  }
+}
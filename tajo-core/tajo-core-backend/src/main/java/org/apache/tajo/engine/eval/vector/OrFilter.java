@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.eval.vector;
+
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+
+/**
+ * A vectorized OR. Both filters are applied to the same input rows, and the union of their results is selected.
+ * The right filter is applied only to the rows which are not selected by the left filter.
+ */
+public class OrFilter extends VectorFilter {
+  private final VectorFilter left;
+  private final VectorFilter right;
+  private final int [] inputSelected;
+  private final int [] leftSelected;
+  private final boolean [] matched;
+
+  public OrFilter(VectorFilter left, VectorFilter right, int capacity) {
+    this.left = left;
+    this.right = right;
+    this.inputSelected = new int[capacity];
+    this.leftSelected = new int[capacity];
+    this.matched = new boolean[capacity];
+  }
+
+  @Override
+  public void filter(VectorizedRowBatch batch) {
+    int inputSize = batch.size;
+    boolean inputInUse = batch.selectedInUse;
+    if (inputInUse) {
+      System.arraycopy(batch.selected, 0, inputSelected, 0, inputSize);
+    } else {
+      for (int j = 0; j < inputSize; j++) {
+        inputSelected[j] = j;
+      }
+    }
+
+    // left filter over the input rows
+    left.filter(batch);
+    int leftSize = batch.size;
+    System.arraycopy(batch.selected, 0, leftSelected, 0, leftSize);
+    for (int j = 0; j < leftSize; j++) {
+      matched[leftSelected[j]] = true;
+    }
+
+    // right filter over the rest rows
+    int restSize = 0;
+    for (int j = 0; j < inputSize; j++) {
+      int i = inputSelected[j];
+      if (!matched[i]) {
+        batch.selected[restSize++] = i;
+      }
+    }
+    batch.size = restSize;
+    batch.selectedInUse = true;
+    if (restSize > 0) {
+      right.filter(batch);
+    }
+    for (int j = 0; j < batch.size; j++) {
+      matched[batch.selected[j]] = true;
+    }
+
+    // the union keeps the order of the input rows
+    int newSize = 0;
+    for (int j = 0; j < inputSize; j++) {
+      int i = inputSelected[j];
+      if (matched[i]) {
+        batch.selected[newSize++] = i;
+        matched[i] = false;
+      }
+    }
+    batch.size = newSize;
+    batch.selectedInUse = true;
+  }
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.eval.vector;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.storage.vector.ColumnVector;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+
+/**
+ * A value expression which is evaluated over a batch of rows at once. It is a vectorized counterpart of
+ * a value-producing {@link org.apache.tajo.engine.eval.EvalNode}.
+ */
+public abstract class VectorExpression {
+  protected final Type type;
+
+  protected VectorExpression(Type type) {
+    this.type = type;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * It evaluates this expression for the alive rows of a batch. The values of the other rows in the result vector
+   * are undefined.
+   *
+   * @return a column vector holding the result
+   */
+  public abstract ColumnVector evaluate(VectorizedRowBatch batch);
+
+  /**
+   * It returns a mask which maps a row index to the index of a vector. A repeating vector has all values at zero.
+   */
+  protected static int indexMask(ColumnVector vector) {
+    return vector.isRepeating ? 0 : -1;
+  }
+}
@@ -0,0 +1,31 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.eval.vector;
+
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+
+/**
+ * A predicate which is evaluated over a batch of rows at once. Instead of producing boolean values, it narrows
+ * the selection vector of a batch down to the rows satisfying the predicate. Like the row-at-a-time evaluation,
+ * a row whose predicate is evaluated to NULL is not selected.
+ */
+public abstract class VectorFilter {
+
+  public abstract void filter(VectorizedRowBatch batch);
+}
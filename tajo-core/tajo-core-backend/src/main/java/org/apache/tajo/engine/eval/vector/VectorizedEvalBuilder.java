@@ -0,0 +1,178 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.eval.vector;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.engine.eval.*;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * It translates eval trees into vectorized expressions and filters. If an eval tree includes any expression
+ * which does not have a vectorized implementation, the translation returns null, and the caller should fall back
+ * to the row-at-a-time evaluation.
+ */
+public class VectorizedEvalBuilder {
+  private final Schema schema;
+  private final int capacity;
+  /** ids of columns referred by the translated expressions */
+  private final Set<Integer> columnIds = new TreeSet<Integer>();
+
+  public VectorizedEvalBuilder(Schema schema, int capacity) {
+    this.schema = schema;
+    this.capacity = capacity;
+  }
+
+  public int [] getColumnIds() {
+    int [] ids = new int[columnIds.size()];
+    int i = 0;
+    for (Integer id : columnIds) {
+      ids[i++] = id;
+    }
+    return ids;
+  }
+
+  /**
+   * @return a vectorized value expression, or null if it cannot be vectorized.
+   */
+  public VectorExpression buildExpression(EvalNode eval) {
+    switch (eval.getType()) {
+    case FIELD: {
+      FieldEval field = (FieldEval) eval;
+      int columnId = schema.getColumnId(field.getColumnRef().getQualifiedName());
+      if (columnId < 0) {
+        return null;
+      }
+      columnIds.add(columnId);
+      return new ColumnReference(schema.getColumn(columnId).getDataType().getType(), columnId);
+    }
+
+    case CONST: {
+      Datum value = ((ConstEval) eval).getValue();
+      if (value.isNull()) {
+        return null;
+      }
+      return new ConstantExpression(value);
+    }
+
+    case PLUS:
+    case MINUS:
+    case MULTIPLY: {
+      VectorExpression left = buildExpression(eval.getLeftExpr());
+      VectorExpression right = buildExpression(eval.getRightExpr());
+      if (left == null || right == null || !isArithmeticOperand(left.getType())
+          || !isArithmeticOperand(right.getType())) {
+        return null;
+      }
+
+      Type resultType;
+      if (left.getType() == Type.FLOAT8 || right.getType() == Type.FLOAT8) {
+        resultType = Type.FLOAT8;
+        left = castIfNecessary(left, Type.FLOAT8);
+        right = castIfNecessary(right, Type.FLOAT8);
+      } else if (left.getType() == Type.INT8 || right.getType() == Type.INT8) {
+        resultType = Type.INT8;
+      } else {
+        resultType = Type.INT4;
+      }
+
+      if (eval.getValueType().getType() != resultType) {
+        return null;
+      }
+      return new ArithmeticExpression(eval.getType(), resultType, left, right, capacity);
+    }
+
+    default:
+      return null;
+    }
+  }
+
+  /**
+   * @return a vectorized filter, or null if it cannot be vectorized.
+   */
+  public VectorFilter buildFilter(EvalNode eval) {
+    switch (eval.getType()) {
+    case AND:
+    case OR: {
+      VectorFilter left = buildFilter(eval.getLeftExpr());
+      VectorFilter right = buildFilter(eval.getRightExpr());
+      if (left == null || right == null) {
+        return null;
+      }
+      return eval.getType() == EvalType.AND ? new AndFilter(left, right) : new OrFilter(left, right, capacity);
+    }
+
+    case EQUAL:
+    case NOT_EQUAL:
+    case LTH:
+    case LEQ:
+    case GTH:
+    case GEQ: {
+      VectorExpression left = buildExpression(eval.getLeftExpr());
+      VectorExpression right = buildExpression(eval.getRightExpr());
+      if (left == null || right == null || !isNumeric(left.getType()) || !isNumeric(right.getType())) {
+        return null;
+      }
+
+      // It follows the implicit conversions of comparisons between datums.
+      Type leftType = left.getType();
+      Type rightType = right.getType();
+      if (leftType == Type.FLOAT8 || rightType == Type.FLOAT8) {
+        left = castIfNecessary(left, Type.FLOAT8);
+        right = castIfNecessary(right, Type.FLOAT8);
+      } else if (leftType == Type.FLOAT4 || rightType == Type.FLOAT4) {
+        left = castIfNecessary(left, Type.FLOAT4);
+        right = castIfNecessary(right, Type.FLOAT4);
+      }
+      return new ComparisonFilter(eval.getType(), left, right);
+    }
+
+    case IS_NULL: {
+      VectorExpression child = buildExpression(eval.getLeftExpr());
+      if (child == null) {
+        return null;
+      }
+      return new IsNullFilter(child, ((IsNullEval) eval).isNot());
+    }
+
+    default:
+      return null;
+    }
+  }
+
+  private static boolean isNumeric(Type type) {
+    return VectorizedRowBatch.isLongType(type) || VectorizedRowBatch.isDoubleType(type);
+  }
+
+  private static boolean isArithmeticOperand(Type type) {
+    return type == Type.INT4 || type == Type.INT8 || type == Type.FLOAT8;
+  }
+
+  private VectorExpression castIfNecessary(VectorExpression expr, Type targetType) {
+    if (VectorizedRowBatch.isLongType(expr.getType())) {
+      return new CastToDoubleExpression(expr, targetType, capacity);
+    } else {
+      return expr;
+    }
+  }
+}
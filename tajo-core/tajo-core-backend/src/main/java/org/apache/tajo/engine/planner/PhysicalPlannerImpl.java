@@ -65,6 +65,8 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
   private static final Log LOG = LogFactory.getLog(PhysicalPlannerImpl.class);
   private static final int UNGENERATED_PID = -1;
   private final long INNER_JOIN_INMEMORY_HASH_THRESHOLD;
+  private final float INNER_JOIN_HASH_TABLE_VOLUME_RATIO;
+  private final boolean HYBRID_HASH_JOIN_ENABLED;
 
   protected final TajoConf conf;
   protected final AbstractStorageManager sm;
@@ -74,6 +76,8 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     this.sm = sm;
 
     this.INNER_JOIN_INMEMORY_HASH_THRESHOLD = conf.getLongVar(ConfVars.EXECUTOR_INNER_JOIN_INMEMORY_HASH_THRESHOLD);
+    this.INNER_JOIN_HASH_TABLE_VOLUME_RATIO = conf.getFloatVar(ConfVars.EXECUTOR_INNER_JOIN_HASH_TABLE_VOLUME_RATIO);
+    this.HYBRID_HASH_JOIN_ENABLED = conf.getBoolVar(ConfVars.EXECUTOR_HYBRID_HASH_JOIN_ENABLED);
   }
 
   public PhysicalExec createPlan(final TaskAttemptContext context, final LogicalNode logicalPlan)
@@ -241,7 +245,9 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
       throws IOException {
     String [] lineage = PlannerUtil.getRelationLineage(node);
     long volume = estimateSizeRecursive(context, lineage);
-    boolean inMemoryInnerJoinFlag = volume <= INNER_JOIN_INMEMORY_HASH_THRESHOLD;
+    // the on-disk volume is scaled by the configured ratio of the memory usage of a JoinHashTable to the volume.
+    boolean inMemoryInnerJoinFlag =
+        (long) (volume * INNER_JOIN_HASH_TABLE_VOLUME_RATIO) <= INNER_JOIN_INMEMORY_HASH_THRESHOLD;
     LOG.info(String.format("[%s] the volume of %s relations (%s) is %s and is %sfit to main maemory.",
         context.getTaskId().toString(),
         (left ? "Left" : "Right"),
@@ -337,7 +343,8 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
           LOG.info("Join (" + plan.getPID() +") chooses [Sort Merge Join]");
           return createMergeInnerJoin(context, plan, leftExec, rightExec);
         case HYBRID_HASH_JOIN:
-
+          LOG.info("Join (" + plan.getPID() +") chooses [Hybrid Hash Join]");
+          return createHybridHashInnerJoin(context, plan, leftExec, rightExec);
         default:
           LOG.error("Invalid Inner Join Algorithm Enforcer: " + algorithm.name());
           LOG.error("Choose a fallback inner join algorithm: " + JoinAlgorithm.MERGE_JOIN.name());
@@ -399,11 +406,22 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
       // returns two PhysicalExec. smaller one is 0, and larger one is 1.
       PhysicalExec [] orderedChilds = switchJoinSidesIfNecessary(context, plan, leftExec, rightExec);
       return new HashJoinExec(context, plan, orderedChilds[1], orderedChilds[0]);
+    } else if (HYBRID_HASH_JOIN_ENABLED) {
+      LOG.info("Join (" + plan.getPID() +") chooses [Hybrid Hash Join]");
+      return createHybridHashInnerJoin(context, plan, leftExec, rightExec);
     } else {
       return createMergeInnerJoin(context, plan, leftExec, rightExec);
     }
   }
 
+  private HybridHashJoinExec createHybridHashInnerJoin(TaskAttemptContext context, JoinNode plan,
+                                                       PhysicalExec leftExec, PhysicalExec rightExec)
+      throws IOException {
+    // returns two PhysicalExec. smaller one is 0, and larger one is 1.
+    PhysicalExec [] orderedChilds = switchJoinSidesIfNecessary(context, plan, leftExec, rightExec);
+    return new HybridHashJoinExec(context, plan, orderedChilds[1], orderedChilds[0]);
+  }
+
   private MergeJoinExec createMergeInnerJoin(TaskAttemptContext context, JoinNode plan,
                                              PhysicalExec leftExec, PhysicalExec rightExec) throws IOException {
     SortSpec[][] sortSpecs = PlannerUtil.getSortKeysFromJoinQual(
@@ -839,7 +857,8 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     // check if an input is sorted in the same order to the subsequence sort operator.
     // TODO - it works only if input files are raw files. We should check the file format.
     // Since the default intermediate file format is raw file, it is not problem right now.
-    if (checkIfSortEquivalance(ctx, scanNode, node)) {
+    // Shuffle streams do not have files to be merged, so they are always read by SeqScanExec.
+    if (ctx.getShuffleStreams(scanNode.getCanonicalName()) == null && checkIfSortEquivalance(ctx, scanNode, node)) {
       FragmentProto [] fragments = ctx.getTables(scanNode.getCanonicalName());
       return new ExternalSortExec(ctx, sm, (SortNode) node.peek(), fragments);
     } else {
@@ -945,6 +964,11 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
       return createInMemoryHashAggregation(context, groupbyNode, subOp);
     }
 
+    // the partial aggregation emits groups when its hash table is full, so it never runs out of memory.
+    if (HashAggregateExec.isAdaptivePartialAggregation(context, groupbyNode)) {
+      return createInMemoryHashAggregation(context, groupbyNode, subOp);
+    }
+
     String [] outerLineage = PlannerUtil.getRelationLineage(groupbyNode.getChild());
     long estimatedSize = estimateSizeRecursive(context, outerLineage);
     final long threshold = conf.getLongVar(ConfVars.EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD);
@@ -19,32 +19,27 @@
 package org.apache.tajo.engine.planner;
 
 import org.apache.tajo.catalog.Schema;
-import org.apache.tajo.engine.eval.EvalNode;
+import org.apache.tajo.engine.eval.compile.CompiledEval;
+import org.apache.tajo.engine.eval.compile.EvalCompiler;
 import org.apache.tajo.storage.Tuple;
 
 public class Projector {
-  private final Schema inSchema;
-
   // for projection
   private final int targetNum;
-  private final EvalNode[] evals;
+  private final CompiledEval[] evals;
 
   public Projector(Schema inSchema, Schema outSchema, Target [] targets) {
-    this.inSchema = inSchema;
     if (targets == null) {
       targets = PlannerUtil.schemaToTargets(outSchema);
     }
     this.targetNum = targets.length;
-    evals = new EvalNode[targetNum];
-    for (int i = 0; i < targetNum; i++) {
-      evals[i] = targets[i].getEvalTree();
-    }
+    evals = EvalCompiler.compile(inSchema, targets);
   }
 
   public void eval(Tuple in, Tuple out) {
     if (targetNum > 0) {
       for (int i = 0; i < evals.length; i++) {
-        out.put(i, evals[i].eval(inSchema, in));
+        out.put(i, evals[i].eval(in));
       }
     }
   }
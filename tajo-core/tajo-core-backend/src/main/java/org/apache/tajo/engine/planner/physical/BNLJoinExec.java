@@ -18,7 +18,8 @@
 
 package org.apache.tajo.engine.planner.physical;
 
-import org.apache.tajo.engine.eval.EvalNode;
+import org.apache.tajo.engine.eval.compile.CompiledEval;
+import org.apache.tajo.engine.eval.compile.EvalCompiler;
 import org.apache.tajo.engine.planner.PlannerUtil;
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.planner.logical.JoinNode;
@@ -36,7 +37,7 @@ public class BNLJoinExec extends BinaryPhysicalExec {
   // from logical plan
   private JoinNode plan;
   private final boolean hasJoinQual;
-  private EvalNode joinQual;
+  private CompiledEval joinQual;
 
   private List<Tuple> leftTupleSlots;
   private List<Tuple> rightTupleSlots;
@@ -61,7 +62,7 @@ public class BNLJoinExec extends BinaryPhysicalExec {
                      final PhysicalExec leftExec, PhysicalExec rightExec) {
     super(context, plan.getInSchema(), plan.getOutSchema(), leftExec, rightExec);
     this.plan = plan;
-    this.joinQual = plan.getJoinQual();
+    this.joinQual = EvalCompiler.compile(inSchema, plan.getJoinQual());
     if (joinQual != null) { // if join type is not 'cross join'
       hasJoinQual = true;
     } else {
@@ -185,7 +186,7 @@ public class BNLJoinExec extends BinaryPhysicalExec {
 
       frameTuple.set(leftTuple, rightIterator.next());
       if (hasJoinQual) {
-        if (joinQual.eval(inSchema, frameTuple).isTrue()) {
+        if (joinQual.isTrue(frameTuple)) {
           projector.eval(frameTuple, outputTuple);
           return outputTuple;
         }
@@ -54,6 +54,7 @@ import static org.apache.tajo.storage.RawFile.RawFileScanner;
  *
  * <ul>
  *   <li>in-memory sort if input data size fits a sort buffer</li>
+ *   <li>pipelined run generation and parallel sort of each run if multiple cores are allocated</li>
  *   <li>k-way merge sort if input data size exceeds the size of sort buffer</li>
  *   <li>parallel merge</li>
  *   <li>final merge avoidance</li>
@@ -63,6 +64,8 @@ import static org.apache.tajo.storage.RawFile.RawFileScanner;
 public class ExternalSortExec extends SortExec {
   /** Class logger */
   private static final Log LOG = LogFactory.getLog(ExternalSortExec.class);
+  /** the minimum number of tuples sorted by each thread in parallel sort */
+  private static final int MIN_PARALLEL_SORT_ROWS = 8192;
 
   private SortNode plan;
   private final TableMeta meta;
@@ -72,8 +75,13 @@ public class ExternalSortExec extends SortExec {
   private long sortBufferBytesNum;
   /** the number of available cores */
   private final int allocatedCoreNum;
-  /** If there are available multiple cores, it tries parallel merge. */
+  /** If there are available multiple cores, it tries parallel merge and parallel sort. */
   private ExecutorService executorService;
+  /**
+   * If there are available multiple cores, it sorts and stores a chunk in background while the next chunk is loaded.
+   * So, at most two chunks reside in memory at the same time.
+   */
+  private ExecutorService chunkWriterService;
   /** used for in-memory sort of each chunk. */
   private List<Tuple> inMemoryTable;
   /** temporal dir */
@@ -114,6 +122,9 @@ public class ExternalSortExec extends SortExec {
     this.sortBufferBytesNum = context.getConf().getLongVar(ConfVars.EXECUTOR_EXTERNAL_SORT_BUFFER_SIZE) * 1048576L;
     this.allocatedCoreNum = context.getConf().getIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_THREAD_NUM);
     this.executorService = Executors.newFixedThreadPool(this.allocatedCoreNum);
+    if (allocatedCoreNum > 1) {
+      this.chunkWriterService = Executors.newSingleThreadExecutor();
+    }
     this.inMemoryTable = new ArrayList<Tuple>(100000);
 
     this.sortTmpDir = getExecutorTmpDir();
@@ -163,7 +174,7 @@ public class ExternalSortExec extends SortExec {
     int rowNum = tupleBlock.size();
 
     long sortStart = System.currentTimeMillis();
-    Collections.sort(tupleBlock, getComparator());
+    sortTuples(tupleBlock);
     long sortEnd = System.currentTimeMillis();
 
     long chunkWriteStart = System.currentTimeMillis();
@@ -185,9 +196,159 @@ public class ExternalSortExec extends SortExec {
     return outputPath;
   }
 
+  /**
+   * It sorts tuples in place. If multiple cores are allocated and there are enough tuples, the tuples are divided into
+   * the same number of parts as cores. Then, each part is sorted in parallel, and sorted parts are merged pairwise
+   * in parallel until one sorted part remains. If normalized keys are enabled, the keys are also encoded in parallel.
+   */
+  @Override
+  protected void sortTuples(List<Tuple> tuples) throws IOException {
+    int partNum = Math.min(allocatedCoreNum, tuples.size() / MIN_PARALLEL_SORT_ROWS);
+    if (partNum < 2) {
+      super.sortTuples(tuples);
+      return;
+    }
+
+    if (isNormalizedKeyEnabled()) {
+      NormalizedKey [] sorted = parallelSort(encodeKeys(tuples, partNum), partNum, NormalizedKey.COMPARATOR);
+      for (int i = 0; i < sorted.length; i++) {
+        tuples.set(i, sorted[i].getTuple());
+      }
+    } else {
+      Tuple [] sorted = parallelSort(tuples.toArray(new Tuple[tuples.size()]), partNum, getComparator());
+      for (int i = 0; i < sorted.length; i++) {
+        tuples.set(i, sorted[i]);
+      }
+    }
+  }
+
+  private static int [] divide(int length, int partNum) {
+    int [] bounds = new int[partNum + 1];
+    for (int i = 0; i <= partNum; i++) {
+      bounds[i] = (int) ((long) length * i / partNum);
+    }
+    return bounds;
+  }
+
+  private NormalizedKey [] encodeKeys(final List<Tuple> tuples, int partNum) throws IOException {
+    final NormalizedKey [] keys = new NormalizedKey[tuples.size()];
+    int [] bounds = divide(keys.length, partNum);
+
+    List<Future<?>> futures = TUtil.newList();
+    for (int i = 0; i < partNum; i++) {
+      final int from = bounds[i];
+      final int to = bounds[i + 1];
+      futures.add(executorService.submit(new Runnable() {
+        @Override
+        public void run() {
+          // An encoder cannot be shared among threads because it reuses its buffer.
+          NormalizedKeyEncoder encoder = new NormalizedKeyEncoder(inSchema, getSortSpecs());
+          for (int j = from; j < to; j++) {
+            keys[j] = encoder.encode(tuples.get(j));
+          }
+        }
+      }));
+    }
+    waitForAll(futures);
+    return keys;
+  }
+
+  /**
+   * It sorts the parts of an array in parallel, and then it merges sorted parts pairwise in parallel.
+   *
+   * @return a sorted array, which is either the given array or a new one
+   */
+  private <T> T [] parallelSort(final T [] items, int partNum, final Comparator<T> comparator) throws IOException {
+    int [] bounds = divide(items.length, partNum);
+
+    List<Future<?>> futures = TUtil.newList();
+    for (int i = 0; i < partNum; i++) {
+      final int from = bounds[i];
+      final int to = bounds[i + 1];
+      futures.add(executorService.submit(new Runnable() {
+        @Override
+        public void run() {
+          Arrays.sort(items, from, to, comparator);
+        }
+      }));
+    }
+    waitForAll(futures);
+
+    T [] src = items;
+    T [] dst = Arrays.copyOf(items, items.length);
+    while (bounds.length > 2) {
+      int runNum = bounds.length - 1;
+      int [] mergedBounds = new int[(runNum + 1) / 2 + 1];
+      futures.clear();
+      for (int i = 0; i < runNum; i += 2) {
+        final T [] in = src;
+        final T [] out = dst;
+        final int from = bounds[i];
+        final int mid = bounds[Math.min(i + 1, runNum)];
+        final int to = bounds[Math.min(i + 2, runNum)];
+        mergedBounds[i / 2 + 1] = to;
+        futures.add(executorService.submit(new Runnable() {
+          @Override
+          public void run() {
+            mergeSortedRanges(in, out, from, mid, to, comparator);
+          }
+        }));
+      }
+      waitForAll(futures);
+
+      bounds = mergedBounds;
+      T [] tmp = src;
+      src = dst;
+      dst = tmp;
+    }
+    return src;
+  }
+
+  /**
+   * It merges two adjacent sorted ranges [from, mid) and [mid, to) of an input array into the same range of
+   * an output array. If two items are equal, the item of the first range comes first.
+   */
+  private static <T> void mergeSortedRanges(T [] in, T [] out, int from, int mid, int to,
+                                            Comparator<T> comparator) {
+    int left = from;
+    int right = mid;
+    int idx = from;
+    while (left < mid && right < to) {
+      if (comparator.compare(in[right], in[left]) < 0) {
+        out[idx++] = in[right++];
+      } else {
+        out[idx++] = in[left++];
+      }
+    }
+    System.arraycopy(in, left, out, idx, mid - left);
+    idx += mid - left;
+    System.arraycopy(in, right, out, idx, to - right);
+  }
+
+  private static <T> T waitFor(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  private static void waitForAll(List<Future<?>> futures) throws IOException {
+    for (Future<?> future : futures) {
+      waitFor(future);
+    }
+  }
+
   /**
    * It divides all tuples into a number of chunks, then sort for each chunk.
    *
+   * If multiple cores are allocated, a full chunk is sorted and stored in background while the next chunk is loaded.
+   *
    * @return All paths of chunks
    * @throws java.io.IOException
    */
@@ -197,6 +358,7 @@ public class ExternalSortExec extends SortExec {
     List<Path> chunkPaths = TUtil.newList();
 
     int chunkId = 0;
+    Future<Path> chunkBeingWritten = null;
     long runStartTime = System.currentTimeMillis();
     while ((tuple = child.next()) != null) { // partition sort start
       Tuple vtuple = new VTuple(tuple);
@@ -211,7 +373,22 @@ public class ExternalSortExec extends SortExec {
         info(LOG, "Memory consumption exceeds " + sortBufferBytesNum + " bytes");
         memoryResident = false;
 
-        chunkPaths.add(sortAndStoreChunk(chunkId, inMemoryTable));
+        if (chunkWriterService != null) {
+          if (chunkBeingWritten != null) {
+            chunkPaths.add(waitFor(chunkBeingWritten));
+          }
+          final int fullChunkId = chunkId;
+          final List<Tuple> fullChunk = inMemoryTable;
+          chunkBeingWritten = chunkWriterService.submit(new Callable<Path>() {
+            @Override
+            public Path call() throws Exception {
+              return sortAndStoreChunk(fullChunkId, fullChunk);
+            }
+          });
+          inMemoryTable = new ArrayList<Tuple>(fullChunk.size());
+        } else {
+          chunkPaths.add(sortAndStoreChunk(chunkId, inMemoryTable));
+        }
 
         memoryConsumption = 0;
         chunkId++;
@@ -231,6 +408,10 @@ public class ExternalSortExec extends SortExec {
       }
     }
 
+    if (chunkBeingWritten != null) {
+      chunkPaths.add(waitFor(chunkBeingWritten));
+    }
+
     if (inMemoryTable.size() > 0) { // if there are at least one or more input tuples
       if (!memoryResident) { // check if data exceeds a sort buffer. If so, it store the remain data into a chunk.
         if (inMemoryTable.size() > 0) {
@@ -241,7 +422,7 @@ public class ExternalSortExec extends SortExec {
           info(LOG, "Last Chunk #" + chunkId + " " + rowNum + " rows written (" + (end - start) + " msec)");
         }
       } else { // this case means that all data does not exceed a sort buffer
-        Collections.sort(inMemoryTable, getComparator());
+        sortTuples(inMemoryTable);
       }
     }
 
@@ -750,6 +931,11 @@ public class ExternalSortExec extends SortExec {
       executorService = null;
     }
 
+    if (chunkWriterService != null) {
+      chunkWriterService.shutdown();
+      chunkWriterService = null;
+    }
+
     plan = null;
     super.close();
   }
@@ -0,0 +1,433 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.TupleHash;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.util.MurmurHash;
+
+import java.util.Arrays;
+
+/**
+ * A hash table which maps grouping keys to dense group ids. It uses open addressing with linear probing over
+ * primitive arrays, and it probes the table with the fields of an input tuple. So, it does not allocate
+ * any key tuple for each input row.
+ *
+ * There are three implementations specialized by the layout of grouping keys:
+ * <ul>
+ *   <li>{@link SingleLongKeyHashTable} for a single INT2, INT4 or INT8 key</li>
+ *   <li>{@link FixedWidthKeyHashTable} for composite keys consisting of only fixed-width primitive types</li>
+ *   <li>{@link VariableKeyHashTable} for the others. It keeps a key tuple only for each distinct key.</li>
+ * </ul>
+ */
+public abstract class GroupbyHashTable {
+  private static final int DEFAULT_CAPACITY = 1024;
+  private static final float LOAD_FACTOR = 0.5f;
+
+  protected final int [] keyIds;
+
+  /** group id + 1 of each slot. 0 means an empty slot. */
+  private int [] slots;
+  /** hash value of each group, which is used for fast rejection and rehashing */
+  private int [] groupHashes;
+  private int mask;
+  private int threshold;
+  protected int groupNum = 0;
+
+  protected GroupbyHashTable(int [] keyIds) {
+    this.keyIds = keyIds;
+    this.slots = new int[DEFAULT_CAPACITY];
+    this.groupHashes = new int[DEFAULT_CAPACITY];
+    this.mask = DEFAULT_CAPACITY - 1;
+    this.threshold = (int) (DEFAULT_CAPACITY * LOAD_FACTOR);
+  }
+
+  /**
+   * It creates a hash table specialized for the layout of given grouping keys.
+   *
+   * @param inSchema the schema of input tuples
+   * @param keyIds the column ids of grouping keys in input tuples
+   */
+  public static GroupbyHashTable newInstance(Schema inSchema, int [] keyIds) {
+    Type [] keyTypes = new Type[keyIds.length];
+    boolean fixedWidth = keyIds.length < Long.SIZE;
+    for (int i = 0; i < keyIds.length; i++) {
+      keyTypes[i] = inSchema.getColumn(keyIds[i]).getDataType().getType();
+      fixedWidth &= FixedWidthKeyHashTable.isSupported(keyTypes[i]);
+    }
+
+    if (keyIds.length == 1 && SingleLongKeyHashTable.isSupported(keyTypes[0])) {
+      return new SingleLongKeyHashTable(keyIds, keyTypes[0]);
+    } else if (fixedWidth) {
+      return new FixedWidthKeyHashTable(keyIds, keyTypes);
+    } else {
+      return new VariableKeyHashTable(keyIds);
+    }
+  }
+
+  /**
+   * It finds the group of a given input tuple. If the group does not exist, it adds a new group.
+   *
+   * @return A group id. Group ids are assigned densely from 0 in the order of insertion. So, a new group is
+   * assigned to {@link #size()} - 1.
+   */
+  public int findOrInsert(Tuple tuple) {
+    int hash = hash(tuple);
+    int idx = hash & mask;
+    int groupId;
+    while (slots[idx] != 0) {
+      groupId = slots[idx] - 1;
+      if (groupHashes[groupId] == hash && keyEquals(groupId, tuple)) {
+        return groupId;
+      }
+      idx = (idx + 1) & mask;
+    }
+
+    return insert(idx, hash, tuple);
+  }
+
+  /**
+   * It adds a new group without comparing keys. It is used for a key which never matches other keys.
+   */
+  protected int insertWithoutProbe(int hash, Tuple tuple) {
+    int idx = hash & mask;
+    while (slots[idx] != 0) {
+      idx = (idx + 1) & mask;
+    }
+    return insert(idx, hash, tuple);
+  }
+
+  private int insert(int idx, int hash, Tuple tuple) {
+    int groupId = groupNum++;
+    if (groupId == groupHashes.length) {
+      groupHashes = Arrays.copyOf(groupHashes, groupHashes.length * 2);
+    }
+    groupHashes[groupId] = hash;
+    slots[idx] = groupId + 1;
+    addKey(groupId, tuple);
+
+    if (groupNum > threshold) {
+      rehash(slots.length * 2);
+    }
+    return groupId;
+  }
+
+  private void rehash(int newCapacity) {
+    slots = new int[newCapacity];
+    mask = newCapacity - 1;
+    threshold = (int) (newCapacity * LOAD_FACTOR);
+    for (int groupId = 0; groupId < groupNum; groupId++) {
+      int idx = groupHashes[groupId] & mask;
+      while (slots[idx] != 0) {
+        idx = (idx + 1) & mask;
+      }
+      slots[idx] = groupId + 1;
+    }
+  }
+
+  /**
+   * @return the number of groups
+   */
+  public int size() {
+    return groupNum;
+  }
+
+  public void clear() {
+    Arrays.fill(slots, 0);
+    groupNum = 0;
+    clearKeys();
+  }
+
+  /**
+   * It copies the grouping key of a given group into the output tuple from the first column.
+   */
+  public abstract void getKey(int groupId, Tuple outTuple);
+
+  /**
+   * It computes the hash value of the grouping key in a given input tuple.
+   */
+  protected abstract int hash(Tuple tuple);
+
+  protected abstract boolean keyEquals(int groupId, Tuple tuple);
+
+  protected abstract void addKey(int groupId, Tuple tuple);
+
+  protected abstract void clearKeys();
+
+  protected static int mix(long h) {
+    return (int) MurmurHash.fmix64(h);
+  }
+
+  /**
+   * Hash table for a single INT2, INT4 or INT8 grouping key. Keys are widened to long values.
+   */
+  static class SingleLongKeyHashTable extends GroupbyHashTable {
+    private final int keyId;
+    private final Type keyType;
+    private long [] keys = new long[DEFAULT_CAPACITY];
+    /** The null key is kept out of the long array. -1 means that the null group does not exist yet. */
+    private int nullGroupId = -1;
+
+    SingleLongKeyHashTable(int [] keyIds, Type keyType) {
+      super(keyIds);
+      this.keyId = keyIds[0];
+      this.keyType = keyType;
+    }
+
+    static boolean isSupported(Type type) {
+      return type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+    }
+
+    private long getLong(Tuple tuple) {
+      switch (keyType) {
+      case INT2: return tuple.getInt2(keyId);
+      case INT4: return tuple.getInt4(keyId);
+      default: return tuple.getInt8(keyId);
+      }
+    }
+
+    @Override
+    public int findOrInsert(Tuple tuple) {
+      if (tuple.isNull(keyId)) {
+        if (nullGroupId < 0) {
+          nullGroupId = insertWithoutProbe(0, tuple);
+        }
+        return nullGroupId;
+      }
+      return super.findOrInsert(tuple);
+    }
+
+    @Override
+    protected int hash(Tuple tuple) {
+      return mix(getLong(tuple));
+    }
+
+    @Override
+    protected boolean keyEquals(int groupId, Tuple tuple) {
+      return groupId != nullGroupId && keys[groupId] == getLong(tuple);
+    }
+
+    @Override
+    protected void addKey(int groupId, Tuple tuple) {
+      if (groupId == keys.length) {
+        keys = Arrays.copyOf(keys, keys.length * 2);
+      }
+      keys[groupId] = tuple.isNull(keyId) ? 0 : getLong(tuple);
+    }
+
+    @Override
+    public void getKey(int groupId, Tuple outTuple) {
+      if (groupId == nullGroupId) {
+        outTuple.put(0, NullDatum.get());
+        return;
+      }
+      switch (keyType) {
+      case INT2: outTuple.put(0, DatumFactory.createInt2((short) keys[groupId])); break;
+      case INT4: outTuple.put(0, DatumFactory.createInt4((int) keys[groupId])); break;
+      default: outTuple.put(0, DatumFactory.createInt8(keys[groupId]));
+      }
+    }
+
+    @Override
+    protected void clearKeys() {
+      nullGroupId = -1;
+    }
+  }
+
+  /**
+   * Hash table for composite keys of fixed-width primitive types. Each key column is encoded to a long value,
+   * and the keys of each group are stored contiguously with a null bitmap in a long array.
+   */
+  static class FixedWidthKeyHashTable extends GroupbyHashTable {
+    private final Type [] keyTypes;
+    /** the number of longs of each group: a null bitmap and one long per key column */
+    private final int stride;
+    private long [] keys;
+    private final long [] encoded;
+
+    FixedWidthKeyHashTable(int [] keyIds, Type [] keyTypes) {
+      super(keyIds);
+      this.keyTypes = keyTypes;
+      this.stride = keyIds.length + 1;
+      this.keys = new long[DEFAULT_CAPACITY * stride];
+      this.encoded = new long[stride];
+    }
+
+    static boolean isSupported(Type type) {
+      switch (type) {
+      case BOOLEAN:
+      case INT2:
+      case INT4:
+      case INT8:
+      case FLOAT4:
+      case FLOAT8:
+        return true;
+      default:
+        return false;
+      }
+    }
+
+    /**
+     * It encodes the grouping key of a given tuple into the reusable long array.
+     */
+    private void encode(Tuple tuple) {
+      long nullFlags = 0;
+      for (int i = 0; i < keyIds.length; i++) {
+        if (tuple.isNull(keyIds[i])) {
+          nullFlags |= 1L << i;
+          encoded[i + 1] = 0;
+          continue;
+        }
+
+        switch (keyTypes[i]) {
+        case BOOLEAN: encoded[i + 1] = tuple.getBool(keyIds[i]) ? 1 : 0; break;
+        case INT2: encoded[i + 1] = tuple.getInt2(keyIds[i]); break;
+        case INT4: encoded[i + 1] = tuple.getInt4(keyIds[i]); break;
+        case INT8: encoded[i + 1] = tuple.getInt8(keyIds[i]); break;
+        // adding 0.0 normalizes -0.0 to 0.0 so that both are equivalent as in their datums.
+        case FLOAT4: encoded[i + 1] = Float.floatToIntBits(tuple.getFloat4(keyIds[i]) + 0.0f); break;
+        case FLOAT8: encoded[i + 1] = Double.doubleToLongBits(tuple.getFloat8(keyIds[i]) + 0.0d); break;
+        }
+      }
+      encoded[0] = nullFlags;
+    }
+
+    @Override
+    protected int hash(Tuple tuple) {
+      encode(tuple);
+      long h = 0;
+      for (int i = 0; i < stride; i++) {
+        h = (h ^ encoded[i]) * 0x9E3779B97F4A7C15L;
+      }
+      return mix(h);
+    }
+
+    /**
+     * The key is already encoded by {@link #hash(org.apache.tajo.storage.Tuple)}.
+     */
+    @Override
+    protected boolean keyEquals(int groupId, Tuple tuple) {
+      int offset = groupId * stride;
+      for (int i = 0; i < stride; i++) {
+        if (keys[offset + i] != encoded[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    protected void addKey(int groupId, Tuple tuple) {
+      int offset = groupId * stride;
+      if (offset == keys.length) {
+        keys = Arrays.copyOf(keys, keys.length * 2);
+      }
+      System.arraycopy(encoded, 0, keys, offset, stride);
+    }
+
+    @Override
+    public void getKey(int groupId, Tuple outTuple) {
+      int offset = groupId * stride;
+      long nullFlags = keys[offset];
+      for (int i = 0; i < keyIds.length; i++) {
+        if ((nullFlags & (1L << i)) != 0) {
+          outTuple.put(i, NullDatum.get());
+          continue;
+        }
+
+        long val = keys[offset + i + 1];
+        Datum datum;
+        switch (keyTypes[i]) {
+        case BOOLEAN: datum = DatumFactory.createBool(val == 1); break;
+        case INT2: datum = DatumFactory.createInt2((short) val); break;
+        case INT4: datum = DatumFactory.createInt4((int) val); break;
+        case INT8: datum = DatumFactory.createInt8(val); break;
+        case FLOAT4: datum = DatumFactory.createFloat4(Float.intBitsToFloat((int) val)); break;
+        default: datum = DatumFactory.createFloat8(Double.longBitsToDouble(val));
+        }
+        outTuple.put(i, datum);
+      }
+    }
+
+    @Override
+    protected void clearKeys() {
+    }
+  }
+
+  /**
+   * Hash table for grouping keys including variable-length types. It keeps one key tuple for each group,
+   * and it compares the datums of an input tuple with the key tuple in place.
+   */
+  static class VariableKeyHashTable extends GroupbyHashTable {
+    private Tuple [] keys = new Tuple[DEFAULT_CAPACITY];
+
+    VariableKeyHashTable(int [] keyIds) {
+      super(keyIds);
+    }
+
+    @Override
+    protected int hash(Tuple tuple) {
+      return TupleHash.hash(tuple, keyIds);
+    }
+
+    @Override
+    protected boolean keyEquals(int groupId, Tuple tuple) {
+      Tuple key = keys[groupId];
+      for (int i = 0; i < keyIds.length; i++) {
+        Datum datum = tuple.get(keyIds[i]);
+        Datum keyDatum = key.get(i);
+        if (datum == null ? keyDatum != null : !datum.equals(keyDatum)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    protected void addKey(int groupId, Tuple tuple) {
+      if (groupId == keys.length) {
+        keys = Arrays.copyOf(keys, keys.length * 2);
+      }
+      Tuple key = new VTuple(keyIds.length);
+      for (int i = 0; i < keyIds.length; i++) {
+        key.put(i, tuple.get(keyIds[i]));
+      }
+      keys[groupId] = key;
+    }
+
+    @Override
+    public void getKey(int groupId, Tuple outTuple) {
+      Tuple key = keys[groupId];
+      for (int i = 0; i < keyIds.length; i++) {
+        outTuple.put(i, key.get(i));
+      }
+    }
+
+    @Override
+    protected void clearKeys() {
+      Arrays.fill(keys, null);
+    }
+  }
+}
@@ -18,98 +18,534 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.eval.AggregationFunctionCallEval;
 import org.apache.tajo.engine.function.FunctionContext;
 import org.apache.tajo.engine.planner.logical.GroupbyNode;
+import org.apache.tajo.ipc.TajoWorkerProtocol.ShuffleType;
+import org.apache.tajo.storage.MemoryUtil;
+import org.apache.tajo.storage.Scanner;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.util.ClassSize;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.util.MurmurHash;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.*;
+
+import static org.apache.tajo.storage.RawFile.RawFileAppender;
+import static org.apache.tajo.storage.RawFile.RawFileScanner;
 
 /**
  * This is the hash-based GroupBy Operator.
+ *
+ * If the estimated memory consumption of the hash table exceeds
+ * {@link ConfVars#EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD}, the partial results of all groups are
+ * hash-partitioned into local temporal files, and the hash table is emptied. After the input is exhausted,
+ * each spilled partition is aggregated again one by one. A spilled partition which still exceeds the
+ * threshold is spilled recursively with a different hash seed.
+ *
+ * The first phase of a two-phase aggregation whose output is hash-shuffled is aggregated adaptively instead,
+ * because the second phase merges the partial results of the same group again. If the hash table exceeds the
+ * threshold, the partial results of all groups are emitted to the shuffle writer, and the hash table is emptied.
+ * If the number of groups is close to the number of input tuples, the hash table reduces little. Then, each input
+ * tuple is emitted as its own partial result without the hash table.
  */
 public class HashAggregateExec extends AggregationExec {
+  /** Class logger */
+  private static final Log LOG = LogFactory.getLog(HashAggregateExec.class);
+  /** Beyond this level, a partition is aggregated in memory as a whole even if it exceeds the memory budget. */
+  private static final int MAX_RECURSION_LEVEL = 4;
+  /** The reduction ratio of adaptive partial aggregation is checked after this number of input tuples. */
+  private static final int REDUCTION_CHECK_ROW_NUM = 100000;
+  /** estimated bytes for a group besides its grouping key, i.e., an array of function contexts */
+  private final long groupOverhead;
+
   private Tuple tuple = null;
-  private Map<Tuple, FunctionContext[]> hashTable;
+  /** hash table for the current aggregation round */
+  private GroupbyHashTable hashTable;
+  /** hash table for tuples read from the child */
+  private GroupbyHashTable inputHashTable;
+  /** hash table for partial results read from spilled partitions */
+  private GroupbyHashTable partialHashTable;
+  /** function contexts of each group, which are indexed by group ids */
+  private List<FunctionContext[]> groupContexts;
   private boolean computed = false;
-  private Iterator<Entry<Tuple, FunctionContext []>> iterator = null;
+  private int groupIdx = 0;
+
+  /** A distinct aggregation cannot merge its partial results, so it is never spilled. */
+  private final boolean spillable;
+  /** the number of partitions into which groups are spilled */
+  private final int partitionNum;
+  /** If the memory consumption exceeds it, all groups are spilled into a disk. */
+  private long memoryBudget;
+  private long memoryConsumption = 0;
+
+  /** schema for spilled partitions, which consists of grouping keys and partial results */
+  private final Schema spillSchema;
+  /** meta for spilled partitions */
+  private final TableMeta meta;
+  /** temporal dir */
+  private final Path aggTmpDir;
+  /** It enables round-robin disks allocation */
+  private final LocalDirAllocator localDirAllocator;
+  /** local file system */
+  private final RawLocalFileSystem localFS;
+
+  private Tuple keyTuple;
+  private Tuple spillTuple;
+  /** the recursion level of the current aggregation round */
+  private int level = 0;
+  /** spill files of the current round. They are null if the current round does not spill. */
+  private Path [] spillPaths;
+  private RawFileAppender [] appenders;
+  /** spilled partitions which will be aggregated in subsequent rounds */
+  private LinkedList<SpilledPartition> pendingPartitions = new LinkedList<SpilledPartition>();
+  /** all spilled files which are used for cleaning */
+  private Set<Path> spilledFiles = new HashSet<Path>();
+  private int spillFileId = 0;
+  private boolean spilled = false;
+
+  /** If true, groups are emitted instead of being spilled, because they are merged again in the next phase. */
+  private final boolean partialAggregation;
+  /** If the ratio of groups to input tuples exceeds it, partial aggregation is turned off. */
+  private final float passThroughRatio;
+  /** the number of input tuples aggregated into the current hash table */
+  private long roundInputNum = 0;
+  /** If true, the groups in the hash table are being emitted. */
+  private boolean flushing = false;
+  /** If true, each input tuple is emitted without the hash table. */
+  private boolean passThrough = false;
+  private boolean inputExhausted = false;
+  /** function contexts for a passed-through tuple */
+  private FunctionContext [] passThroughContexts;
 
   public HashAggregateExec(TaskAttemptContext ctx, GroupbyNode plan, PhysicalExec subOp) throws IOException {
     super(ctx, plan, subOp);
-    hashTable = new HashMap<Tuple, FunctionContext []>(100000);
+    inputHashTable = GroupbyHashTable.newInstance(inSchema, groupingKeyIds);
+    hashTable = inputHashTable;
+    groupContexts = new ArrayList<FunctionContext[]>(100000);
     this.tuple = new VTuple(plan.getOutSchema().size());
+
+    boolean hasDistinct = false;
+    for (AggregationFunctionCallEval aggFunction : aggFunctions) {
+      hasDistinct |= aggFunction.isDistinct();
+    }
+    this.partialAggregation = isAdaptivePartialAggregation(ctx, plan);
+    this.spillable = groupingKeyNum > 0 && !hasDistinct && !partialAggregation;
+    this.passThroughRatio = ctx.getConf().getFloatVar(ConfVars.EXECUTOR_GROUPBY_PARTIAL_PASSTHROUGH_RATIO);
+    this.partitionNum = Math.max(2, ctx.getConf().getIntVar(ConfVars.EXECUTOR_GROUPBY_SPILL_PARTITION_NUM));
+    this.memoryBudget = ctx.getConf().getLongVar(ConfVars.EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD);
+    this.groupOverhead = ClassSize.ARRAY + aggFunctionsNum * (ClassSize.REFERENCE + ClassSize.OBJECT);
+
+    spillSchema = new Schema();
+    for (int keyId : groupingKeyIds) {
+      Column column = inSchema.getColumn(keyId);
+      spillSchema.addColumn(column.getQualifiedName(), column.getDataType());
+    }
+    for (int i = 0; i < aggFunctionsNum; i++) {
+      spillSchema.addColumn("?partial_" + i, aggFunctions[i].getPartialResultType());
+    }
+    this.meta = CatalogUtil.newTableMeta(StoreType.RAW);
+    this.aggTmpDir = getExecutorTmpDir();
+    this.localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+    this.localFS = new RawLocalFileSystem();
+
+    keyTuple = new VTuple(groupingKeyNum);
+    spillTuple = new VTuple(spillSchema.size());
+  }
+
+  @VisibleForTesting
+  public void setMemoryBudget(long memoryBudget) {
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * A group-by can be aggregated partially if it is the first phase of a two-phase aggregation, and if its output
+   * is hash-shuffled by the grouping keys. The groups are merged again by the second phase.
+   */
+  public static boolean isAdaptivePartialAggregation(TaskAttemptContext ctx, GroupbyNode plan) {
+    if (!ctx.getConf().getBoolVar(ConfVars.EXECUTOR_GROUPBY_PARTIAL_ADAPTIVE_ENABLED) ||
+        ctx.getDataChannel() == null || ctx.getDataChannel().getShuffleType() != ShuffleType.HASH_SHUFFLE ||
+        plan.getGroupingColumns().length == 0 || !plan.hasAggFunctions()) {
+      return false;
+    }
+    for (AggregationFunctionCallEval aggFunction : plan.getAggFunctions()) {
+      if (!aggFunction.isFirstPhase() || aggFunction.isDistinct()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @VisibleForTesting
+  public boolean isPartialAggregation() {
+    return partialAggregation;
+  }
+
+  @VisibleForTesting
+  public boolean isPassThrough() {
+    return passThrough;
   }
 
   private void compute() throws IOException {
     Tuple tuple;
-    Tuple keyTuple;
     while((tuple = child.next()) != null && !context.isStopped()) {
-      keyTuple = new VTuple(groupingKeyIds.length);
-      // build one key tuple
-      for(int i = 0; i < groupingKeyIds.length; i++) {
-        keyTuple.put(i, tuple.get(groupingKeyIds[i]));
-      }
-      
-      if(hashTable.containsKey(keyTuple)) {
-        FunctionContext [] contexts = hashTable.get(keyTuple);
-        for(int i = 0; i < aggFunctions.length; i++) {
-          aggFunctions[i].merge(contexts[i], inSchema, tuple);
+      aggregate(tuple, false);
+    }
+    finishRound();
+  }
+
+  /**
+   * It aggregates a tuple into its group.
+   *
+   * @param partial If true, the tuple consists of grouping keys and partial results read from a spilled partition.
+   */
+  private void aggregate(Tuple tuple, boolean partial) throws IOException {
+    int groupId = hashTable.findOrInsert(tuple);
+    FunctionContext [] contexts;
+    boolean newGroup = groupId >= groupContexts.size();
+
+    if (newGroup) { // if the key occurs firstly
+      contexts = new FunctionContext[aggFunctionsNum];
+      for(int i = 0; i < aggFunctionsNum; i++) {
+        contexts[i] = aggFunctions[i].newContext();
+      }
+      groupContexts.add(contexts);
+    } else {
+      contexts = groupContexts.get(groupId);
+    }
+
+    if (partial) {
+      for(int i = 0; i < aggFunctionsNum; i++) {
+        aggFunctions[i].mergePartial(contexts[i], tuple.get(groupingKeyNum + i));
+      }
+    } else {
+      for(int i = 0; i < aggFunctionsNum; i++) {
+        aggFunctions[i].merge(contexts[i], inSchema, tuple);
+      }
+    }
+
+    if (newGroup && (spillable || partialAggregation)) {
+      hashTable.getKey(groupId, keyTuple);
+      memoryConsumption += MemoryUtil.calculateMemorySize(keyTuple) + groupOverhead;
+
+      // A partition cannot be split further beyond the maximum level. Then, it keeps all groups in memory.
+      if (spillable && memoryConsumption > memoryBudget && level < MAX_RECURSION_LEVEL) {
+        spillGroups();
+      }
+    }
+  }
+
+  /**
+   * It returns a partition id for a key tuple. Each recursion level uses a different seed so that
+   * the groups of one spilled partition are spread over all partitions of the next round.
+   */
+  private int getPartition(Tuple keyTuple) {
+    int h = (int) MurmurHash.fmix64(keyTuple.hashCode() + level * 0x9E3779B97F4A7C15L);
+    return (h & Integer.MAX_VALUE) % partitionNum;
+  }
+
+  /**
+   * It writes the grouping keys and partial results of all groups into the spill files of the current round,
+   * and then it empties the hash table.
+   */
+  private void spillGroups() throws IOException {
+    long startTime = System.currentTimeMillis();
+    if (appenders == null) {
+      spillPaths = new Path[partitionNum];
+      appenders = new RawFileAppender[partitionNum];
+    }
+
+    int groupNum = hashTable.size();
+    for (int groupId = 0; groupId < groupNum; groupId++) {
+      hashTable.getKey(groupId, keyTuple);
+      int partId = getPartition(keyTuple);
+      if (appenders[partId] == null) {
+        spillPaths[partId] = localDirAllocator.getLocalPathForWrite(
+            aggTmpDir + "/" + level + "_" + partId + "_" + (spillFileId++), context.getConf());
+        spilledFiles.add(spillPaths[partId]);
+        appenders[partId] = new RawFileAppender(context.getConf(), spillSchema, meta, spillPaths[partId]);
+        appenders[partId].init();
+      }
+
+      FunctionContext [] contexts = groupContexts.get(groupId);
+      for (int i = 0; i < groupingKeyNum; i++) {
+        spillTuple.put(i, keyTuple.get(i));
+      }
+      for (int i = 0; i < aggFunctionsNum; i++) {
+        spillTuple.put(groupingKeyNum + i, aggFunctions[i].getPartialResult(contexts[i]));
+      }
+      appenders[partId].addTuple(spillTuple);
+    }
+
+    info(LOG, "Hash aggregation (level " + level + ") spilled " + groupNum + " groups (" +
+        FileUtil.humanReadableByteCount(memoryConsumption, false) + ") in " +
+        (System.currentTimeMillis() - startTime) + " msec");
+
+    hashTable.clear();
+    groupContexts.clear();
+    memoryConsumption = 0;
+    spilled = true;
+  }
+
+  /**
+   * If the current round has spilled, the remaining groups are spilled too, and all spill files of this round
+   * are scheduled for the next level.
+   */
+  private void finishRound() throws IOException {
+    if (appenders == null) {
+      return;
+    }
+
+    if (hashTable.size() > 0) {
+      spillGroups();
+    }
+    for (int i = 0; i < partitionNum; i++) {
+      if (appenders[i] != null) {
+        appenders[i].close();
+        appenders[i] = null;
+        pendingPartitions.add(new SpilledPartition(level + 1, spillPaths[i]));
+      }
+    }
+    appenders = null;
+    spillPaths = null;
+  }
+
+  /**
+   * It aggregates the next spilled partition in memory.
+   *
+   * @return false if there is no more partition to be aggregated.
+   */
+  private boolean aggregateNextPartition() throws IOException {
+    SpilledPartition next = pendingPartitions.poll();
+    if (next == null) {
+      return false;
+    }
+
+    if (partialHashTable == null) {
+      int [] spillKeyIds = new int[groupingKeyNum];
+      for (int i = 0; i < groupingKeyNum; i++) {
+        spillKeyIds[i] = i;
+      }
+      partialHashTable = GroupbyHashTable.newInstance(spillSchema, spillKeyIds);
+    }
+    hashTable = partialHashTable;
+    hashTable.clear();
+    groupContexts.clear();
+    memoryConsumption = 0;
+    level = next.level;
+
+    Scanner scanner = new RawFileScanner(context.getConf(), spillSchema, meta, next.path);
+    try {
+      Tuple tuple;
+      while ((tuple = scanner.next()) != null && !context.isStopped()) {
+        aggregate(tuple, true);
+      }
+    } finally {
+      scanner.close();
+    }
+    localFS.delete(next.path, true);
+    spilledFiles.remove(next.path);
+
+    finishRound();
+    groupIdx = 0;
+    return true;
+  }
+
+  /**
+   * It aggregates input tuples until the hash table exceeds the memory budget or the input is exhausted.
+   * If the reduction ratio turns out to be poor, it stops aggregating and turns on the pass-through.
+   */
+  private void aggregatePartially() throws IOException {
+    Tuple tuple;
+    while ((tuple = child.next()) != null && !context.isStopped()) {
+      aggregate(tuple, false);
+      roundInputNum++;
+
+      if (memoryConsumption > memoryBudget || roundInputNum == REDUCTION_CHECK_ROW_NUM) {
+        float groupRatio = (float) hashTable.size() / roundInputNum;
+        if (groupRatio > passThroughRatio) {
+          passThrough = true;
+          info(LOG, "Partial aggregation is turned off (" + hashTable.size() + " groups from " + roundInputNum +
+              " tuples)");
+        }
+        if (passThrough || memoryConsumption > memoryBudget) {
+          flushing = true;
+          return;
+        }
+      }
+    }
+    inputExhausted = true;
+    flushing = true;
+  }
+
+  /**
+   * It computes the partial result of a single input tuple.
+   */
+  private Tuple passThrough(Tuple input) {
+    if (passThroughContexts == null) {
+      passThroughContexts = new FunctionContext[aggFunctionsNum];
+    }
+    for (int i = 0; i < groupingKeyNum; i++) {
+      tuple.put(i, input.get(groupingKeyIds[i]));
+    }
+    for (int i = 0; i < aggFunctionsNum; i++) {
+      passThroughContexts[i] = aggFunctions[i].newContext();
+      aggFunctions[i].merge(passThroughContexts[i], inSchema, input);
+      tuple.put(groupingKeyNum + i, aggFunctions[i].terminate(passThroughContexts[i]));
+    }
+    return tuple;
+  }
+
+  private Tuple nextPartialResult() throws IOException {
+    while (true) {
+      if (flushing) {
+        if (groupIdx < hashTable.size()) {
+          return getGroupResult(groupIdx++);
         }
-      } else { // if the key occurs firstly
-        FunctionContext contexts [] = new FunctionContext[aggFunctionsNum];
-        for(int i = 0; i < aggFunctionsNum; i++) {
-          contexts[i] = aggFunctions[i].newContext();
-          aggFunctions[i].merge(contexts[i], inSchema, tuple);
+        flushing = false;
+        hashTable.clear();
+        groupContexts.clear();
+        memoryConsumption = 0;
+        roundInputNum = 0;
+        groupIdx = 0;
+      }
+
+      if (inputExhausted) {
+        return null;
+      }
+
+      if (passThrough) {
+        Tuple input = child.next();
+        if (input == null || context.isStopped()) {
+          inputExhausted = true;
+          return null;
         }
-        hashTable.put(keyTuple, contexts);
+        return passThrough(input);
       }
+
+      aggregatePartially();
     }
   }
 
+  private Tuple getGroupResult(int groupId) {
+    hashTable.getKey(groupId, tuple);
+    FunctionContext [] contexts = groupContexts.get(groupId);
+
+    int tupleIdx = groupingKeyNum;
+    for (int funcIdx = 0; funcIdx < aggFunctionsNum; funcIdx++, tupleIdx++) {
+      tuple.put(tupleIdx, aggFunctions[funcIdx].terminate(contexts[funcIdx]));
+    }
+
+    return tuple;
+  }
+
   @Override
   public Tuple next() throws IOException {
+    if (partialAggregation) {
+      return nextPartialResult();
+    }
+
     if(!computed) {
       compute();
-      iterator = hashTable.entrySet().iterator();
+      groupIdx = 0;
       computed = true;
     }
 
-    FunctionContext [] contexts;
+    while (groupIdx >= hashTable.size()) {
+      if (!aggregateNextPartition()) {
+        return null;
+      }
+    }
 
-    if (iterator.hasNext()) {
-      Entry<Tuple, FunctionContext []> entry = iterator.next();
-      Tuple keyTuple = entry.getKey();
-      contexts =  entry.getValue();
+    return getGroupResult(groupIdx++);
+  }
 
-      int tupleIdx = 0;
-      for (; tupleIdx < groupingKeyNum; tupleIdx++) {
-        tuple.put(tupleIdx, keyTuple.get(tupleIdx));
-      }
-      for (int funcIdx = 0; funcIdx < aggFunctionsNum; funcIdx++, tupleIdx++) {
-        tuple.put(tupleIdx, aggFunctions[funcIdx].terminate(contexts[funcIdx]));
+  private void cleanup() throws IOException {
+    if (appenders != null) {
+      for (int i = 0; i < partitionNum; i++) {
+        if (appenders[i] != null) {
+          appenders[i].close();
+          appenders[i] = null;
+        }
       }
-
-      return tuple;
-    } else {
-      return null;
+      appenders = null;
+      spillPaths = null;
+    }
+    pendingPartitions.clear();
+    for (Path path : spilledFiles) {
+      localFS.delete(path, true);
     }
+    spilledFiles.clear();
   }
 
   @Override
-  public void rescan() throws IOException {    
-    iterator = hashTable.entrySet().iterator();
+  public void rescan() throws IOException {
+    // emitted groups have been discarded, so the child should be aggregated again.
+    if (partialAggregation) {
+      super.rescan();
+      hashTable.clear();
+      groupContexts.clear();
+      memoryConsumption = 0;
+      roundInputNum = 0;
+      flushing = false;
+      passThrough = false;
+      inputExhausted = false;
+      groupIdx = 0;
+      return;
+    }
+
+    // spilled groups have been consumed, so the child should be aggregated again.
+    if (spilled) {
+      cleanup();
+      super.rescan();
+      hashTable = inputHashTable;
+      hashTable.clear();
+      groupContexts.clear();
+      memoryConsumption = 0;
+      level = 0;
+      spilled = false;
+      computed = false;
+    }
+    groupIdx = 0;
   }
 
   @Override
   public void close() throws IOException {
+    cleanup();
     super.close();
     hashTable.clear();
     hashTable = null;
-    iterator = null;
+    inputHashTable = null;
+    partialHashTable = null;
+    groupContexts.clear();
+    groupContexts = null;
+  }
+
+  /**
+   * A spilled partition, which will be aggregated at the given level.
+   */
+  private static class SpilledPartition {
+    final int level;
+    final Path path;
+
+    SpilledPartition(int level, Path path) {
+      this.level = level;
+      this.path = path;
+    }
   }
 }
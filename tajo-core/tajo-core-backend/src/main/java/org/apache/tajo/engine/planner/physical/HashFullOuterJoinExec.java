@@ -19,7 +19,8 @@
 package org.apache.tajo.engine.planner.physical;
 
 import org.apache.tajo.catalog.Column;
-import org.apache.tajo.engine.eval.EvalNode;
+import org.apache.tajo.engine.eval.compile.CompiledEval;
+import org.apache.tajo.engine.eval.compile.EvalCompiler;
 import org.apache.tajo.engine.planner.PlannerUtil;
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.planner.logical.JoinNode;
@@ -37,7 +38,7 @@ import java.util.*;
 public class HashFullOuterJoinExec extends BinaryPhysicalExec {
   // from logical plan
   protected JoinNode plan;
-  protected EvalNode joinQual;
+  protected CompiledEval joinQual;
 
   protected List<Column[]> joinKeyPairs;
 
@@ -68,14 +69,14 @@ public class HashFullOuterJoinExec extends BinaryPhysicalExec {
     super(context, SchemaUtil.merge(outer.getSchema(), inner.getSchema()),
         plan.getOutSchema(), outer, inner);
     this.plan = plan;
-    this.joinQual = plan.getJoinQual();
+    this.joinQual = EvalCompiler.compile(inSchema, plan.getJoinQual());
     this.tupleSlots = new HashMap<Tuple, List<Tuple>>(10000);
 
     // this hashmap mirrors the evolution of the tupleSlots, with the same keys. For each join key,
     // we have a boolean flag, initially false (whether this join key had at least one match on the left operand)
     this.matched = new HashMap<Tuple, Boolean>(10000);
 
-    this.joinKeyPairs = PlannerUtil.getJoinKeyPairs(joinQual,
+    this.joinKeyPairs = PlannerUtil.getJoinKeyPairs(plan.getJoinQual(),
         outer.getSchema(), inner.getSchema());
 
     leftKeyList = new int[joinKeyPairs.size()];
@@ -178,7 +179,7 @@ public class HashFullOuterJoinExec extends BinaryPhysicalExec {
       rightTuple = iterator.next();
       frameTuple.set(leftTuple, rightTuple); // evaluate a join condition on both tuples
 
-      if (joinQual.eval(inSchema, frameTuple).isTrue()) { // if both tuples are joinable
+      if (joinQual.isTrue(frameTuple)) { // if both tuples are joinable
         projector.eval(frameTuple, outTuple);
         found = true;
         getKeyLeftTuple(leftTuple, leftKeyTuple);
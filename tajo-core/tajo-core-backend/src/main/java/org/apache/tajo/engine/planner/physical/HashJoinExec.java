@@ -18,8 +18,13 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.catalog.Column;
-import org.apache.tajo.engine.eval.EvalNode;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.eval.compile.CompiledEval;
+import org.apache.tajo.engine.eval.compile.EvalCompiler;
 import org.apache.tajo.engine.planner.PlannerUtil;
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.planner.logical.JoinNode;
@@ -27,15 +32,18 @@ import org.apache.tajo.engine.utils.SchemaUtil;
 import org.apache.tajo.storage.FrameTuple;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.util.FileUtil;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
 import java.util.*;
 
 public class HashJoinExec extends BinaryPhysicalExec {
+  private static final Log LOG = LogFactory.getLog(HashJoinExec.class);
+
   // from logical plan
   protected JoinNode plan;
-  protected EvalNode joinQual;
+  protected CompiledEval joinQual;
 
   protected List<Column[]> joinKeyPairs;
 
@@ -43,10 +51,9 @@ public class HashJoinExec extends BinaryPhysicalExec {
   protected boolean first = true;
   protected FrameTuple frameTuple;
   protected Tuple outTuple = null;
-  protected Map<Tuple, List<Tuple>> tupleSlots;
+  protected JoinHashTable hashTable;
   protected Iterator<Tuple> iterator = null;
   protected Tuple leftTuple;
-  protected Tuple leftKeyTuple;
 
   protected int [] leftKeyList;
   protected int [] rightKeyList;
@@ -62,10 +69,9 @@ public class HashJoinExec extends BinaryPhysicalExec {
     super(context, SchemaUtil.merge(leftExec.getSchema(), rightExec.getSchema()), plan.getOutSchema(),
         leftExec, rightExec);
     this.plan = plan;
-    this.joinQual = plan.getJoinQual();
-    this.tupleSlots = new HashMap<Tuple, List<Tuple>>(10000);
+    this.joinQual = EvalCompiler.compile(inSchema, plan.getJoinQual());
 
-    this.joinKeyPairs = PlannerUtil.getJoinKeyPairs(joinQual,
+    this.joinKeyPairs = PlannerUtil.getJoinKeyPairs(plan.getJoinQual(),
         leftExec.getSchema(), rightExec.getSchema());
 
     leftKeyList = new int[joinKeyPairs.size()];
@@ -78,6 +84,7 @@ public class HashJoinExec extends BinaryPhysicalExec {
     for (int i = 0; i < joinKeyPairs.size(); i++) {
       rightKeyList[i] = rightExec.getSchema().getColumnId(joinKeyPairs.get(i)[1].getQualifiedName());
     }
+    this.hashTable = new JoinHashTable(rightExec.getSchema(), rightKeyList);
 
     // for projection
     this.projector = new Projector(inSchema, outSchema, plan.getTargets());
@@ -85,13 +92,6 @@ public class HashJoinExec extends BinaryPhysicalExec {
     // for join
     frameTuple = new FrameTuple();
     outTuple = new VTuple(outSchema.size());
-    leftKeyTuple = new VTuple(leftKeyList.length);
-  }
-
-  protected void getKeyLeftTuple(final Tuple outerTuple, Tuple keyTuple) {
-    for (int i = 0; i < leftKeyList.length; i++) {
-      keyTuple.put(i, outerTuple.get(leftKeyList[i]));
-    }
   }
 
   public Tuple next() throws IOException {
@@ -113,9 +113,8 @@ public class HashJoinExec extends BinaryPhysicalExec {
         }
 
         // getting corresponding right
-        getKeyLeftTuple(leftTuple, leftKeyTuple); // get a left key tuple
-        if (tupleSlots.containsKey(leftKeyTuple)) { // finds right tuples on in-memory hash table.
-          iterator = tupleSlots.get(leftKeyTuple).iterator();
+        iterator = hashTable.find(leftTuple, leftKeyList);
+        if (iterator != null) { // finds right tuples on in-memory hash table.
           shouldGetLeftTuple = false;
         } else {
           shouldGetLeftTuple = true;
@@ -126,7 +125,7 @@ public class HashJoinExec extends BinaryPhysicalExec {
       // getting a next right tuple on in-memory hash table.
       rightTuple = iterator.next();
       frameTuple.set(leftTuple, rightTuple); // evaluate a join condition on both tuples
-      if (joinQual.eval(inSchema, frameTuple).isTrue()) { // if both tuples are joinable
+      if (joinQual.isTrue(frameTuple)) { // if both tuples are joinable
         projector.eval(frameTuple, outTuple);
         found = true;
       }
@@ -145,33 +144,45 @@ public class HashJoinExec extends BinaryPhysicalExec {
 
   protected void loadRightToHashTable() throws IOException {
     Tuple tuple;
-    Tuple keyTuple;
-
     while ((tuple = rightChild.next()) != null) {
-      keyTuple = new VTuple(joinKeyPairs.size());
-      List<Tuple> newValue;
-      for (int i = 0; i < rightKeyList.length; i++) {
-        keyTuple.put(i, tuple.get(rightKeyList[i]));
-      }
-
-      if (tupleSlots.containsKey(keyTuple)) {
-        newValue = tupleSlots.get(keyTuple);
-        newValue.add(tuple);
-        tupleSlots.put(keyTuple, newValue);
-      } else {
-        newValue = new ArrayList<Tuple>();
-        newValue.add(tuple);
-        tupleSlots.put(keyTuple, newValue);
-      }
+      hashTable.add(tuple);
     }
     first = false;
+    // it helps to tune tajo.executor.join.inner.hash-table.volume-ratio against the volume of the build side.
+    if (hashTable.size() > 0) {
+      info(LOG, "Hash join build side: " + hashTable.size() + " rows, "
+          + FileUtil.humanReadableByteCount(hashTable.getMemoryUsage(), false) + " in memory ("
+          + (hashTable.getMemoryUsage() / hashTable.size()) + " bytes per row)");
+    }
+
+    pushDownJoinKeyFilter();
+  }
+
+  /**
+   * It pushes a bloom filter of build keys into the probe-side scan, so that the scan drops left tuples which
+   * never find any matched right tuple. A join which returns unmatched left tuples must not push the filter.
+   */
+  protected void pushDownJoinKeyFilter() {
+    TajoConf conf = context.getConf();
+    if (!conf.getBoolVar(ConfVars.EXECUTOR_JOIN_RUNTIME_FILTER_ENABLED) || !(leftChild instanceof SeqScanExec)
+        || leftKeyList.length == 0
+        || hashTable.getKeyNum() > conf.getIntVar(ConfVars.EXECUTOR_JOIN_RUNTIME_FILTER_MAX_KEY_NUM)) {
+      return;
+    }
+
+    JoinKeyFilter filter = hashTable.createKeyFilter();
+    SeqScanExec scanExec = (SeqScanExec) leftChild;
+    if (scanExec.pushDownJoinKeyFilter(filter, leftKeyList)) {
+      info(LOG, "Join key filter (" + hashTable.getKeyNum() + " keys, " + filter.getByteSize()
+          + " bytes) is pushed down into the scan of " + scanExec.getTableName());
+    }
   }
 
   @Override
   public void rescan() throws IOException {
     super.rescan();
 
-    tupleSlots.clear();
+    hashTable.clear();
     first = true;
 
     finished = false;
@@ -182,9 +193,9 @@ public class HashJoinExec extends BinaryPhysicalExec {
   @Override
   public void close() throws IOException {
     super.close();
-    if (tupleSlots != null) {
-      tupleSlots.clear();
-      tupleSlots = null;
+    if (hashTable != null) {
+      hashTable.clear();
+      hashTable = null;
     }
 
     iterator = null;
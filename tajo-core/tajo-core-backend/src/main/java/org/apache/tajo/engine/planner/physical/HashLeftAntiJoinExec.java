@@ -44,6 +44,13 @@ public class HashLeftAntiJoinExec extends HashJoinExec {
     }
   }
 
+  /**
+   * An anti join returns left tuples which are not matched, so it cannot drop any left tuple in advance.
+   */
+  @Override
+  protected void pushDownJoinKeyFilter() {
+  }
+
   /**
    * The End of Tuple (EOT) condition is true only when no more tuple in the left relation (on disk).
    * next() method finds the first unmatched tuple from both tables.
@@ -73,11 +80,8 @@ public class HashLeftAntiJoinExec extends HashJoinExec {
       }
 
       // Try to find a hash bucket in in-memory hash table
-      getKeyLeftTuple(leftTuple, leftKeyTuple);
-      if (tupleSlots.containsKey(leftKeyTuple)) {
-        // if found, it gets a hash bucket from the hash table.
-        iterator = tupleSlots.get(leftKeyTuple).iterator();
-      } else {
+      iterator = hashTable.find(leftTuple, leftKeyList);
+      if (iterator == null) {
         // if not found, it returns a tuple.
         frameTuple.set(leftTuple, rightNullTuple);
         projector.eval(frameTuple, outTuple);
@@ -90,7 +94,7 @@ public class HashLeftAntiJoinExec extends HashJoinExec {
       while (notFound && iterator.hasNext()) {
         rightTuple = iterator.next();
         frameTuple.set(leftTuple, rightTuple);
-        if (joinQual.eval(inSchema, frameTuple).isTrue()) { // if the matched one is found
+        if (joinQual.isTrue(frameTuple)) { // if the matched one is found
           notFound = false;
         }
       }
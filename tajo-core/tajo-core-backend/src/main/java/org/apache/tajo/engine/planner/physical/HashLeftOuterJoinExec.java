@@ -21,7 +21,8 @@ package org.apache.tajo.engine.planner.physical;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.catalog.Column;
-import org.apache.tajo.engine.eval.EvalNode;
+import org.apache.tajo.engine.eval.compile.CompiledEval;
+import org.apache.tajo.engine.eval.compile.EvalCompiler;
 import org.apache.tajo.engine.planner.PlannerUtil;
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.planner.logical.JoinNode;
@@ -39,7 +40,7 @@ import java.util.*;
 public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
   // from logical plan
   protected JoinNode plan;
-  protected EvalNode joinQual;
+  protected CompiledEval joinQual;
 
   protected List<Column[]> joinKeyPairs;
 
@@ -69,10 +70,10 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
     super(context, SchemaUtil.merge(leftChild.getSchema(), rightChild.getSchema()),
         plan.getOutSchema(), leftChild, rightChild);
     this.plan = plan;
-    this.joinQual = plan.getJoinQual();
+    this.joinQual = EvalCompiler.compile(inSchema, plan.getJoinQual());
     this.tupleSlots = new HashMap<Tuple, List<Tuple>>(10000);
 
-    this.joinKeyPairs = PlannerUtil.getJoinKeyPairs(joinQual, leftChild.getSchema(), rightChild.getSchema());
+    this.joinKeyPairs = PlannerUtil.getJoinKeyPairs(plan.getJoinQual(), leftChild.getSchema(), rightChild.getSchema());
 
     leftKeyList = new int[joinKeyPairs.size()];
     rightKeyList = new int[joinKeyPairs.size()];
@@ -139,7 +140,7 @@ public class HashLeftOuterJoinExec extends BinaryPhysicalExec {
       // getting a next right tuple on in-memory hash table.
       rightTuple = iterator.next();
       frameTuple.set(leftTuple, rightTuple); // evaluate a join condition on both tuples
-      if (joinQual.eval(inSchema, frameTuple).isTrue()) { // if both tuples are joinable
+      if (joinQual.isTrue(frameTuple)) { // if both tuples are joinable
         projector.eval(frameTuple, outTuple);
         found = true;
       }
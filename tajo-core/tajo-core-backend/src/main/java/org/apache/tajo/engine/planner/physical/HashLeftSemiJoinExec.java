@@ -75,11 +75,8 @@ public class HashLeftSemiJoinExec extends HashJoinExec {
       }
 
       // Try to find a hash bucket in in-memory hash table
-      getKeyLeftTuple(leftTuple, leftKeyTuple);
-      if (tupleSlots.containsKey(leftKeyTuple)) {
-        // if found, it gets a hash bucket from the hash table.
-        iterator = tupleSlots.get(leftKeyTuple).iterator();
-      } else {
+      iterator = hashTable.find(leftTuple, leftKeyList);
+      if (iterator == null) {
         continue;
       }
 
@@ -89,7 +86,7 @@ public class HashLeftSemiJoinExec extends HashJoinExec {
       while (notFound && iterator.hasNext()) {
         rightTuple = iterator.next();
         frameTuple.set(leftTuple, rightTuple);
-        if (joinQual.eval(inSchema, frameTuple).isTrue()) { // if the matched one is found
+        if (joinQual.isTrue(frameTuple)) { // if the matched one is found
           notFound = false;
           projector.eval(frameTuple, outTuple);
         }
@@ -22,14 +22,12 @@
 package org.apache.tajo.engine.planner.physical;
 
 import org.apache.tajo.storage.Tuple;
-import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.TupleHash;
 
 public class HashPartitioner extends Partitioner {
-  private final Tuple keyTuple;
-  
+
   public HashPartitioner(final int [] keys, final int numPartitions) {
     super(keys, numPartitions);
-    this.keyTuple = new VTuple(partitionKeyIds.length);
   }
   
   @Override
@@ -39,11 +37,8 @@ public class HashPartitioner extends Partitioner {
     if (numPartitions == 0)
       return 0;
 
-    // build one key tuple
-    for (int i = 0; i < partitionKeyIds.length; i++) {
-      keyTuple.put(i, tuple.get(partitionKeyIds[i]));
-    }
-    return (keyTuple.hashCode() & Integer.MAX_VALUE) %
-        (numPartitions == 32 ? numPartitions-1 : numPartitions);
+    // the key columns are hashed in place without building a key tuple. All partitions are used, including
+    // the last one of 32 partitions, which was left empty when the hash was taken modulo 31.
+    return (TupleHash.hash(tuple, partitionKeyIds) & Integer.MAX_VALUE) % numPartitions;
   }
 }
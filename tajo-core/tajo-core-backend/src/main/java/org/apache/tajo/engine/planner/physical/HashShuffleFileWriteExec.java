@@ -25,16 +25,23 @@ import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.tajo.catalog.CatalogConstants;
 import org.apache.tajo.catalog.CatalogUtil;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
 import org.apache.tajo.catalog.statistics.StatisticsUtil;
 import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.engine.planner.logical.ShuffleFileWriteNode;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.worker.TaskAttemptContext;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -43,6 +50,12 @@ import java.util.Map;
 /**
  * <code>HashShuffleFileWriteExec</code> is a physical executor to store intermediate data into a number of
  * file outputs associated with shuffle keys. The file outputs are stored on local disks.
+ *
+ * If the shuffle file format is RAW, it writes a consolidated output by default. Tuples are buffered per partition,
+ * and each buffer is written as a contiguous region of a single data file whenever the buffer becomes full. If
+ * the buffer is spilled more than once, the spilled runs are merged into one data file by copying byte ranges.
+ * The byte range of each partition is kept in {@link HashShuffleIndex}. A RAW file does not have a header, so
+ * each byte range is a valid RAW stream by itself. Other file formats use one file per partition.
  */
 public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
   private static Log LOG = LogFactory.getLog(HashShuffleFileWriteExec.class);
@@ -53,7 +66,19 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
   private Map<Integer, Appender> appenderMap = new HashMap<Integer, Appender>();
   private final int numShuffleOutputs;
   private final int [] shuffleKeyIds;
-  
+
+  // for consolidated output
+  private final boolean consolidated;
+  private final long bufferSizeLimit;
+  private final RawLocalFileSystem localFS = new RawLocalFileSystem();
+  private List<List<Tuple>> partitionBuffers;
+  private long bufferedBytes = 0;
+  private final List<Path> runPaths = new ArrayList<Path>();
+  private final List<HashShuffleIndex> runIndexes = new ArrayList<HashShuffleIndex>();
+  private final List<TableStats> statSet = new ArrayList<TableStats>();
+  private final boolean compressed;
+  private long uncompressedBytes = 0;
+
   public HashShuffleFileWriteExec(TaskAttemptContext context, final AbstractStorageManager sm,
                                   final ShuffleFileWriteNode plan, final PhysicalExec child) throws IOException {
     super(context, plan.getInSchema(), plan.getOutSchema(), child);
@@ -64,6 +89,14 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     } else {
       this.meta = CatalogUtil.newTableMeta(plan.getStorageType());
     }
+    String codec = context.getConf().getVar(ConfVars.SHUFFLE_COMPRESSION_CODEC);
+    this.compressed = meta.getStoreType() == StoreType.RAW && !codec.isEmpty();
+    if (compressed) {
+      meta.putOption(CatalogConstants.COMPRESSION_CODEC, codec);
+      context.setShuffleCompressionCodec(codec);
+      meta.putOption(RawFile.BLOCK_COMPRESSION_MAX_RATIO,
+          String.valueOf(context.getConf().getFloatVar(ConfVars.SHUFFLE_COMPRESSION_MAX_RATIO)));
+    }
     // about the shuffle
     this.numShuffleOutputs = this.plan.getNumOutputs();
     int i = 0;
@@ -74,6 +107,10 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     }
     this.partitioner = new HashPartitioner(shuffleKeyIds, numShuffleOutputs);
     storeTablePath = new Path(context.getWorkDir(), "output");
+
+    this.consolidated = meta.getStoreType() == StoreType.RAW &&
+        context.getConf().getBoolVar(ConfVars.SHUFFLE_HASH_CONSOLIDATED_ENABLED);
+    this.bufferSizeLimit = context.getConf().getIntVar(ConfVars.SHUFFLE_HASH_CONSOLIDATED_BUFFER_SIZE) * 1048576L;
   }
 
   @Override
@@ -81,6 +118,15 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     super.init();
     FileSystem fs = new RawLocalFileSystem();
     fs.mkdirs(storeTablePath);
+
+    if (consolidated) {
+      // HashPartitioner returns zero for all tuples if the number of outputs is zero.
+      int bufferNum = Math.max(1, numShuffleOutputs);
+      partitionBuffers = new ArrayList<List<Tuple>>(bufferNum);
+      for (int i = 0; i < bufferNum; i++) {
+        partitionBuffers.add(null);
+      }
+    }
   }
   
   private Appender getAppender(int partId) throws IOException {
@@ -111,6 +157,11 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
 
   @Override
   public Tuple next() throws IOException {
+    if (consolidated) {
+      writeConsolidatedOutput();
+      return null;
+    }
+
     Tuple tuple;
     Appender appender;
     int partId;
@@ -120,25 +171,180 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
       appender.addTuple(tuple);
     }
     
-    List<TableStats> statSet = new ArrayList<TableStats>();
     for (Map.Entry<Integer, Appender> entry : appenderMap.entrySet()) {
       int partNum = entry.getKey();
       Appender app = entry.getValue();
       app.flush();
       app.close();
+      addUncompressedBytes(app);
       statSet.add(app.getStats());
       if (app.getStats().getNumRows() > 0) {
-        context.addShuffleFileOutput(partNum, getDataFile(partNum).getName());
+        context.addShuffleFileOutput(partNum, getDataFile(partNum).getName(), app.getStats().getNumBytes());
       }
     }
     
     // Collect and aggregated statistics data
     TableStats aggregated = StatisticsUtil.aggregateTableStat(statSet);
     context.setResultStats(aggregated);
+    reportShuffleVolume(aggregated);
     
     return null;
   }
 
+  private void writeConsolidatedOutput() throws IOException {
+    Tuple tuple;
+    while ((tuple = child.next()) != null) {
+      int partId = partitioner.getPartition(tuple);
+      List<Tuple> buffer = partitionBuffers.get(partId);
+      if (buffer == null) {
+        buffer = new ArrayList<Tuple>();
+        partitionBuffers.set(partId, buffer);
+      }
+      Tuple copied = new VTuple(tuple);
+      buffer.add(copied);
+      bufferedBytes += MemoryUtil.calculateMemorySize(copied);
+
+      if (bufferedBytes > bufferSizeLimit) {
+        spillBuffers();
+      }
+    }
+    if (bufferedBytes > 0) {
+      spillBuffers();
+    }
+
+    HashShuffleIndex index;
+    File dataFile = localFS.pathToFile(new Path(storeTablePath, HashShuffleIndex.DATA_FILE_NAME));
+    if (runPaths.size() == 0) {
+      index = null;
+    } else if (runPaths.size() == 1) {
+      index = runIndexes.get(0);
+      if (!localFS.rename(runPaths.get(0), new Path(storeTablePath, HashShuffleIndex.DATA_FILE_NAME))) {
+        throw new IOException("Cannot rename " + runPaths.get(0) + " to " + dataFile);
+      }
+    } else {
+      index = mergeRuns(dataFile);
+    }
+
+    if (index != null) {
+      index.write(localFS.pathToFile(new Path(storeTablePath, HashShuffleIndex.INDEX_FILE_NAME)));
+      for (int i = 0; i < index.size(); i++) {
+        context.addShuffleFileOutput(index.getPartId(i), HashShuffleIndex.DATA_FILE_NAME, index.getLength(i));
+      }
+    }
+
+    // Collect and aggregated statistics data
+    TableStats aggregated = StatisticsUtil.aggregateTableStat(statSet);
+    context.setResultStats(aggregated);
+    reportShuffleVolume(aggregated);
+  }
+
+  private void addUncompressedBytes(Appender appender) {
+    if (appender instanceof RawFile.RawFileAppender) {
+      uncompressedBytes += ((RawFile.RawFileAppender) appender).getUncompressedBytes();
+    }
+  }
+
+  private void reportShuffleVolume(TableStats aggregated) {
+    if (compressed && uncompressedBytes > 0) {
+      LOG.info("Shuffle output of " + context.getTaskId() + ": " + uncompressedBytes + " bytes before compression, "
+          + aggregated.getNumBytes() + " bytes after compression (ratio: "
+          + String.format("%.3f", (double) aggregated.getNumBytes() / uncompressedBytes) + ")");
+    }
+  }
+
+  /**
+   * It writes all buffered tuples into a run file in the order of partition ids.
+   */
+  private void spillBuffers() throws IOException {
+    Path runPath = new Path(storeTablePath, HashShuffleIndex.DATA_FILE_NAME + "." + runPaths.size());
+    FileAppender appender = (FileAppender) StorageManagerFactory.getStorageManager(context.getConf())
+        .getAppender(meta, outSchema, runPath);
+    appender.enableStats();
+    appender.init();
+
+    HashShuffleIndex index = new HashShuffleIndex();
+    for (int partId = 0; partId < partitionBuffers.size(); partId++) {
+      List<Tuple> buffer = partitionBuffers.get(partId);
+      if (buffer == null || buffer.isEmpty()) {
+        continue;
+      }
+      long offset = appender.getOffset();
+      for (Tuple t : buffer) {
+        appender.addTuple(t);
+      }
+      index.add(partId, offset, appender.getOffset() - offset);
+      partitionBuffers.set(partId, null);
+    }
+    appender.flush();
+    appender.close();
+
+    addUncompressedBytes(appender);
+    statSet.add(appender.getStats());
+    runPaths.add(runPath);
+    runIndexes.add(index);
+    bufferedBytes = 0;
+  }
+
+  /**
+   * It merges spilled runs into a single data file. The byte ranges of the same partition are copied one after
+   * another, so the rows of each partition are contiguous in the merged file.
+   */
+  private HashShuffleIndex mergeRuns(File dataFile) throws IOException {
+    int runNum = runPaths.size();
+    FileChannel [] inputs = new FileChannel[runNum];
+    int [] cursors = new int[runNum];
+    HashShuffleIndex merged = new HashShuffleIndex();
+
+    FileChannel output = new FileOutputStream(dataFile).getChannel();
+    try {
+      for (int i = 0; i < runNum; i++) {
+        inputs[i] = new FileInputStream(localFS.pathToFile(runPaths.get(i))).getChannel();
+      }
+
+      long written = 0;
+      for (int partId = 0; partId < partitionBuffers.size(); partId++) {
+        long length = 0;
+        for (int i = 0; i < runNum; i++) {
+          HashShuffleIndex runIndex = runIndexes.get(i);
+          if (cursors[i] < runIndex.size() && runIndex.getPartId(cursors[i]) == partId) {
+            transfer(inputs[i], runIndex.getOffset(cursors[i]), runIndex.getLength(cursors[i]), output);
+            length += runIndex.getLength(cursors[i]);
+            cursors[i]++;
+          }
+        }
+        if (length > 0) {
+          merged.add(partId, written, length);
+          written += length;
+        }
+      }
+    } finally {
+      for (FileChannel input : inputs) {
+        if (input != null) {
+          input.close();
+        }
+      }
+      output.close();
+    }
+
+    for (Path runPath : runPaths) {
+      localFS.delete(runPath, false);
+    }
+    return merged;
+  }
+
+  private static void transfer(FileChannel input, long offset, long length, FileChannel output) throws IOException {
+    long remain = length;
+    long position = offset;
+    while (remain > 0) {
+      long transferred = input.transferTo(position, remain, output);
+      if (transferred <= 0) {
+        throw new IOException("Unexpected end of a shuffle run at " + position);
+      }
+      position += transferred;
+      remain -= transferred;
+    }
+  }
+
   @Override
   public void rescan() throws IOException {
     // nothing to do   
@@ -151,6 +357,7 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
       appenderMap.clear();
       appenderMap = null;
     }
+    partitionBuffers = null;
 
     partitioner = null;
     plan = null;
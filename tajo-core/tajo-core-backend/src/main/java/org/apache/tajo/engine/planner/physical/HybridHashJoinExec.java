@@ -0,0 +1,484 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.eval.compile.CompiledEval;
+import org.apache.tajo.engine.eval.compile.EvalCompiler;
+import org.apache.tajo.engine.planner.PlannerUtil;
+import org.apache.tajo.engine.planner.Projector;
+import org.apache.tajo.engine.planner.logical.JoinNode;
+import org.apache.tajo.engine.utils.SchemaUtil;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.util.MurmurHash;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.apache.tajo.storage.RawFile.RawFileAppender;
+import static org.apache.tajo.storage.RawFile.RawFileScanner;
+
+/**
+ * This is the hybrid hash join algorithm. It can be characterized by the followings:
+ *
+ * <ul>
+ *   <li>the build (right) side is hash-partitioned into a fixed number of partitions</li>
+ *   <li>each in-memory build partition is a {@link JoinHashTable}, and as many build partitions as
+ *   the memory budget allows are kept in main memory</li>
+ *   <li>if the memory consumption exceeds the budget, the largest in-memory partition is spilled
+ *   into a local temporal file</li>
+ *   <li>probe (left) tuples of in-memory partitions are joined immediately, and the others are spilled</li>
+ *   <li>each spilled partition pair is joined recursively with a different hash seed</li>
+ * </ul>
+ */
+public class HybridHashJoinExec extends BinaryPhysicalExec {
+  /** Class logger */
+  private static final Log LOG = LogFactory.getLog(HybridHashJoinExec.class);
+  /** Beyond this level, a partition is loaded into memory as a whole even if it exceeds the memory budget. */
+  private static final int MAX_RECURSION_LEVEL = 4;
+  /** the initial number of slots of each partition table */
+  private static final int PARTITION_TABLE_CAPACITY = 64;
+  private static final int MIN_PAGE_SIZE = 4 * 1024;
+
+  // from logical plan
+  private JoinNode plan;
+  private CompiledEval joinQual;
+
+  private final int [] leftKeyList;
+  private final int [] rightKeyList;
+
+  /** the number of partitions of each join round */
+  private final int partitionNum;
+  /**
+   * If the memory usage of the build partition tables exceeds it, some build partitions are spilled into a disk.
+   * It is the same threshold with which the planner checks if a build side fits in a {@link JoinHashTable}.
+   */
+  private long memoryBudget;
+
+  /** meta for spilled partitions */
+  private final TableMeta meta;
+  /** temporal dir */
+  private final Path joinTmpDir;
+  /** It enables round-robin disks allocation */
+  private final LocalDirAllocator localDirAllocator;
+  /** local file system */
+  private final RawLocalFileSystem localFS;
+
+  // projection
+  private final Projector projector;
+
+  ///////////////////////////////////////////////////
+  // transient variables
+  ///////////////////////////////////////////////////
+  private boolean first = true;
+  private boolean finished = false;
+  private boolean shouldGetLeftTuple = true;
+  private FrameTuple frameTuple;
+  private Tuple outTuple;
+  private Tuple leftTuple;
+  private Iterator<Tuple> iterator;
+
+  /** the join round currently being probed */
+  private JoinRound currentRound;
+  /** If it is not null, probe tuples are read from a spilled partition instead of the left child. */
+  private Scanner probeScanner;
+  private Path probePath;
+  /** spilled partition pairs which will be joined in subsequent rounds */
+  private LinkedList<SpilledPartition> pendingPartitions = new LinkedList<SpilledPartition>();
+  /** all spilled files which are used for cleaning */
+  private Set<Path> spilledFiles = new HashSet<Path>();
+  private int spillFileId = 0;
+
+  public HybridHashJoinExec(TaskAttemptContext context, JoinNode plan, PhysicalExec leftExec,
+                            PhysicalExec rightExec) {
+    super(context, SchemaUtil.merge(leftExec.getSchema(), rightExec.getSchema()), plan.getOutSchema(),
+        leftExec, rightExec);
+    this.plan = plan;
+    this.joinQual = EvalCompiler.compile(inSchema, plan.getJoinQual());
+
+    List<Column[]> joinKeyPairs = PlannerUtil.getJoinKeyPairs(plan.getJoinQual(),
+        leftExec.getSchema(), rightExec.getSchema());
+
+    leftKeyList = new int[joinKeyPairs.size()];
+    rightKeyList = new int[joinKeyPairs.size()];
+
+    for (int i = 0; i < joinKeyPairs.size(); i++) {
+      leftKeyList[i] = leftExec.getSchema().getColumnId(joinKeyPairs.get(i)[0].getQualifiedName());
+    }
+
+    for (int i = 0; i < joinKeyPairs.size(); i++) {
+      rightKeyList[i] = rightExec.getSchema().getColumnId(joinKeyPairs.get(i)[1].getQualifiedName());
+    }
+
+    this.partitionNum = Math.max(2, context.getConf().getIntVar(ConfVars.EXECUTOR_HYBRID_HASH_JOIN_PARTITION_NUM));
+    this.memoryBudget = context.getConf().getLongVar(ConfVars.EXECUTOR_INNER_JOIN_INMEMORY_HASH_THRESHOLD);
+
+    this.meta = CatalogUtil.newTableMeta(StoreType.RAW);
+    this.joinTmpDir = getExecutorTmpDir();
+    this.localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+    this.localFS = new RawLocalFileSystem();
+
+    // for projection
+    this.projector = new Projector(inSchema, outSchema, plan.getTargets());
+
+    // for join
+    frameTuple = new FrameTuple();
+    outTuple = new VTuple(outSchema.size());
+  }
+
+  @VisibleForTesting
+  public void setMemoryBudget(long memoryBudget) {
+    this.memoryBudget = memoryBudget;
+  }
+
+  public JoinNode getPlan() {
+    return this.plan;
+  }
+
+  /**
+   * It returns a partition id for the join keys of a tuple. Each recursion level uses a different seed so that
+   * the tuples of one spilled partition are spread over all partitions of the next round.
+   */
+  private int getPartition(Tuple tuple, int [] keyIds, int level) {
+    int h = (int) MurmurHash.fmix64(TupleHash.hash(tuple, keyIds) + level * 0x9E3779B97F4A7C15L);
+    return (h & Integer.MAX_VALUE) % partitionNum;
+  }
+
+  /**
+   * Small pages keep the allocation of each partition table close to its rows, so that the memory usage
+   * is compared with the budget at a fine granularity.
+   */
+  private int getPageSize() {
+    long pageSize = memoryBudget / partitionNum / 4;
+    return (int) Math.max(MIN_PAGE_SIZE, Math.min(PagedRowStore.DEFAULT_PAGE_SIZE, pageSize));
+  }
+
+  private Path getSpillPathForWrite(String prefix, int level, int partId) throws IOException {
+    Path path = localDirAllocator.getLocalPathForWrite(
+        joinTmpDir + "/" + prefix + "_" + level + "_" + partId + "_" + (spillFileId++), context.getConf());
+    spilledFiles.add(path);
+    return path;
+  }
+
+  private void deleteSpilledFile(Path path) throws IOException {
+    localFS.delete(path, true);
+    spilledFiles.remove(path);
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    if (first) {
+      currentRound = new JoinRound(0);
+      loadRightToHashTable(currentRound, null);
+      first = false;
+    }
+
+    Tuple rightTuple;
+
+    while (!finished) {
+
+      if (shouldGetLeftTuple) { // initially, it is true.
+        leftTuple = probeScanner == null ? leftChild.next() : probeScanner.next();
+        if (leftTuple == null) { // the current round is completed.
+          if (!startNextRound()) {
+            finished = true;
+            return null;
+          }
+          continue;
+        }
+
+        int partId = getPartition(leftTuple, leftKeyList, currentRound.level);
+
+        if (currentRound.isSpilled(partId)) { // it will be joined in a subsequent round.
+          currentRound.spillProbeTuple(partId, leftTuple);
+          continue;
+        }
+
+        iterator = currentRound.tables[partId].find(leftTuple, leftKeyList);
+        if (iterator == null) {
+          continue;
+        }
+        shouldGetLeftTuple = false;
+      }
+
+      // getting a next right tuple on in-memory hash table.
+      rightTuple = iterator.next();
+      if (!iterator.hasNext()) { // no more right tuples for this hash key
+        shouldGetLeftTuple = true;
+      }
+
+      frameTuple.set(leftTuple, rightTuple); // evaluate a join condition on both tuples
+      if (joinQual.isTrue(frameTuple)) { // if both tuples are joinable
+        projector.eval(frameTuple, outTuple);
+        return outTuple;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * It loads build tuples into the given round. If <code>buildScanner</code> is null, tuples are read from
+   * the right child.
+   */
+  private void loadRightToHashTable(JoinRound round, Scanner buildScanner) throws IOException {
+    long startTime = System.currentTimeMillis();
+    Tuple tuple;
+
+    while ((tuple = (buildScanner == null ? rightChild.next() : buildScanner.next())) != null) {
+      int partId = getPartition(tuple, rightKeyList, round.level);
+      if (round.isSpilled(partId)) {
+        round.buildAppenders[partId].addTuple(tuple);
+        continue;
+      }
+
+      JoinHashTable table = round.tables[partId];
+      long usage = table.getMemoryUsage();
+      table.add(tuple);
+      round.memoryConsumption += table.getMemoryUsage() - usage;
+
+      // A partition cannot be split further beyond the maximum level. Then, it keeps all tuples in memory.
+      while (round.memoryConsumption > memoryBudget && round.level < MAX_RECURSION_LEVEL) {
+        int victim = round.getLargestInMemoryPartition();
+        if (victim < 0) {
+          break;
+        }
+        round.spillBuildPartition(victim);
+      }
+    }
+
+    round.closeBuildAppenders();
+    info(LOG, "Hybrid hash join round (level " + round.level + ") loaded " +
+        FileUtil.humanReadableByteCount(round.memoryConsumption, false) + " in memory, " +
+        round.spilledNum + " of " + partitionNum + " partitions spilled (" +
+        (System.currentTimeMillis() - startTime) + " msec)");
+  }
+
+  /**
+   * It finishes the current round, and then it starts to join the next spilled partition pair.
+   *
+   * @return false if there is no more partition to be joined.
+   */
+  private boolean startNextRound() throws IOException {
+    currentRound.finish();
+    currentRound = null;
+    closeProbeScanner();
+
+    SpilledPartition next = pendingPartitions.poll();
+    if (next == null) {
+      return false;
+    }
+
+    JoinRound round = new JoinRound(next.level);
+    Scanner buildScanner = new RawFileScanner(context.getConf(), rightChild.getSchema(), meta, next.buildPath);
+    try {
+      loadRightToHashTable(round, buildScanner);
+    } finally {
+      buildScanner.close();
+    }
+    deleteSpilledFile(next.buildPath);
+
+    currentRound = round;
+    probePath = next.probePath;
+    probeScanner = new RawFileScanner(context.getConf(), leftChild.getSchema(), meta, next.probePath);
+    shouldGetLeftTuple = true;
+    return true;
+  }
+
+  private void closeProbeScanner() throws IOException {
+    if (probeScanner != null) {
+      probeScanner.close();
+      probeScanner = null;
+      deleteSpilledFile(probePath);
+      probePath = null;
+    }
+  }
+
+  private void cleanup() throws IOException {
+    if (currentRound != null) {
+      currentRound.closeAllAppenders();
+      currentRound = null;
+    }
+    closeProbeScanner();
+    pendingPartitions.clear();
+    for (Path path : spilledFiles) {
+      localFS.delete(path, true);
+    }
+    spilledFiles.clear();
+  }
+
+  @Override
+  public void rescan() throws IOException {
+    super.rescan();
+    cleanup();
+
+    first = true;
+    finished = false;
+    iterator = null;
+    shouldGetLeftTuple = true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    cleanup();
+    super.close();
+
+    iterator = null;
+    plan = null;
+    joinQual = null;
+  }
+
+  /**
+   * A spilled pair of build and probe partitions, which will be joined at the given level.
+   */
+  private static class SpilledPartition {
+    final int level;
+    final Path buildPath;
+    final Path probePath;
+
+    SpilledPartition(int level, Path buildPath, Path probePath) {
+      this.level = level;
+      this.buildPath = buildPath;
+      this.probePath = probePath;
+    }
+  }
+
+  /**
+   * One round of hybrid hash join. The first round consumes the children, and the subsequent rounds
+   * consume spilled partition pairs.
+   */
+  private class JoinRound {
+    final int level;
+    /** in-memory hash tables for each partition. A spilled partition has null. */
+    final JoinHashTable [] tables;
+    final Path [] buildPaths;
+    final RawFileAppender [] buildAppenders;
+    final Path [] probePaths;
+    final RawFileAppender [] probeAppenders;
+    long memoryConsumption = 0;
+    int spilledNum = 0;
+
+    JoinRound(int level) {
+      this.level = level;
+      tables = new JoinHashTable[partitionNum];
+      int pageSize = getPageSize();
+      for (int i = 0; i < partitionNum; i++) {
+        tables[i] = new JoinHashTable(rightChild.getSchema(), rightKeyList, pageSize, PARTITION_TABLE_CAPACITY);
+        memoryConsumption += tables[i].getMemoryUsage();
+      }
+      buildPaths = new Path[partitionNum];
+      buildAppenders = new RawFileAppender[partitionNum];
+      probePaths = new Path[partitionNum];
+      probeAppenders = new RawFileAppender[partitionNum];
+    }
+
+    boolean isSpilled(int partId) {
+      return tables[partId] == null;
+    }
+
+    int getLargestInMemoryPartition() {
+      int victim = -1;
+      long largest = 0;
+      for (int i = 0; i < partitionNum; i++) {
+        if (tables[i] != null && tables[i].size() > 0 && tables[i].getMemoryUsage() > largest) {
+          largest = tables[i].getMemoryUsage();
+          victim = i;
+        }
+      }
+      return victim;
+    }
+
+    void spillBuildPartition(int partId) throws IOException {
+      buildPaths[partId] = getSpillPathForWrite("build", level, partId);
+      buildAppenders[partId] = new RawFileAppender(context.getConf(), rightChild.getSchema(), meta,
+          buildPaths[partId]);
+      buildAppenders[partId].init();
+
+      Iterator<Tuple> it = tables[partId].iterator();
+      while (it.hasNext()) {
+        buildAppenders[partId].addTuple(it.next());
+      }
+
+      memoryConsumption -= tables[partId].getMemoryUsage();
+      tables[partId].clear();
+      tables[partId] = null;
+      spilledNum++;
+    }
+
+    void spillProbeTuple(int partId, Tuple tuple) throws IOException {
+      if (probeAppenders[partId] == null) {
+        probePaths[partId] = getSpillPathForWrite("probe", level, partId);
+        probeAppenders[partId] = new RawFileAppender(context.getConf(), leftChild.getSchema(), meta,
+            probePaths[partId]);
+        probeAppenders[partId].init();
+      }
+      probeAppenders[partId].addTuple(tuple);
+    }
+
+    void closeBuildAppenders() throws IOException {
+      for (int i = 0; i < partitionNum; i++) {
+        if (buildAppenders[i] != null) {
+          buildAppenders[i].close();
+          buildAppenders[i] = null;
+        }
+      }
+    }
+
+    void closeAllAppenders() throws IOException {
+      closeBuildAppenders();
+      for (int i = 0; i < partitionNum; i++) {
+        if (probeAppenders[i] != null) {
+          probeAppenders[i].close();
+          probeAppenders[i] = null;
+        }
+      }
+    }
+
+    /**
+     * It releases the in-memory tables, and it schedules spilled partition pairs for the next level.
+     * If a spilled build partition does not have any probe tuple, it is just removed.
+     */
+    void finish() throws IOException {
+      Arrays.fill(tables, null);
+
+      for (int i = 0; i < partitionNum; i++) {
+        if (probeAppenders[i] != null) {
+          probeAppenders[i].close();
+          probeAppenders[i] = null;
+          pendingPartitions.add(new SpilledPartition(level + 1, buildPaths[i], probePaths[i]));
+        } else if (buildPaths[i] != null) {
+          deleteSpilledFile(buildPaths[i]);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,321 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.storage.PagedRowStore;
+import org.apache.tajo.storage.PagedTuple;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.TupleHash;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A hash table for the build side of a hash join. Build rows are serialized into the byte pages of
+ * {@link PagedRowStore}, and an open-addressing index maps each distinct join key to the first and last rows
+ * of a chain. Rows having the same key are chained through the link field of rows in their insertion order.
+ *
+ * The index consists of primitive arrays only, and a probe compares join keys against the serialized fields.
+ * So, neither building nor probing allocates any key tuple or bucket list per row.
+ *
+ * A row whose join key includes null is not added because it never satisfies an equi-join condition.
+ */
+public class JoinHashTable {
+  private static final int DEFAULT_CAPACITY = 1024;
+  private static final float LOAD_FACTOR = 0.5f;
+
+  private final PagedRowStore rows;
+  private final int [] keyIds;
+  private final int initialCapacity;
+
+  /** key id + 1 of each slot. 0 means an empty slot. */
+  private int [] slots;
+  private int mask;
+  private int threshold;
+
+  /** hash value of each distinct key */
+  private int [] keyHashes;
+  /** addresses of the first and the last rows of each distinct key */
+  private long [] heads;
+  private long [] tails;
+  private int keyNum = 0;
+
+  /** a row used to compare keys */
+  private final PagedTuple keyRow;
+  private final RowIterator iterator;
+
+  /**
+   * @param schema the schema of build rows
+   * @param keyIds the column ids of join keys in build rows
+   */
+  public JoinHashTable(Schema schema, int [] keyIds) {
+    this(schema, keyIds, PagedRowStore.DEFAULT_PAGE_SIZE, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * A small page size and initial capacity let a table hold a few rows without allocating much memory
+   * in advance. It is useful when many tables share a memory budget.
+   *
+   * @param schema the schema of build rows
+   * @param keyIds the column ids of join keys in build rows
+   * @param pageSize the size of each row page
+   * @param initialCapacity the initial number of slots, which is rounded up to a power of two
+   */
+  public JoinHashTable(Schema schema, int [] keyIds, int pageSize, int initialCapacity) {
+    this.rows = new PagedRowStore(schema, pageSize);
+    this.keyIds = keyIds;
+    this.initialCapacity = Integer.highestOneBit(Math.max(2, initialCapacity - 1)) << 1;
+    this.keyRow = new PagedTuple(rows);
+    this.iterator = new RowIterator(new PagedTuple(rows));
+    init();
+  }
+
+  private void init() {
+    slots = new int[initialCapacity];
+    mask = initialCapacity - 1;
+    threshold = (int) (initialCapacity * LOAD_FACTOR);
+    keyHashes = new int[initialCapacity];
+    heads = new long[initialCapacity];
+    tails = new long[initialCapacity];
+    keyNum = 0;
+  }
+
+  /**
+   * @return the number of rows in this table
+   */
+  public int size() {
+    return rows.size();
+  }
+
+  /**
+   * @return the number of distinct keys in this table
+   */
+  public int getKeyNum() {
+    return keyNum;
+  }
+
+  /**
+   * @return the approximated number of bytes used by this table
+   */
+  public long getMemoryUsage() {
+    return rows.getAllocatedBytes()
+        + (long) slots.length * (Integer.SIZE / 8)
+        + (long) keyHashes.length * ((Integer.SIZE + Long.SIZE * 2) / 8);
+  }
+
+  /**
+   * It adds a build row. The fields of a given tuple are copied, so the tuple can be reused by the caller.
+   */
+  public void add(Tuple tuple) {
+    if (hasNullKey(tuple, keyIds)) {
+      return;
+    }
+
+    int hash = TupleHash.hash(tuple, keyIds);
+    int idx = hash & mask;
+    while (slots[idx] != 0) {
+      int keyId = slots[idx] - 1;
+      if (keyHashes[keyId] == hash && keyEquals(keyId, tuple, keyIds)) {
+        long address = rows.add(tuple);
+        rows.setLink(tails[keyId], address);
+        tails[keyId] = address;
+        return;
+      }
+      idx = (idx + 1) & mask;
+    }
+
+    long address = rows.add(tuple);
+    int keyId = keyNum++;
+    if (keyId == keyHashes.length) {
+      int newLength = keyHashes.length * 2;
+      keyHashes = Arrays.copyOf(keyHashes, newLength);
+      heads = Arrays.copyOf(heads, newLength);
+      tails = Arrays.copyOf(tails, newLength);
+    }
+    keyHashes[keyId] = hash;
+    heads[keyId] = address;
+    tails[keyId] = address;
+    slots[idx] = keyId + 1;
+
+    if (keyNum > threshold) {
+      rehash(slots.length * 2);
+    }
+  }
+
+  /**
+   * It finds the build rows whose join keys are equal to those of a probe tuple.
+   *
+   * The returned iterator and the tuples returned by the iterator are reused by the next call of this method.
+   *
+   * @param probeTuple a probe tuple
+   * @param probeKeyIds the column ids of join keys in probe tuples, which correspond to the build key ids
+   * @return an iterator over the matched rows in their insertion order, or null if no row is matched
+   */
+  public Iterator<Tuple> find(Tuple probeTuple, int [] probeKeyIds) {
+    if (hasNullKey(probeTuple, probeKeyIds)) {
+      return null;
+    }
+
+    int hash = TupleHash.hash(probeTuple, probeKeyIds);
+    int idx = hash & mask;
+    while (slots[idx] != 0) {
+      int keyId = slots[idx] - 1;
+      if (keyHashes[keyId] == hash && keyEquals(keyId, probeTuple, probeKeyIds)) {
+        iterator.reset(heads[keyId]);
+        return iterator;
+      }
+      idx = (idx + 1) & mask;
+    }
+    return null;
+  }
+
+  /**
+   * It returns all rows in this table. Rows having the same key are returned together in their insertion order.
+   *
+   * The tuples returned by the iterator are reused, and the iterator is invalidated by {@link #add(Tuple)}.
+   */
+  public Iterator<Tuple> iterator() {
+    return new AllRowIterator(new PagedTuple(rows));
+  }
+
+  /**
+   * @return a bloom filter which contains all distinct keys of this table
+   */
+  public JoinKeyFilter createKeyFilter() {
+    JoinKeyFilter filter = new JoinKeyFilter(keyNum);
+    for (int keyId = 0; keyId < keyNum; keyId++) {
+      filter.add(keyHashes[keyId]);
+    }
+    return filter;
+  }
+
+  public void clear() {
+    rows.clear();
+    init();
+  }
+
+  private static boolean hasNullKey(Tuple tuple, int [] keyIds) {
+    for (int keyId : keyIds) {
+      if (tuple.isNull(keyId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean keyEquals(int keyId, Tuple tuple, int [] tupleKeyIds) {
+    keyRow.set(heads[keyId]);
+    for (int i = 0; i < keyIds.length; i++) {
+      if (!keyRow.equalsTo(keyIds[i], tuple.get(tupleKeyIds[i]))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void rehash(int newCapacity) {
+    slots = new int[newCapacity];
+    mask = newCapacity - 1;
+    threshold = (int) (newCapacity * LOAD_FACTOR);
+
+    for (int keyId = 0; keyId < keyNum; keyId++) {
+      int idx = keyHashes[keyId] & mask;
+      while (slots[idx] != 0) {
+        idx = (idx + 1) & mask;
+      }
+      slots[idx] = keyId + 1;
+    }
+  }
+
+  /**
+   * An iterator which follows the chain of rows from a head row.
+   */
+  private class RowIterator implements Iterator<Tuple> {
+    private final PagedTuple row;
+    private long next = -1;
+
+    RowIterator(PagedTuple row) {
+      this.row = row;
+    }
+
+    void reset(long head) {
+      next = head;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != -1;
+    }
+
+    @Override
+    public Tuple next() {
+      if (next == -1) {
+        throw new NoSuchElementException();
+      }
+      row.set(next);
+      next = rows.getLink(next);
+      return row;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  /**
+   * An iterator which follows the chains of all distinct keys one by one.
+   */
+  private class AllRowIterator implements Iterator<Tuple> {
+    private final PagedTuple row;
+    private int keyId = 0;
+    private long next;
+
+    AllRowIterator(PagedTuple row) {
+      this.row = row;
+      this.next = keyNum > 0 ? heads[0] : -1;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != -1;
+    }
+
+    @Override
+    public Tuple next() {
+      if (next == -1) {
+        throw new NoSuchElementException();
+      }
+      row.set(next);
+      next = rows.getLink(next);
+      if (next == -1 && ++keyId < keyNum) {
+        next = heads[keyId];
+      }
+      return row;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
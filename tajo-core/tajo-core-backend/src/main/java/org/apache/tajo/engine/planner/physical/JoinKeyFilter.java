@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.TupleHash;
+import org.apache.tajo.util.MurmurHash;
+
+/**
+ * A bloom filter over the join keys of the build side of a hash join.
+ *
+ * After a hash join builds its hash table, this filter is pushed into the scan of the probe side. Then, the scan can
+ * drop rows which never find any matched build row before they are projected and passed to the join.
+ * A filter never drops a row whose join key is in the build side, but it may pass a row which is not.
+ *
+ * Keys are hashed by {@link TupleHash}, which is also used by {@link JoinHashTable}. So, the filter is consistent
+ * with the lookup of the hash table.
+ */
+public class JoinKeyFilter {
+  /** About 1% of false positives with 4 hash functions */
+  private static final int BITS_PER_KEY = 10;
+  private static final int HASH_NUM = 4;
+  private static final int MIN_BIT_NUM = 64;
+
+  private final long [] bits;
+  private final int mask;
+
+  /**
+   * @param expectedKeyNum the expected number of distinct keys
+   */
+  public JoinKeyFilter(int expectedKeyNum) {
+    long bitNum = Math.max(MIN_BIT_NUM, (long) expectedKeyNum * BITS_PER_KEY);
+    int capacity = (int) Math.min(1L << 30, Long.highestOneBit(bitNum - 1) << 1);
+    this.bits = new long[capacity / Long.SIZE];
+    this.mask = capacity - 1;
+  }
+
+  /**
+   * @param hash the hash value of a key computed by {@link TupleHash}
+   */
+  public void add(int hash) {
+    int h2 = secondHash(hash);
+    for (int i = 0; i < HASH_NUM; i++) {
+      int idx = (hash + i * h2) & mask;
+      bits[idx >>> 6] |= 1L << idx;
+    }
+  }
+
+  /**
+   * @param hash the hash value of a key computed by {@link TupleHash}
+   * @return false if the key is definitely not in this filter
+   */
+  public boolean mightContain(int hash) {
+    int h2 = secondHash(hash);
+    for (int i = 0; i < HASH_NUM; i++) {
+      int idx = (hash + i * h2) & mask;
+      if ((bits[idx >>> 6] & (1L << idx)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param tuple a probe tuple
+   * @param keyIds the column ids of join keys in the tuple
+   * @return false if the join key of the tuple is null or it is definitely not in this filter
+   */
+  public boolean mightContain(Tuple tuple, int [] keyIds) {
+    for (int keyId : keyIds) {
+      if (tuple.isNull(keyId)) {
+        return false;
+      }
+    }
+    return mightContain(TupleHash.hash(tuple, keyIds));
+  }
+
+  /**
+   * @return the number of bytes of the bit array
+   */
+  public int getByteSize() {
+    return bits.length * (Long.SIZE / 8);
+  }
+
+  /**
+   * The second hash of double hashing. It must be odd so that probes do not collapse into a few bits.
+   */
+  private static int secondHash(int hash) {
+    return (int) (MurmurHash.fmix64(hash) >>> 32) | 1;
+  }
+}
@@ -20,7 +20,8 @@ package org.apache.tajo.engine.planner.physical;
 
 import com.google.common.base.Preconditions;
 import org.apache.tajo.catalog.SortSpec;
-import org.apache.tajo.engine.eval.EvalNode;
+import org.apache.tajo.engine.eval.compile.CompiledEval;
+import org.apache.tajo.engine.eval.compile.EvalCompiler;
 import org.apache.tajo.engine.planner.PlannerUtil;
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.planner.logical.JoinNode;
@@ -38,7 +39,7 @@ import java.util.List;
 public class MergeJoinExec extends BinaryPhysicalExec {
   // from logical plan
   private JoinNode joinNode;
-  private EvalNode joinQual;
+  private CompiledEval joinQual;
 
   // temporal tuples and states for nested loop join
   private FrameTuple frameTuple;
@@ -68,7 +69,7 @@ public class MergeJoinExec extends BinaryPhysicalExec {
     Preconditions.checkArgument(plan.hasJoinQual(), "Sort-merge join is only used for the equi-join, " +
         "but there is no join condition");
     this.joinNode = plan;
-    this.joinQual = plan.getJoinQual();
+    this.joinQual = EvalCompiler.compile(inSchema, plan.getJoinQual());
 
     this.outerTupleSlots = new ArrayList<Tuple>(INITIAL_TUPLE_SLOT);
     this.innerTupleSlots = new ArrayList<Tuple>(INITIAL_TUPLE_SLOT);
@@ -161,7 +162,7 @@ public class MergeJoinExec extends BinaryPhysicalExec {
 
       frameTuple.set(outerNext, innerIterator.next());
 
-      if (joinQual.eval(inSchema, frameTuple).isTrue()) {
+      if (joinQual.isTrue(frameTuple)) {
         projector.eval(frameTuple, outTuple);
         return outTuple;
       }
@@ -18,7 +18,8 @@
 
 package org.apache.tajo.engine.planner.physical;
 
-import org.apache.tajo.engine.eval.EvalNode;
+import org.apache.tajo.engine.eval.compile.CompiledEval;
+import org.apache.tajo.engine.eval.compile.EvalCompiler;
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.planner.logical.JoinNode;
 import org.apache.tajo.storage.FrameTuple;
@@ -31,7 +32,7 @@ import java.io.IOException;
 public class NLJoinExec extends BinaryPhysicalExec {
   // from logical plan
   private JoinNode plan;
-  private EvalNode joinQual;
+  private CompiledEval joinQual;
 
 
   // temporal tuples and states for nested loop join
@@ -50,7 +51,7 @@ public class NLJoinExec extends BinaryPhysicalExec {
     this.plan = plan;
 
     if (plan.hasJoinQual()) {
-      this.joinQual = plan.getJoinQual();
+      this.joinQual = EvalCompiler.compile(inSchema, plan.getJoinQual());
     }
 
     // for projection
@@ -85,7 +86,7 @@ public class NLJoinExec extends BinaryPhysicalExec {
 
       frameTuple.set(outerTuple, innerTuple);
       if (joinQual != null) {
-        if (joinQual.eval(inSchema, frameTuple).isTrue()) {
+        if (joinQual.isTrue(frameTuple)) {
           projector.eval(frameTuple, outTuple);
           return outTuple;
         }
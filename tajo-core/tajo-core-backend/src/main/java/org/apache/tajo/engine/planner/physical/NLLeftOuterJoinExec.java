@@ -18,7 +18,8 @@
 
 package org.apache.tajo.engine.planner.physical;
 
-import org.apache.tajo.engine.eval.EvalNode;
+import org.apache.tajo.engine.eval.compile.CompiledEval;
+import org.apache.tajo.engine.eval.compile.EvalCompiler;
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.planner.logical.JoinNode;
 import org.apache.tajo.engine.utils.TupleUtil;
@@ -32,7 +33,7 @@ import java.io.IOException;
 public class NLLeftOuterJoinExec extends BinaryPhysicalExec {
   // from logical plan
   private JoinNode plan;
-  private EvalNode joinQual;
+  private CompiledEval joinQual;
 
   // temporal tuples and states for nested loop join
   private boolean needNextRightTuple;
@@ -53,7 +54,7 @@ public class NLLeftOuterJoinExec extends BinaryPhysicalExec {
     this.plan = plan;
 
     if (plan.hasJoinQual()) {
-      this.joinQual = plan.getJoinQual();
+      this.joinQual = EvalCompiler.compile(inSchema, plan.getJoinQual());
     }
 
     // for projection
@@ -106,7 +107,7 @@ public class NLLeftOuterJoinExec extends BinaryPhysicalExec {
 
       frameTuple.set(leftTuple, rightTuple);
       ;
-      if (joinQual.eval(inSchema, frameTuple).isTrue()) {
+      if (joinQual.isTrue(frameTuple)) {
         projector.eval(frameTuple, outTuple);
         foundAtLeastOneMatch = true;
         return outTuple;
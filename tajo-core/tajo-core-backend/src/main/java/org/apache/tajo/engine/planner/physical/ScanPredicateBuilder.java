@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.engine.eval.*;
+import org.apache.tajo.storage.ColumnPredicate;
+import org.apache.tajo.storage.ColumnPredicate.Operator;
+import org.apache.tajo.storage.ScanPredicate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * It extracts the simple conjuncts of a search condition which a scanner can evaluate by itself. They are
+ * <code>column op constant</code> (or <code>constant op column</code>), <code>column IN (constants)</code>,
+ * <code>column IS NULL</code> and <code>column IS NOT NULL</code>. The other conjuncts are not pushed down.
+ */
+public class ScanPredicateBuilder {
+
+  /**
+   * @param schema the schema which the scanner reads
+   * @param qual a search condition
+   * @return a scan predicate, or null if no conjunct can be pushed down
+   */
+  public static ScanPredicate build(Schema schema, EvalNode qual) {
+    if (qual == null) {
+      return null;
+    }
+
+    List<ColumnPredicate> predicates = new ArrayList<ColumnPredicate>();
+    for (EvalNode conjunct : AlgebraicUtil.toConjunctiveNormalFormArray(qual)) {
+      ColumnPredicate predicate = toColumnPredicate(schema, conjunct);
+      if (predicate != null) {
+        predicates.add(predicate);
+      }
+    }
+
+    if (predicates.isEmpty()) {
+      return null;
+    }
+    return new ScanPredicate(predicates.toArray(new ColumnPredicate[predicates.size()]));
+  }
+
+  private static ColumnPredicate toColumnPredicate(Schema schema, EvalNode expr) {
+    switch (expr.getType()) {
+    case EQUAL:
+    case NOT_EQUAL:
+    case LTH:
+    case LEQ:
+    case GTH:
+    case GEQ: {
+      EvalNode left = expr.getLeftExpr();
+      EvalNode right = expr.getRightExpr();
+      Operator operator = toOperator(expr.getType());
+      if (left.getType() == EvalType.CONST && right.getType() == EvalType.FIELD) {
+        EvalNode tmp = left;
+        left = right;
+        right = tmp;
+        operator = commute(operator);
+      }
+      if (left.getType() != EvalType.FIELD || right.getType() != EvalType.CONST) {
+        return null;
+      }
+
+      Column column = ((FieldEval) left).getColumnRef();
+      Datum value = ((ConstEval) right).getValue();
+      if (!isPushable(schema, column, value)) {
+        return null;
+      }
+      return new ColumnPredicate(column, operator, value);
+    }
+
+    case IN: {
+      InEval inEval = (InEval) expr;
+      if (inEval.isNot() || inEval.getLeftExpr().getType() != EvalType.FIELD ||
+          inEval.getRightExpr().getType() != EvalType.ROW_CONSTANT) {
+        return null;
+      }
+
+      Column column = ((FieldEval) inEval.getLeftExpr()).getColumnRef();
+      Datum [] values = ((RowConstantEval) inEval.getRightExpr()).getValues();
+      for (Datum value : values) {
+        if (!isPushable(schema, column, value)) {
+          return null;
+        }
+      }
+      return new ColumnPredicate(column, Operator.IN, values);
+    }
+
+    case IS_NULL: {
+      IsNullEval isNullEval = (IsNullEval) expr;
+      if (isNullEval.getLeftExpr().getType() != EvalType.FIELD) {
+        return null;
+      }
+
+      Column column = ((FieldEval) isNullEval.getLeftExpr()).getColumnRef();
+      if (!contains(schema, column)) {
+        return null;
+      }
+      return new ColumnPredicate(column, isNullEval.isNot() ? Operator.IS_NOT_NULL : Operator.IS_NULL);
+    }
+
+    default:
+      return null;
+    }
+  }
+
+  private static Operator toOperator(EvalType type) {
+    switch (type) {
+    case EQUAL: return Operator.EQUAL;
+    case NOT_EQUAL: return Operator.NOT_EQUAL;
+    case LTH: return Operator.LTH;
+    case LEQ: return Operator.LEQ;
+    case GTH: return Operator.GTH;
+    case GEQ: return Operator.GEQ;
+    default: throw new IllegalArgumentException("Not a comparison operator: " + type);
+    }
+  }
+
+  /**
+   * @return the operator which keeps the result when both operands are swapped
+   */
+  private static Operator commute(Operator operator) {
+    switch (operator) {
+    case LTH: return Operator.GTH;
+    case LEQ: return Operator.GEQ;
+    case GTH: return Operator.LTH;
+    case GEQ: return Operator.LEQ;
+    default: return operator;
+    }
+  }
+
+  private static boolean contains(Schema schema, Column column) {
+    return schema.containsByQualifiedName(column.getQualifiedName()) ||
+        schema.getColumnIdByName(column.getSimpleName()) >= 0;
+  }
+
+  /**
+   * A constant is pushed down only if a column value can be compared with it without any cast.
+   */
+  private static boolean isPushable(Schema schema, Column column, Datum value) {
+    if (!contains(schema, column) || value == null || value.isNull()) {
+      return false;
+    }
+
+    Type columnType = column.getDataType().getType();
+    Type valueType = value.type();
+    if (isNumeric(columnType)) {
+      return isNumeric(valueType);
+    } else if (columnType == Type.TEXT) {
+      return valueType == Type.TEXT || valueType == Type.CHAR;
+    }
+
+    switch (columnType) {
+    case CHAR:
+    case DATE:
+    case TIME:
+    case TIMESTAMP:
+      return columnType == valueType;
+    default:
+      return false;
+    }
+  }
+
+  private static boolean isNumeric(Type type) {
+    switch (type) {
+    case INT2:
+    case INT4:
+    case INT8:
+    case FLOAT4:
+    case FLOAT8:
+      return true;
+    default:
+      return false;
+    }
+  }
+}
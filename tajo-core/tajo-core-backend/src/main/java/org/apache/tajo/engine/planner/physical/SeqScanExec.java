@@ -24,11 +24,19 @@ import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.partition.PartitionMethodDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.engine.eval.ConstEval;
 import org.apache.tajo.engine.eval.EvalNode;
 import org.apache.tajo.engine.eval.EvalTreeUtil;
+import org.apache.tajo.engine.eval.EvalType;
 import org.apache.tajo.engine.eval.FieldEval;
+import org.apache.tajo.engine.eval.compile.CompiledEval;
+import org.apache.tajo.engine.eval.compile.EvalCompiler;
+import org.apache.tajo.engine.eval.vector.VectorExpression;
+import org.apache.tajo.engine.eval.vector.VectorFilter;
+import org.apache.tajo.engine.eval.vector.VectorizedEvalBuilder;
+import org.apache.tajo.engine.planner.PlannerUtil;
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.engine.planner.Target;
 import org.apache.tajo.engine.planner.logical.ScanNode;
@@ -37,6 +45,10 @@ import org.apache.tajo.engine.utils.TupleUtil;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
+import org.apache.tajo.storage.vector.ColumnVector;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+import org.apache.tajo.worker.ShuffleStream;
+import org.apache.tajo.worker.ShuffleStreamScanner;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -50,6 +62,7 @@ public class SeqScanExec extends PhysicalExec {
   private Scanner scanner = null;
 
   private EvalNode qual = null;
+  private CompiledEval compiledQual = null;
 
   private CatalogProtos.FragmentProto [] fragments;
 
@@ -57,6 +70,18 @@ public class SeqScanExec extends PhysicalExec {
 
   private TableStats inputStats;
 
+  // for vectorized execution. If batch is null, tuples are evaluated one by one.
+  private VectorizedRowBatch batch;
+  private VectorFilter vectorFilter;
+  private VectorExpression [] vectorTargets;
+  private ColumnVector [] targetVectors;
+  private int batchIdx = 0;
+
+  // for a join key filter pushed down from a hash join
+  private JoinKeyFilter joinKeyFilter;
+  private int [] joinKeyIds;
+  private long joinFilteredRowNum = 0;
+
   public SeqScanExec(TaskAttemptContext context, AbstractStorageManager sm,
                      ScanNode plan, CatalogProtos.FragmentProto [] fragments) throws IOException {
     super(context, plan.getInSchema(), plan.getOutSchema());
@@ -145,8 +170,17 @@ public class SeqScanExec extends PhysicalExec {
     }
 
     this.projector = new Projector(inSchema, outSchema, plan.getTargets());
+    this.compiledQual = EvalCompiler.compile(inSchema, qual);
 
-    if (fragments.length > 1) {
+    if (context.getConf().getBoolVar(ConfVars.EXECUTOR_VECTORIZED_SCAN_ENABLED)) {
+      initVectorizedExecution();
+    }
+
+    List<ShuffleStream> streams = context.getShuffleStreams(plan.getCanonicalName());
+    if (streams != null) {
+      this.scanner = new ShuffleStreamScanner(context.getConf(), plan.getPhysicalSchema(),
+          plan.getTableDesc().getMeta(), streams);
+    } else if (fragments.length != 1) {
       this.scanner = new MergeScanner(context.getConf(), plan.getPhysicalSchema(), plan.getTableDesc().getMeta(),
           FragmentConvertor.<FileFragment>convert(context.getConf(), plan.getTableDesc().getMeta().getStoreType(),
               fragments), projected);
@@ -156,26 +190,169 @@ public class SeqScanExec extends PhysicalExec {
           projected);
     }
 
+    if (plan.hasQual() && scanner.isSelectable() &&
+        context.getConf().getBoolVar(ConfVars.EXECUTOR_SCAN_PREDICATE_PUSHDOWN_ENABLED)) {
+      // The scanner may drop rows by the simple conjuncts of the qual, but the whole qual is still evaluated here.
+      ScanPredicate predicate = ScanPredicateBuilder.build(plan.getPhysicalSchema(), qual);
+      if (predicate != null) {
+        scanner.setSearchCondition(predicate);
+      }
+    }
+
     scanner.init();
   }
 
+  /**
+   * If the search condition and all targets can be vectorized, it prepares the vectorized execution.
+   * Otherwise, tuples are evaluated one by one.
+   */
+  private void initVectorizedExecution() {
+    VectorizedEvalBuilder builder = new VectorizedEvalBuilder(inSchema, VectorizedRowBatch.DEFAULT_SIZE);
+
+    VectorFilter filter = null;
+    if (plan.hasQual()) {
+      filter = builder.buildFilter(qual);
+      if (filter == null) {
+        return;
+      }
+    }
+
+    Target [] targets = plan.hasTargets() ? plan.getTargets() : PlannerUtil.schemaToTargets(outSchema);
+    VectorExpression [] exprs = new VectorExpression[targets.length];
+    for (int i = 0; i < targets.length; i++) {
+      exprs[i] = builder.buildExpression(targets[i].getEvalTree());
+      if (exprs[i] == null) {
+        return;
+      }
+    }
+
+    this.vectorFilter = filter;
+    this.vectorTargets = exprs;
+    this.targetVectors = new ColumnVector[exprs.length];
+    this.batch = new VectorizedRowBatch(inSchema, builder.getColumnIds());
+  }
+
+  public boolean isVectorized() {
+    return batch != null;
+  }
+
+  /**
+   * It pushes down a filter on join keys, which is built by the build side of a hash join. Rows rejected by the
+   * filter are dropped before the search condition and projection. In vectorized execution, the filter is applied
+   * to projected rows.
+   *
+   * It must be called after {@link #init()}. A join key must be a column which is just copied by a target.
+   *
+   * @param filter a join key filter
+   * @param keyIds the column ids of join keys in the output schema of this scan
+   * @return true if the filter is applied
+   */
+  public boolean pushDownJoinKeyFilter(JoinKeyFilter filter, int [] keyIds) {
+    int [] filterKeyIds;
+    if (batch != null) {
+      filterKeyIds = keyIds;
+    } else {
+      filterKeyIds = new int[keyIds.length];
+      for (int i = 0; i < keyIds.length; i++) {
+        Column column;
+        if (plan.hasTargets()) {
+          EvalNode expr = plan.getTargets()[keyIds[i]].getEvalTree();
+          if (expr.getType() != EvalType.FIELD) {
+            return false;
+          }
+          column = ((FieldEval) expr).getColumnRef();
+        } else {
+          column = outSchema.getColumn(keyIds[i]);
+        }
+
+        filterKeyIds[i] = inSchema.getColumnId(column.getQualifiedName());
+        if (filterKeyIds[i] < 0) {
+          return false;
+        }
+      }
+    }
+
+    this.joinKeyFilter = filter;
+    this.joinKeyIds = filterKeyIds;
+    return true;
+  }
+
+  /**
+   * @return the number of rows dropped by the pushed-down join key filter
+   */
+  public long getJoinFilteredRowNum() {
+    return joinFilteredRowNum;
+  }
+
+  private boolean passJoinKeyFilter(Tuple tuple) {
+    if (joinKeyFilter == null || joinKeyFilter.mightContain(tuple, joinKeyIds)) {
+      return true;
+    }
+    joinFilteredRowNum++;
+    return false;
+  }
+
+  /**
+   * It reads the next batch which has at least one alive row, and it evaluates targets over the batch.
+   *
+   * @return false if the scanner reaches the end.
+   */
+  private boolean nextBatch() throws IOException {
+    do {
+      if (batch.fill(scanner) == 0) {
+        return false;
+      }
+      if (vectorFilter != null) {
+        vectorFilter.filter(batch);
+      }
+    } while (batch.size == 0);
+
+    for (int i = 0; i < vectorTargets.length; i++) {
+      targetVectors[i] = vectorTargets[i].evaluate(batch);
+    }
+    batchIdx = 0;
+    return true;
+  }
+
+  private Tuple nextVectorized() throws IOException {
+    Tuple outTuple = new VTuple(outColumnNum);
+    do {
+      if (batchIdx >= batch.size && !nextBatch()) {
+        return null;
+      }
+
+      int row = batch.selectedInUse ? batch.selected[batchIdx] : batchIdx;
+      batchIdx++;
+
+      for (int i = 0; i < targetVectors.length; i++) {
+        outTuple.put(i, targetVectors[i].getDatum(row));
+      }
+    } while (!passJoinKeyFilter(outTuple));
+    return outTuple;
+  }
+
   @Override
   public Tuple next() throws IOException {
+    if (batch != null) {
+      return nextVectorized();
+    }
+
     Tuple tuple;
     Tuple outTuple = new VTuple(outColumnNum);
 
     if (!plan.hasQual()) {
-      if ((tuple = scanner.next()) != null) {
-        projector.eval(tuple, outTuple);
-        outTuple.setOffset(tuple.getOffset());
-        return outTuple;
-      } else {
-        return null;
+      while ((tuple = scanner.next()) != null) {
+        if (passJoinKeyFilter(tuple)) {
+          projector.eval(tuple, outTuple);
+          outTuple.setOffset(tuple.getOffset());
+          return outTuple;
+        }
       }
+      return null;
     } else {
       while ((tuple = scanner.next()) != null) {
 
-        if (qual.eval(inSchema, tuple).isTrue()) {
+        if (passJoinKeyFilter(tuple) && compiledQual.isTrue(tuple)) {
           projector.eval(tuple, outTuple);
           return outTuple;
         }
@@ -187,6 +364,10 @@ public class SeqScanExec extends PhysicalExec {
   @Override
   public void rescan() throws IOException {
     scanner.reset();
+    if (batch != null) {
+      batch.reset();
+      batchIdx = 0;
+    }
   }
 
   @Override
@@ -205,7 +386,14 @@ public class SeqScanExec extends PhysicalExec {
     scanner = null;
     plan = null;
     qual = null;
+    compiledQual = null;
     projector = null;
+    batch = null;
+    vectorFilter = null;
+    vectorTargets = null;
+    targetVectors = null;
+    joinKeyFilter = null;
+    joinKeyIds = null;
   }
 
   public String getTableName() {
@@ -18,24 +18,32 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.worker.TaskAttemptContext;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.storage.NormalizedKeyEncoder;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.TupleComparator;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 
 public abstract class SortExec extends UnaryPhysicalExec {
   private final Comparator<Tuple> comparator;
   private final SortSpec [] sortSpecs;
+  /** If true, tuples are sorted by normalized keys instead of the comparator. */
+  private final boolean normalizedKeyEnabled;
 
   public SortExec(TaskAttemptContext context, Schema inSchema,
                   Schema outSchema, PhysicalExec child, SortSpec [] sortSpecs) {
     super(context, inSchema, outSchema, child);
     this.sortSpecs = sortSpecs;
     this.comparator = new TupleComparator(inSchema, sortSpecs);
+    this.normalizedKeyEnabled = context.getConf().getBoolVar(ConfVars.EXECUTOR_SORT_NORMALIZED_KEY_ENABLED)
+        && NormalizedKeyEncoder.isSupported(inSchema, sortSpecs);
   }
 
   public SortSpec[] getSortSpecs() {
@@ -46,6 +54,21 @@ public abstract class SortExec extends UnaryPhysicalExec {
     return comparator;
   }
 
+  public boolean isNormalizedKeyEnabled() {
+    return normalizedKeyEnabled;
+  }
+
+  /**
+   * It sorts tuples in place in the same order as the comparator.
+   */
+  protected void sortTuples(List<Tuple> tuples) throws IOException {
+    if (normalizedKeyEnabled) {
+      new NormalizedKeyEncoder(inSchema, sortSpecs).sort(tuples);
+    } else {
+      Collections.sort(tuples, comparator);
+    }
+  }
+
   @Override
   abstract public Tuple next() throws IOException;
 }
@@ -40,6 +40,8 @@ public interface QueryUnitRequest extends ProtoObject<TajoWorkerProtocol.QueryUn
 	public String getSerializedData();
 	public boolean isInterQuery();
 	public void setInterQuery();
+  public boolean isPipelined();
+  public void setPipelined();
 	public void addFetch(String name, URI uri);
 	public List<TajoWorkerProtocol.Fetch> getFetches();
   public boolean shouldDie();
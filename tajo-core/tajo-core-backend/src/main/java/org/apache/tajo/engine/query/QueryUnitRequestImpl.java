@@ -40,6 +40,7 @@ public class QueryUnitRequestImpl implements QueryUnitRequest {
 	private boolean clusteredOutput;
 	private String serializedData;     // logical node
 	private Boolean interQuery;
+  private Boolean pipelined;
 	private List<Fetch> fetches;
   private Boolean shouldDie;
   private QueryContext queryContext;
@@ -177,6 +178,23 @@ public class QueryUnitRequestImpl implements QueryUnitRequest {
 	  maybeInitBuilder();
 	  this.interQuery = true;
 	}
+
+  public boolean isPipelined() {
+    QueryUnitRequestProtoOrBuilder p = viaProto ? proto : builder;
+    if (pipelined != null) {
+      return pipelined;
+    }
+    if (!p.hasPipelined()) {
+      return false;
+    }
+    this.pipelined = p.getPipelined();
+    return this.pipelined;
+  }
+
+  public void setPipelined() {
+    maybeInitBuilder();
+    this.pipelined = true;
+  }
 	
 	public void addFetch(String name, URI uri) {
 	  maybeInitBuilder();
@@ -300,6 +318,9 @@ public class QueryUnitRequestImpl implements QueryUnitRequest {
 		if (this.interQuery != null) {
 		  builder.setInterQuery(this.interQuery);
 		}
+    if (this.pipelined != null) {
+      builder.setPipelined(this.pipelined);
+    }
 		if (this.fetches != null) {
 		  builder.addAllFetches(this.fetches);
 		}
@@ -866,6 +866,9 @@ public class DefaultTaskScheduler extends AbstractTaskScheduler {
           if (checkIfInterQuery(subQuery.getMasterPlan(), subQuery.getBlock())) {
             taskAssign.setInterQuery();
           }
+          if (subQuery.getPipelinedShuffle() != null) {
+            taskAssign.setPipelined();
+          }
           for (ScanNode scan : task.getScanNodes()) {
             Collection<URI> fetches = task.getFetch(scan);
             if (fetches != null) {
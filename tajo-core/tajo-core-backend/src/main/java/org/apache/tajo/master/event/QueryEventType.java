@@ -26,6 +26,7 @@ public enum QueryEventType {
 
   // Producer: SubQuery
   SUBQUERY_COMPLETED,
+  SUBQUERY_PIPELINE,
 
   // Producer: Query
   QUERY_COMPLETED,
@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.master.querymaster;
+
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.QueryUnitId;
+import org.apache.tajo.master.querymaster.QueryUnit.IntermediateEntry;
+
+import java.net.URI;
+import java.util.*;
+
+import static org.apache.tajo.ipc.TajoWorkerProtocol.ShuffleType;
+
+/**
+ * <code>PipelinedShuffle</code> keeps the hash shuffle outputs of a running child block for its parent block, which
+ * is started before the child block is completed. The i-th task of the parent block fetches the partition i, and
+ * it asks for the fetches of the partition repeatedly until the child block is completed.
+ *
+ * The outputs of the child tasks completed between two requests are fetched together with one fetch per pull
+ * server. The fetches of a partition are only appended, so a task only needs to know how many fetches it has.
+ */
+public class PipelinedShuffle {
+  private final ExecutionBlockId childId;
+  private final String tableName;
+  private final ShuffleType shuffleType;
+
+  private final Set<QueryUnitId> completedTasks = new HashSet<QueryUnitId>();
+  // key: partition id
+  private final Map<Integer, List<IntermediateEntry>> pendingEntries = new HashMap<Integer, List<IntermediateEntry>>();
+  private final Map<Integer, List<URI>> fetches = new HashMap<Integer, List<URI>>();
+  private boolean completed = false;
+  private boolean aborted = false;
+
+  public PipelinedShuffle(ExecutionBlockId childId, String tableName, ShuffleType shuffleType) {
+    this.childId = childId;
+    this.tableName = tableName;
+    this.shuffleType = shuffleType;
+  }
+
+  public ExecutionBlockId getChildId() {
+    return childId;
+  }
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  /**
+   * It adds the outputs of a completed child task. A task added again is ignored.
+   */
+  public synchronized void addCompletedTask(QueryUnit task) {
+    if (!completedTasks.add(task.getId()) || task.getIntermediateData() == null) {
+      return;
+    }
+    for (IntermediateEntry entry : task.getIntermediateData()) {
+      List<IntermediateEntry> entries = pendingEntries.get(entry.getPartId());
+      if (entries == null) {
+        entries = new ArrayList<IntermediateEntry>();
+        pendingEntries.put(entry.getPartId(), entries);
+      }
+      entries.add(entry);
+    }
+  }
+
+  /**
+   * @return the fetches of the partition which a task of the parent block is responsible for
+   */
+  public List<URI> getFetches(QueryUnitId taskId, int knownFetchNum) {
+    return getFetches(taskId.getId(), knownFetchNum);
+  }
+
+  /**
+   * @param knownFetchNum the number of fetches already given
+   * @return the fetches of a partition except the already given ones
+   */
+  public synchronized List<URI> getFetches(int partId, int knownFetchNum) {
+    List<URI> uris = fetches.get(partId);
+    if (uris == null) {
+      uris = new ArrayList<URI>();
+      fetches.put(partId, uris);
+    }
+
+    List<IntermediateEntry> entries = pendingEntries.remove(partId);
+    if (entries != null) {
+      for (Map.Entry<String, List<IntermediateEntry>> e : Repartitioner.hashByHost(entries).entrySet()) {
+        uris.addAll(Repartitioner.createHashFetchURL(e.getKey(), childId, partId, shuffleType, e.getValue()));
+      }
+    }
+    return new ArrayList<URI>(uris.subList(Math.min(knownFetchNum, uris.size()), uris.size()));
+  }
+
+  /**
+   * It is called after the outputs of all child tasks are added.
+   */
+  public synchronized void complete() {
+    completed = true;
+  }
+
+  public synchronized boolean isCompleted() {
+    return completed;
+  }
+
+  /**
+   * It is called if the child block fails, so the tasks of the parent block cannot be completed.
+   */
+  public synchronized void abort() {
+    aborted = true;
+  }
+
+  public synchronized boolean isAborted() {
+    return aborted;
+  }
+}
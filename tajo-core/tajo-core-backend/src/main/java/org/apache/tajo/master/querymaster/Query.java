@@ -81,6 +81,8 @@ public class Query implements EventHandler<QueryEvent> {
   private int failedSubQueryCount = 0;
   private int erroredSubQueryCount = 0;
   private final List<String> diagnostics = new ArrayList<String>();
+  // the first unsuccessful subquery while a pipelined subquery is still running
+  private SubQueryCompletedEvent failedSubQueryEvent;
 
   // Internal Variables
   private final Lock readLock;
@@ -95,6 +97,7 @@ public class Query implements EventHandler<QueryEvent> {
   private static final DiagnosticsUpdateTransition DIAGNOSTIC_UPDATE_TRANSITION = new DiagnosticsUpdateTransition();
   private static final SubQueryCompletedTransition SUBQUERY_COMPLETED_TRANSITION = new SubQueryCompletedTransition();
   private static final QueryCompletedTransition QUERY_COMPLETED_TRANSITION = new QueryCompletedTransition();
+  private static final SubQueryPipelineTransition SUBQUERY_PIPELINE_TRANSITION = new SubQueryPipelineTransition();
 
   protected static final StateMachineFactory
       <Query,QueryState,QueryEventType,QueryEvent> stateMachineFactory =
@@ -119,6 +122,9 @@ public class Query implements EventHandler<QueryEvent> {
           .addTransition(QueryState.QUERY_RUNNING, QueryState.QUERY_RUNNING,
               QueryEventType.SUBQUERY_COMPLETED,
               SUBQUERY_COMPLETED_TRANSITION)
+          .addTransition(QueryState.QUERY_RUNNING, QueryState.QUERY_RUNNING,
+              QueryEventType.SUBQUERY_PIPELINE,
+              SUBQUERY_PIPELINE_TRANSITION)
           .addTransition(QueryState.QUERY_RUNNING,
               EnumSet.of(QueryState.QUERY_SUCCEEDED, QueryState.QUERY_FAILED, QueryState.QUERY_KILLED,
                   QueryState.QUERY_ERROR),
@@ -151,7 +157,7 @@ public class Query implements EventHandler<QueryEvent> {
               INTERNAL_ERROR_TRANSITION)
           // Ignore-able transitions
           .addTransition(QueryState.QUERY_KILL_WAIT, QueryState.QUERY_KILL_WAIT,
-              EnumSet.of(QueryEventType.KILL))
+              EnumSet.of(QueryEventType.KILL, QueryEventType.SUBQUERY_PIPELINE))
 
           // Transitions from FAILED state
           .addTransition(QueryState.QUERY_FAILED, QueryState.QUERY_FAILED,
@@ -162,7 +168,7 @@ public class Query implements EventHandler<QueryEvent> {
               INTERNAL_ERROR_TRANSITION)
           // Ignore-able transitions
           .addTransition(QueryState.QUERY_FAILED, QueryState.QUERY_FAILED,
-              QueryEventType.KILL)
+              EnumSet.of(QueryEventType.KILL, QueryEventType.SUBQUERY_PIPELINE))
 
           // Transitions from ERROR state
           .addTransition(QueryState.QUERY_ERROR, QueryState.QUERY_ERROR,
@@ -173,7 +179,7 @@ public class Query implements EventHandler<QueryEvent> {
               INTERNAL_ERROR_TRANSITION)
           // Ignore-able transitions
           .addTransition(QueryState.QUERY_ERROR, QueryState.QUERY_ERROR,
-              QueryEventType.KILL)
+              EnumSet.of(QueryEventType.KILL, QueryEventType.SUBQUERY_PIPELINE))
 
           .installTopology();
 
@@ -543,6 +549,79 @@ public class Query implements EventHandler<QueryEvent> {
     }
   }
 
+  private static void executeNextBlock(Query query, PipelinedShuffle pipelinedShuffle) {
+    ExecutionBlockCursor cursor = query.getExecutionBlockCursor();
+    ExecutionBlock nextBlock = cursor.nextBlock();
+    SubQuery nextSubQuery = new SubQuery(query.context, query.getPlan(), nextBlock, query.sm);
+    nextSubQuery.setPriority(query.priority--);
+    nextSubQuery.setPipelinedShuffle(pipelinedShuffle);
+    query.addSubQuery(nextSubQuery);
+    nextSubQuery.handle(new SubQueryEvent(nextSubQuery.getId(), SubQueryEventType.SQ_INIT));
+
+    LOG.info("Scheduling SubQuery:" + nextSubQuery.getId() +
+        (pipelinedShuffle != null ? " pipelined with " + pipelinedShuffle.getChildId() : ""));
+    if(LOG.isDebugEnabled()) {
+      LOG.debug("Scheduling SubQuery's Priority: " + nextSubQuery.getPriority());
+      LOG.debug("Scheduling SubQuery's Plan: \n" + nextSubQuery.getBlock().getPlan());
+    }
+  }
+
+  /**
+   * @return the parent subquery if it is running pipelined with the given subquery. Otherwise, null.
+   */
+  private SubQuery getPipelinedParent(ExecutionBlockId ebId) {
+    if (plan.isRoot(plan.getExecBlock(ebId))) {
+      return null;
+    }
+    SubQuery parent = getSubQuery(plan.getParent(plan.getExecBlock(ebId)).getId());
+    if (parent != null && parent.getPipelinedShuffle() != null &&
+        parent.getPipelinedShuffle().getChildId().equals(ebId)) {
+      return parent;
+    } else {
+      return null;
+    }
+  }
+
+  private boolean hasRunningSubQuery() {
+    synchronized (subqueries) {
+      for (SubQuery subQuery : subqueries.values()) {
+        if (SubQuery.isRunningState(subQuery.getState())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * It starts the parent block of a running subquery if the parent block is the next block to be executed.
+   */
+  private static class SubQueryPipelineTransition implements SingleArcTransition<Query, QueryEvent> {
+
+    @Override
+    public void transition(Query query, QueryEvent event) {
+      try {
+        SubQueryPipelineEvent castEvent = (SubQueryPipelineEvent) event;
+        SubQuery child = query.getSubQuery(castEvent.getExecutionBlockId());
+        ExecutionBlock nextBlock = query.getExecutionBlockCursor().peek();
+
+        // the next block may be already started if the child is completed before this event.
+        if (child == null || child.getState() != SubQueryState.RUNNING || query.failedSubQueryEvent != null ||
+            nextBlock == null || query.getPlan().isRoot(child.getBlock()) ||
+            !nextBlock.getId().equals(query.getPlan().getParent(child.getBlock()).getId())) {
+          return;
+        }
+
+        DataChannel channel = query.getPlan().getChannel(child.getId(), nextBlock.getId());
+        executeNextBlock(query, new PipelinedShuffle(child.getId(), nextBlock.getScanNodes()[0].getTableName(),
+            channel.getShuffleType()));
+      } catch (Throwable t) {
+        LOG.error(t);
+        query.eventHandler.handle(new QueryEvent(event.getQueryId(), QueryEventType.INTERNAL_ERROR));
+      }
+    }
+  }
+
   public static class SubQueryCompletedTransition implements SingleArcTransition<Query, QueryEvent> {
 
     private boolean hasNext(Query query) {
@@ -551,21 +630,6 @@ public class Query implements EventHandler<QueryEvent> {
       return !query.getPlan().isTerminal(nextBlock);
     }
 
-    private void executeNextBlock(Query query) {
-      ExecutionBlockCursor cursor = query.getExecutionBlockCursor();
-      ExecutionBlock nextBlock = cursor.nextBlock();
-      SubQuery nextSubQuery = new SubQuery(query.context, query.getPlan(), nextBlock, query.sm);
-      nextSubQuery.setPriority(query.priority--);
-      query.addSubQuery(nextSubQuery);
-      nextSubQuery.handle(new SubQueryEvent(nextSubQuery.getId(), SubQueryEventType.SQ_INIT));
-
-      LOG.info("Scheduling SubQuery:" + nextSubQuery.getId());
-      if(LOG.isDebugEnabled()) {
-        LOG.debug("Scheduling SubQuery's Priority: " + nextSubQuery.getPriority());
-        LOG.debug("Scheduling SubQuery's Plan: \n" + nextSubQuery.getBlock().getPlan());
-      }
-    }
-
     @Override
     public void transition(Query query, QueryEvent event) {
       try {
@@ -586,13 +650,42 @@ public class Query implements EventHandler<QueryEvent> {
           query.eventHandler.handle(new QueryEvent(event.getQueryId(), QueryEventType.INTERNAL_ERROR));
         }
 
+        SubQuery pipelinedParent = query.getPipelinedParent(castEvent.getExecutionBlockId());
+
         // if a subquery is succeeded and a query is running
         if (castEvent.getState() == SubQueryState.SUCCEEDED &&  // latest subquery succeeded
             query.getState() == QueryState.QUERY_RUNNING &&     // current state is not in KILL_WAIT, FAILED, or ERROR.
-            hasNext(query)) {                                   // there remains at least one subquery.
-          executeNextBlock(query);
-        } else { // if a query is completed due to finished, kill, failure, or error
-          query.eventHandler.handle(new QueryCompletedEvent(castEvent.getExecutionBlockId(), castEvent.getState()));
+            query.failedSubQueryEvent == null &&                // no pipelined subquery is failed.
+            (pipelinedParent != null || hasNext(query))) {      // there remains at least one subquery.
+          if (pipelinedParent != null) {
+            // the parent block is already running, and it is completed after fetching all outputs.
+            pipelinedParent.getPipelinedShuffle().complete();
+          } else {
+            executeNextBlock(query, null);
+          }
+        } else {
+          if (pipelinedParent != null && castEvent.getState() != SubQueryState.SUCCEEDED) {
+            pipelinedParent.getPipelinedShuffle().abort();
+          }
+
+          if (query.hasRunningSubQuery()) {
+            // a pipelined subquery is still running, so the query is completed after it is completed.
+            if (castEvent.getState() != SubQueryState.SUCCEEDED && query.failedSubQueryEvent == null) {
+              query.failedSubQueryEvent = castEvent;
+              for (SubQuery subQuery : query.getSubQueries()) {
+                if (SubQuery.isRunningState(subQuery.getState())) {
+                  query.eventHandler.handle(new SubQueryEvent(subQuery.getId(), SubQueryEventType.SQ_KILL));
+                }
+              }
+            }
+          } else { // if a query is completed due to finished, kill, failure, or error
+            SubQueryCompletedEvent completedEvent = castEvent;
+            if (castEvent.getState() == SubQueryState.SUCCEEDED && query.failedSubQueryEvent != null) {
+              completedEvent = query.failedSubQueryEvent;
+            }
+            query.eventHandler.handle(
+                new QueryCompletedEvent(completedEvent.getExecutionBlockId(), completedEvent.getState()));
+          }
         }
       } catch (Throwable t) {
         LOG.error(t);
@@ -39,6 +39,7 @@ import org.apache.tajo.util.NetUtils;
 import org.apache.tajo.worker.TajoWorker;
 
 import java.net.InetSocketAddress;
+import java.net.URI;
 
 public class QueryMasterManagerService extends CompositeService
     implements QueryMasterProtocol.QueryMasterProtocolService.Interface {
@@ -207,6 +208,36 @@ public class QueryMasterManagerService extends CompositeService
     }
   }
 
+  @Override
+  public void getPipelinedFetches(RpcController controller, TajoWorkerProtocol.PipelinedFetchRequestProto request,
+                                  RpcCallback<TajoWorkerProtocol.PipelinedFetchResponseProto> done) {
+    TajoWorkerProtocol.PipelinedFetchResponseProto.Builder builder =
+        TajoWorkerProtocol.PipelinedFetchResponseProto.newBuilder();
+    try {
+      QueryUnitAttemptId attemptId = new QueryUnitAttemptId(request.getId());
+      QueryMasterTask queryMasterTask = queryMaster.getQueryMasterTask(
+          attemptId.getQueryUnitId().getExecutionBlockId().getQueryId());
+      SubQuery sq = queryMasterTask == null ? null :
+          queryMasterTask.getQuery().getSubQuery(attemptId.getQueryUnitId().getExecutionBlockId());
+      PipelinedShuffle shuffle = sq == null ? null : sq.getPipelinedShuffle();
+
+      if (shuffle == null || shuffle.isAborted()) {
+        builder.setCompleted(false).setAborted(true);
+      } else {
+        // the completion should be checked first, so that no fetch is missed after the completion.
+        builder.setCompleted(shuffle.isCompleted());
+        for (URI uri : shuffle.getFetches(attemptId.getQueryUnitId(), request.getKnownFetchNum())) {
+          builder.addFetches(TajoWorkerProtocol.Fetch.newBuilder()
+              .setName(shuffle.getTableName()).setUrls(uri.toString()));
+        }
+      }
+    } catch (Exception e) {
+      LOG.error(e.getMessage(), e);
+      builder.clearFetches().setCompleted(false).setAborted(true);
+    }
+    done.run(builder.build());
+  }
+
   @Override
   public void killQuery(RpcController controller, TajoIdProtos.QueryIdProto request,
                         RpcCallback<PrimitiveProtos.BoolProto> done) {
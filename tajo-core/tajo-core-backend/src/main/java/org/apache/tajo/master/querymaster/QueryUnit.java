@@ -606,14 +606,22 @@ public class QueryUnit implements EventHandler<TaskEvent> {
     int partId;
     String pullHost;
     int port;
+    long volume;
+    String compressionCodec;
 
     public IntermediateEntry(int taskId, int attemptId, int partId,
                              String pullServerAddr, int pullServerPort) {
+      this(taskId, attemptId, partId, pullServerAddr, pullServerPort, 0);
+    }
+
+    public IntermediateEntry(int taskId, int attemptId, int partId,
+                             String pullServerAddr, int pullServerPort, long volume) {
       this.taskId = taskId;
       this.attemptId = attemptId;
       this.partId = partId;
       this.pullHost = pullServerAddr;
       this.port = pullServerPort;
+      this.volume = volume;
     }
 
     public int getTaskId() {
@@ -639,5 +647,23 @@ public class QueryUnit implements EventHandler<TaskEvent> {
     public String getPullAddress() {
       return pullHost + ":" + port;
     }
+
+    /**
+     * @return the size of the partition output in bytes, or 0 if it is unknown.
+     */
+    public long getVolume() {
+      return volume;
+    }
+
+    public void setCompressionCodec(String compressionCodec) {
+      this.compressionCodec = compressionCodec;
+    }
+
+    /**
+     * @return the codec which compresses the partition output, or null if it is not compressed.
+     */
+    public String getCompressionCodec() {
+      return compressionCodec;
+    }
   }
 }
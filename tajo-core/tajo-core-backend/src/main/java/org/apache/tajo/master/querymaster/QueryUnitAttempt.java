@@ -267,7 +267,10 @@ public class QueryUnitAttempt implements EventHandler<TaskAttemptEvent> {
       List<IntermediateEntry> partitions = new ArrayList<IntermediateEntry>();
       for (ShuffleFileOutput p : report.getShuffleFileOutputsList()) {
         IntermediateEntry entry = new IntermediateEntry(getId().getQueryUnitId().getId(),
-            getId().getId(), p.getPartId(), getHost(), getPullServerPort());
+            getId().getId(), p.getPartId(), getHost(), getPullServerPort(), p.getVolume());
+        if (p.hasCompressionCodec()) {
+          entry.setCompressionCodec(p.getCompressionCodec());
+        }
         partitions.add(entry);
       }
       this.getQueryUnit().setIntermediateData(partitions);
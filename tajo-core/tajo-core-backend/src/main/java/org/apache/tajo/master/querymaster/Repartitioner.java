@@ -41,6 +41,7 @@ import org.apache.tajo.engine.planner.logical.*;
 import org.apache.tajo.engine.utils.TupleUtil;
 import org.apache.tajo.exception.InternalException;
 import org.apache.tajo.master.TaskSchedulerContext;
+import org.apache.tajo.master.TaskState;
 import org.apache.tajo.master.querymaster.QueryUnit.IntermediateEntry;
 import org.apache.tajo.storage.AbstractStorageManager;
 import org.apache.tajo.storage.TupleRange;
@@ -199,14 +200,89 @@ public class Repartitioner {
 
       SubQuery.scheduleFragment(subQuery, fragments[0], fragments[1]);
 
-      // Assign partitions to tasks in a round robin manner.
+      // A partition larger than the skew threshold is split into the pieces of about the split volume.
+      // The split side is fetched by different tasks, and the other side is replicated to all of them.
+      long totalVolume = 0;
+      for (Map<String, List<IntermediateEntry>> partition : hashEntries.values()) {
+        totalVolume += getVolume(partition);
+      }
+      long taskVolume = (long) desireJoinTaskVolumn * 1048576;
+
+      boolean [] splittable = new boolean[2];
+      long skewThreshold = Long.MAX_VALUE;
+      long splitVolume = 0;
+      // if no volume is reported, no partition is regarded as skewed.
+      if (joinNode != null && totalVolume > 0 &&
+          subQuery.getContext().getConf().getBoolVar(ConfVars.DIST_QUERY_SKEW_JOIN_ENABLED)) {
+        splittable = getSplittableSides(joinNode, scans);
+        long avgVolume = totalVolume / hashEntries.size();
+        float factor = subQuery.getContext().getConf().getFloatVar(ConfVars.DIST_QUERY_SKEW_PARTITION_FACTOR);
+        skewThreshold = Math.max((long) (avgVolume * factor), taskVolume);
+        splitVolume = Math.max(avgVolume, taskVolume);
+      }
+
+      // Unless every input is required to produce a result, a partition missing in an input is also fetched.
+      boolean allInputsRequired = joinNode == null || isAllInputsRequired(joinNode.getJoinType());
+
+      // The partitions which are not split are coalesced into tasks of about the task volume.
+      boolean coalesce = totalVolume > 0 &&
+          subQuery.getContext().getConf().getBoolVar(ConfVars.DIST_QUERY_ADAPTIVE_PARTITION_ENABLED);
+      Map<Integer, Long> coalescedVolumes = new HashMap<Integer, Long>();
+
+      int splitTaskNum = 0;
       for (Entry<Integer, Map<String, List<IntermediateEntry>>> entry
           : hashEntries.entrySet()) {
-        addJoinShuffle(subQuery, entry.getKey(), entry.getValue());
+        Map<String, List<IntermediateEntry>> partition = entry.getValue();
+        int splitIdx = -1;
+        if (getVolume(partition) > skewThreshold) {
+          splitIdx = getSplitSide(partition, scans, splittable);
+        }
+
+        if (splitIdx < 0) {
+          if (coalesce) {
+            coalescedVolumes.put(entry.getKey(), getVolume(partition));
+          } else {
+            addJoinShuffle(subQuery, entry.getKey(), partition, allInputsRequired);
+          }
+        } else {
+          String splitTable = scans[splitIdx].getCanonicalName();
+          List<IntermediateEntry> splitEntries = partition.get(splitTable);
+          int splitNum = (int) Math.ceil((double) getVolume(splitEntries) / splitVolume);
+          List<List<IntermediateEntry>> groups = splitEntries(splitEntries, splitNum);
+          LOG.info("Skewed partition " + entry.getKey() + " (" + getVolume(partition) + " bytes) is split into "
+              + groups.size() + " tasks on " + splitTable);
+          for (List<IntermediateEntry> group : groups) {
+            Map<String, List<IntermediateEntry>> splitPartition = new HashMap<String, List<IntermediateEntry>>(partition);
+            splitPartition.put(splitTable, group);
+            addJoinShuffle(subQuery, entry.getKey(), splitPartition, allInputsRequired);
+          }
+          splitTaskNum += groups.size() - 1;
+        }
+      }
+
+      if (coalesce) {
+        List<List<Integer>> groups = coalescePartitions(coalescedVolumes, taskVolume);
+        LOG.info(coalescedVolumes.size() + " join partitions are coalesced into " + groups.size() + " tasks");
+        for (List<Integer> group : groups) {
+          Map<String, List<URI>> fetches = new HashMap<String, List<URI>>();
+          for (Integer partId : group) {
+            Map<String, List<URI>> partitionFetches =
+                createJoinFetches(subQuery, partId, hashEntries.get(partId), allInputsRequired);
+            if (partitionFetches != null) {
+              for (Entry<String, List<URI>> eachFetch : partitionFetches.entrySet()) {
+                TUtil.putCollectionToNestedList(fetches, eachFetch.getKey(), eachFetch.getValue());
+              }
+            }
+          }
+          if (fetches.size() > 0) {
+            SubQuery.scheduleFetches(subQuery, fetches);
+          }
+        }
+        joinTaskNum = Math.max(1, groups.size());
       }
 
       schedulerContext.setTaskSize((int) Math.ceil((double) bothFetchSize / joinTaskNum));
-      schedulerContext.setEstimatedTaskNum(joinTaskNum);
+      schedulerContext.setEstimatedTaskNum(joinTaskNum + splitTaskNum);
     }
   }
 
@@ -249,14 +325,39 @@ public class Repartitioner {
   }
 
   private static void addJoinShuffle(SubQuery subQuery, int partitionId,
-                                     Map<String, List<IntermediateEntry>> grouppedPartitions) {
+                                     Map<String, List<IntermediateEntry>> grouppedPartitions,
+                                     boolean allInputsRequired) {
+    Map<String, List<URI>> fetches = createJoinFetches(subQuery, partitionId, grouppedPartitions, allInputsRequired);
+    if (fetches != null) {
+      SubQuery.scheduleFetches(subQuery, fetches);
+    }
+  }
+
+  /**
+   * An inner, cross or semi join produces no result from a partition which is missing in one of its inputs.
+   * The other joins still produce the rows of the preserved input.
+   */
+  private static boolean isAllInputsRequired(JoinType joinType) {
+    return joinType == JoinType.INNER || joinType == JoinType.CROSS ||
+        joinType == JoinType.LEFT_SEMI || joinType == JoinType.RIGHT_SEMI;
+  }
+
+  /**
+   * @return the fetch uris of the partition for each child block, or null if there is nothing to fetch.
+   * If all inputs are required, it also returns null when a child block has no data for the partition.
+   */
+  private static Map<String, List<URI>> createJoinFetches(SubQuery subQuery, int partitionId,
+                                                          Map<String, List<IntermediateEntry>> grouppedPartitions,
+                                                          boolean allInputsRequired) {
     Map<String, List<URI>> fetches = new HashMap<String, List<URI>>();
     for (ExecutionBlock execBlock : subQuery.getMasterPlan().getChilds(subQuery.getId())) {
       Map<String, List<IntermediateEntry>> requests;
       if (grouppedPartitions.containsKey(execBlock.getId().toString())) {
           requests = mergeHashShuffleRequest(grouppedPartitions.get(execBlock.getId().toString()));
+      } else if (allInputsRequired) {
+        return null;
       } else {
-        return;
+        continue;
       }
       Set<URI> fetchURIs = TUtil.newHashSet();
       for (Entry<String, List<IntermediateEntry>> requestPerNode : requests.entrySet()) {
@@ -268,7 +369,139 @@ public class Repartitioner {
       }
       fetches.put(execBlock.getId().toString(), Lists.newArrayList(fetchURIs));
     }
-    SubQuery.scheduleFetches(subQuery, fetches);
+    return fetches.isEmpty() ? null : fetches;
+  }
+
+  /**
+   * It coalesces adjacent partitions into groups so that the volume of each group does not exceed the target
+   * volume, unless a single partition is already larger than that.
+   *
+   * @return the partition ids of each group in ascending order
+   */
+  public static List<List<Integer>> coalescePartitions(Map<Integer, Long> volumes, long targetVolume) {
+    List<List<Integer>> groups = new ArrayList<List<Integer>>();
+    List<Integer> group = null;
+    long groupVolume = 0;
+    for (Entry<Integer, Long> entry : new TreeMap<Integer, Long>(volumes).entrySet()) {
+      if (group == null || groupVolume + entry.getValue() > targetVolume) {
+        group = new ArrayList<Integer>();
+        groups.add(group);
+        groupVolume = 0;
+      }
+      group.add(entry.getKey());
+      groupVolume += entry.getValue();
+    }
+    return groups;
+  }
+
+  /**
+   * It returns which inputs of a join can be split across several tasks while the other input is replicated.
+   * The preserved side of an outer join cannot be replicated, because its unmatched rows would be emitted
+   * by every task.
+   *
+   * @return whether each of the scans can be split, in the order of the given scans
+   */
+  private static boolean [] getSplittableSides(JoinNode joinNode, ScanNode [] scans) {
+    boolean splitLeft;
+    boolean splitRight;
+    switch (joinNode.getJoinType()) {
+      case CROSS:
+      case INNER:
+        splitLeft = splitRight = true;
+        break;
+      case LEFT_OUTER:
+      case LEFT_SEMI:
+      case LEFT_ANTI:
+        splitLeft = true;
+        splitRight = false;
+        break;
+      case RIGHT_OUTER:
+      case RIGHT_SEMI:
+      case RIGHT_ANTI:
+        splitLeft = false;
+        splitRight = true;
+        break;
+      default:
+        splitLeft = splitRight = false;
+    }
+
+    boolean [] splittable = new boolean[scans.length];
+    ScanNode leftScan = PlannerUtil.findTopNode(joinNode.getLeftChild(), NodeType.SCAN);
+    ScanNode rightScan = PlannerUtil.findTopNode(joinNode.getRightChild(), NodeType.SCAN);
+    for (int i = 0; i < scans.length; i++) {
+      if (leftScan != null && leftScan.getCanonicalName().equals(scans[i].getCanonicalName())) {
+        splittable[i] = splitLeft;
+      } else if (rightScan != null && rightScan.getCanonicalName().equals(scans[i].getCanonicalName())) {
+        splittable[i] = splitRight;
+      }
+    }
+    return splittable;
+  }
+
+  /**
+   * @return the index of the scan whose entries are split, or -1 if the partition cannot be split.
+   */
+  private static int getSplitSide(Map<String, List<IntermediateEntry>> partition, ScanNode [] scans,
+                                  boolean [] splittable) {
+    int splitIdx = -1;
+    long maxVolume = 0;
+    for (int i = 0; i < scans.length; i++) {
+      List<IntermediateEntry> entries = partition.get(scans[i].getCanonicalName());
+      // an entry is the output of a single task, so it is never split further.
+      if (splittable[i] && entries != null && entries.size() > 1 && getVolume(entries) > maxVolume) {
+        splitIdx = i;
+        maxVolume = getVolume(entries);
+      }
+    }
+    return splitIdx;
+  }
+
+  private static long getVolume(Map<String, List<IntermediateEntry>> partition) {
+    long volume = 0;
+    for (List<IntermediateEntry> entries : partition.values()) {
+      volume += getVolume(entries);
+    }
+    return volume;
+  }
+
+  private static long getVolume(Collection<IntermediateEntry> entries) {
+    long volume = 0;
+    for (IntermediateEntry entry : entries) {
+      volume += entry.getVolume();
+    }
+    return volume;
+  }
+
+  /**
+   * It divides entries into at most the given number of groups whose volumes are as even as possible.
+   * Each entry is assigned to the least loaded group in the descending order of volumes.
+   */
+  public static List<List<IntermediateEntry>> splitEntries(List<IntermediateEntry> entries, int splitNum) {
+    List<IntermediateEntry> sorted = new ArrayList<IntermediateEntry>(entries);
+    Collections.sort(sorted, new Comparator<IntermediateEntry>() {
+      @Override
+      public int compare(IntermediateEntry e1, IntermediateEntry e2) {
+        return Long.valueOf(e2.getVolume()).compareTo(e1.getVolume());
+      }
+    });
+
+    int groupNum = Math.max(1, Math.min(splitNum, sorted.size()));
+    List<List<IntermediateEntry>> groups = new ArrayList<List<IntermediateEntry>>(groupNum);
+    long [] volumes = new long[groupNum];
+    for (int i = 0; i < groupNum; i++) {
+      groups.add(new ArrayList<IntermediateEntry>());
+    }
+    for (IntermediateEntry entry : sorted) {
+      int minIdx = 0;
+      for (int i = 1; i < groupNum; i++) {
+        if (volumes[i] < volumes[minIdx]) {
+          minIdx = i;
+        }
+      }
+      groups.get(minIdx).add(entry);
+      volumes[minIdx] += entry.getVolume();
+    }
+    return groups;
   }
 
   /**
@@ -416,6 +649,64 @@ public class Repartitioner {
     }
   }
 
+  /**
+   * It assigns partitions to tasks in the descending order of their volumes, each to the least loaded task.
+   * A large partition does not share a task with other large partitions, so the slowest task only lasts as long
+   * as the largest partition if possible.
+   */
+  public static void scheduleFetchesByVolume(SubQuery subQuery, Map<Integer, Collection<URI>> partitions,
+                                             Map<Integer, Long> volumes, String tableName, int num) {
+    List<Integer>[] assigned = assignPartitionsByVolume(volumes, num);
+    for (List<Integer> partIds : assigned) {
+      Map<String, List<URI>> fetches = new HashMap<String, List<URI>>();
+      for (Integer partId : partIds) {
+        TUtil.putCollectionToNestedList(fetches, tableName, partitions.get(partId));
+      }
+      SubQuery.scheduleFetches(subQuery, fetches);
+    }
+  }
+
+  /**
+   * @return the partition ids assigned to each of tasks
+   */
+  public static List<Integer>[] assignPartitionsByVolume(final Map<Integer, Long> volumes, int num) {
+    List<Integer> partIds = new ArrayList<Integer>(volumes.keySet());
+    Collections.sort(partIds, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer p1, Integer p2) {
+        int cmp = volumes.get(p2).compareTo(volumes.get(p1));
+        return cmp != 0 ? cmp : p1.compareTo(p2);
+      }
+    });
+
+    List<Integer>[] assigned = new List[num];
+    long [] taskVolumes = new long[num];
+    for (int i = 0; i < num; i++) {
+      assigned[i] = new ArrayList<Integer>();
+    }
+    for (Integer partId : partIds) {
+      int minIdx = 0;
+      for (int i = 1; i < num; i++) {
+        // empty partitions are also spread, so that every task has at least one partition.
+        if (taskVolumes[i] < taskVolumes[minIdx] ||
+            (taskVolumes[i] == taskVolumes[minIdx] && assigned[i].size() < assigned[minIdx].size())) {
+          minIdx = i;
+        }
+      }
+      assigned[minIdx].add(partId);
+      taskVolumes[minIdx] += volumes.get(partId);
+    }
+    return assigned;
+  }
+
+  private static long getTotalVolume(Map<Integer, Long> volumes) {
+    long volume = 0;
+    for (Long v : volumes.values()) {
+      volume += v;
+    }
+    return volume;
+  }
+
   public static String createBasicFetchUri(String hostName, int port,
                                            ExecutionBlockId childSid,
                                            int taskId, int attemptId) {
@@ -452,6 +743,7 @@ public class Repartitioner {
 
     Map<String, List<IntermediateEntry>> hashedByHost;
     Map<Integer, Collection<URI>> finalFetchURI = new HashMap<Integer, Collection<URI>>();
+    Map<Integer, Long> partitionVolumes = new HashMap<Integer, Long>();
 
     for (ExecutionBlock block : masterPlan.getChilds(execBlock)) {
       List<IntermediateEntry> partitions = new ArrayList<IntermediateEntry>();
@@ -462,6 +754,8 @@ public class Repartitioner {
       }
       Map<Integer, List<IntermediateEntry>> hashed = hashByKey(partitions);
       for (Entry<Integer, List<IntermediateEntry>> interm : hashed.entrySet()) {
+        Long volume = partitionVolumes.get(interm.getKey());
+        partitionVolumes.put(interm.getKey(), (volume == null ? 0 : volume) + getVolume(interm.getValue()));
         hashedByHost = hashByHost(interm.getValue());
         for (Entry<String, List<IntermediateEntry>> e : hashedByHost.entrySet()) {
           Collection<URI> uris = createHashFetchURL(e.getKey(), block.getId(),
@@ -487,13 +781,85 @@ public class Repartitioner {
 
     // set the proper number of tasks to the estimated task num
     schedulerContext.setEstimatedTaskNum(determinedTaskNum);
-    // divide fetch uris into the the proper number of tasks in a round robin manner.
-    scheduleFetchesByRoundRobin(subQuery, finalFetchURI, scan.getTableName(), determinedTaskNum);
+    if (determinedTaskNum > 1 && getTotalVolume(partitionVolumes) > 0 &&
+        subQuery.getContext().getConf().getBoolVar(ConfVars.DIST_QUERY_ADAPTIVE_PARTITION_ENABLED)) {
+      // coalesce adjacent partitions into tasks of about the task volume, based on the actual partition volumes.
+      long taskVolume = (long) subQuery.getContext().getConf().getIntVar(ConfVars.DIST_QUERY_GROUPBY_TASK_VOLUME)
+          * 1048576;
+      List<List<Integer>> groups = coalescePartitions(partitionVolumes, taskVolume);
+      determinedTaskNum = groups.size();
+      LOG.info(partitionVolumes.size() + " partitions are coalesced into " + determinedTaskNum + " tasks");
+      schedulerContext.setEstimatedTaskNum(determinedTaskNum);
+      for (List<Integer> group : groups) {
+        Map<String, List<URI>> fetches = new HashMap<String, List<URI>>();
+        for (Integer partId : group) {
+          TUtil.putCollectionToNestedList(fetches, scan.getTableName(), finalFetchURI.get(partId));
+        }
+        SubQuery.scheduleFetches(subQuery, fetches);
+      }
+    } else if (getTotalVolume(partitionVolumes) > 0) {
+      // divide fetch uris into the proper number of tasks so that the tasks have similar volumes.
+      scheduleFetchesByVolume(subQuery, finalFetchURI, partitionVolumes, scan.getTableName(), determinedTaskNum);
+    } else {
+      // divide fetch uris into the the proper number of tasks in a round robin manner.
+      scheduleFetchesByRoundRobin(subQuery, finalFetchURI, scan.getTableName(), determinedTaskNum);
+    }
     LOG.info("DeterminedTaskNum : " + determinedTaskNum);
   }
 
+  /**
+   * It schedules a task for each hash partition of the child block, which is still running. The fetches of
+   * the partitions are given to the tasks incrementally through {@link PipelinedShuffle} as the child tasks are
+   * completed, so the partitions cannot be coalesced or assigned by their volumes.
+   */
+  public static void schedulePipelinedFetches(TaskSchedulerContext schedulerContext, MasterPlan masterPlan,
+                                              SubQuery subQuery) {
+    ExecutionBlock execBlock = subQuery.getBlock();
+    DataChannel channel = masterPlan.getIncomingChannels(execBlock.getId()).get(0);
+    PipelinedShuffle shuffle = subQuery.getPipelinedShuffle();
+    for (QueryUnit task : subQuery.getContext().getSubQuery(channel.getSrcId()).getQueryUnits()) {
+      if (task.getState() == TaskState.SUCCEEDED) {
+        shuffle.addCompletedTask(task);
+      }
+    }
+
+    ScanNode scan = execBlock.getScanNodes()[0];
+    Path tablePath = subQuery.getContext().getStorageManager().getTablePath(scan.getTableName());
+    FileFragment frag = new FileFragment(scan.getCanonicalName(), tablePath, 0, 0, new String[]{UNKNOWN_HOST});
+    SubQuery.scheduleFragments(subQuery, TUtil.newList(frag));
+
+    int partitionNum = channel.getShuffleOutputNum();
+    schedulerContext.setEstimatedTaskNum(partitionNum);
+    // the tasks are created in the order of partition ids.
+    for (int partId = 0; partId < partitionNum; partId++) {
+      Map<String, List<URI>> fetches = new HashMap<String, List<URI>>();
+      // the table is given even without any fetch, so that the task has the fragment of the table.
+      fetches.put(scan.getTableName(), shuffle.getFetches(partId, 0));
+      SubQuery.scheduleFetches(subQuery, fetches);
+    }
+    LOG.info("Pipelined with " + channel.getSrcId() + " - DeterminedTaskNum : " + partitionNum);
+  }
+
   public static Collection<URI> createHashFetchURL(String hostAndPort, ExecutionBlockId ebid,
                                        int partitionId, ShuffleType type, List<IntermediateEntry> entries) {
+    // The outputs compressed with different codecs are fetched separately, so that each fetch url tells
+    // the codec of its data to the fetching task.
+    Map<String, List<IntermediateEntry>> entriesPerCodec = new LinkedHashMap<String, List<IntermediateEntry>>();
+    for (IntermediateEntry entry : entries) {
+      String codec = entry.getCompressionCodec() == null ? "" : entry.getCompressionCodec();
+      TUtil.putToNestedList(entriesPerCodec, codec, entry);
+    }
+
+    Collection<URI> fetchURLs = new ArrayList<URI>();
+    for (Entry<String, List<IntermediateEntry>> e : entriesPerCodec.entrySet()) {
+      fetchURLs.addAll(createHashFetchURL(hostAndPort, ebid, partitionId, type, e.getKey(), e.getValue()));
+    }
+    return fetchURLs;
+  }
+
+  private static Collection<URI> createHashFetchURL(String hostAndPort, ExecutionBlockId ebid, int partitionId,
+                                                    ShuffleType type, String codec,
+                                                    List<IntermediateEntry> entries) {
     String scheme = "http://";
     StringBuilder urlPrefix = new StringBuilder(scheme);
     urlPrefix.append(hostAndPort).append("/?")
@@ -506,6 +872,9 @@ public class Repartitioner {
     } else if (type == RANGE_SHUFFLE) {
       urlPrefix.append("r");
     }
+    if (!codec.isEmpty()) {
+      urlPrefix.append("&codec=").append(codec);
+    }
     urlPrefix.append("&ta=");
 
     // If the get request is longer than 2000 characters,
@@ -88,6 +88,9 @@ public class SubQuery implements EventHandler<SubQueryEvent> {
   private AbstractTaskScheduler taskScheduler;
   private QueryMasterTask.QueryMasterTaskContext context;
   private final List<String> diagnostics = new ArrayList<String>();
+  // the outputs of the running child block if this subquery is pipelined with it
+  private PipelinedShuffle pipelinedShuffle;
+  private boolean pipelineRequested = false;
 
   private long startTime;
   private long finishTime;
@@ -287,6 +290,59 @@ public class SubQuery implements EventHandler<SubQueryEvent> {
     return taskScheduler;
   }
 
+  public PipelinedShuffle getPipelinedShuffle() {
+    return pipelinedShuffle;
+  }
+
+  /**
+   * It makes this subquery run together with its child block. It should be called before the subquery is inited.
+   */
+  public void setPipelinedShuffle(PipelinedShuffle pipelinedShuffle) {
+    this.pipelinedShuffle = pipelinedShuffle;
+  }
+
+  /**
+   * The parent block of a subquery can be pipelined only if it reads the hash shuffle of this subquery alone,
+   * because the other kinds of parent blocks are planned with the statistics of completed child blocks.
+   * Also, the task scheduler should keep the partition id as the task id, as DefaultTaskScheduler does.
+   */
+  public static boolean isPipelinable(SubQuery subQuery) {
+    MasterPlan masterPlan = subQuery.getMasterPlan();
+    ExecutionBlock execBlock = subQuery.getBlock();
+    if (!subQuery.context.getConf().getBoolVar(ConfVars.DIST_QUERY_PIPELINED_ENABLED) ||
+        !(subQuery.getTaskScheduler() instanceof DefaultTaskScheduler) ||
+        masterPlan.isRoot(execBlock) || execBlock.hasUnion()) {
+      return false;
+    }
+    ExecutionBlock parent = masterPlan.getParent(execBlock);
+    DataChannel channel = masterPlan.getChannel(execBlock.getId(), parent.getId());
+    return channel.getShuffleType() == ShuffleType.HASH_SHUFFLE &&
+        masterPlan.getChilds(parent).size() == 1 &&
+        parent.getScanNodes().length == 1 &&
+        !parent.hasUnion();
+  }
+
+  /**
+   * It gives the outputs of a succeeded task to the parent block if the parent block is already running.
+   * Otherwise, it requests to start the parent block once the fraction of tasks are succeeded and no task waits
+   * for a container.
+   */
+  private void pipelineSucceededTask(QueryUnit task) {
+    if (masterPlan.isRoot(block)) {
+      return;
+    }
+    SubQuery parent = context.getSubQuery(masterPlan.getParent(block).getId());
+    if (parent != null && parent.getPipelinedShuffle() != null) {
+      parent.getPipelinedShuffle().addCompletedTask(task);
+    } else if (!pipelineRequested && isPipelinable(this) &&
+        succeededObjectCount >= totalScheduledObjectsCount *
+            context.getConf().getFloatVar(ConfVars.DIST_QUERY_PIPELINED_SLOWSTART_FRACTION) &&
+        taskScheduler.remainingScheduledObjectNum() == 0) {
+      pipelineRequested = true;
+      eventHandler.handle(new SubQueryPipelineEvent(getId()));
+    }
+  }
+
   public void setStartTime() {
     startTime = context.getClock().getTime();
   }
@@ -675,10 +731,28 @@ public class SubQuery implements EventHandler<SubQueryEvent> {
     private static void setShuffleIfNecessary(SubQuery subQuery, DataChannel channel) {
       if (channel.getShuffleType() != ShuffleType.NONE_SHUFFLE) {
         int numTasks = calculateShuffleOutputNum(subQuery, channel);
+        // A single partition is kept as it is, because it cannot be coalesced further.
+        if (numTasks > 1 && isOverPartitioned(subQuery.context.getConf(), channel)) {
+          // the partitions are coalesced according to their actual volumes when the parent block is scheduled.
+          numTasks *= subQuery.context.getConf().getIntVar(ConfVars.DIST_QUERY_ADAPTIVE_PARTITION_FACTOR);
+        }
         Repartitioner.setShuffleOutputNumForTwoPhase(subQuery, numTasks, channel);
       }
     }
 
+    /**
+     * A hash shuffle is over-partitioned only if each task writes its partitions into a single consolidated file.
+     * Otherwise, each of the partitions would be a separate file.
+     */
+    private static boolean isOverPartitioned(TajoConf conf, DataChannel channel) {
+      // a pipelined parent block cannot coalesce the partitions, because their volumes are not known yet.
+      return channel.getShuffleType() == ShuffleType.HASH_SHUFFLE &&
+          conf.getBoolVar(ConfVars.DIST_QUERY_ADAPTIVE_PARTITION_ENABLED) &&
+          !conf.getBoolVar(ConfVars.DIST_QUERY_PIPELINED_ENABLED) &&
+          conf.getBoolVar(ConfVars.SHUFFLE_HASH_CONSOLIDATED_ENABLED) &&
+          channel.getStoreType() == CatalogProtos.StoreType.RAW;
+    }
+
     /**
      * Getting the total memory of cluster
      *
@@ -783,9 +857,11 @@ public class SubQuery implements EventHandler<SubQueryEvent> {
       ExecutionBlock execBlock = subQuery.getBlock();
       if (subQuery.getMasterPlan().isLeaf(execBlock.getId()) && execBlock.getScanNodes().length == 1) { // Case 1: Just Scan
         scheduleFragmentsForLeafQuery(subQuery);
-      } else if (execBlock.getScanNodes().length > 1) { // Case 2: Join
+      } else if (subQuery.getPipelinedShuffle() != null) { // Case 2: Pipelined with the running child
+        Repartitioner.schedulePipelinedFetches(subQuery.schedulerContext, masterPlan, subQuery);
+      } else if (execBlock.getScanNodes().length > 1) { // Case 3: Join
         Repartitioner.scheduleFragmentsForJoinQuery(subQuery.schedulerContext, subQuery);
-      } else { // Case 3: Others (Sort or Aggregation)
+      } else { // Case 4: Others (Sort or Aggregation)
         int numTasks = getNonLeafTaskNum(subQuery);
         Repartitioner.scheduleFragmentsForNonLeafTasks(subQuery.schedulerContext, masterPlan, subQuery, numTasks);
       }
@@ -1012,6 +1088,7 @@ public class SubQuery implements EventHandler<SubQueryEvent> {
           } else {
             subQuery.succeededObjectCount++;
           }
+          subQuery.pipelineSucceededTask(task);
         } else if (task.getState() == TaskState.KILLED) {
           if (task.isLeafTask()) {
             subQuery.killedObjectCount += task.getTotalFragmentNum();
@@ -21,8 +21,10 @@ package org.apache.tajo.worker;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.pullserver.BatchFetchProtocol;
 import org.jboss.netty.bootstrap.ClientBootstrap;
 import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
 import org.jboss.netty.channel.*;
 import org.jboss.netty.channel.socket.ClientSocketChannelFactory;
 import org.jboss.netty.handler.codec.http.*;
@@ -34,18 +36,32 @@ import java.io.RandomAccessFile;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.List;
 
 import static org.jboss.netty.channel.Channels.pipeline;
 
 /**
  * Fetcher fetches data from a given uri via HTTP protocol and stores them into
  * a specific file. It aims at asynchronous and efficient data transmit.
+ *
+ * If a {@link ShuffleStream} is given, the received data are delivered to the stream instead, and they are written
+ * to the file only if the stream runs out of its memory budget.
+ *
+ * If many uris of the same pull server are given, it requests all of them in a single batched request (see
+ * {@link BatchFetchProtocol}), and it demultiplexes the response into the file or the stream of each uri.
  */
 public class Fetcher {
   private final static Log LOG = LogFactory.getLog(Fetcher.class);
 
   private final URI uri;
   private final File file;
+  private final ShuffleStream stream;
+
+  // for a batched fetch
+  private final List<URI> uris;
+  private final List<File> files;
+  private final List<ShuffleStream> streams;
 
   private final String host;
   private int port;
@@ -58,8 +74,25 @@ public class Fetcher {
   private ClientBootstrap bootstrap;
 
   public Fetcher(URI uri, File file, ClientSocketChannelFactory factory) {
-    this.uri = uri;
-    this.file = file;
+    this(Collections.singletonList(uri), Collections.singletonList(file), null, factory);
+  }
+
+  public Fetcher(URI uri, ShuffleStream stream, ClientSocketChannelFactory factory) {
+    this(Collections.singletonList(uri), Collections.singletonList(stream.getSpillFile()),
+        Collections.singletonList(stream), factory);
+  }
+
+  /**
+   * Creates a fetcher for the uris of the same pull server. The data of each uri are stored into the file, or
+   * delivered to the stream if streams are given, at the same position.
+   */
+  public Fetcher(List<URI> uris, List<File> files, List<ShuffleStream> streams, ClientSocketChannelFactory factory) {
+    this.uris = uris;
+    this.files = files;
+    this.streams = streams == null ? Collections.<ShuffleStream>emptyList() : streams;
+    this.uri = uris.get(0);
+    this.file = files.get(0);
+    this.stream = streams == null ? null : streams.get(0);
 
     String scheme = uri.getScheme() == null ? "http" : uri.getScheme();
     this.host = uri.getHost() == null ? "localhost" : uri.getHost();
@@ -97,6 +130,18 @@ public class Fetcher {
     return messageReceiveCount;
   }
 
+  public List<URI> getURIs() {
+    return uris;
+  }
+
+  public List<ShuffleStream> getStreams() {
+    return streams;
+  }
+
+  public boolean isBatched() {
+    return uris.size() > 1;
+  }
+
   public String getStatus() {
     if(startTime == 0) {
       return "READY";
@@ -111,6 +156,9 @@ public class Fetcher {
 
   public File get() throws IOException {
     startTime = System.currentTimeMillis();
+    if (isBatched()) {
+      return getBatch();
+    }
 
     ChannelFuture future = bootstrap.connect(new InetSocketAddress(host, port));
 
@@ -142,6 +190,44 @@ public class Fetcher {
     // Close the channel to exit.
     future.getChannel().close();
     finishTime = System.currentTimeMillis();
+
+    if (stream != null) {
+      if (stream.getFailure() != null) {
+        throw stream.getFailure();
+      }
+      if (!stream.isFinished()) {
+        throw new IOException("The connection is closed before the whole data is received: " + uri);
+      }
+    }
+    return file;
+  }
+
+  private File getBatch() throws IOException {
+    BatchHttpClientHandler handler = new BatchHttpClientHandler();
+    bootstrap.setPipelineFactory(new BatchHttpClientPipelineFactory(handler));
+
+    ChannelFuture future = bootstrap.connect(new InetSocketAddress(host, port));
+    Channel channel = future.awaitUninterruptibly().getChannel();
+    if (!future.isSuccess()) {
+      future.getChannel().close();
+      throw new IOException(future.getCause());
+    }
+
+    LOG.info("Batched fetch: " + host + ":" + port + " (" + uris.size() + " uris)");
+    channel.write(BatchFetchProtocol.newRequest(host, uris));
+
+    // Wait for the server to close the connection.
+    channel.getCloseFuture().awaitUninterruptibly();
+    handler.cleanup();
+    finishTime = System.currentTimeMillis();
+
+    if (handler.failure != null) {
+      throw handler.failure;
+    }
+    if (!handler.isCompleted()) {
+      throw new IOException("The connection is closed before the whole data is received: " + host + ":" + port
+          + " (received/total: " + fileLen + "/" + handler.totalLength + ")");
+    }
     return file;
   }
 
@@ -192,6 +278,15 @@ public class Fetcher {
 
           if (response.getStatus() == HttpResponseStatus.NO_CONTENT) {
             LOG.info("There are no data corresponding to the request");
+            if (stream != null) {
+              stream.start(0);
+              stream.finish();
+            }
+            return;
+          }
+
+          if (stream != null) {
+            receiveStreamResponse(response);
             return;
           }
 
@@ -206,6 +301,8 @@ public class Fetcher {
               fc.write(content.toByteBuffer());
             }
           }
+        } else if (stream != null) {
+          receiveStreamChunk(ctx, (HttpChunk) e.getMessage());
         } else {
           HttpChunk chunk = (HttpChunk) e.getMessage();
           if (chunk.isLast()) {
@@ -233,6 +330,178 @@ public class Fetcher {
         }
       }
     }
+
+    private void receiveStreamResponse(HttpResponse response) throws IOException {
+      stream.start(length);
+      if (response.isChunked()) {
+        readingChunks = true;
+      } else {
+        stream.write(response.getContent());
+        stream.finish();
+        fileLen = stream.getReceivedBytes();
+      }
+    }
+
+    private void receiveStreamChunk(ChannelHandlerContext ctx, HttpChunk chunk) {
+      try {
+        if (chunk.isLast()) {
+          readingChunks = false;
+          stream.finish();
+          LOG.info("Data fetch is done (total received bytes: " + stream.getReceivedBytes() + ", spilled bytes: "
+              + stream.getSpilledBytes() + ")");
+        } else {
+          stream.write(chunk.getContent());
+        }
+        fileLen = stream.getReceivedBytes();
+      } catch (IOException ioe) {
+        LOG.error("Cannot store the fetched data: " + uri, ioe);
+        stream.fail(ioe);
+        ctx.getChannel().close();
+      }
+    }
+  }
+
+  /**
+   * It demultiplexes the response of a batched fetch. The response starts with the length table of the parts, and
+   * the data of the parts follow in the order of the request.
+   */
+  class BatchHttpClientHandler extends SimpleChannelUpstreamHandler {
+    private final ChannelBuffer lengthTable = ChannelBuffers.dynamicBuffer(
+        BatchFetchProtocol.getLengthTableSize(uris.size()));
+    private long [] lengths;
+    private long totalLength = -1;
+    private int partIdx;
+    private long partRemain;
+    private RandomAccessFile raf;
+    private FileChannel fc;
+    private volatile IOException failure;
+
+    @Override
+    public void messageReceived(ChannelHandlerContext ctx, MessageEvent e) throws Exception {
+      messageReceiveCount++;
+      try {
+        if (e.getMessage() instanceof HttpResponse) {
+          HttpResponse response = (HttpResponse) e.getMessage();
+          if (!response.getStatus().equals(HttpResponseStatus.OK)) {
+            throw new IOException("Batched fetch failed: " + response.getStatus());
+          }
+          if (!response.isChunked()) {
+            receive(response.getContent());
+          }
+        } else {
+          HttpChunk chunk = (HttpChunk) e.getMessage();
+          if (!chunk.isLast()) {
+            receive(chunk.getContent());
+          }
+        }
+      } catch (IOException ioe) {
+        LOG.error("Cannot store the fetched data: " + host + ":" + port, ioe);
+        failure = ioe;
+        ctx.getChannel().close();
+      }
+    }
+
+    private void receive(ChannelBuffer content) throws IOException {
+      while (content.readable()) {
+        if (lengths == null) {
+          int tableSize = BatchFetchProtocol.getLengthTableSize(uris.size());
+          content.readBytes(lengthTable, Math.min(content.readableBytes(), tableSize - lengthTable.readableBytes()));
+          if (lengthTable.readableBytes() == tableSize) {
+            readLengthTable();
+          }
+        } else {
+          if (partIdx == uris.size()) {
+            throw new IOException("The response is longer than the requested data");
+          }
+          int length = (int) Math.min(content.readableBytes(), partRemain);
+          if (stream != null) {
+            streams.get(partIdx).write(content.readSlice(length));
+          } else {
+            fc.write(content.toByteBuffer(content.readerIndex(), length));
+            content.skipBytes(length);
+          }
+          partRemain -= length;
+          fileLen += length;
+          if (partRemain == 0) {
+            finishPart();
+          }
+        }
+      }
+    }
+
+    private void readLengthTable() throws IOException {
+      int partNum = lengthTable.readInt();
+      if (partNum != uris.size()) {
+        throw new IOException("The number of parts is mismatched (requested/received: " + uris.size() + "/"
+            + partNum + ")");
+      }
+      lengths = new long[partNum];
+      totalLength = 0;
+      for (int i = 0; i < partNum; i++) {
+        lengths[i] = lengthTable.readLong();
+        totalLength += lengths[i];
+        if (stream != null) {
+          // all streams can be planned before their data arrive.
+          streams.get(i).start(lengths[i]);
+        }
+      }
+      partIdx = -1;
+      finishPart();
+    }
+
+    /**
+     * Finishes the current part, and moves to the next non-empty part.
+     */
+    private void finishPart() throws IOException {
+      if (partIdx >= 0) {
+        if (stream != null) {
+          streams.get(partIdx).finish();
+        } else {
+          IOUtils.cleanup(LOG, fc, raf);
+          fc = null;
+          raf = null;
+        }
+      }
+
+      partIdx++;
+      if (partIdx < uris.size()) {
+        if (stream == null) {
+          // it may overwrite the data of a failed attempt.
+          raf = new RandomAccessFile(files.get(partIdx), "rw");
+          raf.setLength(0);
+          fc = raf.getChannel();
+        }
+        partRemain = lengths[partIdx];
+        if (partRemain == 0) {
+          finishPart();
+        }
+      }
+    }
+
+    public boolean isCompleted() {
+      return lengths != null && partIdx == uris.size();
+    }
+
+    public void cleanup() {
+      IOUtils.cleanup(LOG, fc, raf);
+    }
+  }
+
+  class BatchHttpClientPipelineFactory implements ChannelPipelineFactory {
+    private final BatchHttpClientHandler handler;
+
+    public BatchHttpClientPipelineFactory(BatchHttpClientHandler handler) {
+      this.handler = handler;
+    }
+
+    @Override
+    public ChannelPipeline getPipeline() throws Exception {
+      ChannelPipeline pipeline = pipeline();
+
+      pipeline.addLast("codec", new HttpClientCodec());
+      pipeline.addLast("handler", handler);
+      return pipeline;
+    }
   }
 
   class HttpClientPipelineFactory implements
@@ -0,0 +1,327 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.worker;
+
+import org.apache.hadoop.io.IOUtils;
+import org.jboss.netty.buffer.ChannelBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <code>ShuffleStream</code> delivers the body of a shuffle fetch response to a consumer while the response is
+ * being received. Received bytes are kept in memory as long as the memory budget of the task allows. Once the
+ * budget is exhausted, the rest of the response is written to the spill file, and the consumer reads it from the
+ * file after the in-memory part.
+ *
+ * The received bytes are kept until the stream is closed, so a stream can be read more than once.
+ */
+public class ShuffleStream {
+  private final File spillFile;
+  private final MemoryBudget budget;
+
+  private final List<byte []> chunks = new ArrayList<byte[]>();
+  private long memoryBytes = 0;
+  private RandomAccessFile spillOut;
+  private long spilledBytes = 0;
+
+  private long contentLength = -1;
+  private boolean started = false;
+  private boolean finished = false;
+  private IOException failure;
+  private boolean opened = false;
+
+  /**
+   * The memory shared by the streams of a task.
+   */
+  public static class MemoryBudget {
+    private final AtomicLong remain;
+
+    public MemoryBudget(long bytes) {
+      remain = new AtomicLong(bytes);
+    }
+
+    public boolean tryReserve(long bytes) {
+      while (true) {
+        long current = remain.get();
+        if (current < bytes) {
+          return false;
+        }
+        if (remain.compareAndSet(current, current - bytes)) {
+          return true;
+        }
+      }
+    }
+
+    public void release(long bytes) {
+      remain.addAndGet(bytes);
+    }
+
+    public long getRemain() {
+      return remain.get();
+    }
+  }
+
+  public ShuffleStream(File spillFile, MemoryBudget budget) {
+    this.spillFile = spillFile;
+    this.budget = budget;
+  }
+
+  public File getSpillFile() {
+    return spillFile;
+  }
+
+  /**
+   * It is called when the response header is received.
+   *
+   * @param contentLength the length of the response body, or -1 if it is unknown.
+   */
+  public synchronized void start(long contentLength) {
+    this.contentLength = contentLength;
+    this.started = true;
+    notifyAll();
+  }
+
+  public synchronized void write(ChannelBuffer content) throws IOException {
+    int length = content.readableBytes();
+    if (length == 0) {
+      return;
+    }
+
+    // once it spills, the rest of the response must follow in the file to keep the order of bytes.
+    if (spillOut == null && budget.tryReserve(length)) {
+      byte [] chunk = new byte[length];
+      content.readBytes(chunk);
+      chunks.add(chunk);
+      memoryBytes += length;
+    } else {
+      if (spillOut == null) {
+        spillOut = new RandomAccessFile(spillFile, "rw");
+        spillOut.setLength(0);
+      }
+      spillOut.getChannel().write(content.toByteBuffer(), spilledBytes);
+      content.skipBytes(length);
+      spilledBytes += length;
+    }
+    notifyAll();
+  }
+
+  public synchronized void finish() {
+    started = true;
+    finished = true;
+    IOUtils.cleanup(null, spillOut);
+    spillOut = null;
+    notifyAll();
+  }
+
+  public synchronized void fail(Throwable cause) {
+    started = true;
+    failure = cause instanceof IOException ? (IOException) cause : new IOException(cause);
+    IOUtils.cleanup(null, spillOut);
+    spillOut = null;
+    notifyAll();
+  }
+
+  /**
+   * @return true if the received bytes can be discarded to retry the fetch. It is impossible after the consumer
+   * opened the stream.
+   */
+  public synchronized boolean discardForRetry() {
+    if (opened) {
+      return false;
+    }
+    releaseReceived();
+    started = false;
+    finished = false;
+    failure = null;
+    contentLength = -1;
+    return true;
+  }
+
+  /**
+   * Waits until the response header is received or the fetch is completed.
+   */
+  public synchronized void awaitStart() throws InterruptedException {
+    while (!started) {
+      wait();
+    }
+  }
+
+  /**
+   * Waits until the whole response is received.
+   *
+   * @throws IOException if the fetch failed
+   */
+  public synchronized void awaitFinish() throws InterruptedException, IOException {
+    while (!finished && failure == null) {
+      wait();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  public synchronized boolean isFinished() {
+    return finished;
+  }
+
+  public synchronized IOException getFailure() {
+    return failure;
+  }
+
+  public synchronized long getContentLength() {
+    return contentLength;
+  }
+
+  public synchronized long getReceivedBytes() {
+    return memoryBytes + spilledBytes;
+  }
+
+  public synchronized long getMemoryBytes() {
+    return memoryBytes;
+  }
+
+  public synchronized long getSpilledBytes() {
+    return spilledBytes;
+  }
+
+  /**
+   * @return a new channel which reads the stream from the beginning.
+   */
+  public synchronized ReadableByteChannel newChannel() {
+    opened = true;
+    return new StreamChannel();
+  }
+
+  public synchronized void close() {
+    releaseReceived();
+  }
+
+  private void releaseReceived() {
+    budget.release(memoryBytes);
+    chunks.clear();
+    memoryBytes = 0;
+    IOUtils.cleanup(null, spillOut);
+    spillOut = null;
+    spilledBytes = 0;
+  }
+
+  /**
+   * It reads the in-memory chunks at first and then the spill file. Each read blocks until the buffer is filled or
+   * the stream reaches its end.
+   */
+  private class StreamChannel implements ReadableByteChannel {
+    private int chunkIdx = 0;
+    private int chunkOffset = 0;
+    private long filePos = 0;
+    private FileChannel spillIn;
+    private boolean closed = false;
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      int total = 0;
+      while (dst.hasRemaining()) {
+        int read = readAvailable(dst);
+        if (read < 0) {
+          return total == 0 ? -1 : total;
+        }
+        total += read;
+      }
+      return total;
+    }
+
+    /**
+     * @return the number of read bytes, or -1 if the stream reaches its end.
+     */
+    private int readAvailable(ByteBuffer dst) throws IOException {
+      long spilled;
+      synchronized (ShuffleStream.this) {
+        while (true) {
+          if (chunkIdx < chunks.size()) {
+            byte [] chunk = chunks.get(chunkIdx);
+            int length = Math.min(dst.remaining(), chunk.length - chunkOffset);
+            dst.put(chunk, chunkOffset, length);
+            chunkOffset += length;
+            if (chunkOffset == chunk.length) {
+              chunkIdx++;
+              chunkOffset = 0;
+            }
+            return length;
+          }
+          if (failure != null) {
+            throw failure;
+          }
+          if (filePos < spilledBytes) {
+            spilled = spilledBytes;
+            break;
+          }
+          if (finished) {
+            return -1;
+          }
+          try {
+            ShuffleStream.this.wait();
+          } catch (InterruptedException e) {
+            throw new InterruptedIOException("Interrupted while waiting for the shuffle data");
+          }
+        }
+      }
+
+      // the spilled bytes are never overwritten, so they are read out of the lock.
+      if (spillIn == null) {
+        spillIn = new RandomAccessFile(spillFile, "r").getChannel();
+      }
+      int limit = dst.limit();
+      if (dst.remaining() > spilled - filePos) {
+        dst.limit(dst.position() + (int) (spilled - filePos));
+      }
+      int read;
+      try {
+        read = spillIn.read(dst, filePos);
+      } finally {
+        dst.limit(limit);
+      }
+      if (read < 0) {
+        throw new IOException("Unexpected end of the spill file " + spillFile);
+      }
+      filePos += read;
+      return read;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return !closed;
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+      IOUtils.cleanup(null, spillIn);
+      spillIn = null;
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.worker;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.storage.RawFile;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+import org.apache.tajo.storage.vector.VectorizedScanner;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * <code>ShuffleStreamScanner</code> reads the RAW shuffle data of a table from {@link ShuffleStream}s while they
+ * are being fetched. The streams are read one after another.
+ */
+public class ShuffleStreamScanner implements VectorizedScanner {
+  private final Configuration conf;
+  private final Schema schema;
+  private final TableMeta meta;
+  private final List<ShuffleStream> streams;
+
+  private int nextStreamIdx = 0;
+  private RawFile.RawFileScanner current;
+  private long numRows = 0;
+  private TableStats inputStats;
+
+  public ShuffleStreamScanner(Configuration conf, Schema schema, TableMeta meta, List<ShuffleStream> streams) {
+    this.conf = conf;
+    this.schema = schema;
+    this.meta = meta;
+    this.streams = streams;
+  }
+
+  @Override
+  public void init() throws IOException {
+    inputStats = new TableStats();
+    nextStreamIdx = 0;
+    current = null;
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    while (openNext()) {
+      Tuple tuple = current.next();
+      if (tuple != null) {
+        numRows++;
+        return tuple;
+      }
+      closeCurrent();
+    }
+    return null;
+  }
+
+  @Override
+  public int nextBatch(VectorizedRowBatch batch) throws IOException {
+    while (openNext()) {
+      int rowNum = current.nextBatch(batch);
+      if (rowNum > 0) {
+        numRows += rowNum;
+        return rowNum;
+      }
+      closeCurrent();
+    }
+    batch.reset();
+    return 0;
+  }
+
+  /**
+   * It opens the scanner of the next stream if no stream is being read.
+   *
+   * @return false if all streams are read
+   */
+  private boolean openNext() throws IOException {
+    if (current == null) {
+      if (nextStreamIdx == streams.size()) {
+        return false;
+      }
+      ShuffleStream stream = streams.get(nextStreamIdx++);
+      long length = stream.getContentLength() < 0 ? Long.MAX_VALUE : stream.getContentLength();
+      current = new RawFile.RawFileScanner(conf, schema, meta, stream.newChannel(), length);
+      current.init();
+    }
+    return true;
+  }
+
+  private void closeCurrent() throws IOException {
+    if (current != null) {
+      current.close();
+      current = null;
+    }
+  }
+
+  @Override
+  public void reset() throws IOException {
+    closeCurrent();
+    nextStreamIdx = 0;
+    numRows = 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    closeCurrent();
+    long readBytes = 0;
+    for (int i = 0; i < nextStreamIdx; i++) {
+      readBytes += streams.get(i).getReceivedBytes();
+    }
+    inputStats.setNumRows(numRows);
+    inputStats.setNumBytes(readBytes);
+    inputStats.setReadBytes(readBytes);
+  }
+
+  @Override
+  public boolean isProjectable() {
+    return false;
+  }
+
+  @Override
+  public void setTarget(Column[] targets) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean isSelectable() {
+    return false;
+  }
+
+  @Override
+  public void setSearchCondition(Object expr) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean isSplittable() {
+    return false;
+  }
+
+  @Override
+  public float getProgress() {
+    if (streams.isEmpty()) {
+      return 1.0f;
+    }
+    return (float) Math.max(0, nextStreamIdx - 1) / streams.size();
+  }
+
+  @Override
+  public TableStats getInputStats() {
+    return inputStats;
+  }
+
+  @Override
+  public Schema getSchema() {
+    return schema;
+  }
+}
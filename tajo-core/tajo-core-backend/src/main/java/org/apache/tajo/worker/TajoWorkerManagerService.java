@@ -146,7 +146,11 @@ public class TajoWorkerManagerService extends CompositeService
   @Override
   public void cleanup(RpcController controller, TajoIdProtos.QueryIdProto request,
                       RpcCallback<PrimitiveProtos.BoolProto> done) {
-    workerContext.cleanup(new QueryId(request).toString());
+    String queryId = new QueryId(request).toString();
+    if (workerContext.getPullService() != null) {
+      workerContext.getPullService().cleanupQuery(queryId);
+    }
+    workerContext.cleanup(queryId);
     done.run(TajoWorker.TRUE_PROTO);
   }
 }
@@ -32,10 +32,12 @@ import org.apache.hadoop.yarn.util.ConverterUtils;
 import org.apache.tajo.QueryUnitAttemptId;
 import org.apache.tajo.TajoConstants;
 import org.apache.tajo.TajoProtos.TaskAttemptState;
+import org.apache.tajo.catalog.CatalogConstants;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableDesc;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.proto.CatalogProtos;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.json.CoreGsonHelper;
@@ -49,6 +51,7 @@ import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.engine.query.QueryUnitRequest;
 import org.apache.tajo.ipc.QueryMasterProtocol.QueryMasterProtocolService;
 import org.apache.tajo.ipc.TajoWorkerProtocol.*;
+import org.apache.tajo.rpc.CallFuture;
 import org.apache.tajo.rpc.NullCallback;
 import org.apache.tajo.rpc.RpcChannelFactory;
 import org.apache.tajo.storage.StorageUtil;
@@ -56,6 +59,7 @@ import org.apache.tajo.storage.TupleComparator;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.util.ApplicationIdUtils;
 import org.jboss.netty.channel.socket.ClientSocketChannelFactory;
+import org.jboss.netty.handler.codec.http.QueryStringDecoder;
 
 import java.io.File;
 import java.io.IOException;
@@ -63,6 +67,8 @@ import java.net.URI;
 import java.text.NumberFormat;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.apache.tajo.catalog.proto.CatalogProtos.FragmentProto;
@@ -70,6 +76,7 @@ import static org.apache.tajo.catalog.proto.CatalogProtos.FragmentProto;
 public class Task {
   private static final Log LOG = LogFactory.getLog(Task.class);
   private static final float FETCHER_PROGRESS = 0.5f;
+  private static final int PIPELINED_FETCH_TIMEOUT_SEC = 60;
 
   private final TajoConf systemConf;
   private final QueryContext queryContext;
@@ -87,9 +94,15 @@ public class Task {
   private final Map<String, TableDesc> descs = Maps.newHashMap();
   private PhysicalExec executor;
   private boolean interQuery;
+  // whether the fetches are given incrementally while the child block is running
+  private boolean pipelined;
+  // the sequence of the files which store the fetched data
+  private int fetchSeq = 0;
+  // key: a table fetched from hash shuffles, value: the compression codec of the fetches, or "" if not compressed
+  private final Map<String, String> shuffleCodecs = new HashMap<String, String>();
   private boolean killed = false;
   private boolean aborted = false;
-  private boolean stopped = false;
+  private volatile boolean stopped = false;
   private final Reporter reporter;
   private Path inputTableBaseDir;
 
@@ -164,6 +177,7 @@ public class Task {
     }
 
     interQuery = request.getProto().getInterQuery();
+    pipelined = request.getProto().getPipelined();
     if (interQuery) {
       context.setInterQuery();
       this.shuffleType = context.getDataChannel().getShuffleType();
@@ -188,7 +202,8 @@ public class Task {
     LOG.info("==================================");
     LOG.info("* Subquery " + request.getId() + " is initialized");
     LOG.info("* InterQuery: " + interQuery
-        + (interQuery ? ", Use " + this.shuffleType + " shuffle":""));
+        + (interQuery ? ", Use " + this.shuffleType + " shuffle":"")
+        + (pipelined ? ", Pipelined with the child block" : ""));
 
     LOG.info("* Fragments (num: " + request.getFragments().size() + ")");
     LOG.info("* Fetches (total:" + request.getFetches().size() + ") :");
@@ -207,7 +222,7 @@ public class Task {
     // initialize a task temporal dir
     localFS.mkdirs(taskDir);
 
-    if (request.getFetches().size() > 0) {
+    if (request.getFetches().size() > 0 || pipelined) {
       inputTableBaseDir = localFS.makeQualified(
           lDirAllocator.getLocalPathForWrite(
               getTaskAttemptDir(context.getTaskId()).toString(), systemConf));
@@ -263,7 +278,20 @@ public class Task {
 
   public void fetch() {
     for (Fetcher f : fetcherRunners) {
+      launchFetch(f);
+    }
+  }
+
+  /**
+   * A streamed fetch runs on a separate launcher, so it does not wait behind the fetches of the other tasks. Both
+   * launchers are bounded by tajo.shuffle.fetcher.parallel-execution.max-num. A stream queued behind the running
+   * ones only delays the start of the task, because a running stream spills what its consumer does not read yet.
+   */
+  private void launchFetch(Fetcher f) {
+    if (f.getStreams().isEmpty()) {
       taskRunnerContext.getFetchLauncher().submit(new FetchRunner(context, f));
+    } else {
+      taskRunnerContext.getStreamFetchLauncher().submit(new FetchRunner(context, f));
     }
   }
 
@@ -344,6 +372,13 @@ public class Task {
         Entry<Integer,String> entry = it.next();
         ShuffleFileOutput.Builder part = ShuffleFileOutput.newBuilder();
         part.setPartId(entry.getKey());
+        Long volume = context.getShuffleFileVolume(entry.getKey());
+        if (volume != null) {
+          part.setVolume(volume);
+        }
+        if (context.getShuffleCompressionCodec() != null) {
+          part.setCompressionCodec(context.getShuffleCompressionCodec());
+        }
         builder.addShuffleFileOutputs(part.build());
       } while (it.hasNext());
     }
@@ -351,6 +386,38 @@ public class Task {
     return builder.build();
   }
 
+  /**
+   * If the fetched data are consumed while being fetched, it only waits until every fetch receives its response
+   * header. The fragments of input tables are determined by the response lengths, so the physical planner can
+   * estimate the input volumes. A response without its length, e.g., a chunked one, is waited until it is
+   * completely received, because the bytes received so far do not tell the length of the fragment.
+   */
+  private void waitForShuffleStreams() throws InterruptedException, IOException {
+    for (Entry<String, List<ShuffleStream>> entry : context.getAllShuffleStreams().entrySet()) {
+      List<FileFragment> fragments = new ArrayList<FileFragment>();
+      for (ShuffleStream stream : entry.getValue()) {
+        stream.awaitStart();
+        long length = stream.getContentLength();
+        if (length < 0) {
+          stream.awaitFinish();
+          length = stream.getReceivedBytes();
+        }
+        if (length > 0) {
+          fragments.add(new FileFragment(entry.getKey(), new Path(stream.getSpillFile().getAbsolutePath()), 0,
+              length));
+        }
+      }
+      context.updateAssignedFragments(entry.getKey(), fragments.toArray(new FileFragment[fragments.size()]));
+    }
+    // an input table which has nothing to fetch is empty.
+    for (String inputTable : Lists.newArrayList(context.getInputTables())) {
+      if (context.getShuffleStreams(inputTable) == null) {
+        context.updateAssignedFragments(inputTable, new FileFragment[0]);
+      }
+    }
+    LOG.info(context.getTaskId() + " All fetches are started!");
+  }
+
   private void waitForFetch() throws InterruptedException, IOException {
     context.getFetchLatch().await();
     LOG.info(context.getTaskId() + " All fetches are done!");
@@ -363,13 +430,71 @@ public class Task {
     releaseChannelFactory();
   }
 
+  /**
+   * If the child block is still running, it asks the query master for the outputs of the child tasks completed
+   * since the last request, and it fetches them until the child block is completed.
+   */
+  private void fetchPipelined() throws InterruptedException, IOException {
+    int knownFetchNum = request.getFetches().size();
+    long interval = systemConf.getIntVar(TajoConf.ConfVars.DIST_QUERY_PIPELINED_FETCH_INTERVAL);
+    boolean completed = false;
+    while (!killed && !completed) {
+      // the fetches of the previous round should be done before the fetch phase is renewed.
+      if (context.hasFetchPhase()) {
+        context.getFetchLatch().await();
+      }
+
+      CallFuture<PipelinedFetchResponseProto> callFuture = new CallFuture<PipelinedFetchResponseProto>();
+      masterProxy.getPipelinedFetches(null, PipelinedFetchRequestProto.newBuilder()
+          .setId(taskId.getProto()).setKnownFetchNum(knownFetchNum).build(), callFuture);
+      PipelinedFetchResponseProto response;
+      try {
+        response = callFuture.get(PIPELINED_FETCH_TIMEOUT_SEC, TimeUnit.SECONDS);
+      } catch (TimeoutException e) {
+        throw new IOException("No response on the pipelined fetches of " + taskId);
+      }
+      if (response.getAborted()) {
+        throw new IOException("The child block of " + taskId + " is aborted");
+      }
+
+      completed = response.getCompleted();
+      if (response.getFetchesCount() > 0) {
+        knownFetchNum += response.getFetchesCount();
+        List<Fetcher> runners = getFetchRunners(context, response.getFetchesList());
+        fetcherRunners.addAll(runners);
+        for (Fetcher f : runners) {
+          launchFetch(f);
+        }
+      } else if (!completed) {
+        Thread.sleep(interval);
+      }
+    }
+
+    if (killed) {
+      return;
+    } else if (context.hasFetchPhase()) {
+      waitForFetch();
+    } else {
+      // nothing is fetched, so the input table is empty.
+      for (String inputTable : Lists.newArrayList(context.getInputTables())) {
+        context.updateAssignedFragments(inputTable, new FileFragment[0]);
+      }
+    }
+  }
+
   public void run() {
     startTime = System.currentTimeMillis();
     String errorMessage = null;
     try {
       context.setState(TaskAttemptState.TA_RUNNING);
 
-      if (context.hasFetchPhase()) {
+      if (pipelined) {
+        fetchPipelined();
+        context.setFetcherProgress(FETCHER_PROGRESS);
+        context.setProgress(FETCHER_PROGRESS);
+      } else if (context.hasShuffleStreams()) {
+        waitForShuffleStreams();
+      } else if (context.hasFetchPhase()) {
         // If the fetch is still in progress, the query unit must wait for
         // complete.
         waitForFetch();
@@ -377,7 +502,7 @@ public class Task {
         context.setProgress(FETCHER_PROGRESS);
       }
 
-      if (context.getFragmentSize() > 0) {
+      if (!killed && context.getFragmentSize() > 0) {
         this.executor = taskRunnerContext.getTQueryEngine().
             createPlan(context, plan);
         this.executor.init();
@@ -455,6 +580,11 @@ public class Task {
     taskRunnerContext = null;
 
     fetcherRunners.clear();
+    for (List<ShuffleStream> streams : context.getAllShuffleStreams().values()) {
+      for (ShuffleStream stream : streams) {
+        stream.close();
+      }
+    }
     executor = null;
     plan = null;
     context = null;
@@ -559,8 +689,10 @@ public class Task {
       int maxRetryNum = 5;
       int retryWaitTime = 1000;
 
+      List<ShuffleStream> streams = fetcher.getStreams();
       try { // for releasing fetch latch
-        while(retryNum < maxRetryNum) {
+        // it stops if the task is finished without consuming all fetched data.
+        while(!stopped && retryNum < maxRetryNum) {
           if (retryNum > 0) {
             try {
               Thread.sleep(retryWaitTime);
@@ -576,9 +708,22 @@ public class Task {
             }
           } catch (IOException e) {
             LOG.error("Fetch failed: " + fetcher.getURI(), e);
+            // a stream cannot be fetched again once its data are consumed.
+            if (!discardForRetry(streams)) {
+              for (ShuffleStream stream : streams) {
+                stream.fail(e);
+              }
+              break;
+            }
           }
           retryNum++;
         }
+        if (retryNum == maxRetryNum) {
+          for (ShuffleStream stream : streams) {
+            stream.fail(new IOException("The maximum retry (" + retryNum + ") on the fetch exceeded ("
+                + fetcher.getURI() + ")"));
+          }
+        }
       } finally {
         fetcherFinished(ctx);
       }
@@ -589,6 +734,17 @@ public class Task {
     }
   }
 
+  /**
+   * A batched fetch can be retried only if none of its streams is consumed.
+   */
+  private static boolean discardForRetry(List<ShuffleStream> streams) {
+    boolean discarded = true;
+    for (ShuffleStream stream : streams) {
+      discarded &= stream.discardForRetry();
+    }
+    return discarded;
+  }
+
   @VisibleForTesting
   public static float adjustFetchProcess(int totalFetcher, int remainFetcher) {
     return ((float)(totalFetcher - remainFetcher)) / (float)totalFetcher * FETCHER_PROGRESS;
@@ -635,7 +791,18 @@ public class Task {
               getTaskAttemptDir(ctx.getTaskId()).toString(), systemConf);
       File storeDir;
 
-      int i = 0;
+      boolean streaming = isShuffleStreamingPossible(ctx, fetches);
+      ShuffleStream.MemoryBudget budget = null;
+      if (streaming) {
+        budget = new ShuffleStream.MemoryBudget(
+            ctx.getConf().getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_STREAMING_BUFFER_SIZE) * 1048576L);
+      }
+
+      boolean batch = ctx.getConf().getBoolVar(TajoConf.ConfVars.SHUFFLE_FETCHER_BATCH_ENABLED);
+      int batchMaxNum = ctx.getConf().getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_BATCH_MAX_NUM);
+      // key: the address of a pull server, value: the fetches of hash shuffles which can be batched
+      Map<String, BatchedFetches> batches = new LinkedHashMap<String, BatchedFetches>();
+
       File storeFile;
       List<Fetcher> runnerList = Lists.newArrayList();
       for (Fetch f : fetches) {
@@ -643,10 +810,37 @@ public class Task {
         if (!storeDir.exists()) {
           storeDir.mkdirs();
         }
-        storeFile = new File(storeDir, "in_" + i);
-        Fetcher fetcher = new Fetcher(URI.create(f.getUrls()), storeFile, channelFactory);
-        runnerList.add(fetcher);
-        i++;
+        storeFile = new File(storeDir, "in_" + fetchSeq++);
+        URI uri = URI.create(f.getUrls());
+        if (isHashShuffleFetch(f)) {
+          setShuffleCompression(descs.get(f.getName()), f);
+        }
+        ShuffleStream stream = null;
+        if (streaming) {
+          stream = new ShuffleStream(storeFile, budget);
+          ctx.addShuffleStream(f.getName(), stream);
+        }
+
+        if (batch && isHashShuffleFetch(f)) {
+          String address = uri.getHost() + ":" + uri.getPort();
+          BatchedFetches batched = batches.get(address);
+          if (batched == null) {
+            batched = new BatchedFetches();
+            batches.put(address, batched);
+          }
+          batched.add(uri, storeFile, stream);
+          if (batched.uris.size() == batchMaxNum) {
+            runnerList.add(batched.newFetcher(channelFactory));
+            batches.remove(address);
+          }
+        } else if (streaming) {
+          runnerList.add(new Fetcher(uri, stream, channelFactory));
+        } else {
+          runnerList.add(new Fetcher(uri, storeFile, channelFactory));
+        }
+      }
+      for (BatchedFetches batched : batches.values()) {
+        runnerList.add(batched.newFetcher(channelFactory));
       }
       ctx.addFetchPhase(runnerList.size(), new File(inputDir.toString()));
       return runnerList;
@@ -655,6 +849,78 @@ public class Task {
     }
   }
 
+  /**
+   * Hash shuffle outputs in RAW are written in compressed blocks if the producer has a shuffle compression codec.
+   * The codec is given in the fetch url, so the scanners of the fetched data decompress them with the codec of
+   * the producer regardless of the local configuration. All fetches of a table should have the same codec because
+   * they are scanned with one table meta.
+   */
+  private void setShuffleCompression(TableDesc desc, Fetch fetch) throws IOException {
+    if (desc == null || desc.getMeta().getStoreType() != StoreType.RAW) {
+      return;
+    }
+
+    List<String> codecs = new QueryStringDecoder(fetch.getUrls()).getParameters().get("codec");
+    String codec = codecs == null ? "" : codecs.get(0);
+    String previous = shuffleCodecs.get(fetch.getName());
+    if (previous == null) {
+      shuffleCodecs.put(fetch.getName(), codec);
+      if (!codec.isEmpty()) {
+        desc.getMeta().putOption(CatalogConstants.COMPRESSION_CODEC, codec);
+      }
+    } else if (!previous.equals(codec)) {
+      throw new IOException("The shuffle outputs of " + fetch.getName() + " are compressed differently: \""
+          + previous + "\" and \"" + codec + "\"");
+    }
+  }
+
+  private static boolean isHashShuffleFetch(Fetch fetch) {
+    List<String> types = new QueryStringDecoder(fetch.getUrls()).getParameters().get("type");
+    return types != null && types.contains("h");
+  }
+
+  /**
+   * The fetches of hash shuffles from the same pull server, which are requested together.
+   */
+  private static class BatchedFetches {
+    private final List<URI> uris = Lists.newArrayList();
+    private final List<File> files = Lists.newArrayList();
+    private final List<ShuffleStream> streams = Lists.newArrayList();
+
+    void add(URI uri, File file, ShuffleStream stream) {
+      uris.add(uri);
+      files.add(file);
+      if (stream != null) {
+        streams.add(stream);
+      }
+    }
+
+    Fetcher newFetcher(ClientSocketChannelFactory factory) {
+      return new Fetcher(uris, files, streams.isEmpty() ? null : streams, factory);
+    }
+  }
+
+  /**
+   * The fetched data can be consumed while being fetched only if all inputs are hash shuffled RAW files, because
+   * the other inputs are read by their file paths.
+   */
+  private boolean isShuffleStreamingPossible(TaskAttemptContext ctx, List<Fetch> fetches) {
+    // the fetches of a pipelined task are given in several rounds, and they are stored as files.
+    if (pipelined || !ctx.getConf().getBoolVar(TajoConf.ConfVars.SHUFFLE_FETCHER_STREAMING_ENABLED)) {
+      return false;
+    }
+    for (Fetch f : fetches) {
+      TableDesc desc = descs.get(f.getName());
+      if (desc == null || desc.getMeta().getStoreType() != StoreType.RAW) {
+        return false;
+      }
+      if (!isHashShuffleFetch(f)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   protected class Reporter {
     private QueryMasterProtocolService.Interface masterStub;
     private Thread pingThread;
@@ -62,7 +62,11 @@ public class TaskAttemptContext {
 
   /** a map of shuffled file outputs */
   private Map<Integer, String> shuffleFileOutputs;
+  private Map<Integer, Long> shuffleFileVolumes;
+  private String shuffleCompressionCodec;
   private File fetchIn;
+  /** a map of the shuffle streams of each input table, if the fetched data are consumed while being fetched */
+  private final Map<String, List<ShuffleStream>> shuffleStreams = Maps.newHashMap();
   private boolean stopped = false;
   private boolean interQuery = false;
   private Path outputPath;
@@ -87,6 +91,7 @@ public class TaskAttemptContext {
 
     this.workDir = workDir;
     this.shuffleFileOutputs = Maps.newHashMap();
+    this.shuffleFileVolumes = Maps.newHashMap();
 
     state = TaskAttemptState.TA_PENDING;
   }
@@ -179,11 +184,66 @@ public class TaskAttemptContext {
   public CountDownLatch getFetchLatch() {
     return doneFetchPhaseSignal;
   }
+
+  public void addShuffleStream(String tableId, ShuffleStream stream) {
+    List<ShuffleStream> streams = shuffleStreams.get(tableId);
+    if (streams == null) {
+      streams = new ArrayList<ShuffleStream>();
+      shuffleStreams.put(tableId, streams);
+    }
+    streams.add(stream);
+  }
+
+  public boolean hasShuffleStreams() {
+    return !shuffleStreams.isEmpty();
+  }
+
+  /**
+   * @return the shuffle streams of the table, or null if the table is not read from shuffle streams.
+   */
+  public List<ShuffleStream> getShuffleStreams(String tableId) {
+    return shuffleStreams.get(tableId);
+  }
+
+  public Map<String, List<ShuffleStream>> getAllShuffleStreams() {
+    return shuffleStreams;
+  }
   
   public void addShuffleFileOutput(int partId, String fileName) {
     shuffleFileOutputs.put(partId, fileName);
   }
+
+  /**
+   * It adds a shuffle output with its size in bytes. The size is reported to the query master,
+   * so that it can find oversized partitions when it schedules the next execution block.
+   */
+  public void addShuffleFileOutput(int partId, String fileName, long volume) {
+    shuffleFileOutputs.put(partId, fileName);
+    shuffleFileVolumes.put(partId, volume);
+  }
+
+  /**
+   * @return the size of the shuffle output in bytes, or null if it is unknown.
+   */
+  public Long getShuffleFileVolume(int partId) {
+    return shuffleFileVolumes.get(partId);
+  }
   
+  /**
+   * It sets the codec which compresses all shuffle outputs of this task. The codec is reported with the outputs,
+   * so that the tasks fetching them decompress them with the same codec.
+   */
+  public void setShuffleCompressionCodec(String codec) {
+    this.shuffleCompressionCodec = codec;
+  }
+
+  /**
+   * @return the codec of the shuffle outputs, or null if they are not compressed.
+   */
+  public String getShuffleCompressionCodec() {
+    return shuffleCompressionCodec;
+  }
+
   public Iterator<Entry<Integer,String>> getShuffleFileOutputs() {
     return shuffleFileOutputs.entrySet().iterator();
   }
@@ -244,6 +304,10 @@ public class TaskAttemptContext {
   }
   
   public FragmentProto [] getTables(String id) {
+    // an input table of which no data is fetched has no fragment.
+    if (!fragmentMap.containsKey(id)) {
+      return new FragmentProto[0];
+    }
     return fragmentMap.get(id).toArray(new FragmentProto[fragmentMap.get(id).size()]);
   }
   
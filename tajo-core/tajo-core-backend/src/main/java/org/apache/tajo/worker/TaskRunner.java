@@ -18,6 +18,7 @@
 
 package org.apache.tajo.worker;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
@@ -80,6 +81,8 @@ public class TaskRunner extends AbstractService {
 
   // for Fetcher
   private final ExecutorService fetchLauncher;
+  // Streamed fetches are consumed while running, so they do not wait behind the other fetches.
+  private final ExecutorService streamFetchLauncher;
   // It keeps all of the query unit attempts while a TaskRunner is running.
   private final Map<QueryUnitAttemptId, Task> tasks = new ConcurrentHashMap<QueryUnitAttemptId, Task>();
 
@@ -115,6 +118,9 @@ public class TaskRunner extends AbstractService {
     this.connPool = RpcConnectionPool.getPool(conf);
     this.fetchLauncher = Executors.newFixedThreadPool(
         conf.getIntVar(ConfVars.SHUFFLE_FETCHER_PARALLEL_EXECUTION_MAX_NUM));
+    this.streamFetchLauncher = Executors.newFixedThreadPool(
+        conf.getIntVar(ConfVars.SHUFFLE_FETCHER_PARALLEL_EXECUTION_MAX_NUM),
+        new ThreadFactoryBuilder().setNameFormat("Stream Fetcher #%d").setDaemon(true).build());
     try {
       final ExecutionBlockId executionBlockId = TajoIdUtils.createExecutionBlockId(args[1]);
 
@@ -218,6 +224,7 @@ public class TaskRunner extends AbstractService {
 
     tasks.clear();
     fetchLauncher.shutdown();
+    streamFetchLauncher.shutdown();
     this.queryEngine = null;
 //    if(client != null) {
 //      client.close();
@@ -275,6 +282,10 @@ public class TaskRunner extends AbstractService {
       return fetchLauncher;
     }
 
+    public ExecutorService getStreamFetchLauncher() {
+      return streamFetchLauncher;
+    }
+
     public Path getBaseDir() {
       return baseDirPath;
     }
@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.benchmark;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * It runs each micro benchmark once at a small scale. {@link MicroBenchmarkDriver} fails if the baseline and the
+ * candidate compute different results.
+ */
+public class TestMicroBenchmarks {
+
+  private static List<MicroBenchmarkDriver.Result> runOnce(MicroBenchmark benchmark, String... args) {
+    benchmark.init(args);
+    return MicroBenchmarkDriver.run(benchmark, 0, 1);
+  }
+
+  @Test
+  public void testByteSearcherBenchmark() {
+    List<MicroBenchmarkDriver.Result> results = runOnce(new ByteSearcherBenchmark(), "1000");
+    assertEquals(2, results.size());
+  }
+
+  @Test
+  public void testGroupbyHashTableBenchmark() {
+    List<MicroBenchmarkDriver.Result> results = runOnce(new GroupbyHashTableBenchmark(), "1000", "3");
+    assertEquals(3, results.size());
+  }
+
+  @Test
+  public void testNormalizedKeyBenchmark() {
+    List<MicroBenchmarkDriver.Result> results = runOnce(new NormalizedKeyBenchmark(), "1000");
+    assertEquals(3, results.size());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testDifferentResults() {
+    MicroBenchmark benchmark = new MicroBenchmark() {
+      @Override
+      public void init(String[] args) {
+      }
+
+      @Override
+      public String[] getCaseNames() {
+        return new String[] {"case"};
+      }
+
+      @Override
+      public String getBaselineName() {
+        return "baseline";
+      }
+
+      @Override
+      public String getCandidateName() {
+        return "candidate";
+      }
+
+      @Override
+      public long runBaseline(String caseName) {
+        return 1;
+      }
+
+      @Override
+      public long runCandidate(String caseName) {
+        return 2;
+      }
+    };
+    runOnce(benchmark);
+  }
+}
@@ -22,8 +22,10 @@ import org.apache.tajo.TajoTestingCluster;
 import org.apache.tajo.algebra.Expr;
 import org.apache.tajo.catalog.*;
 import org.apache.tajo.catalog.proto.CatalogProtos;
+import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.datum.TextDatum;
+import org.apache.tajo.engine.eval.compile.EvalCompiler;
 import org.apache.tajo.engine.json.CoreGsonHelper;
 import org.apache.tajo.engine.parser.SQLAnalyzer;
 import org.apache.tajo.engine.planner.*;
@@ -129,31 +131,39 @@ public class ExprTestBase {
     testEval(schema, tableName, csvTuple, query, expected, ',', true);
   }
 
+  /**
+   * @param nullSlots if true, a null value is left unset in the tuple instead of being NullDatum.
+   */
+  private static VTuple createInputTuple(Schema inputSchema, String csvTuple, char delimiter, boolean nullSlots) {
+    int targetIdx [] = new int[inputSchema.size()];
+    for (int i = 0; i < targetIdx.length; i++) {
+      targetIdx[i] = i;
+    }
+
+    LazyTuple lazyTuple =
+        new LazyTuple(inputSchema, Bytes.splitPreserveAllTokens(csvTuple.getBytes(), delimiter, targetIdx),0);
+    VTuple vtuple = new VTuple(inputSchema.size());
+    for (int i = 0; i < inputSchema.size(); i++) {
+      boolean isNull = lazyTuple.get(i) instanceof NullDatum ||
+          (lazyTuple.get(i) instanceof TextDatum && lazyTuple.get(i).asChars().equals(""));
+      // If null value occurs, null datum is manually inserted to an input tuple.
+      if (!isNull) {
+        vtuple.put(i, lazyTuple.get(i));
+      } else if (!nullSlots) {
+        vtuple.put(i, NullDatum.get());
+      }
+    }
+    return vtuple;
+  }
+
   public void testEval(Schema schema, String tableName, String csvTuple, String query, String [] expected,
                        char delimiter, boolean condition) throws IOException {
-    LazyTuple lazyTuple;
     VTuple vtuple  = null;
     Schema inputSchema = null;
     if (schema != null) {
       inputSchema = SchemaUtil.clone(schema);
       inputSchema.setQualifier(tableName);
-
-      int targetIdx [] = new int[inputSchema.size()];
-      for (int i = 0; i < targetIdx.length; i++) {
-        targetIdx[i] = i;
-      }
-
-      lazyTuple =
-          new LazyTuple(inputSchema, Bytes.splitPreserveAllTokens(csvTuple.getBytes(), delimiter, targetIdx),0);
-      vtuple = new VTuple(inputSchema.size());
-      for (int i = 0; i < inputSchema.size(); i++) {
-        // If null value occurs, null datum is manually inserted to an input tuple.
-        if (lazyTuple.get(i) instanceof TextDatum && lazyTuple.get(i).asChars().equals("")) {
-          vtuple.put(i, NullDatum.get());
-        } else {
-          vtuple.put(i, lazyTuple.get(i));
-        }
-      }
+      vtuple = createInputTuple(inputSchema, csvTuple, delimiter, false);
       cat.addTable(new TableDesc(tableName, inputSchema, CatalogProtos.StoreType.CSV, new Options(),
           CommonTestingUtil.getTestDir()));
     }
@@ -164,13 +174,16 @@ public class ExprTestBase {
       targets = getRawTargets(query, condition);
 
       Tuple outTuple = new VTuple(targets.length);
+      Tuple compiledOutTuple = new VTuple(targets.length);
       for (int i = 0; i < targets.length; i++) {
         EvalNode eval = targets[i].getEvalTree();
         outTuple.put(i, eval.eval(inputSchema, vtuple));
+        compiledOutTuple.put(i, EvalCompiler.compile(inputSchema, eval).eval(vtuple));
       }
 
       for (int i = 0; i < expected.length; i++) {
         assertEquals(query, expected[i], outTuple.get(i).asChars());
+        assertEquals(query, expected[i], compiledOutTuple.get(i).asChars());
       }
     } catch (PlanningException e) {
       // In failure test case, an exception must occur while executing query.
@@ -186,4 +199,31 @@ public class ExprTestBase {
       }
     }
   }
+
+  /**
+   * It is the same as {@link #testEval(Schema, String, String, String, String[])}, but the null values of the input
+   * tuple are left unset, i.e., Java nulls, instead of NullDatum. Compiled evals must regard them as null values.
+   * Only compiled evals are checked because the datum operators of the interpreter require NullDatum.
+   */
+  public void testCompiledEvalWithNullSlots(Schema schema, String tableName, String csvTuple, String query,
+                                            String [] expected) throws IOException {
+    Schema inputSchema = SchemaUtil.clone(schema);
+    inputSchema.setQualifier(tableName);
+    VTuple vtuple = createInputTuple(inputSchema, csvTuple, ',', true);
+    cat.addTable(new TableDesc(tableName, inputSchema, CatalogProtos.StoreType.CSV, new Options(),
+        CommonTestingUtil.getTestDir()));
+
+    try {
+      Target [] targets = getRawTargets(query, true);
+      for (int i = 0; i < expected.length; i++) {
+        Datum result = EvalCompiler.compile(inputSchema, targets[i].getEvalTree()).eval(vtuple);
+        // a field alone returns the slot as it is, like FieldEval.
+        assertEquals(query, expected[i], (result == null ? NullDatum.get() : result).asChars());
+      }
+    } catch (PlanningException e) {
+      assertFalse(e.getMessage(), true);
+    } finally {
+      cat.deleteTable(tableName);
+    }
+  }
 }
@@ -24,7 +24,9 @@ import org.junit.Test;
 import java.io.IOException;
 
 import static org.apache.tajo.common.TajoDataTypes.Type.BOOLEAN;
+import static org.apache.tajo.common.TajoDataTypes.Type.FLOAT8;
 import static org.apache.tajo.common.TajoDataTypes.Type.INT4;
+import static org.apache.tajo.common.TajoDataTypes.Type.INT8;
 import static org.apache.tajo.common.TajoDataTypes.Type.TEXT;
 
 public class TestPredicates extends ExprTestBase {
@@ -315,6 +317,19 @@ public class TestPredicates extends ExprTestBase {
         "select ltrim(col1, '_') is not null, upper(col2) is not null as a from table1", new String[]{"t", "f"});
   }
 
+  @Test
+  public void testIsNullPredicateOnUnsetFields() throws IOException {
+    Schema schema1 = new Schema();
+    schema1.addColumn("col1", INT4);
+    schema1.addColumn("col2", INT8);
+    schema1.addColumn("col3", FLOAT8);
+    schema1.addColumn("col4", TEXT);
+    testCompiledEvalWithNullSlots(schema1, "table1", "123,,,",
+        "select col2 is null, (col1 + col2) is null, (col1 < col3) is null, col1 > 100 or col2 > 0, " +
+            "(col3 * 2) is not null, col4 is null, col2 from table1",
+        new String[]{"t", "t", "t", "t", "f", "t", ""});
+  }
+
   //////////////////////////////////////////////////////////////////
   // Boolean Test
   //////////////////////////////////////////////////////////////////
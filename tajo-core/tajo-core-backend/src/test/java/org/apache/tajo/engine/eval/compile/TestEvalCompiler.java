@@ -0,0 +1,252 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.engine.eval.compile;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.eval.*;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestEvalCompiler {
+  private static Schema schema;
+  private static List<Tuple> tuples;
+
+  private static final int [] INTS = {0, 1, -1, 7, 100, Integer.MAX_VALUE, Integer.MIN_VALUE};
+  private static final long [] LONGS = {0, 3, -3, 100, Long.MAX_VALUE, Long.MIN_VALUE, 1L << 40};
+  private static final double [] DOUBLES = {0.0d, -0.0d, 1.5d, -7.25d, 100.0d, Double.NaN, Double.MAX_VALUE};
+  private static final String [] TEXTS = {"abc", "m", "zzz", ""};
+
+  @BeforeClass
+  public static void setUp() {
+    schema = new Schema();
+    schema.addColumn("t.i2", Type.INT2);
+    schema.addColumn("t.i4", Type.INT4);
+    schema.addColumn("t.i8", Type.INT8);
+    schema.addColumn("t.f4", Type.FLOAT4);
+    schema.addColumn("t.f8", Type.FLOAT8);
+    schema.addColumn("t.b", Type.BOOLEAN);
+    schema.addColumn("t.s", Type.TEXT);
+
+    Random rnd = new Random(1234);
+    tuples = new ArrayList<Tuple>();
+    for (int i = 0; i < 3000; i++) {
+      Tuple tuple = new VTuple(schema.size());
+      tuple.put(0, nullOr(rnd, DatumFactory.createInt2((short) INTS[rnd.nextInt(INTS.length)])));
+      tuple.put(1, nullOr(rnd, DatumFactory.createInt4(INTS[rnd.nextInt(INTS.length)])));
+      tuple.put(2, nullOr(rnd, DatumFactory.createInt8(LONGS[rnd.nextInt(LONGS.length)])));
+      tuple.put(3, nullOr(rnd, DatumFactory.createFloat4((float) DOUBLES[rnd.nextInt(DOUBLES.length)])));
+      tuple.put(4, nullOr(rnd, DatumFactory.createFloat8(DOUBLES[rnd.nextInt(DOUBLES.length)])));
+      tuple.put(5, nullOr(rnd, DatumFactory.createBool(rnd.nextBoolean())));
+      tuple.put(6, nullOr(rnd, DatumFactory.createText(TEXTS[rnd.nextInt(TEXTS.length)])));
+      tuples.add(tuple);
+    }
+  }
+
+  private static Datum nullOr(Random rnd, Datum datum) {
+    return rnd.nextInt(5) == 0 ? NullDatum.get() : datum;
+  }
+
+  private static FieldEval field(String name) {
+    return new FieldEval(schema.getColumn("t." + name));
+  }
+
+  private static ConstEval constant(Datum datum) {
+    return new ConstEval(datum);
+  }
+
+  private static BinaryEval binary(EvalType type, EvalNode left, EvalNode right) {
+    return new BinaryEval(type, left, right);
+  }
+
+  /**
+   * It returns either the result datum or the class of the thrown exception.
+   */
+  private static Object interpret(EvalNode eval, Tuple tuple) {
+    try {
+      return eval.eval(schema, tuple);
+    } catch (RuntimeException e) {
+      return e.getClass();
+    }
+  }
+
+  private static Object evaluate(CompiledEval eval, Tuple tuple) {
+    try {
+      return eval.eval(tuple);
+    } catch (RuntimeException e) {
+      return e.getClass();
+    }
+  }
+
+  /**
+   * It verifies that the compiled eval returns the same results as the interpreter for all tuples.
+   */
+  private static void assertSameResults(EvalNode eval, boolean expectCompiled) {
+    CompiledEval compiled = EvalCompiler.compile(schema, eval);
+    assertEquals(eval.toString(), expectCompiled, compiled.isCompiled());
+
+    for (Tuple tuple : tuples) {
+      Object expected = interpret(eval, tuple);
+      Object actual = evaluate(compiled, tuple);
+      String message = eval + " for " + tuple;
+
+      if (expected instanceof Datum) {
+        assertTrue(message, actual instanceof Datum);
+        Datum expectedDatum = (Datum) expected;
+        Datum actualDatum = (Datum) actual;
+        assertEquals(message, expectedDatum.type(), actualDatum.type());
+        if (!expectedDatum.isNull()) {
+          assertEquals(message, expectedDatum.asChars(), actualDatum.asChars());
+        }
+        assertEquals(message, expectedDatum.isTrue(), compiled.isTrue(tuple));
+      } else {
+        assertEquals(message, expected, actual);
+      }
+    }
+  }
+
+  @Test
+  public final void testFieldsAndConstants() {
+    for (Column column : schema.getColumns()) {
+      assertSameResults(new FieldEval(column), true);
+    }
+    assertSameResults(constant(DatumFactory.createInt8(5)), true);
+    assertSameResults(constant(NullDatum.get()), true);
+  }
+
+  @Test
+  public final void testArithmetic() {
+    // INT4 overflow must wrap around like Int4Datum.
+    assertSameResults(binary(EvalType.PLUS, field("i4"), field("i4")), true);
+    assertSameResults(binary(EvalType.MULTIPLY, field("i4"), field("i8")), true);
+    assertSameResults(binary(EvalType.MINUS, field("i8"), field("f8")), true);
+    assertSameResults(binary(EvalType.DIVIDE, field("i4"), constant(DatumFactory.createInt4(7))), true);
+    assertSameResults(binary(EvalType.MODULAR, field("f8"), field("i4")), true);
+    assertSameResults(binary(EvalType.DIVIDE, field("f8"), field("i4")), true);
+    // integral division by zero must throw the same exception.
+    assertSameResults(binary(EvalType.DIVIDE, field("i8"), field("i4")), true);
+    assertSameResults(binary(EvalType.MINUS,
+        binary(EvalType.MULTIPLY, binary(EvalType.PLUS, field("i4"), constant(DatumFactory.createInt4(1))),
+            constant(DatumFactory.createInt4(2))), field("i8")), true);
+  }
+
+  @Test
+  public final void testComparisons() {
+    EvalType [] ops = {EvalType.EQUAL, EvalType.NOT_EQUAL, EvalType.LTH, EvalType.LEQ, EvalType.GTH, EvalType.GEQ};
+    String [][] operands = {{"i4", "i8"}, {"i4", "f4"}, {"f4", "f8"}, {"i2", "i4"}, {"f8", "f8"}, {"i8", "f4"},
+        {"f4", "i2"}};
+    for (EvalType op : ops) {
+      for (String [] pair : operands) {
+        assertSameResults(binary(op, field(pair[0]), field(pair[1])), true);
+      }
+      assertSameResults(binary(op, field("f8"), constant(DatumFactory.createFloat8(1.5d))), true);
+      assertSameResults(binary(op, field("s"), constant(DatumFactory.createText("m"))), true);
+    }
+  }
+
+  @Test
+  public final void testLogicalOperators() {
+    EvalNode p1 = binary(EvalType.GTH, field("i4"), constant(DatumFactory.createInt4(0)));
+    EvalNode p2 = binary(EvalType.LTH, field("f8"), constant(DatumFactory.createFloat8(100.0d)));
+    EvalNode p3 = binary(EvalType.EQUAL, field("i8"), constant(DatumFactory.createInt8(3)));
+
+    assertSameResults(binary(EvalType.AND, p1, p2), true);
+    assertSameResults(binary(EvalType.OR, p1, p3), true);
+    assertSameResults(binary(EvalType.OR, binary(EvalType.AND, p1, p2), new NotEval(p3)), true);
+    assertSameResults(binary(EvalType.AND, field("b"), new NotEval(field("b"))), true);
+    assertSameResults(new IsNullEval(false, field("i4")), true);
+    assertSameResults(new IsNullEval(true, binary(EvalType.PLUS, field("i4"), field("f8"))), true);
+    assertSameResults(binary(EvalType.AND, new IsNullEval(true, field("s")), field("b")), true);
+  }
+
+  @Test
+  public final void testCodeGeneration() {
+    EvalNode p1 = binary(EvalType.GTH, binary(EvalType.PLUS, field("i4"), field("i8")),
+        constant(DatumFactory.createInt8(3)));
+    EvalNode p2 = binary(EvalType.EQUAL, field("s"), constant(DatumFactory.createText("m")));
+    EvalNode [] generated = {
+        p1,
+        binary(EvalType.MULTIPLY, field("f8"), field("i4")),
+        // the text comparison is called from the generated code.
+        binary(EvalType.OR, binary(EvalType.AND, p1, p2), new IsNullEval(true, field("s"))),
+        // the comparison over the interpreted INT2 arithmetic is called from the generated code.
+        binary(EvalType.AND, binary(EvalType.LEQ, binary(EvalType.PLUS, field("i2"), field("i2")), field("i4")),
+            new NotEval(field("b")))
+    };
+    for (EvalNode eval : generated) {
+      assertTrue(eval.toString(), EvalCompiler.compile(schema, eval).isGenerated());
+      assertSameResults(eval, true);
+    }
+
+    // a single field or an interpreted root is not worth generating.
+    assertFalse(EvalCompiler.compile(schema, field("i4")).isGenerated());
+    assertFalse(EvalCompiler.compile(schema, p2).isGenerated());
+    assertFalse(EvalCompiler.compile(schema, binary(EvalType.PLUS, field("i2"), field("i2"))).isGenerated());
+  }
+
+  @Test
+  public final void testGeneratedClassCache() {
+    EvalNode p1 = binary(EvalType.GTH, binary(EvalType.PLUS, field("i4"), field("i8")),
+        constant(DatumFactory.createInt8(3)));
+    EvalNode p2 = binary(EvalType.GTH, binary(EvalType.PLUS, field("i4"), field("i8")),
+        constant(DatumFactory.createInt8(4)));
+    EvalNode textEquals = binary(EvalType.AND, p1,
+        binary(EvalType.EQUAL, field("s"), constant(DatumFactory.createText("m"))));
+    EvalNode otherTextEquals = binary(EvalType.AND, p1,
+        binary(EvalType.EQUAL, field("s"), constant(DatumFactory.createText("f"))));
+
+    // the same tree compiled again, e.g., by another task, reuses the generated class.
+    Class<?> generated = EvalCompiler.compile(schema, p1).getGeneratedClass();
+    assertNotNull(generated);
+    assertSame(generated, EvalCompiler.compile(schema, p1).getGeneratedClass());
+    assertNotSame(generated, EvalCompiler.compile(schema, p2).getGeneratedClass());
+
+    // subtrees which are not generated are given to each instance, so they share the class.
+    assertSame(EvalCompiler.compile(schema, textEquals).getGeneratedClass(),
+        EvalCompiler.compile(schema, otherTextEquals).getGeneratedClass());
+    assertSameResults(textEquals, true);
+    assertSameResults(otherTextEquals, true);
+  }
+
+  @Test
+  public final void testFallback() {
+    // INT2 arithmetic is interpreted, but the comparison above it is still compiled.
+    EvalNode int2Sum = binary(EvalType.PLUS, field("i2"), field("i2"));
+    assertSameResults(int2Sum, false);
+    assertSameResults(binary(EvalType.GTH, int2Sum, field("i4")), true);
+
+    EvalNode concat = binary(EvalType.CONCATENATE, field("s"), constant(DatumFactory.createText("_")));
+    assertSameResults(concat, false);
+    assertSameResults(binary(EvalType.AND,
+        binary(EvalType.EQUAL, concat, constant(DatumFactory.createText("m_"))), field("b")), true);
+  }
+}
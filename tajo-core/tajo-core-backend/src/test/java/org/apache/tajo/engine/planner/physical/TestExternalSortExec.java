@@ -60,6 +60,8 @@ public class TestExternalSortExec {
   private Random rnd = new Random(System.currentTimeMillis());
 
   private TableDesc employee;
+  /** the sum of (managerId * 100 + empId) of all rows */
+  private long checksum = 0;
 
   @Before
   public void setUp() throws Exception {
@@ -82,11 +84,14 @@ public class TestExternalSortExec {
     appender.init();
     Tuple tuple = new VTuple(schema.size());
     for (int i = 0; i < numTuple; i++) {
+      int managerId = rnd.nextInt(50);
+      int empId = rnd.nextInt(100);
       tuple.put(new Datum[] {
-          DatumFactory.createInt4(rnd.nextInt(50)),
-          DatumFactory.createInt4(rnd.nextInt(100)),
+          DatumFactory.createInt4(managerId),
+          DatumFactory.createInt4(empId),
           DatumFactory.createText("dept_" + i),
       });
+      checksum += managerId * 100 + empId;
       appender.addTuple(tuple);
     }
     appender.flush();
@@ -113,6 +118,29 @@ public class TestExternalSortExec {
 
   @Test
   public final void testNext() throws IOException, PlanningException {
+    assertExternalSort(conf, -1);
+  }
+
+  @Test
+  public final void testParallelInMemorySort() throws IOException, PlanningException {
+    TajoConf localConf = new TajoConf(conf);
+    localConf.setIntVar(TajoConf.ConfVars.EXECUTOR_EXTERNAL_SORT_THREAD_NUM, 4);
+    assertExternalSort(localConf, -1);
+  }
+
+  @Test
+  public final void testPipelinedChunksWithParallelSort() throws IOException, PlanningException {
+    TajoConf localConf = new TajoConf(conf);
+    localConf.setIntVar(TajoConf.ConfVars.EXECUTOR_EXTERNAL_SORT_THREAD_NUM, 4);
+    localConf.setIntVar(TajoConf.ConfVars.EXECUTOR_EXTERNAL_SORT_FANOUT, 2);
+    // each chunk has tens of thousands of rows, so each chunk is sorted in parallel and chunks are merged.
+    assertExternalSort(localConf, 4 * 1024 * 1024);
+  }
+
+  /**
+   * @param sortBufferBytesNum the size of sort buffer. If it is negative, the configured size is used.
+   */
+  private void assertExternalSort(TajoConf conf, int sortBufferBytesNum) throws IOException, PlanningException {
     FileFragment[] frags = StorageManager.splitNG(conf, "employee", employee.getMeta(), employee.getPath(),
         Integer.MAX_VALUE);
     Path workDir = new Path(testDir, TestExternalSortExec.class.getName());
@@ -137,6 +165,9 @@ public class TestExternalSortExec {
           ((MemSortExec)sortExec).getPlan(), scan);
       proj.setChild(extSort);
     }
+    if (sortBufferBytesNum > 0) {
+      ((ExternalSortExec) proj.getChild()).setSortBufferBytesNum(sortBufferBytesNum);
+    }
 
     Tuple tuple;
     Tuple preVal = null;
@@ -150,16 +181,19 @@ public class TestExternalSortExec {
             new SortSpec(new Column("empId", Type.INT4))
         });
 
+    long sum = 0;
     while ((tuple = exec.next()) != null) {
       curVal = tuple;
       if (preVal != null) {
         assertTrue("prev: " + preVal + ", but cur: " + curVal, comparator.compare(preVal, curVal) <= 0);
       }
       preVal = curVal;
+      sum += tuple.get(0).asInt4() * 100 + tuple.get(1).asInt4();
       cnt++;
     }
     long end = System.currentTimeMillis();
     assertEquals(numTuple, cnt);
+    assertEquals(checksum, sum);
 
     // for rescan test
     preVal = null;
@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestGroupbyHashTable {
+
+  private static Schema createSchema() {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("score", Type.INT8);
+    schema.addColumn("ratio", Type.FLOAT8);
+    schema.addColumn("flag", Type.BOOLEAN);
+    schema.addColumn("name", Type.TEXT);
+    return schema;
+  }
+
+  private static Tuple createTuple(Datum id, Datum score, Datum ratio, Datum flag, Datum name) {
+    return new VTuple(new Datum[] {id, score, ratio, flag, name});
+  }
+
+  private static Tuple createTuple(int i) {
+    return createTuple(DatumFactory.createInt4(i % 1000), DatumFactory.createInt8(i % 7),
+        DatumFactory.createFloat8(i % 3), DatumFactory.createBool(i % 2 == 0),
+        DatumFactory.createText("name_" + (i % 5)));
+  }
+
+  /**
+   * It inserts 10000 tuples, and it checks if each group id is consistent with the grouping key.
+   */
+  private static void assertGrouping(GroupbyHashTable hashTable, int [] keyIds, int expectedGroupNum) {
+    Tuple keyTuple = new VTuple(keyIds.length);
+    for (int i = 0; i < 10000; i++) {
+      Tuple tuple = createTuple(i);
+      int groupId = hashTable.findOrInsert(tuple);
+      assertTrue(groupId < hashTable.size());
+
+      hashTable.getKey(groupId, keyTuple);
+      for (int k = 0; k < keyIds.length; k++) {
+        assertEquals(tuple.get(keyIds[k]), keyTuple.get(k));
+      }
+    }
+    assertEquals(expectedGroupNum, hashTable.size());
+  }
+
+  @Test
+  public final void testSingleLongKey() {
+    int [] keyIds = new int[] {0};
+    GroupbyHashTable hashTable = GroupbyHashTable.newInstance(createSchema(), keyIds);
+    assertTrue(hashTable instanceof GroupbyHashTable.SingleLongKeyHashTable);
+    assertGrouping(hashTable, keyIds, 1000);
+
+    // null and zero keys should belong to different groups.
+    Tuple nullKey = createTuple(NullDatum.get(), NullDatum.get(), NullDatum.get(), NullDatum.get(), NullDatum.get());
+    int nullGroupId = hashTable.findOrInsert(nullKey);
+    assertEquals(1001, hashTable.size());
+    assertEquals(nullGroupId, hashTable.findOrInsert(nullKey));
+    assertTrue(nullGroupId != hashTable.findOrInsert(createTuple(0)));
+
+    Tuple keyTuple = new VTuple(1);
+    hashTable.getKey(nullGroupId, keyTuple);
+    assertTrue(keyTuple.isNull(0));
+
+    hashTable.clear();
+    assertEquals(0, hashTable.size());
+    assertGrouping(hashTable, keyIds, 1000);
+  }
+
+  @Test
+  public final void testFixedWidthKeys() {
+    int [] keyIds = new int[] {1, 2, 3};
+    GroupbyHashTable hashTable = GroupbyHashTable.newInstance(createSchema(), keyIds);
+    assertTrue(hashTable instanceof GroupbyHashTable.FixedWidthKeyHashTable);
+    // i % 7, i % 3 and i % 2 produce 42 combinations.
+    assertGrouping(hashTable, keyIds, 42);
+
+    Tuple nullKey = createTuple(NullDatum.get(), DatumFactory.createInt8(0), NullDatum.get(),
+        DatumFactory.createBool(true), NullDatum.get());
+    int nullGroupId = hashTable.findOrInsert(nullKey);
+    assertEquals(43, hashTable.size());
+    assertEquals(nullGroupId, hashTable.findOrInsert(nullKey));
+
+    Tuple keyTuple = new VTuple(keyIds.length);
+    hashTable.getKey(nullGroupId, keyTuple);
+    assertEquals(DatumFactory.createInt8(0), keyTuple.get(0));
+    assertTrue(keyTuple.isNull(1));
+    assertEquals(DatumFactory.createBool(true), keyTuple.get(2));
+  }
+
+  @Test
+  public final void testVariableKeys() {
+    int [] keyIds = new int[] {4, 0};
+    GroupbyHashTable hashTable = GroupbyHashTable.newInstance(createSchema(), keyIds);
+    assertTrue(hashTable instanceof GroupbyHashTable.VariableKeyHashTable);
+    // i % 5 and i % 1000 produce 1000 combinations.
+    assertGrouping(hashTable, keyIds, 1000);
+  }
+
+  @Test
+  public final void testManyGroups() {
+    int [] keyIds = new int[] {0};
+    GroupbyHashTable hashTable = GroupbyHashTable.newInstance(createSchema(), keyIds);
+    Tuple tuple = createTuple(0);
+    for (int i = 0; i < 100000; i++) {
+      tuple.put(0, DatumFactory.createInt4(i));
+      assertEquals(i, hashTable.findOrInsert(tuple));
+    }
+    for (int i = 0; i < 100000; i++) {
+      tuple.put(0, DatumFactory.createInt4(i));
+      assertEquals(i, hashTable.findOrInsert(tuple));
+    }
+    assertEquals(100000, hashTable.size());
+  }
+
+  @Test
+  public final void testNoGroupingKey() {
+    GroupbyHashTable hashTable = GroupbyHashTable.newInstance(createSchema(), new int[0]);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(0, hashTable.findOrInsert(createTuple(i)));
+    }
+    assertEquals(1, hashTable.size());
+  }
+}
@@ -0,0 +1,274 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.catalog.*;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.eval.AggregationFunctionCallEval;
+import org.apache.tajo.engine.parser.SQLAnalyzer;
+import org.apache.tajo.engine.planner.*;
+import org.apache.tajo.engine.planner.enforce.Enforcer;
+import org.apache.tajo.engine.planner.global.DataChannel;
+import org.apache.tajo.engine.planner.global.MasterPlan;
+import org.apache.tajo.engine.planner.logical.GroupbyNode;
+import org.apache.tajo.engine.planner.logical.LogicalNode;
+import org.apache.tajo.engine.planner.logical.NodeType;
+import org.apache.tajo.ipc.TajoWorkerProtocol.ShuffleType;
+import org.apache.tajo.master.TajoMaster;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TestHashAggregateExec {
+  private TajoConf conf;
+  private final String TEST_PATH = "target/test-data/TestHashAggregateExec";
+  private TajoTestingCluster util;
+  private CatalogService catalog;
+  private SQLAnalyzer analyzer;
+  private LogicalPlanner planner;
+  private AbstractStorageManager sm;
+  private Path testDir;
+
+  private final int rowNum = 10000;
+  private final int groupNum = 5000;
+  private TableDesc employee;
+
+  @Before
+  public void setUp() throws Exception {
+    util = new TajoTestingCluster();
+    util.initTestDir();
+    catalog = util.startCatalogCluster().getCatalog();
+    for (FunctionDesc funcDesc : TajoMaster.initBuiltinFunctions()) {
+      catalog.createFunction(funcDesc);
+    }
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    conf = util.getConfiguration();
+    sm = StorageManagerFactory.getStorageManager(conf, testDir);
+
+    Schema employeeSchema = new Schema();
+    employeeSchema.addColumn("empId", Type.INT4);
+    employeeSchema.addColumn("deptId", Type.INT4);
+    employeeSchema.addColumn("deptName", Type.TEXT);
+    employeeSchema.addColumn("salary", Type.INT4);
+
+    TableMeta employeeMeta = CatalogUtil.newTableMeta(StoreType.CSV);
+    Path employeePath = new Path(testDir, "employee.csv");
+    Appender appender = StorageManagerFactory.getStorageManager(conf).getAppender(employeeMeta, employeeSchema,
+        employeePath);
+    appender.init();
+    Tuple tuple = new VTuple(employeeSchema.size());
+    for (int i = 0; i < rowNum; i++) {
+      tuple.put(new Datum[] { DatumFactory.createInt4(i),
+          DatumFactory.createInt4(i % groupNum), DatumFactory.createText("dept_" + (i % groupNum)),
+          DatumFactory.createInt4(i) });
+      appender.addTuple(tuple);
+    }
+
+    appender.flush();
+    appender.close();
+    employee = CatalogUtil.newTableDesc("employee", employeeSchema, employeeMeta, employeePath);
+    catalog.addTable(employee);
+
+    analyzer = new SQLAnalyzer();
+    planner = new LogicalPlanner(catalog);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    util.shutdownCatalogCluster();
+  }
+
+  String[] QUERIES = {
+      "select deptId, deptName, sum(salary), count(*), max(salary), min(salary) from employee " +
+          "group by deptId, deptName"
+  };
+
+  private void assertHashAggregation(TajoConf localConf, String workDirName) throws IOException, PlanningException {
+    Expr expr = analyzer.parse(QUERIES[0]);
+    LogicalNode plan = planner.createPlan(expr).getRootBlock().getRoot();
+
+    GroupbyNode groupbyNode = PlannerUtil.findTopNode(plan, NodeType.GROUP_BY);
+    // the first phase of aggregation is the one which is likely to have a large number of groups.
+    for (AggregationFunctionCallEval function : groupbyNode.getAggFunctions()) {
+      function.setFirstPhase();
+    }
+    Enforcer enforcer = new Enforcer();
+    enforcer.enforceHashAggregation(groupbyNode.getPID());
+
+    FileFragment[] frags = StorageManager.splitNG(conf, "employee", employee.getMeta(), employee.getPath(),
+        Integer.MAX_VALUE);
+    Path workDir = CommonTestingUtil.getTestDir("target/test-data/" + workDirName);
+    TaskAttemptContext ctx = new TaskAttemptContext(localConf,
+        LocalTajoTestingUtility.newQueryUnitAttemptId(), frags, workDir);
+    ctx.setEnforcer(enforcer);
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(localConf, sm);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, plan);
+    assertNotNull(PhysicalPlanUtil.findExecutor(exec, HashAggregateExec.class));
+
+    exec.init();
+    assertAggregationResult(exec);
+    exec.rescan();
+    assertAggregationResult(exec);
+    exec.close();
+  }
+
+  private void assertAggregationResult(PhysicalExec exec) throws IOException {
+    Tuple tuple;
+    Set<Integer> groups = new HashSet<Integer>();
+    while ((tuple = exec.next()) != null) {
+      int deptId = tuple.get(0).asInt4();
+      assertEquals("dept_" + deptId, tuple.get(1).asChars());
+      assertEquals(2 * deptId + groupNum, tuple.get(2).asInt8());
+      assertEquals(2, tuple.get(3).asInt8());
+      assertEquals(deptId + groupNum, tuple.get(4).asInt4());
+      assertEquals(deptId, tuple.get(5).asInt4());
+      assertTrue(groups.add(deptId));
+    }
+    assertEquals(groupNum, groups.size());
+  }
+
+  /**
+   * It aggregates the first phase whose output is hash-shuffled, and it checks the partial results merged by
+   * the grouping keys. The same group can be emitted several times.
+   */
+  private HashAggregateExec assertPartialAggregation(TajoConf localConf, String workDirName)
+      throws IOException, PlanningException {
+    Expr expr = analyzer.parse(QUERIES[0]);
+    LogicalNode plan = planner.createPlan(expr).getRootBlock().getRoot();
+
+    GroupbyNode groupbyNode = PlannerUtil.findTopNode(plan, NodeType.GROUP_BY);
+    for (AggregationFunctionCallEval function : groupbyNode.getAggFunctions()) {
+      function.setFirstPhase();
+    }
+    Enforcer enforcer = new Enforcer();
+    enforcer.enforceHashAggregation(groupbyNode.getPID());
+
+    FileFragment[] frags = StorageManager.splitNG(conf, "employee", employee.getMeta(), employee.getPath(),
+        Integer.MAX_VALUE);
+    Path workDir = CommonTestingUtil.getTestDir("target/test-data/" + workDirName);
+    MasterPlan masterPlan = new MasterPlan(LocalTajoTestingUtility.newQueryId(), null, null);
+    TaskAttemptContext ctx = new TaskAttemptContext(localConf,
+        LocalTajoTestingUtility.newQueryUnitAttemptId(masterPlan), frags, workDir);
+    ctx.setEnforcer(enforcer);
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(localConf, sm);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, plan);
+    HashAggregateExec plannedExec = PhysicalPlanUtil.findExecutor(exec, HashAggregateExec.class);
+    PhysicalExec scanExec = plannedExec.getChild();
+
+    // the first phase is followed by a hash shuffle on the grouping keys.
+    DataChannel channel = new DataChannel(masterPlan.newExecutionBlockId(), masterPlan.newExecutionBlockId(),
+        ShuffleType.HASH_SHUFFLE, 32);
+    channel.setShuffleKeys(groupbyNode.getGroupingColumns());
+    ctx.setDataChannel(channel);
+    HashAggregateExec aggExec = new HashAggregateExec(ctx, groupbyNode, scanExec);
+    assertTrue(aggExec.isPartialAggregation());
+
+    aggExec.init();
+    assertPartialAggregationResult(aggExec);
+    aggExec.rescan();
+    assertPartialAggregationResult(aggExec);
+    return aggExec;
+  }
+
+  private void assertPartialAggregationResult(PhysicalExec exec) throws IOException {
+    Tuple tuple;
+    // key: deptId, value: sum, count, max and min
+    Map<Integer, long []> groups = new HashMap<Integer, long[]>();
+    while ((tuple = exec.next()) != null) {
+      int deptId = tuple.get(0).asInt4();
+      assertEquals("dept_" + deptId, tuple.get(1).asChars());
+      long [] merged = groups.get(deptId);
+      if (merged == null) {
+        merged = new long[] {0, 0, Long.MIN_VALUE, Long.MAX_VALUE};
+        groups.put(deptId, merged);
+      }
+      merged[0] += tuple.get(2).asInt8();
+      merged[1] += tuple.get(3).asInt8();
+      merged[2] = Math.max(merged[2], tuple.get(4).asInt4());
+      merged[3] = Math.min(merged[3], tuple.get(5).asInt4());
+    }
+
+    assertEquals(groupNum, groups.size());
+    for (Map.Entry<Integer, long []> entry : groups.entrySet()) {
+      int deptId = entry.getKey();
+      assertEquals(2 * deptId + groupNum, entry.getValue()[0]);
+      assertEquals(2, entry.getValue()[1]);
+      assertEquals(deptId + groupNum, entry.getValue()[2]);
+      assertEquals(deptId, entry.getValue()[3]);
+    }
+  }
+
+  @Test
+  public final void testPartialAggregationWithFlush() throws IOException, PlanningException {
+    TajoConf localConf = new TajoConf(conf);
+    // it forces groups to be emitted several times, and it never turns off the partial aggregation.
+    localConf.setLongVar(TajoConf.ConfVars.EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD, 16 * 1024);
+    localConf.setFloatVar(TajoConf.ConfVars.EXECUTOR_GROUPBY_PARTIAL_PASSTHROUGH_RATIO, 1.0f);
+    HashAggregateExec exec = assertPartialAggregation(localConf, "testPartialAggregationWithFlush");
+    assertFalse(exec.isPassThrough());
+    exec.close();
+  }
+
+  @Test
+  public final void testPartialAggregationPassThrough() throws IOException, PlanningException {
+    TajoConf localConf = new TajoConf(conf);
+    // every group is new until the hash table is full, so the partial aggregation is turned off.
+    localConf.setLongVar(TajoConf.ConfVars.EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD, 16 * 1024);
+    localConf.setFloatVar(TajoConf.ConfVars.EXECUTOR_GROUPBY_PARTIAL_PASSTHROUGH_RATIO, 0.8f);
+    HashAggregateExec exec = assertPartialAggregation(localConf, "testPartialAggregationPassThrough");
+    assertTrue(exec.isPassThrough());
+    exec.close();
+  }
+
+  @Test
+  public final void testHashAggregationInMemory() throws IOException, PlanningException {
+    assertHashAggregation(conf, "testHashAggregationInMemory");
+  }
+
+  @Test
+  public final void testHashAggregationWithSpill() throws IOException, PlanningException {
+    TajoConf localConf = new TajoConf(conf);
+    // it forces groups to be spilled several times and spilled partitions to be spilled recursively.
+    localConf.setLongVar(TajoConf.ConfVars.EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD, 16 * 1024);
+    localConf.setIntVar(TajoConf.ConfVars.EXECUTOR_GROUPBY_SPILL_PARTITION_NUM, 4);
+    assertHashAggregation(localConf, "testHashAggregationWithSpill");
+  }
+}
@@ -44,6 +44,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
 
 import static org.apache.tajo.ipc.TajoWorkerProtocol.JoinEnforce.JoinAlgorithm;
 import static org.junit.Assert.*;
@@ -172,6 +174,66 @@ public class TestHashJoinExec {
     assertEquals(10 / 2, count);
   }
 
+  private long runHashInnerJoinWithJoinKeyFilter(TajoConf localConf, String workDirName)
+      throws IOException, PlanningException {
+    Expr expr = analyzer.parse(QUERIES[0]);
+    LogicalNode plan = planner.createPlan(expr).getRootBlock().getRoot();
+
+    JoinNode joinNode = PlannerUtil.findTopNode(plan, NodeType.JOIN);
+    Enforcer enforcer = new Enforcer();
+    enforcer.enforceJoinAlgorithm(joinNode.getPID(), JoinAlgorithm.IN_MEMORY_HASH_JOIN);
+
+    FileFragment[] empFrags = StorageManager.splitNG(conf, "e", employee.getMeta(), employee.getPath(), Integer.MAX_VALUE);
+    FileFragment[] peopleFrags = StorageManager.splitNG(conf, "p", people.getMeta(), people.getPath(), Integer.MAX_VALUE);
+    FileFragment[] merged = TUtil.concat(empFrags, peopleFrags);
+
+    Path workDir = CommonTestingUtil.getTestDir("target/test-data/" + workDirName);
+    TaskAttemptContext ctx = new TaskAttemptContext(localConf,
+        LocalTajoTestingUtility.newQueryUnitAttemptId(), merged, workDir);
+    ctx.setEnforcer(enforcer);
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(localConf, sm);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, plan);
+
+    ProjectionExec proj = (ProjectionExec) exec;
+    HashJoinExec joinExec = proj.getChild();
+    assertTrue(joinExec.getLeftChild() instanceof SeqScanExec);
+    SeqScanExec probeScan = (SeqScanExec) joinExec.getLeftChild();
+
+    Tuple tuple;
+    Set<Integer> joinedIds = new HashSet<Integer>();
+    exec.init();
+    while ((tuple = exec.next()) != null) {
+      int i = tuple.get(0).asInt4();
+      assertTrue(i % 2 == 1);
+      assertEquals(i, tuple.get(1).asInt4());
+      assertEquals("dept_" + i, tuple.get(2).asChars());
+      assertEquals(10 + i, tuple.get(3).asInt4());
+      assertTrue(joinedIds.add(i));
+    }
+    long filteredRowNum = probeScan.getJoinFilteredRowNum();
+    exec.close();
+    assertEquals(10 / 2, joinedIds.size());
+
+    return filteredRowNum;
+  }
+
+  @Test
+  public final void testJoinKeyFilterPushDown() throws IOException, PlanningException {
+    // the probe side has five rows which are not matched, and the filter may pass some of them.
+    long filteredRowNum = runHashInnerJoinWithJoinKeyFilter(conf, "testJoinKeyFilterPushDown");
+    assertTrue(filteredRowNum > 0);
+    assertTrue(filteredRowNum <= 5);
+
+    TajoConf localConf = new TajoConf(conf);
+    localConf.setBoolVar(TajoConf.ConfVars.EXECUTOR_JOIN_RUNTIME_FILTER_ENABLED, false);
+    assertEquals(0, runHashInnerJoinWithJoinKeyFilter(localConf, "testJoinKeyFilterDisabled"));
+
+    localConf = new TajoConf(conf);
+    localConf.setIntVar(TajoConf.ConfVars.EXECUTOR_JOIN_RUNTIME_FILTER_MAX_KEY_NUM, 1);
+    assertEquals(0, runHashInnerJoinWithJoinKeyFilter(localConf, "testJoinKeyFilterTooManyKeys"));
+  }
+
   @Test
   public final void testCheckIfInMemoryInnerJoinIsPossible() throws IOException, PlanningException {
     Expr expr = analyzer.parse(QUERIES[0]);
@@ -204,6 +266,43 @@ public class TestHashJoinExec {
     assertCheckInnerJoinRelatedFunctions(ctx, phyPlanner, joinNode, joinExec);
   }
 
+  private PhysicalExec createBestInnerJoinPlan(long threshold, boolean hybridHashJoinEnabled, String workDirName)
+      throws IOException, PlanningException {
+    Expr expr = analyzer.parse(QUERIES[0]);
+    LogicalNode plan = planner.createPlan(expr).getRootBlock().getRoot();
+
+    FileFragment[] empFrags = StorageManager.splitNG(conf, "e", employee.getMeta(), employee.getPath(),
+        Integer.MAX_VALUE);
+    FileFragment[] peopleFrags = StorageManager.splitNG(conf, "p", people.getMeta(), people.getPath(),
+        Integer.MAX_VALUE);
+    FileFragment[] merged = TUtil.concat(empFrags, peopleFrags);
+
+    Path workDir = CommonTestingUtil.getTestDir("target/test-data/" + workDirName);
+    TaskAttemptContext ctx = new TaskAttemptContext(conf,
+        LocalTajoTestingUtility.newQueryUnitAttemptId(), merged, workDir);
+
+    TajoConf localConf = new TajoConf(conf);
+    localConf.setLongVar(TajoConf.ConfVars.EXECUTOR_INNER_JOIN_INMEMORY_HASH_THRESHOLD, threshold);
+    localConf.setFloatVar(TajoConf.ConfVars.EXECUTOR_INNER_JOIN_HASH_TABLE_VOLUME_RATIO, 0.5f);
+    localConf.setBoolVar(TajoConf.ConfVars.EXECUTOR_HYBRID_HASH_JOIN_ENABLED, hybridHashJoinEnabled);
+    PhysicalPlannerImpl phyPlanner = new PhysicalPlannerImpl(localConf, sm);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, plan);
+    return ((ProjectionExec) exec).getChild();
+  }
+
+  @Test
+  public final void testInMemoryInnerJoinOverOnDiskThreshold() throws IOException, PlanningException {
+    // Both p (75 bytes) and e (140 bytes) are larger than the threshold on disk. With the volume ratio 0.5,
+    // the build side of p is expected to take about 37 bytes in a JoinHashTable, so it fits.
+    assertTrue(createBestInnerJoinPlan(74, true, "testInMemoryInnerJoinOverOnDiskThreshold")
+        instanceof HashJoinExec);
+
+    // neither side fits even after scaling. The hybrid hash join is chosen only if it is enabled.
+    assertTrue(createBestInnerJoinPlan(30, false, "testMergeJoinOverScaledThreshold") instanceof MergeJoinExec);
+    assertTrue(createBestInnerJoinPlan(30, true, "testHybridHashJoinOverScaledThreshold")
+        instanceof HybridHashJoinExec);
+  }
+
   /**
    * It checks inner-join related functions. It will return TRUE if left relations is smaller than right relations.
    *
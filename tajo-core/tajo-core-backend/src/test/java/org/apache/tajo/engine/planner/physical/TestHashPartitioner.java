@@ -18,6 +18,8 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -27,8 +29,11 @@ import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class TestHashPartitioner {
+  private static final Log LOG = LogFactory.getLog(TestHashPartitioner.class);
+  private static final int KEY_NUM = 10000;
 
   @Before
   public void setUp() throws Exception {
@@ -81,4 +86,99 @@ public class TestHashPartitioner {
     int part2 = p.getPartition(tuple4);
     assertEquals(part2, p.getPartition(tuple5));    
   }
+
+  /**
+   * It measures the skew of partitions, the largest partition size divided by the mean one, for multi-column keys
+   * whose columns are correlated, permuted, or of different types. Each skew is compared with that of the previous
+   * partitioner, which XORed the column hashes and used 31 partitions out of 32.
+   */
+  @Test
+  public final void testMultiColumnKeySkew() {
+    int [] partKeys = {0, 1};
+    int [] partitionNums = {7, 31, 32, 64, 100};
+    String [] keyNames = {"correlated", "permuted", "mixed"};
+    Tuple tuple = new VTuple(2);
+
+    for (int numPartitions : partitionNums) {
+      Partitioner p = new HashPartitioner(partKeys, numPartitions);
+
+      for (int keyType = 0; keyType < keyNames.length; keyType++) {
+        int [] partitionSizes = new int[numPartitions];
+        int [] legacyPartitionSizes = new int[numPartitions];
+        for (int i = 0; i < KEY_NUM; i++) {
+          generateKey(keyType, i, tuple);
+          partitionSizes[p.getPartition(tuple)]++;
+          legacyPartitionSizes[getLegacyPartition(tuple, partKeys, numPartitions)]++;
+        }
+
+        double skew = getSkew(partitionSizes);
+        double legacySkew = getSkew(legacyPartitionSizes);
+        LOG.info(String.format("%-10s keys, %3d partitions: skew %.2f (XOR hash: %.2f)",
+            keyNames[keyType], numPartitions, skew, legacySkew));
+        assertTrue(keyNames[keyType] + " keys over " + numPartitions + " partitions are skewed: " + skew,
+            skew < 1.5);
+      }
+    }
+  }
+
+  /**
+   * The previous partitioner used 31 partitions when 32 partitions were given, so the last one was always empty.
+   */
+  @Test
+  public final void testAllPartitionsUsed() {
+    int [] partKeys = {0, 1};
+    int numPartitions = 32;
+    Partitioner p = new HashPartitioner(partKeys, numPartitions);
+    int [] partitionSizes = new int[numPartitions];
+    int [] legacyPartitionSizes = new int[numPartitions];
+
+    Tuple tuple = new VTuple(2);
+    for (int i = 0; i < KEY_NUM; i++) {
+      generateKey(1, i, tuple);
+      partitionSizes[p.getPartition(tuple)]++;
+      legacyPartitionSizes[getLegacyPartition(tuple, partKeys, numPartitions)]++;
+    }
+
+    assertEquals(0, legacyPartitionSizes[numPartitions - 1]);
+    for (int size : partitionSizes) {
+      assertTrue(size > 0);
+    }
+  }
+
+  private static void generateKey(int keyType, int i, Tuple tuple) {
+    switch (keyType) {
+    case 0: // the same value in both columns
+      tuple.put(0, DatumFactory.createInt4(i));
+      tuple.put(1, DatumFactory.createInt4(i));
+      break;
+    case 1: // all pairs of 100 values, including (a, b) and (b, a)
+      tuple.put(0, DatumFactory.createInt4(i / 100));
+      tuple.put(1, DatumFactory.createInt4(i % 100));
+      break;
+    default:
+      tuple.put(0, DatumFactory.createText("customer#" + i));
+      tuple.put(1, DatumFactory.createInt8(i % 10));
+    }
+  }
+
+  /**
+   * It is the partitioner before TupleHash was used.
+   */
+  private static int getLegacyPartition(Tuple tuple, int [] keyIds, int numPartitions) {
+    int hashCode = 37;
+    for (int i = 0; i < keyIds.length; i++) {
+      hashCode ^= (tuple.get(keyIds[i]).hashCode() * 41);
+    }
+    return (hashCode & Integer.MAX_VALUE) % (numPartitions == 32 ? numPartitions - 1 : numPartitions);
+  }
+
+  private static double getSkew(int [] partitionSizes) {
+    int max = 0;
+    long total = 0;
+    for (int size : partitionSizes) {
+      max = Math.max(max, size);
+      total += size;
+    }
+    return max / ((double) total / partitionSizes.length);
+  }
 }
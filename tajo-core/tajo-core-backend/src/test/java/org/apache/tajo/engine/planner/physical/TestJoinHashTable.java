@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TestJoinHashTable {
+
+  private static Schema createSchema() {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    schema.addColumn("seq", Type.INT8);
+    return schema;
+  }
+
+  private static Tuple createTuple(Datum id, Datum name, long seq) {
+    return new VTuple(new Datum[] {id, name, DatumFactory.createInt8(seq)});
+  }
+
+  @Test
+  public final void testDuplicateKeys() {
+    int [] keyIds = new int[] {0};
+    JoinHashTable hashTable = new JoinHashTable(createSchema(), keyIds);
+    for (int i = 0; i < 10000; i++) {
+      hashTable.add(createTuple(DatumFactory.createInt4(i % 100), DatumFactory.createText("name_" + i), i));
+    }
+    assertEquals(10000, hashTable.size());
+    assertEquals(100, hashTable.getKeyNum());
+    assertTrue(hashTable.getMemoryUsage() > 0);
+
+    Tuple probe = new VTuple(new Datum[] {DatumFactory.createText("dummy"), DatumFactory.createInt4(0)});
+    int [] probeKeyIds = new int[] {1};
+    for (int k = 0; k < 100; k++) {
+      probe.put(1, DatumFactory.createInt4(k));
+      Iterator<Tuple> it = hashTable.find(probe, probeKeyIds);
+      assertNotNull(it);
+      // rows of the same key are returned in their insertion order.
+      long expectedSeq = k;
+      while (it.hasNext()) {
+        Tuple row = it.next();
+        assertEquals(k, row.get(0).asInt4());
+        assertEquals(expectedSeq, row.getInt8(2));
+        assertEquals("name_" + expectedSeq, row.get(1).asChars());
+        expectedSeq += 100;
+      }
+      assertEquals(10000 + k, expectedSeq);
+    }
+
+    probe.put(1, DatumFactory.createInt4(100));
+    assertNull(hashTable.find(probe, probeKeyIds));
+    // the key comparison is type-strict as the equality of tuples is.
+    probe.put(1, DatumFactory.createInt8(1));
+    assertNull(hashTable.find(probe, probeKeyIds));
+  }
+
+  @Test
+  public final void testNullKeys() {
+    int [] keyIds = new int[] {0};
+    JoinHashTable hashTable = new JoinHashTable(createSchema(), keyIds);
+    hashTable.add(createTuple(NullDatum.get(), DatumFactory.createText("a"), 0));
+    hashTable.add(createTuple(DatumFactory.createInt4(0), DatumFactory.createText("b"), 1));
+    assertEquals(1, hashTable.size());
+
+    Tuple probe = new VTuple(new Datum[] {NullDatum.get()});
+    assertNull(hashTable.find(probe, keyIds));
+    probe.put(0, DatumFactory.createInt4(0));
+    Iterator<Tuple> it = hashTable.find(probe, keyIds);
+    assertNotNull(it);
+    assertEquals("b", it.next().get(1).asChars());
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public final void testMultiColumnKeys() {
+    int [] keyIds = new int[] {1, 0};
+    JoinHashTable hashTable = new JoinHashTable(createSchema(), keyIds);
+    for (int i = 0; i < 100000; i++) {
+      hashTable.add(createTuple(DatumFactory.createInt4(i), DatumFactory.createText("name_" + (i % 3)), i));
+    }
+    assertEquals(100000, hashTable.getKeyNum());
+
+    Tuple probe = new VTuple(2);
+    for (int i = 0; i < 100000; i++) {
+      probe.put(0, DatumFactory.createText("name_" + (i % 3)));
+      probe.put(1, DatumFactory.createInt4(i));
+      Iterator<Tuple> it = hashTable.find(probe, new int[] {0, 1});
+      assertNotNull(it);
+      assertEquals(i, it.next().getInt8(2));
+      assertFalse(it.hasNext());
+    }
+
+    probe.put(0, DatumFactory.createText("name_1"));
+    probe.put(1, DatumFactory.createInt4(0));
+    assertNull(hashTable.find(probe, new int[] {0, 1}));
+  }
+
+  @Test
+  public final void testClear() {
+    int [] keyIds = new int[] {0};
+    JoinHashTable hashTable = new JoinHashTable(createSchema(), keyIds);
+    for (int i = 0; i < 5000; i++) {
+      hashTable.add(createTuple(DatumFactory.createInt4(i), DatumFactory.createText("old"), i));
+    }
+    hashTable.clear();
+    assertEquals(0, hashTable.size());
+    assertEquals(0, hashTable.getKeyNum());
+
+    Tuple probe = new VTuple(new Datum[] {DatumFactory.createInt4(1)});
+    assertNull(hashTable.find(probe, keyIds));
+
+    hashTable.add(createTuple(DatumFactory.createInt4(1), DatumFactory.createText("new"), 1));
+    Iterator<Tuple> it = hashTable.find(probe, keyIds);
+    assertEquals("new", it.next().get(1).asChars());
+    assertFalse(it.hasNext());
+  }
+
+  @Test
+  public final void testIterateAllRows() {
+    int [] keyIds = new int[] {0};
+    // a small table grows its pages and slots as rows are added.
+    JoinHashTable hashTable = new JoinHashTable(createSchema(), keyIds, 256, 4);
+    assertFalse(hashTable.iterator().hasNext());
+    long emptyUsage = hashTable.getMemoryUsage();
+
+    for (int i = 0; i < 1000; i++) {
+      hashTable.add(createTuple(DatumFactory.createInt4(i % 10), DatumFactory.createText("name_" + i), i));
+    }
+    assertTrue(hashTable.getMemoryUsage() > emptyUsage);
+
+    Iterator<Tuple> it = hashTable.iterator();
+    int count = 0;
+    long lastSeq = -1;
+    int lastKey = -1;
+    Set<Long> seqs = new HashSet<Long>();
+    while (it.hasNext()) {
+      Tuple row = it.next();
+      int key = row.get(0).asInt4();
+      long seq = row.getInt8(2);
+      // rows of the same key are returned together in their insertion order.
+      if (key == lastKey) {
+        assertTrue(seq > lastSeq);
+      }
+      assertEquals(key, seq % 10);
+      assertTrue(seqs.add(seq));
+      lastKey = key;
+      lastSeq = seq;
+      count++;
+    }
+    assertEquals(1000, count);
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.TupleHash;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestJoinKeyFilter {
+
+  @Test
+  public final void testNoFalseNegatives() {
+    int [] keyIds = new int[] {0, 1};
+    JoinKeyFilter filter = new JoinKeyFilter(100000);
+    Tuple tuple = new VTuple(2);
+    for (int i = 0; i < 100000; i++) {
+      tuple.put(0, DatumFactory.createInt4(i * 2));
+      tuple.put(1, DatumFactory.createText("key_" + i));
+      filter.add(TupleHash.hash(tuple, keyIds));
+    }
+
+    for (int i = 0; i < 100000; i++) {
+      tuple.put(0, DatumFactory.createInt4(i * 2));
+      tuple.put(1, DatumFactory.createText("key_" + i));
+      assertTrue(filter.mightContain(tuple, keyIds));
+    }
+
+    // about 1% of false positives are expected.
+    int falsePositives = 0;
+    for (int i = 0; i < 100000; i++) {
+      tuple.put(0, DatumFactory.createInt4(i * 2 + 1));
+      tuple.put(1, DatumFactory.createText("key_" + i));
+      if (filter.mightContain(tuple, keyIds)) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 3000);
+  }
+
+  @Test
+  public final void testNullKeysAndEmptyFilter() {
+    int [] keyIds = new int[] {0};
+    JoinKeyFilter filter = new JoinKeyFilter(0);
+    assertEquals(8, filter.getByteSize());
+
+    Tuple tuple = new VTuple(new Datum[] {DatumFactory.createInt8(1)});
+    assertFalse(filter.mightContain(tuple, keyIds));
+    filter.add(TupleHash.hash(tuple, keyIds));
+    assertTrue(filter.mightContain(tuple, keyIds));
+
+    // a null key never satisfies an equi-join condition.
+    tuple.put(0, NullDatum.get());
+    filter.add(TupleHash.hash(tuple, keyIds));
+    assertFalse(filter.mightContain(tuple, keyIds));
+  }
+
+  @Test
+  public final void testFromJoinHashTable() {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    JoinHashTable hashTable = new JoinHashTable(schema, new int[] {0});
+    for (int i = 0; i < 1000; i++) {
+      hashTable.add(new VTuple(new Datum[] {DatumFactory.createInt4(i % 100)}));
+    }
+
+    JoinKeyFilter filter = hashTable.createKeyFilter();
+    Tuple probe = new VTuple(new Datum[] {DatumFactory.createText("dummy"), DatumFactory.createInt4(0)});
+    for (int i = 0; i < 100; i++) {
+      probe.put(1, DatumFactory.createInt4(i));
+      assertTrue(filter.mightContain(probe, new int[] {1}));
+    }
+  }
+}
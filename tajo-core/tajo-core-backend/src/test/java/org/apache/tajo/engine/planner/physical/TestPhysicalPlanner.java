@@ -25,6 +25,7 @@ import org.apache.commons.codec.binary.Base64;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.DefaultCodec;
 import org.apache.tajo.LocalTajoTestingUtility;
 import org.apache.tajo.QueryUnitAttemptId;
 import org.apache.tajo.TajoTestingCluster;
@@ -59,6 +60,7 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -503,12 +505,74 @@ public class TestPhysicalPlanner {
     assertTrue(exec instanceof SortBasedColPartitionStoreExec);
   }
 
+  /**
+   * It returns a file for each partition of a hash shuffle output. If the output is consolidated, each partition
+   * is copied from its byte range of the data file like the pull server sends it.
+   */
+  private static FileStatus [] getShuffleOutputFiles(FileSystem fs, Path workDir) throws IOException {
+    Path path = new Path(workDir, "output");
+    Path indexPath = new Path(path, HashShuffleIndex.INDEX_FILE_NAME);
+    if (!fs.exists(indexPath)) {
+      return fs.listStatus(path);
+    }
+
+    HashShuffleIndex index = HashShuffleIndex.read(new File(fs.makeQualified(indexPath).toUri()));
+    RandomAccessFile data = new RandomAccessFile(
+        new File(fs.makeQualified(new Path(path, HashShuffleIndex.DATA_FILE_NAME)).toUri()), "r");
+    assertEquals(data.length(), index.getOffset(index.size() - 1) + index.getLength(index.size() - 1));
+
+    Path partitionDir = new Path(workDir, "partitions");
+    fs.mkdirs(partitionDir);
+    FileStatus [] list = new FileStatus[index.size()];
+    for (int i = 0; i < index.size(); i++) {
+      byte [] bytes = new byte[(int) index.getLength(i)];
+      data.seek(index.getOffset(i));
+      data.readFully(bytes);
+
+      Path partitionPath = new Path(partitionDir, "" + index.getPartId(i));
+      RandomAccessFile partition = new RandomAccessFile(new File(fs.makeQualified(partitionPath).toUri()), "rw");
+      partition.write(bytes);
+      partition.close();
+      list[i] = fs.getFileStatus(partitionPath);
+    }
+    data.close();
+    return list;
+  }
+
   @Test
   public final void testPartitionedStorePlan() throws IOException, PlanningException {
+    assertPartitionedStorePlan(conf, "testPartitionedStorePlan");
+  }
+
+  @Test
+  public final void testPartitionedStorePlanWithSpilledRuns() throws IOException, PlanningException {
+    TajoConf localConf = new TajoConf(conf);
+    // every tuple is spilled into its own run, and all runs are merged.
+    localConf.setIntVar(TajoConf.ConfVars.SHUFFLE_HASH_CONSOLIDATED_BUFFER_SIZE, 0);
+    assertPartitionedStorePlan(localConf, "testPartitionedStorePlanWithSpilledRuns");
+  }
+
+  @Test
+  public final void testPartitionedStorePlanWithoutConsolidation() throws IOException, PlanningException {
+    TajoConf localConf = new TajoConf(conf);
+    localConf.setBoolVar(TajoConf.ConfVars.SHUFFLE_HASH_CONSOLIDATED_ENABLED, false);
+    assertPartitionedStorePlan(localConf, "testPartitionedStorePlanWithoutConsolidation");
+  }
+
+  @Test
+  public final void testPartitionedStorePlanWithCompression() throws IOException, PlanningException {
+    TajoConf localConf = new TajoConf(conf);
+    localConf.setVar(TajoConf.ConfVars.SHUFFLE_COMPRESSION_CODEC, DefaultCodec.class.getName());
+    // the byte range of each partition in the merged runs should consist of whole blocks.
+    localConf.setIntVar(TajoConf.ConfVars.SHUFFLE_HASH_CONSOLIDATED_BUFFER_SIZE, 0);
+    assertPartitionedStorePlan(localConf, "testPartitionedStorePlanWithCompression");
+  }
+
+  private void assertPartitionedStorePlan(TajoConf conf, String workDirName) throws IOException, PlanningException {
     FileFragment[] frags = StorageManager.splitNG(conf, "score", score.getMeta(), score.getPath(),
         Integer.MAX_VALUE);
     QueryUnitAttemptId id = LocalTajoTestingUtility.newQueryUnitAttemptId(masterPlan);
-    Path workDir = CommonTestingUtil.getTestDir("target/test-data/testPartitionedStorePlan");
+    Path workDir = CommonTestingUtil.getTestDir("target/test-data/" + workDirName);
     TaskAttemptContext ctx = new TaskAttemptContext(conf, id, new FileFragment[] { frags[0] }, workDir);
     ctx.setEnforcer(new Enforcer());
     Expr context = analyzer.parse(QUERIES[7]);
@@ -523,18 +587,23 @@ public class TestPhysicalPlanner {
     ctx.setDataChannel(dataChannel);
     LogicalNode rootNode = optimizer.optimize(plan);
 
-    TableMeta outputMeta = CatalogUtil.newTableMeta(dataChannel.getStoreType());
-
     FileSystem fs = sm.getFileSystem();
 
     PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf,sm);
     PhysicalExec exec = phyPlanner.createPlan(ctx, rootNode);
+
+    // the codec of the outputs is reported with them, and the fetching tasks read the outputs with it.
+    String codec = conf.getVar(TajoConf.ConfVars.SHUFFLE_COMPRESSION_CODEC);
+    assertEquals(codec.isEmpty() ? null : codec, ctx.getShuffleCompressionCodec());
+    TableMeta outputMeta = CatalogUtil.newTableMeta(dataChannel.getStoreType());
+    if (ctx.getShuffleCompressionCodec() != null) {
+      outputMeta.putOption(CatalogConstants.COMPRESSION_CODEC, ctx.getShuffleCompressionCodec());
+    }
     exec.init();
     exec.next();
     exec.close();
 
-    Path path = new Path(workDir, "output");
-    FileStatus [] list = fs.listStatus(path);
+    FileStatus [] list = getShuffleOutputFiles(fs, workDir);
     assertEquals(numPartitions, list.length);
 
     FileFragment[] fragments = new FileFragment[list.length];
@@ -558,6 +627,14 @@ public class TestPhysicalPlanner {
 
     // Examine the statistics information
     assertEquals(10, ctx.getResultStats().getNumRows().longValue());
+
+    // the volume of each partition is reported for skew handling.
+    long totalVolume = 0;
+    for (int partId = 0; partId < numPartitions; partId++) {
+      assertTrue(ctx.getShuffleFileVolume(partId) > 0);
+      totalVolume += ctx.getShuffleFileVolume(partId);
+    }
+    assertEquals(ctx.getResultStats().getNumBytes().longValue(), totalVolume);
   }
 
   @Test
@@ -589,10 +666,8 @@ public class TestPhysicalPlanner {
     exec.next();
     exec.close();
 
-    Path path = new Path(workDir, "output");
     FileSystem fs = sm.getFileSystem();
-
-    FileStatus [] list = fs.listStatus(path);
+    FileStatus [] list = getShuffleOutputFiles(fs, workDir);
     assertEquals(numPartitions, list.length);
 
     FileFragment[] fragments = new FileFragment[list.length];
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.eval.*;
+import org.apache.tajo.storage.ColumnPredicate;
+import org.apache.tajo.storage.ColumnPredicate.Operator;
+import org.apache.tajo.storage.ScanPredicate;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestScanPredicateBuilder {
+  private static Schema createSchema() {
+    Schema schema = new Schema();
+    schema.addColumn("t.id", Type.INT4);
+    schema.addColumn("t.name", Type.TEXT);
+    schema.addColumn("t.score", Type.FLOAT8);
+    return schema;
+  }
+
+  @Test
+  public final void testSimpleConjuncts() {
+    Schema schema = createSchema();
+    FieldEval id = new FieldEval(schema.getColumn(0));
+    FieldEval name = new FieldEval(schema.getColumn(1));
+    FieldEval score = new FieldEval(schema.getColumn(2));
+
+    // 10 < t.id AND t.name IN ('a', 'b') AND t.score IS NOT NULL AND t.id + 1 = 20
+    EvalNode qual = new BinaryEval(EvalType.AND,
+        new BinaryEval(EvalType.AND,
+            new BinaryEval(EvalType.LTH, new ConstEval(DatumFactory.createInt4(10)), id),
+            new InEval(name, new RowConstantEval(
+                new Datum[] {DatumFactory.createText("a"), DatumFactory.createText("b")}), false)),
+        new BinaryEval(EvalType.AND,
+            new IsNullEval(true, score),
+            new BinaryEval(EvalType.EQUAL,
+                new BinaryEval(EvalType.PLUS, id, new ConstEval(DatumFactory.createInt4(1))),
+                new ConstEval(DatumFactory.createInt4(20)))));
+
+    ScanPredicate predicate = ScanPredicateBuilder.build(schema, qual);
+    assertNotNull(predicate);
+    ColumnPredicate [] predicates = predicate.getPredicates();
+    assertEquals(3, predicates.length);
+
+    // the operands are swapped.
+    assertEquals(schema.getColumn(0), predicates[0].getColumn());
+    assertEquals(Operator.GTH, predicates[0].getOperator());
+    assertEquals(Operator.IN, predicates[1].getOperator());
+    assertEquals(2, predicates[1].getValues().length);
+    assertEquals(Operator.IS_NOT_NULL, predicates[2].getOperator());
+
+    int [] columnIds = predicate.getColumnIds(schema);
+    assertArrayEquals(new int[] {0, 1, 2}, columnIds);
+
+    Tuple tuple = new VTuple(3);
+    tuple.put(0, DatumFactory.createInt4(11));
+    tuple.put(1, DatumFactory.createText("b"));
+    tuple.put(2, DatumFactory.createFloat8(1.0));
+    assertTrue(predicate.isTrue(tuple, columnIds));
+
+    tuple.put(0, DatumFactory.createInt4(10));
+    assertFalse(predicate.isTrue(tuple, columnIds));
+
+    tuple.put(0, DatumFactory.createInt4(11));
+    tuple.put(2, NullDatum.get());
+    assertFalse(predicate.isTrue(tuple, columnIds));
+  }
+
+  @Test
+  public final void testNotPushable() {
+    Schema schema = createSchema();
+    FieldEval id = new FieldEval(schema.getColumn(0));
+    FieldEval name = new FieldEval(schema.getColumn(1));
+
+    // t.id = t.id OR t.name = 'a'
+    EvalNode qual = new BinaryEval(EvalType.OR,
+        new BinaryEval(EvalType.EQUAL, id, id),
+        new BinaryEval(EvalType.EQUAL, name, new ConstEval(DatumFactory.createText("a"))));
+    assertNull(ScanPredicateBuilder.build(schema, qual));
+
+    // a comparison with an incompatible constant, NOT IN and a comparison with null
+    qual = new BinaryEval(EvalType.AND,
+        new BinaryEval(EvalType.AND,
+            new BinaryEval(EvalType.EQUAL, name, new ConstEval(DatumFactory.createInt4(1))),
+            new InEval(id, new RowConstantEval(new Datum[] {DatumFactory.createInt4(1)}), true)),
+        new BinaryEval(EvalType.EQUAL, id, new ConstEval(NullDatum.get())));
+    assertNull(ScanPredicateBuilder.build(schema, qual));
+  }
+
+  @Test
+  public final void testMightMatch() {
+    Schema schema = createSchema();
+    ColumnPredicate lessThan = new ColumnPredicate(schema.getColumn(0), Operator.LTH, DatumFactory.createInt4(10));
+    assertTrue(lessThan.mightMatch(DatumFactory.createInt4(5), DatumFactory.createInt4(20), 0, 100));
+    assertFalse(lessThan.mightMatch(DatumFactory.createInt4(10), DatumFactory.createInt4(20), 0, 100));
+    // unknown statistics
+    assertTrue(lessThan.mightMatch(null, null, 0, 100));
+    // only nulls
+    assertFalse(lessThan.mightMatch(null, null, 100, 100));
+
+    ColumnPredicate in = new ColumnPredicate(schema.getColumn(0), Operator.IN,
+        DatumFactory.createInt4(1), DatumFactory.createInt4(30));
+    assertTrue(in.mightMatch(DatumFactory.createInt4(25), DatumFactory.createInt4(35), 0, 100));
+    assertFalse(in.mightMatch(DatumFactory.createInt4(2), DatumFactory.createInt4(29), 0, 100));
+
+    ColumnPredicate isNull = new ColumnPredicate(schema.getColumn(0), Operator.IS_NULL);
+    assertFalse(isNull.mightMatch(DatumFactory.createInt4(1), DatumFactory.createInt4(2), 0, 100));
+    assertTrue(isNull.mightMatch(DatumFactory.createInt4(1), DatumFactory.createInt4(2), 1, 100));
+  }
+}
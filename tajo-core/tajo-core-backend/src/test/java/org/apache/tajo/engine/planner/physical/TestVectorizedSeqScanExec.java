@@ -0,0 +1,180 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.catalog.*;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.engine.parser.SQLAnalyzer;
+import org.apache.tajo.engine.planner.*;
+import org.apache.tajo.engine.planner.enforce.Enforcer;
+import org.apache.tajo.engine.planner.logical.LogicalNode;
+import org.apache.tajo.master.TajoMaster;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestVectorizedSeqScanExec {
+  private TajoConf conf;
+  private final String TEST_PATH = "target/test-data/TestVectorizedSeqScanExec";
+  private TajoTestingCluster util;
+  private CatalogService catalog;
+  private SQLAnalyzer analyzer;
+  private LogicalPlanner planner;
+  private LogicalOptimizer optimizer;
+  private AbstractStorageManager sm;
+  private Path testDir;
+
+  private final int rowNum = 5000;
+  private TableDesc table;
+
+  @Before
+  public void setUp() throws Exception {
+    util = new TajoTestingCluster();
+    util.initTestDir();
+    catalog = util.startCatalogCluster().getCatalog();
+    for (FunctionDesc funcDesc : TajoMaster.initBuiltinFunctions()) {
+      catalog.createFunction(funcDesc);
+    }
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    conf = util.getConfiguration();
+    sm = StorageManagerFactory.getStorageManager(conf, testDir);
+
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("score", Type.INT8);
+    schema.addColumn("ratio", Type.FLOAT8);
+    schema.addColumn("weight", Type.FLOAT4);
+    schema.addColumn("code", Type.INT2);
+    schema.addColumn("name", Type.TEXT);
+
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.RAW);
+    Path path = new Path(testDir, "table1.raw");
+    Appender appender = StorageManagerFactory.getStorageManager(conf).getAppender(meta, schema, path);
+    appender.init();
+    Tuple tuple = new VTuple(schema.size());
+    for (int i = 0; i < rowNum; i++) {
+      tuple.put(new Datum[] {
+          DatumFactory.createInt4(i),
+          i % 7 == 0 ? NullDatum.get() : DatumFactory.createInt8(i % 100),
+          i % 11 == 0 ? NullDatum.get() : DatumFactory.createFloat8(i / 10.0d),
+          DatumFactory.createFloat4((i % 13) / 4.0f),
+          DatumFactory.createInt2((short) (i % 3)),
+          i % 5 == 0 ? NullDatum.get() : DatumFactory.createText("name_" + i)});
+      appender.addTuple(tuple);
+    }
+    appender.flush();
+    appender.close();
+
+    table = CatalogUtil.newTableDesc("table1", schema, meta, path);
+    catalog.addTable(table);
+    analyzer = new SQLAnalyzer();
+    planner = new LogicalPlanner(catalog);
+    optimizer = new LogicalOptimizer(conf);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    util.shutdownCatalogCluster();
+  }
+
+  private List<Tuple> execute(String query, boolean vectorized, boolean expectVectorized)
+      throws IOException, PlanningException {
+    TajoConf localConf = new TajoConf(conf);
+    localConf.setBoolVar(TajoConf.ConfVars.EXECUTOR_VECTORIZED_SCAN_ENABLED, vectorized);
+
+    Expr expr = analyzer.parse(query);
+    LogicalPlan plan = planner.createPlan(expr);
+    LogicalNode rootNode = optimizer.optimize(plan);
+
+    FileFragment[] frags = StorageManager.splitNG(conf, "table1", table.getMeta(), table.getPath(),
+        Integer.MAX_VALUE);
+    Path workDir = CommonTestingUtil.getTestDir("target/test-data/TestVectorizedSeqScanExec_work");
+    TaskAttemptContext ctx = new TaskAttemptContext(localConf, LocalTajoTestingUtility.newQueryUnitAttemptId(),
+        frags, workDir);
+    ctx.setEnforcer(new Enforcer());
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(localConf, sm);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, rootNode);
+
+    List<Tuple> results = new ArrayList<Tuple>();
+    Tuple tuple;
+    exec.init();
+    SeqScanExec scanExec = PhysicalPlanUtil.findExecutor(exec, SeqScanExec.class);
+    assertEquals(expectVectorized, scanExec.isVectorized());
+    while ((tuple = exec.next()) != null) {
+      results.add(new VTuple(tuple));
+    }
+    exec.close();
+    return results;
+  }
+
+  private void assertSameResults(String query, int expectedNum) throws IOException, PlanningException {
+    List<Tuple> expected = execute(query, false, false);
+    List<Tuple> actual = execute(query, true, true);
+    assertEquals(expectedNum, expected.size());
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i), actual.get(i));
+    }
+  }
+
+  @Test
+  public final void testComparisonAndArithmetic() throws IOException, PlanningException {
+    assertSameResults("select id, score + id, ratio * 2.0, id * 3 - 1, name from table1 " +
+        "where id > 100 and (score < 50 or ratio >= 300.5)", 3138);
+  }
+
+  @Test
+  public final void testImplicitConversions() throws IOException, PlanningException {
+    assertSameResults("select id, weight, code, ratio from table1 where weight < 2 and code <> 1 and id <= 4000.5",
+        1642);
+  }
+
+  @Test
+  public final void testIsNull() throws IOException, PlanningException {
+    assertSameResults("select id, score, name from table1 where score is null or name is not null", 4143);
+  }
+
+  @Test
+  public final void testFallback() throws IOException, PlanningException {
+    List<Tuple> expected = execute("select id from table1 where name = 'name_3'", false, false);
+    List<Tuple> actual = execute("select id from table1 where name = 'name_3'", true, false);
+    assertEquals(1, actual.size());
+    assertEquals(expected, actual);
+  }
+}
@@ -53,7 +53,7 @@ public class TestGroupByQuery extends QueryTestCaseBase {
 
   @Test
   public final void testGroupBy4() throws Exception {
-    // select l_orderkey as gkey, count(1) as unique_key from lineitem group by lineitem.l_orderkey;
+    // select l_orderkey as gkey, count(1) as unique_key from lineitem group by lineitem.l_orderkey order by gkey;
     ResultSet res = executeQuery();
     assertResultSet(res);
     cleanupQuery(res);
@@ -214,7 +214,7 @@ public class TestGroupByQuery extends QueryTestCaseBase {
   @Test
   public final void testHavingWithNamedTarget() throws Exception {
     // select l_orderkey, avg(l_partkey) total, sum(l_linenumber) as num from lineitem group by l_orderkey
-    // having total >= 2 or num = 3;
+    // having total >= 2 or num = 3 order by l_orderkey;
     ResultSet res = executeQuery();
     assertResultSet(res);
     cleanupQuery(res);
@@ -223,7 +223,7 @@ public class TestGroupByQuery extends QueryTestCaseBase {
   @Test
   public final void testHavingWithAggFunction() throws Exception {
     // select l_orderkey, avg(l_partkey) total, sum(l_linenumber) as num from lineitem group by l_orderkey
-    // having avg(l_partkey) = 2.5 or num = 1;
+    // having avg(l_partkey) = 2.5 or num = 1 order by l_orderkey;
     ResultSet res = executeQuery();
     assertResultSet(res);
     cleanupQuery(res);
@@ -42,7 +42,7 @@ public class TestNetTypes extends QueryTestCaseBase {
 
   @Test
   public final void testGroupby() throws Exception {
-    // select name, addr, count(1) from table1 group by name, addr;
+    // select name, addr, count(1) from table1 group by name, addr order by name, addr;
     ResultSet res = executeQuery();
     assertResultSet(res);
     cleanupQuery(res);
@@ -50,7 +50,7 @@ public class TestNetTypes extends QueryTestCaseBase {
 
   @Test
   public final void testGroupby2() throws Exception {
-    // select addr, count(*) from table1 group by addr;
+    // select addr, count(*) from table1 group by addr order by addr;
     ResultSet res = executeQuery();
     assertResultSet(res);
     cleanupQuery(res);
@@ -32,6 +32,8 @@ import java.net.URI;
 import java.util.*;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertNull;
+import static junit.framework.Assert.assertTrue;
 
 public class TestRepartitioner {
   @Test
@@ -64,6 +66,127 @@ public class TestRepartitioner {
     }
   }
 
+  @Test
+  public void testCreateHashFetchURLWithCodecs() throws Exception {
+    QueryId q1 = TestTajoIds.createQueryId(1315890136000l, 2);
+    ExecutionBlockId sid = new ExecutionBlockId(q1, 2);
+    String codec = "org.apache.hadoop.io.compress.DefaultCodec";
+
+    List<QueryUnit.IntermediateEntry> entries = TUtil.newList();
+    for (int i = 0; i < 10; i++) {
+      QueryUnit.IntermediateEntry entry = new QueryUnit.IntermediateEntry(i, 0, 2, "tajo1", 1234);
+      if (i % 2 == 0) {
+        entry.setCompressionCodec(codec);
+      }
+      entries.add(entry);
+    }
+
+    Collection<URI> uris = Repartitioner.createHashFetchURL("tajo1:1234", sid, 2,
+        TajoWorkerProtocol.ShuffleType.HASH_SHUFFLE, entries);
+    // the compressed and the uncompressed outputs are fetched separately.
+    assertEquals(2, uris.size());
+    for (URI uri : uris) {
+      Map<String, List<String>> params = new QueryStringDecoder(uri).getParameters();
+      List<String> taList = splitMaps(params.get("ta"));
+      assertEquals(5, taList.size());
+      boolean compressed = Integer.parseInt(taList.get(0).split("_")[0]) % 2 == 0;
+      for (String ta : taList) {
+        assertEquals(compressed, Integer.parseInt(ta.split("_")[0]) % 2 == 0);
+      }
+      if (compressed) {
+        assertEquals(TUtil.newList(codec), params.get("codec"));
+      } else {
+        assertNull(params.get("codec"));
+      }
+    }
+  }
+
+  @Test
+  public void testSplitEntries() {
+    List<QueryUnit.IntermediateEntry> entries = TUtil.newList();
+    long [] volumes = new long[] {10, 70, 20, 30, 40, 50, 60};
+    for (int i = 0; i < volumes.length; i++) {
+      entries.add(new QueryUnit.IntermediateEntry(i, 0, 1, "tajo1", 1234, volumes[i]));
+    }
+
+    List<List<QueryUnit.IntermediateEntry>> groups = Repartitioner.splitEntries(entries, 4);
+    assertEquals(4, groups.size());
+    Set<Integer> taskIds = TUtil.newHashSet();
+    long maxVolume = 0;
+    for (List<QueryUnit.IntermediateEntry> group : groups) {
+      long volume = 0;
+      for (QueryUnit.IntermediateEntry entry : group) {
+        taskIds.add(entry.getTaskId());
+        volume += entry.getVolume();
+      }
+      maxVolume = Math.max(maxVolume, volume);
+    }
+    // every entry is assigned once, and the total volume 280 is evenly divided.
+    assertEquals(volumes.length, taskIds.size());
+    assertEquals(70, maxVolume);
+
+    // entries are never split further
+    assertEquals(volumes.length, Repartitioner.splitEntries(entries, 100).size());
+    assertEquals(1, Repartitioner.splitEntries(entries, 0).size());
+  }
+
+  @Test
+  public void testAssignPartitionsByVolume() {
+    Map<Integer, Long> volumes = new HashMap<Integer, Long>();
+    volumes.put(0, 1000L);
+    volumes.put(1, 10L);
+    volumes.put(2, 20L);
+    volumes.put(3, 0L);
+    volumes.put(4, 30L);
+    volumes.put(5, 0L);
+
+    List<Integer>[] assigned = Repartitioner.assignPartitionsByVolume(volumes, 3);
+    assertEquals(3, assigned.length);
+    // the largest partition occupies a task by itself.
+    assertEquals(TUtil.newList(0), assigned[0]);
+
+    Set<Integer> partIds = TUtil.newHashSet();
+    for (List<Integer> eachTask : assigned) {
+      assertTrue(eachTask.size() > 0);
+      partIds.addAll(eachTask);
+    }
+    assertEquals(volumes.keySet(), partIds);
+
+    // empty partitions are spread over all tasks
+    volumes.clear();
+    for (int i = 0; i < 4; i++) {
+      volumes.put(i, 0L);
+    }
+    for (List<Integer> eachTask : Repartitioner.assignPartitionsByVolume(volumes, 4)) {
+      assertEquals(1, eachTask.size());
+    }
+  }
+
+  @Test
+  public void testCoalescePartitions() {
+    Map<Integer, Long> volumes = new HashMap<Integer, Long>();
+    long [] partVolumes = new long[] {10, 20, 30, 100, 150, 5, 5, 0, 90, 10};
+    for (int i = 0; i < partVolumes.length; i++) {
+      volumes.put(i, partVolumes[i]);
+    }
+
+    List<List<Integer>> groups = Repartitioner.coalescePartitions(volumes, 100);
+    assertEquals(5, groups.size());
+    assertEquals(TUtil.newList(0, 1, 2), groups.get(0));
+    assertEquals(TUtil.newList(3), groups.get(1));
+    // a partition larger than the target volume is not split.
+    assertEquals(TUtil.newList(4), groups.get(2));
+    assertEquals(TUtil.newList(5, 6, 7, 8), groups.get(3));
+    assertEquals(TUtil.newList(9), groups.get(4));
+
+    // all partitions are coalesced into a task if they are small enough.
+    groups = Repartitioner.coalescePartitions(volumes, 1000);
+    assertEquals(1, groups.size());
+    assertEquals(partVolumes.length, groups.get(0).size());
+
+    assertEquals(0, Repartitioner.coalescePartitions(new HashMap<Integer, Long>(), 100).size());
+  }
+
   private List<String> splitMaps(List<String> mapq) {
     if (null == mapq) {
       return null;
@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.master.querymaster;
+
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.QueryUnitId;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.master.event.QueryUnitAttemptScheduleEvent.QueryUnitAttemptScheduleContext;
+import org.apache.tajo.util.TUtil;
+import org.apache.tajo.util.TajoIdUtils;
+import org.jboss.netty.handler.codec.http.QueryStringDecoder;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.apache.tajo.ipc.TajoWorkerProtocol.ShuffleType.HASH_SHUFFLE;
+import static org.junit.Assert.*;
+
+public class TestPipelinedShuffle {
+  private static final ExecutionBlockId CHILD_ID = TajoIdUtils.createExecutionBlockId("eb_000001_00001_00001");
+
+  private static QueryUnit newCompletedTask(int taskId, String host, int... partIds) {
+    QueryUnit task = new QueryUnit(new TajoConf(), new QueryUnitAttemptScheduleContext(),
+        new QueryUnitId(CHILD_ID, taskId), true, null);
+    List<QueryUnit.IntermediateEntry> entries = TUtil.newList();
+    for (int partId : partIds) {
+      entries.add(new QueryUnit.IntermediateEntry(taskId, 0, partId, host, 1234));
+    }
+    task.setIntermediateData(entries);
+    return task;
+  }
+
+  private static List<String> getTaskAttempts(List<URI> uris) {
+    List<String> taskAttempts = TUtil.newList();
+    for (URI uri : uris) {
+      for (String ta : new QueryStringDecoder(uri).getParameters().get("ta").get(0).split(",")) {
+        taskAttempts.add(ta);
+      }
+    }
+    return taskAttempts;
+  }
+
+  @Test
+  public void testIncrementalFetches() {
+    PipelinedShuffle shuffle = new PipelinedShuffle(CHILD_ID, "t1", HASH_SHUFFLE);
+    assertTrue(shuffle.getFetches(0, 0).isEmpty());
+
+    shuffle.addCompletedTask(newCompletedTask(0, "tajo1", 0, 1));
+    shuffle.addCompletedTask(newCompletedTask(1, "tajo1", 0));
+    List<URI> first = shuffle.getFetches(0, 0);
+    // the outputs on the same pull server are fetched together.
+    assertEquals(1, first.size());
+    assertEquals(TUtil.newList("0_0", "1_0"), getTaskAttempts(first));
+
+    shuffle.addCompletedTask(newCompletedTask(2, "tajo2", 0));
+    List<URI> second = shuffle.getFetches(0, first.size());
+    assertEquals(1, second.size());
+    assertEquals(TUtil.newList("2_0"), getTaskAttempts(second));
+    assertEquals("tajo2", second.get(0).getHost());
+
+    // all fetches are given again if a task knows none of them.
+    assertEquals(2, shuffle.getFetches(0, 0).size());
+    assertEquals(TUtil.newList("0_0"), getTaskAttempts(shuffle.getFetches(1, 0)));
+    assertTrue(shuffle.getFetches(2, 0).isEmpty());
+  }
+
+  @Test
+  public void testDuplicatedTask() {
+    PipelinedShuffle shuffle = new PipelinedShuffle(CHILD_ID, "t1", HASH_SHUFFLE);
+    shuffle.addCompletedTask(newCompletedTask(0, "tajo1", 0));
+    shuffle.addCompletedTask(newCompletedTask(0, "tajo1", 0));
+    assertEquals(TUtil.newList("0_0"), getTaskAttempts(shuffle.getFetches(0, 0)));
+
+    shuffle.addCompletedTask(newCompletedTask(0, "tajo1", 0));
+    assertTrue(shuffle.getFetches(0, 1).isEmpty());
+  }
+
+  @Test
+  public void testCompleteAndAbort() {
+    PipelinedShuffle shuffle = new PipelinedShuffle(CHILD_ID, "t1", HASH_SHUFFLE);
+    assertFalse(shuffle.isCompleted());
+    assertFalse(shuffle.isAborted());
+    shuffle.complete();
+    assertTrue(shuffle.isCompleted());
+    shuffle.abort();
+    assertTrue(shuffle.isAborted());
+  }
+}
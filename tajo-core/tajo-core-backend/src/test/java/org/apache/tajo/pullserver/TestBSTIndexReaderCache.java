@@ -0,0 +1,216 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.pullserver;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.pullserver.retriever.FileChunk;
+import org.apache.tajo.storage.RowStoreUtil;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.TupleComparator;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.index.bst.BSTIndex;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class TestBSTIndexReaderCache {
+  private static final int KEY_NUM = 1000;
+  private TajoConf conf;
+  private Path testDir;
+  private Schema keySchema;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new TajoConf();
+    testDir = CommonTestingUtil.getTestDir("target/test-data/TestBSTIndexReaderCache");
+    keySchema = new Schema();
+    keySchema.addColumn(new Column("key", Type.INT8));
+  }
+
+  private Path createIndex(String name) throws IOException {
+    SortSpec [] sortSpecs = new SortSpec[] {new SortSpec(keySchema.getColumn(0), true, false)};
+    TupleComparator comp = new TupleComparator(keySchema, sortSpecs);
+    Path indexPath = new Path(testDir, name);
+    BSTIndex.BSTIndexWriter writer = new BSTIndex(conf).getIndexWriter(indexPath, BSTIndex.TWO_LEVEL_INDEX,
+        keySchema, comp);
+    writer.setLoadNum(100);
+    writer.open();
+    for (int i = 0; i < KEY_NUM; i++) {
+      Tuple key = new VTuple(1);
+      key.put(0, DatumFactory.createInt8(i));
+      writer.write(key, i * 10);
+    }
+    writer.close();
+    return indexPath;
+  }
+
+  private static void assertFind(BSTIndexReaderCache.CachedIndexReader cached) throws IOException {
+    Tuple key = new VTuple(1);
+    for (int i = 0; i < KEY_NUM; i += 7) {
+      key.put(0, DatumFactory.createInt8(i));
+      assertEquals(i * 10, cached.getReader().find(key));
+    }
+  }
+
+  @Test
+  public final void testHitAndMiss() throws IOException {
+    Path indexPath = createIndex("testHitAndMiss");
+    BSTIndexReaderCache cache = new BSTIndexReaderCache(conf, Long.MAX_VALUE, 10);
+
+    for (int i = 0; i < 5; i++) {
+      BSTIndexReaderCache.CachedIndexReader cached = cache.acquire("q_1", "sid_1/ta_1", indexPath);
+      assertFind(cached);
+      cache.release(cached);
+    }
+    assertEquals(1, cache.getMissCount());
+    assertEquals(4, cache.getHitCount());
+    assertEquals(1, cache.size());
+
+    // the same index in another query is cached separately.
+    cache.release(cache.acquire("q_2", "sid_1/ta_1", indexPath));
+    assertEquals(2, cache.getMissCount());
+    assertEquals(2, cache.size());
+
+    cache.evictQuery("q_1");
+    assertEquals(1, cache.size());
+    cache.release(cache.acquire("q_1", "sid_1/ta_1", indexPath));
+    assertEquals(3, cache.getMissCount());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getCachedBytes());
+  }
+
+  @Test
+  public final void testLruEviction() throws IOException {
+    Path [] indexPaths = new Path[4];
+    for (int i = 0; i < indexPaths.length; i++) {
+      indexPaths[i] = createIndex("testLruEviction_" + i);
+    }
+    BSTIndexReaderCache cache = new BSTIndexReaderCache(conf, Long.MAX_VALUE, 2);
+
+    cache.release(cache.acquire("q_1", "0", indexPaths[0]));
+    cache.release(cache.acquire("q_1", "1", indexPaths[1]));
+    // it makes the first index the most recently used one.
+    cache.release(cache.acquire("q_1", "0", indexPaths[0]));
+    cache.release(cache.acquire("q_1", "2", indexPaths[2]));
+    assertEquals(2, cache.size());
+    assertEquals(3, cache.getMissCount());
+
+    // the first index is still cached, but the second one was evicted.
+    cache.release(cache.acquire("q_1", "0", indexPaths[0]));
+    assertEquals(2, cache.getHitCount());
+    cache.release(cache.acquire("q_1", "1", indexPaths[1]));
+    assertEquals(4, cache.getMissCount());
+  }
+
+  @Test
+  public final void testSizeLimit() throws IOException {
+    Path indexPath = createIndex("testSizeLimit");
+    BSTIndexReaderCache cache = new BSTIndexReaderCache(conf, 1, 100);
+
+    cache.release(cache.acquire("q_1", "0", indexPath));
+    // a reader exceeding the size limit alone is kept until another reader is added.
+    assertEquals(1, cache.size());
+    cache.release(cache.acquire("q_1", "1", indexPath));
+    assertEquals(1, cache.size());
+    cache.release(cache.acquire("q_1", "0", indexPath));
+    assertEquals(3, cache.getMissCount());
+  }
+
+  @Test
+  public final void testEvictionWhileInUse() throws IOException {
+    Path indexPath = createIndex("testEvictionWhileInUse");
+    BSTIndexReaderCache cache = new BSTIndexReaderCache(conf, Long.MAX_VALUE, 10);
+
+    BSTIndexReaderCache.CachedIndexReader cached = cache.acquire("q_1", "0", indexPath);
+    cache.evictQuery("q_1");
+    assertEquals(0, cache.size());
+    // the evicted reader is not closed until it is released.
+    assertFind(cached);
+    cache.release(cached);
+  }
+
+  private String encodeKey(long value) {
+    Tuple key = new VTuple(1);
+    key.put(0, DatumFactory.createInt8(value));
+    return new String(Base64.encodeBase64(RowStoreUtil.RowStoreEncoder.toBytes(keySchema, key)));
+  }
+
+  @Test
+  public final void testConcurrentRangeLookups() throws Exception {
+    FileSystem localFS = FileSystem.getLocal(conf);
+    final Path outDir = localFS.makeQualified(new Path(testDir, "testConcurrentRangeLookups"));
+    createIndex("testConcurrentRangeLookups/index");
+    // the data file is only used for its length.
+    FSDataOutputStream out = localFS.create(new Path(outDir, "output"));
+    out.write(new byte[KEY_NUM * 10]);
+    out.close();
+
+    final BSTIndexReaderCache cache = new BSTIndexReaderCache(conf, Long.MAX_VALUE, 10);
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    Thread [] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++) {
+      final Random random = new Random(t);
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          try {
+            // every request of all threads shares the same cached reader.
+            for (int i = 0; i < 200; i++) {
+              int start = random.nextInt(KEY_NUM - 1);
+              int end = start + 1 + random.nextInt(KEY_NUM - start - 1);
+              FileChunk chunk = TajoPullServerService.getFileCunks(cache, "q_1", "sid_1/ta_1", outDir,
+                  encodeKey(start), encodeKey(end), false);
+              assertEquals(start * 10, chunk.startOffset());
+              assertEquals((end - start) * 10, chunk.length());
+            }
+          } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    if (failure.get() != null) {
+      throw new AssertionError(failure.get());
+    }
+    assertEquals(1, cache.size());
+  }
+}
@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.pullserver;
+
+import com.google.common.collect.Lists;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.pullserver.retriever.FileChunk;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.DefaultChannelFuture;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestPullServerIOScheduler {
+  private File disk1;
+  private File disk2;
+  private final List<String> events = new ArrayList<String>();
+  private final List<ChannelFuture> inFlight = new ArrayList<ChannelFuture>();
+
+  @Before
+  public void setUp() throws Exception {
+    Path testDir = CommonTestingUtil.getTestDir("target/test-data/TestPullServerIOScheduler");
+    disk1 = new File(testDir.toUri().getPath(), "disk1");
+    disk2 = new File(testDir.toUri().getPath(), "disk2");
+    assertTrue(disk1.mkdirs());
+    assertTrue(disk2.mkdirs());
+    events.clear();
+    inFlight.clear();
+  }
+
+  private FileChunk createChunk(File disk, String name, long offset) throws IOException {
+    File file = new File(disk, name);
+    if (!file.exists()) {
+      FileOutputStream out = new FileOutputStream(file);
+      out.write(new byte[1024]);
+      out.close();
+    }
+    return new FileChunk(file, offset, 100);
+  }
+
+  private class TestResponse extends PullServerIOScheduler.Response {
+    private final String name;
+
+    TestResponse(Object channel, String name, FileChunk... chunks) {
+      super(channel, Arrays.asList(chunks));
+      this.name = name;
+    }
+
+    @Override
+    protected void writeHeader() {
+      events.add(name + ":header");
+    }
+
+    @Override
+    protected ChannelFuture writeChunk(FileChunk chunk, RandomAccessFile file) throws IOException {
+      file.close();
+      events.add(name + ":" + chunk.getFile().getName() + "@" + chunk.startOffset());
+      ChannelFuture future = new DefaultChannelFuture(null, false);
+      inFlight.add(future);
+      return future;
+    }
+
+    @Override
+    protected void complete(boolean success) {
+      events.add(name + (success ? ":done" : ":failed"));
+    }
+  }
+
+  private PullServerIOScheduler createScheduler(int maxInFlight) {
+    return new PullServerIOScheduler(Lists.newArrayList(disk1.getAbsolutePath(), disk2.getAbsolutePath()),
+        maxInFlight, 1, 64, null);
+  }
+
+  private void completeFirst(boolean success) {
+    ChannelFuture future = inFlight.remove(0);
+    if (success) {
+      future.setSuccess();
+    } else {
+      future.setFailure(new IOException("test"));
+    }
+  }
+
+  @Test
+  public final void testScanOrder() throws IOException {
+    PullServerIOScheduler scheduler = createScheduler(1);
+    scheduler.submit(new TestResponse(new Object(), "r1", createChunk(disk1, "b", 100)));
+    scheduler.submit(new TestResponse(new Object(), "r2", createChunk(disk1, "a", 0)));
+    scheduler.submit(new TestResponse(new Object(), "r3", createChunk(disk1, "c", 0)));
+    scheduler.submit(new TestResponse(new Object(), "r4", createChunk(disk1, "b", 500)));
+    scheduler.submit(new TestResponse(new Object(), "r5", createChunk(disk1, "b", 200)));
+    assertEquals(5, scheduler.getOutstandingChunkNum());
+
+    // only one chunk of a disk is sent at a time.
+    assertEquals(1, inFlight.size());
+    while (!inFlight.isEmpty()) {
+      completeFirst(true);
+    }
+    assertEquals(0, scheduler.getOutstandingChunkNum());
+
+    List<String> sent = new ArrayList<String>();
+    for (String event : events) {
+      if (event.contains("@")) {
+        sent.add(event);
+      }
+    }
+    // the chunks after the first one are sent in the order of file and offset, and then it wraps around.
+    assertEquals(Arrays.asList("r1:b@100", "r5:b@200", "r4:b@500", "r3:c@0", "r2:a@0"), sent);
+  }
+
+  @Test
+  public final void testDisks() throws IOException {
+    PullServerIOScheduler scheduler = createScheduler(1);
+    scheduler.submit(new TestResponse(new Object(), "r1", createChunk(disk1, "a", 0)));
+    scheduler.submit(new TestResponse(new Object(), "r2", createChunk(disk1, "a", 100)));
+    scheduler.submit(new TestResponse(new Object(), "r3", createChunk(disk2, "a", 0)));
+    // each disk sends its own chunk.
+    assertEquals(2, inFlight.size());
+    assertEquals(Arrays.asList("r1:header", "r1:a@0", "r2:header", "r3:header", "r3:a@0"), events);
+
+    completeFirst(true);
+    assertEquals(2, inFlight.size());
+    assertTrue(events.contains("r2:a@100"));
+  }
+
+  @Test
+  public final void testChannelSequence() throws IOException {
+    PullServerIOScheduler scheduler = createScheduler(4);
+    Object channel = new Object();
+    scheduler.submit(new TestResponse(channel, "r1", createChunk(disk1, "a", 0), createChunk(disk2, "a", 0)));
+    scheduler.submit(new TestResponse(channel, "r2", createChunk(disk1, "b", 0)));
+    // the chunks of a response are sent one by one, and the next response waits for the previous one.
+    assertEquals(Arrays.asList("r1:header", "r1:a@0"), events);
+
+    completeFirst(true);
+    assertEquals(Arrays.asList("r1:header", "r1:a@0", "r1:a@0"), events);
+    completeFirst(true);
+    assertEquals(Arrays.asList("r1:header", "r1:a@0", "r1:a@0", "r1:done", "r2:header", "r2:b@0"), events);
+    completeFirst(true);
+    assertEquals("r2:done", events.get(events.size() - 1));
+    assertEquals(0, scheduler.getOutstandingChunkNum());
+  }
+
+  @Test
+  public final void testFailure() throws IOException {
+    PullServerIOScheduler scheduler = createScheduler(4);
+    Object channel = new Object();
+    scheduler.submit(new TestResponse(channel, "r1", createChunk(disk1, "a", 0), createChunk(disk1, "a", 100)));
+    scheduler.submit(new TestResponse(channel, "r2", createChunk(disk1, "b", 0)));
+    scheduler.submit(new TestResponse(new Object(), "r3", createChunk(disk1, "c", 0)));
+
+    // a failed write drops the remaining chunks and the following responses of the channel.
+    completeFirst(false);
+    assertEquals(Arrays.asList("r1:header", "r1:a@0", "r3:header", "r3:c@0", "r1:failed", "r2:failed"), events);
+    completeFirst(true);
+    assertEquals("r3:done", events.get(events.size() - 1));
+    assertEquals(0, scheduler.getOutstandingChunkNum());
+  }
+}
@@ -18,13 +18,18 @@
 
 package org.apache.tajo.worker;
 
+import com.google.common.collect.Lists;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
 import org.apache.hadoop.net.NetUtils;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.pullserver.TajoPullServerService;
 import org.apache.tajo.rpc.RpcChannelFactory;
+import org.apache.tajo.storage.HashShuffleIndex;
 import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.util.TUtil;
 import org.apache.tajo.worker.dataserver.HttpDataServer;
 import org.apache.tajo.worker.dataserver.retriever.DataRetriever;
 import org.apache.tajo.worker.dataserver.retriever.DirectoryRetriever;
@@ -33,13 +38,19 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class TestFetcher {
   private String TEST_DATA = "target/test-data/TestFetcher";
@@ -83,6 +94,142 @@ public class TestFetcher {
     assertEquals(inStatus.getLen(), outStatus.getLen());
   }
 
+  @Test
+  public void testGetStream() throws IOException {
+    Random rnd = new Random();
+    FileWriter writer = new FileWriter(INPUT_DIR + "streamData");
+    for (int i = 0; i < 100000; i++) {
+      writer.write("" + rnd.nextInt());
+    }
+    writer.flush();
+    writer.close();
+
+    DataRetriever ret = new DirectoryRetriever(INPUT_DIR);
+    HttpDataServer server = new HttpDataServer(
+        NetUtils.createSocketAddr("127.0.0.1:0"), ret);
+    server.start();
+    InetSocketAddress addr = server.getBindAddress();
+
+    URI uri = URI.create("http://127.0.0.1:"+addr.getPort() + "/streamData");
+    ClientSocketChannelFactory channelFactory = RpcChannelFactory.createClientChannelFactory("Fetcher", 1);
+    // a small budget makes the most of data spilled.
+    ShuffleStream stream = new ShuffleStream(new File(OUTPUT_DIR + "streamData"),
+        new ShuffleStream.MemoryBudget(64 * 1024));
+    Fetcher fetcher = new Fetcher(uri, stream, channelFactory);
+    fetcher.get();
+    server.stop();
+
+    File input = new File(INPUT_DIR + "streamData");
+    assertTrue(stream.isFinished());
+    assertEquals(input.length(), stream.getContentLength());
+    assertEquals(input.length(), stream.getReceivedBytes());
+    assertTrue(stream.getSpilledBytes() > 0);
+
+    ByteBuffer received = ByteBuffer.allocate((int) input.length());
+    ReadableByteChannel channel = stream.newChannel();
+    assertEquals(input.length(), channel.read(received));
+    assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+    channel.close();
+
+    byte [] expected = new byte[(int) input.length()];
+    FileInputStream in = new FileInputStream(input);
+    IOUtils.readFully(in, expected, 0, expected.length);
+    in.close();
+    assertArrayEquals(expected, received.array());
+    stream.close();
+  }
+
+  private static byte [] writeRandomBytes(File file, int length) throws IOException {
+    byte [] bytes = new byte[length];
+    new Random().nextBytes(bytes);
+    file.getParentFile().mkdirs();
+    FileOutputStream out = new FileOutputStream(file);
+    out.write(bytes);
+    out.close();
+    return bytes;
+  }
+
+  private static byte [] readBytes(File file) throws IOException {
+    byte [] bytes = new byte[(int) file.length()];
+    FileInputStream in = new FileInputStream(file);
+    IOUtils.readFully(in, bytes, 0, bytes.length);
+    in.close();
+    return bytes;
+  }
+
+  private static byte [] concat(byte [] a, byte [] b) {
+    byte [] result = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+
+  @Test
+  public void testGetBatch() throws IOException {
+    TajoConf conf = new TajoConf();
+    String tmpDir = new File(TEST_DATA, "pull").getAbsolutePath();
+    conf.setVar(TajoConf.ConfVars.WORKER_TEMPORAL_DIR, tmpDir);
+    String qid = "q_1400000000000_0001";
+    File outputDir = new File(tmpDir, qid + "/output/1");
+
+    // the task 0_0 writes a file for each partition.
+    byte [] task0Part0 = writeRandomBytes(new File(outputDir, "0_0/output/0"), 100000);
+    byte [] task0Part1 = writeRandomBytes(new File(outputDir, "0_0/output/1"), 3000);
+    // the task 1_0 writes a consolidated file which has only the partition 0.
+    byte [] task1Data = writeRandomBytes(new File(outputDir, "1_0/output/" + HashShuffleIndex.DATA_FILE_NAME), 5000);
+    HashShuffleIndex index = new HashShuffleIndex();
+    index.add(0, 1000, 4000);
+    index.write(new File(outputDir, "1_0/output/" + HashShuffleIndex.INDEX_FILE_NAME));
+
+    TajoPullServerService pullServer = new TajoPullServerService();
+    pullServer.init(conf);
+    pullServer.start();
+
+    String prefix = "http://127.0.0.1:" + pullServer.getPort() + "/?qid=" + qid + "&sid=1&type=h";
+    List<URI> uris = TUtil.newList(
+        URI.create(prefix + "&p=0&ta=0_0,1_0"),
+        URI.create(prefix + "&p=1&ta=0_0,1_0"),
+        URI.create(prefix + "&p=2&ta=1_0"));
+    byte [][] expected = new byte[][] {
+        concat(task0Part0, Arrays.copyOfRange(task1Data, 1000, 5000)), task0Part1, new byte[0]};
+
+    ClientSocketChannelFactory channelFactory = RpcChannelFactory.createClientChannelFactory("Fetcher", 1);
+    try {
+      List<File> files = TUtil.newList(
+          new File(OUTPUT_DIR, "batch_0"), new File(OUTPUT_DIR, "batch_1"), new File(OUTPUT_DIR, "batch_2"));
+      Fetcher fetcher = new Fetcher(uris, files, null, channelFactory);
+      assertTrue(fetcher.isBatched());
+      fetcher.get();
+      assertEquals(expected[0].length + expected[1].length, fetcher.getFileLen());
+      for (int i = 0; i < files.size(); i++) {
+        assertArrayEquals(expected[i], readBytes(files.get(i)));
+      }
+
+      ShuffleStream.MemoryBudget budget = new ShuffleStream.MemoryBudget(64 * 1024);
+      List<ShuffleStream> streams = Lists.newArrayList();
+      for (int i = 0; i < uris.size(); i++) {
+        streams.add(new ShuffleStream(new File(OUTPUT_DIR, "batch_stream_" + i), budget));
+      }
+      fetcher = new Fetcher(uris, files, streams, channelFactory);
+      fetcher.get();
+      for (int i = 0; i < streams.size(); i++) {
+        ShuffleStream stream = streams.get(i);
+        assertTrue(stream.isFinished());
+        assertEquals(expected[i].length, stream.getContentLength());
+
+        ByteBuffer received = ByteBuffer.allocate(expected[i].length);
+        ReadableByteChannel channel = stream.newChannel();
+        while (received.hasRemaining() && channel.read(received) >= 0) {
+        }
+        channel.close();
+        assertArrayEquals(expected[i], received.array());
+        stream.close();
+      }
+    } finally {
+      channelFactory.releaseExternalResources();
+      pullServer.stop();
+    }
+  }
+
   @Test
   public void testAdjustFetchProcess() {
     assertEquals(0.05f, Task.adjustFetchProcess(10, 9), 0);
@@ -0,0 +1,219 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.worker;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.util.TUtil;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestShuffleStream {
+  private static final int ROW_NUM = 10000;
+  private TajoConf conf;
+  private Path testDir;
+  private Schema schema;
+  private TableMeta meta;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new TajoConf();
+    testDir = CommonTestingUtil.getTestDir("target/test-data/TestShuffleStream");
+    schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    meta = CatalogUtil.newTableMeta(StoreType.RAW);
+  }
+
+  private byte [] createRawData(String name, int start) throws IOException {
+    Path path = new Path(testDir, name);
+    Appender appender = StorageManagerFactory.getStorageManager(conf).getAppender(meta, schema, path);
+    appender.init();
+    Tuple tuple = new VTuple(2);
+    for (int i = start; i < start + ROW_NUM; i++) {
+      tuple.put(0, DatumFactory.createInt4(i));
+      tuple.put(1, DatumFactory.createText("name_" + i));
+      appender.addTuple(tuple);
+    }
+    appender.close();
+
+    File file = new File(path.toUri().getPath());
+    byte [] data = new byte[(int) file.length()];
+    FileInputStream in = new FileInputStream(file);
+    org.apache.hadoop.io.IOUtils.readFully(in, data, 0, data.length);
+    in.close();
+    return data;
+  }
+
+  /**
+   * It writes the data in small chunks from another thread like a fetcher does.
+   */
+  private static Thread startWriter(final ShuffleStream stream, final byte [] data) {
+    Thread writer = new Thread() {
+      public void run() {
+        try {
+          stream.start(data.length);
+          for (int offset = 0; offset < data.length; offset += 1000) {
+            int length = Math.min(1000, data.length - offset);
+            stream.write(ChannelBuffers.wrappedBuffer(data, offset, length));
+          }
+          stream.finish();
+        } catch (IOException e) {
+          stream.fail(e);
+        }
+      }
+    };
+    writer.start();
+    return writer;
+  }
+
+  private void assertScan(long budgetBytes) throws Exception {
+    ShuffleStream.MemoryBudget budget = new ShuffleStream.MemoryBudget(budgetBytes);
+    List<ShuffleStream> streams = new ArrayList<ShuffleStream>();
+    List<Thread> writers = new ArrayList<Thread>();
+    for (int i = 0; i < 3; i++) {
+      byte [] data = createRawData("data_" + i, i * ROW_NUM);
+      ShuffleStream stream = new ShuffleStream(new File(testDir.toUri().getPath(), "in_" + i), budget);
+      streams.add(stream);
+      writers.add(startWriter(stream, data));
+    }
+
+    ShuffleStreamScanner scanner = new ShuffleStreamScanner(conf, schema, meta, streams);
+    scanner.init();
+    // the second scan reads the retained data again.
+    for (int scan = 0; scan < 2; scan++) {
+      Tuple tuple;
+      int i = 0;
+      while ((tuple = scanner.next()) != null) {
+        assertEquals(i, tuple.get(0).asInt4());
+        assertEquals("name_" + i, tuple.get(1).asChars());
+        i++;
+      }
+      assertEquals(3 * ROW_NUM, i);
+      if (scan == 0) {
+        scanner.reset();
+      }
+    }
+    scanner.close();
+    assertEquals(3 * ROW_NUM, scanner.getInputStats().getNumRows().longValue());
+
+    for (Thread writer : writers) {
+      writer.join();
+    }
+    for (ShuffleStream stream : streams) {
+      stream.close();
+    }
+    assertEquals(budgetBytes, budget.getRemain());
+  }
+
+  @Test
+  public final void testScanInMemory() throws Exception {
+    assertScan(64 * 1024 * 1024);
+  }
+
+  @Test
+  public final void testScanWithSpill() throws Exception {
+    assertScan(100 * 1024);
+  }
+
+  @Test
+  public final void testAwaitFinishWithoutLength() throws Exception {
+    final ShuffleStream stream = new ShuffleStream(new File(testDir.toUri().getPath(), "in_chunked"),
+        new ShuffleStream.MemoryBudget(1024));
+    // a chunked response does not have its length.
+    stream.start(-1);
+    stream.write(ChannelBuffers.wrappedBuffer(new byte[10]));
+
+    Thread writer = new Thread() {
+      public void run() {
+        try {
+          Thread.sleep(100);
+          stream.write(ChannelBuffers.wrappedBuffer(new byte[20]));
+          stream.finish();
+        } catch (Exception e) {
+          stream.fail(e);
+        }
+      }
+    };
+    writer.start();
+    stream.awaitFinish();
+    assertTrue(stream.isFinished());
+    assertEquals(30, stream.getReceivedBytes());
+    writer.join();
+    stream.close();
+
+    ShuffleStream failed = new ShuffleStream(new File(testDir.toUri().getPath(), "in_chunked_failed"),
+        new ShuffleStream.MemoryBudget(1024));
+    failed.start(-1);
+    failed.fail(new IOException("connection reset"));
+    try {
+      failed.awaitFinish();
+      fail("the failure of the fetch must be propagated");
+    } catch (IOException e) {
+      assertEquals("connection reset", e.getMessage());
+    }
+    failed.close();
+  }
+
+  @Test
+  public final void testFailure() throws Exception {
+    ShuffleStream stream = new ShuffleStream(new File(testDir.toUri().getPath(), "in_failed"),
+        new ShuffleStream.MemoryBudget(1024));
+    stream.start(100);
+    stream.write(ChannelBuffers.wrappedBuffer(new byte[10]));
+
+    // the received data can be discarded before they are consumed.
+    assertTrue(stream.discardForRetry());
+    assertEquals(0, stream.getReceivedBytes());
+
+    stream.start(100);
+    stream.write(ChannelBuffers.wrappedBuffer(new byte[10]));
+    ShuffleStreamScanner scanner = new ShuffleStreamScanner(conf, schema, meta, TUtil.newList(stream));
+    scanner.init();
+    stream.fail(new IOException("connection reset"));
+    try {
+      scanner.next();
+      fail("the failure of the fetch must be propagated");
+    } catch (IOException e) {
+      assertEquals("connection reset", e.getMessage());
+    }
+    // the data already consumed by the scanner cannot be fetched again.
+    assertFalse(stream.discardForRetry());
+    scanner.close();
+    stream.close();
+  }
+}
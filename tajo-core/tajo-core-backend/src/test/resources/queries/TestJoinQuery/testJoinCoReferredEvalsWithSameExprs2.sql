@@ -19,4 +19,5 @@ group by
   ((r_regionkey + n_regionkey) / 2)
 
 order by
-  n_regionkey + n_nationkey;
\ No newline at end of file
+  n_regionkey + n_nationkey,
+  n_regionkey;
\ No newline at end of file
@@ -1 +1 @@
-select name, addr, count(1) from table1 group by name, addr;
\ No newline at end of file
+select name, addr, count(1) from table1 group by name, addr order by name, addr;
\ No newline at end of file
@@ -1 +1 @@
-select addr, count(*) from table1 group by addr;
\ No newline at end of file
+select addr, count(*) from table1 group by addr order by addr;
\ No newline at end of file
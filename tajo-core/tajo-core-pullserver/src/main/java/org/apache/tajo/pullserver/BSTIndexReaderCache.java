@@ -0,0 +1,231 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.pullserver;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.storage.index.bst.BSTIndex;
+import org.apache.tajo.storage.index.bst.BSTIndex.BSTIndexReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <code>BSTIndexReaderCache</code> keeps opened index readers of range shuffle outputs, so that the requests for the
+ * same task output do not read and decode the index file again. Readers are evicted in the LRU order when the
+ * total size of cached index files or the number of cached readers exceeds the limits, and all readers of a query
+ * are evicted when the query is cleaned up.
+ *
+ * A reader is closed only after it is evicted and all requests using it have released it. A cached reader is shared
+ * by concurrent requests, so a request should hold the lock of the {@link CachedIndexReader} during a sequence of
+ * lookups.
+ */
+public class BSTIndexReaderCache {
+  private static final Log LOG = LogFactory.getLog(BSTIndexReaderCache.class);
+
+  private final Configuration conf;
+  private final long maxBytes;
+  private final int maxReaders;
+
+  private final LinkedHashMap<String, CachedIndexReader> readers =
+      new LinkedHashMap<String, CachedIndexReader>(16, 0.75f, true);
+  private long cachedBytes = 0;
+  private long hitCount = 0;
+  private long missCount = 0;
+
+  public BSTIndexReaderCache(Configuration conf, long maxBytes, int maxReaders) {
+    this.conf = conf;
+    this.maxBytes = maxBytes;
+    this.maxReaders = maxReaders;
+  }
+
+  public static class CachedIndexReader {
+    private final String queryId;
+    private final String key;
+    private final BSTIndexReader reader;
+    private final long bytes;
+    private int refCount = 0;
+    private boolean evicted = false;
+
+    private CachedIndexReader(String queryId, String key, BSTIndexReader reader, long bytes) {
+      this.queryId = queryId;
+      this.key = key;
+      this.reader = reader;
+      this.bytes = bytes;
+    }
+
+    public BSTIndexReader getReader() {
+      return reader;
+    }
+  }
+
+  /**
+   * Returns an opened reader of the index file. The returned reader must be released by {@link #release}.
+   *
+   * @param queryId the query id which the index belongs to
+   * @param key the unique key of the index in the query, such as the subquery id and the task attempt id
+   * @param indexPath the path of the index file
+   */
+  public CachedIndexReader acquire(String queryId, String key, Path indexPath) throws IOException {
+    String cacheKey = queryId + "/" + key;
+    synchronized (this) {
+      CachedIndexReader cached = readers.get(cacheKey);
+      if (cached != null) {
+        hitCount++;
+        cached.refCount++;
+        return cached;
+      }
+      missCount++;
+    }
+
+    // the index is opened outside of the lock because it reads the index file.
+    BSTIndexReader reader = new BSTIndex(conf).getIndexReader(indexPath);
+    reader.open();
+    CachedIndexReader opened = new CachedIndexReader(queryId, cacheKey, reader, getIndexBytes(indexPath));
+
+    List<CachedIndexReader> toBeClosed = new ArrayList<CachedIndexReader>();
+    CachedIndexReader result;
+    synchronized (this) {
+      CachedIndexReader cached = readers.get(cacheKey);
+      if (cached != null) {
+        // another request has opened the same index in the meantime.
+        cached.refCount++;
+        toBeClosed.add(opened);
+        result = cached;
+      } else {
+        opened.refCount++;
+        readers.put(cacheKey, opened);
+        cachedBytes += opened.bytes;
+        evictIfNecessary(toBeClosed);
+        result = opened;
+      }
+    }
+    closeAll(toBeClosed);
+    return result;
+  }
+
+  public void release(CachedIndexReader cached) {
+    boolean close;
+    synchronized (this) {
+      cached.refCount--;
+      close = cached.evicted && cached.refCount == 0;
+    }
+    if (close) {
+      closeReader(cached);
+    }
+  }
+
+  /**
+   * Evicts all readers of the given query.
+   */
+  public void evictQuery(String queryId) {
+    List<CachedIndexReader> toBeClosed = new ArrayList<CachedIndexReader>();
+    synchronized (this) {
+      Iterator<CachedIndexReader> it = readers.values().iterator();
+      while (it.hasNext()) {
+        CachedIndexReader cached = it.next();
+        if (cached.queryId.equals(queryId)) {
+          it.remove();
+          evict(cached, toBeClosed);
+        }
+      }
+    }
+    closeAll(toBeClosed);
+  }
+
+  public void clear() {
+    List<CachedIndexReader> toBeClosed = new ArrayList<CachedIndexReader>();
+    synchronized (this) {
+      for (CachedIndexReader cached : readers.values()) {
+        evict(cached, toBeClosed);
+      }
+      readers.clear();
+    }
+    closeAll(toBeClosed);
+  }
+
+  public synchronized int size() {
+    return readers.size();
+  }
+
+  public synchronized long getCachedBytes() {
+    return cachedBytes;
+  }
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  private void evictIfNecessary(List<CachedIndexReader> toBeClosed) {
+    Iterator<Map.Entry<String, CachedIndexReader>> it = readers.entrySet().iterator();
+    // the most recently added reader is always kept even if it alone exceeds the limit.
+    while ((cachedBytes > maxBytes || readers.size() > maxReaders) && readers.size() > 1) {
+      CachedIndexReader eldest = it.next().getValue();
+      it.remove();
+      evict(eldest, toBeClosed);
+    }
+  }
+
+  private void evict(CachedIndexReader cached, List<CachedIndexReader> toBeClosed) {
+    cached.evicted = true;
+    cachedBytes -= cached.bytes;
+    if (cached.refCount == 0) {
+      toBeClosed.add(cached);
+    }
+  }
+
+  private static void closeAll(List<CachedIndexReader> toBeClosed) {
+    for (CachedIndexReader cached : toBeClosed) {
+      closeReader(cached);
+    }
+  }
+
+  private static void closeReader(CachedIndexReader cached) {
+    try {
+      cached.reader.close();
+    } catch (IOException e) {
+      LOG.warn("Cannot close the index reader of " + cached.key, e);
+    }
+  }
+
+  /**
+   * The in-memory part of a two level index is the root index, and a one level index is entirely loaded.
+   */
+  private long getIndexBytes(Path indexPath) throws IOException {
+    FileSystem fs = indexPath.getFileSystem(conf);
+    Path rootPath = new Path(indexPath + ".root");
+    if (fs.exists(rootPath)) {
+      return fs.getFileStatus(rootPath).getLen();
+    } else {
+      return fs.getFileStatus(indexPath).getLen();
+    }
+  }
+}
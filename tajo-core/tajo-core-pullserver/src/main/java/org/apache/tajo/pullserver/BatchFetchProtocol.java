@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.pullserver;
+
+import org.apache.tajo.pullserver.retriever.FileChunk;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.handler.codec.http.*;
+import org.jboss.netty.util.CharsetUtil;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.jboss.netty.handler.codec.http.HttpHeaders.setContentLength;
+import static org.jboss.netty.handler.codec.http.HttpResponseStatus.OK;
+import static org.jboss.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+
+/**
+ * BatchFetchProtocol describes a batched fetch, which requests the data of many fetch uris from a pull server in a
+ * single HTTP request.
+ *
+ * The request is a POST request to {@link #BATCH_PATH}. Its content has one line for each part, and each line is the
+ * query string of the GET request which fetches the part alone. The content of the response starts with the number
+ * of parts (int) and the length of each part (long) in the order of the request, and the data of the parts follow
+ * one after another.
+ */
+public class BatchFetchProtocol {
+  public static final String BATCH_PATH = "/batch";
+
+  public static boolean isBatchRequest(HttpRequest request) {
+    return request.getMethod() == HttpMethod.POST
+        && BATCH_PATH.equals(new QueryStringDecoder(request.getUri()).getPath());
+  }
+
+  public static HttpRequest newRequest(String host, List<URI> uris) {
+    StringBuilder sb = new StringBuilder();
+    for (URI uri : uris) {
+      sb.append(uri.getRawQuery()).append('\n');
+    }
+    ChannelBuffer content = ChannelBuffers.copiedBuffer(sb, CharsetUtil.UTF_8);
+
+    HttpRequest request = new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, BATCH_PATH);
+    request.setHeader(HttpHeaders.Names.HOST, host);
+    request.setHeader(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.CLOSE);
+    setContentLength(request, content.readableBytes());
+    request.setContent(content);
+    return request;
+  }
+
+  /**
+   * @return the parameters of each part in the order of the request
+   */
+  public static List<Map<String, List<String>>> decodeRequest(HttpRequest request) {
+    String content = request.getContent().toString(CharsetUtil.UTF_8);
+    List<Map<String, List<String>>> parts = new ArrayList<Map<String, List<String>>>();
+    for (String line : content.split("\n")) {
+      if (!line.isEmpty()) {
+        parts.add(new QueryStringDecoder("?" + line).getParameters());
+      }
+    }
+    return parts;
+  }
+
+  /**
+   * Creates the response header of a batched fetch. Its content is the length table of the parts, and the data of
+   * the parts should be written after it.
+   */
+  public static HttpResponse newResponse(List<List<FileChunk>> parts) {
+    ChannelBuffer lengths = ChannelBuffers.buffer(getLengthTableSize(parts.size()));
+    lengths.writeInt(parts.size());
+    long totalSize = lengths.capacity();
+    for (List<FileChunk> chunks : parts) {
+      long partSize = 0;
+      for (FileChunk chunk : chunks) {
+        partSize += chunk.length();
+      }
+      lengths.writeLong(partSize);
+      totalSize += partSize;
+    }
+
+    HttpResponse response = new DefaultHttpResponse(HTTP_1_1, OK);
+    setContentLength(response, totalSize);
+    response.setContent(lengths);
+    return response;
+  }
+
+  public static int getLengthTableSize(int partNum) {
+    return 4 + 8 * partNum;
+  }
+}
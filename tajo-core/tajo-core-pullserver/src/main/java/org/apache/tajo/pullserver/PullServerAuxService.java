@@ -311,7 +311,8 @@ public class PullServerAuxService extends AuxiliaryService {
         pipeline.addLast("ssl", new SslHandler(sslFactory.createSSLEngine()));
       }
       pipeline.addLast("decoder", new HttpRequestDecoder());
-      pipeline.addLast("aggregator", new HttpChunkAggregator(1 << 16));
+      // a batched fetch request carries the query strings of its parts in the content.
+      pipeline.addLast("aggregator", new HttpChunkAggregator(1 << 20));
       pipeline.addLast("encoder", new HttpResponseEncoder());
       pipeline.addLast("chunking", new ChunkedWriteHandler());
       pipeline.addLast("shuffle", PullServer);
@@ -352,6 +353,10 @@ public class PullServerAuxService extends AuxiliaryService {
         throws Exception {
 
       HttpRequest request = (HttpRequest) e.getMessage();
+      if (BatchFetchProtocol.isBatchRequest(request)) {
+        sendBatch(ctx, e, request);
+        return;
+      }
       if (request.getMethod() != GET) {
         sendError(ctx, METHOD_NOT_ALLOWED);
         return;
@@ -423,14 +428,8 @@ public class PullServerAuxService extends AuxiliaryService {
 
         // if a subquery requires a hash repartition
       } else if (repartitionType.equals("h")) {
-        for (String ta : taskIds) {
-          Path path = localFS.makeQualified(
-              lDirAlloc.getLocalPathToRead(queryBaseDir + "/" + sid + "/" +
-                  ta + "/output/" + partitionId, conf));
-          File file = new File(path.toUri());
-          FileChunk chunk = new FileChunk(file, 0, file.length());
-          chunks.add(chunk);
-        }
+        chunks.addAll(TajoPullServerService.getHashShuffleChunks(lDirAlloc, localFS, conf, queryBaseDir, sid,
+            Integer.parseInt(partitionId), taskIds));
       } else {
         LOG.error("Unknown repartition type: " + repartitionType);
         return;
@@ -474,6 +473,44 @@ public class PullServerAuxService extends AuxiliaryService {
       }
     }
 
+    /**
+     * Sends the data of all parts of a batched fetch request in a single response. Only hash shuffle parts can be
+     * batched.
+     */
+    private void sendBatch(ChannelHandlerContext ctx, MessageEvent e, HttpRequest request) throws IOException {
+      List<List<FileChunk>> parts = Lists.newArrayList();
+      for (Map<String, List<String>> params : BatchFetchProtocol.decodeRequest(request)) {
+        List<String> types = params.get("type");
+        List<String> subQueryIds = params.get("sid");
+        List<String> partitionIds = params.get("p");
+        List<String> taskIdList = params.get("ta");
+        if (types == null || subQueryIds == null || partitionIds == null || taskIdList == null
+            || !types.get(0).equals("h")) {
+          sendError(ctx, "Required subquery Id, partition id and taskIds of hash repartitions", BAD_REQUEST);
+          return;
+        }
+        parts.add(TajoPullServerService.getHashShuffleChunks(lDirAlloc, localFS, conf, queryId + "/output",
+            subQueryIds.get(0), Integer.parseInt(partitionIds.get(0)), splitMaps(taskIdList)));
+      }
+      LOG.info("PullServer batched request: " + parts.size() + " parts");
+
+      Channel ch = e.getChannel();
+      ChannelFuture writeFuture = ch.write(BatchFetchProtocol.newResponse(parts));
+      for (List<FileChunk> chunks : parts) {
+        for (FileChunk chunk : chunks) {
+          writeFuture = sendFile(ctx, ch, chunk);
+          if (writeFuture == null) {
+            sendError(ctx, NOT_FOUND);
+            return;
+          }
+        }
+      }
+
+      if (!isKeepAlive(request)) {
+        writeFuture.addListener(ChannelFutureListener.CLOSE);
+      }
+    }
+
     private ChannelFuture sendFile(ChannelHandlerContext ctx,
                                    Channel ch,
                                    FileChunk file) throws IOException {
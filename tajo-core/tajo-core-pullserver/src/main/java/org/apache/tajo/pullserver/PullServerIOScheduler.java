@@ -0,0 +1,388 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.pullserver;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.ReadaheadPool;
+import org.apache.tajo.pullserver.retriever.FileChunk;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.*;
+
+/**
+ * <code>PullServerIOScheduler</code> schedules the file chunks of shuffle responses per local disk. When many
+ * reducers fetch concurrently, serving every request independently makes the disk seek back and forth. Instead,
+ * the outstanding chunks of each disk are queued and sent in the order of file and offset in a circular scan, and
+ * only a limited number of chunks of a disk are sent at the same time. The chunks which are sent next are read
+ * ahead while the current chunks are being sent.
+ *
+ * The chunks of a response are sent one by one in their order, and the responses of a channel are sent in the
+ * order of submission.
+ */
+public class PullServerIOScheduler {
+  private static final Log LOG = LogFactory.getLog(PullServerIOScheduler.class);
+
+  private final List<String> diskRoots = new ArrayList<String>();
+  private final Map<String, DiskQueue> disks = new HashMap<String, DiskQueue>();
+  private final Map<Object, LinkedList<Response>> channelResponses = new HashMap<Object, LinkedList<Response>>();
+  private final int maxInFlight;
+  private final int readaheadNum;
+  private final int readaheadLength;
+  private final ReadaheadPool readaheadPool;
+  private long sequence = 0;
+
+  // the actions triggered while another action is running in the same thread are deferred to avoid deep recursions
+  // when writes complete immediately.
+  private final ThreadLocal<LinkedList<Runnable>> deferredActions = new ThreadLocal<LinkedList<Runnable>>();
+
+  /**
+   * @param localDirs the local directories each of which is regarded as a disk
+   * @param maxInFlight the maximum number of chunks of a disk being sent at the same time
+   * @param readaheadNum the number of chunks to be read ahead in each disk
+   * @param readaheadLength the maximum number of bytes to be read ahead for a chunk
+   * @param readaheadPool the pool issuing readahead requests, or null if it is not available
+   */
+  public PullServerIOScheduler(Collection<String> localDirs, int maxInFlight, int readaheadNum, int readaheadLength,
+                               ReadaheadPool readaheadPool) {
+    for (String dir : localDirs) {
+      diskRoots.add(new File(new Path(dir.trim()).toUri().getPath()).getAbsolutePath());
+    }
+    // a nested directory should be matched first.
+    Collections.sort(diskRoots, new Comparator<String>() {
+      @Override
+      public int compare(String r1, String r2) {
+        return r2.length() - r1.length();
+      }
+    });
+    this.maxInFlight = Math.max(1, maxInFlight);
+    this.readaheadNum = readaheadNum;
+    this.readaheadLength = readaheadLength;
+    this.readaheadPool = readaheadPool;
+  }
+
+  /**
+   * A response consisting of a header and file chunks. The callbacks are called without holding any lock of
+   * the scheduler.
+   */
+  public abstract static class Response {
+    private final Object channelKey;
+    private final List<FileChunk> chunks;
+    private int nextChunk = 0;
+
+    /**
+     * @param channelKey the key identifying the channel, such as the channel itself
+     */
+    protected Response(Object channelKey, List<FileChunk> chunks) {
+      this.channelKey = channelKey;
+      this.chunks = chunks;
+    }
+
+    /**
+     * It writes the response header. It is called after all previous responses of the channel are written.
+     */
+    protected abstract void writeHeader();
+
+    /**
+     * It writes a chunk with the opened file. The implementation is responsible for closing the file.
+     *
+     * @return the future of the write, or null if the chunk cannot be written
+     */
+    protected abstract ChannelFuture writeChunk(FileChunk chunk, RandomAccessFile file) throws IOException;
+
+    /**
+     * It is called once after all chunks are written or a write fails.
+     */
+    protected abstract void complete(boolean success);
+  }
+
+  private class ChunkRequest implements Comparable<ChunkRequest> {
+    private final Response response;
+    private final FileChunk chunk;
+    private final String path;
+    private final long sequence;
+    private RandomAccessFile file;
+    private boolean readahead = false;
+
+    ChunkRequest(Response response, FileChunk chunk, long sequence) {
+      this.response = response;
+      this.chunk = chunk;
+      this.path = chunk.getFile().getAbsolutePath();
+      this.sequence = sequence;
+    }
+
+    synchronized RandomAccessFile open() throws IOException {
+      if (file == null) {
+        file = new RandomAccessFile(chunk.getFile(), "r");
+      }
+      return file;
+    }
+
+    synchronized void close() {
+      if (file != null) {
+        try {
+          file.close();
+        } catch (IOException e) {
+          LOG.warn("Cannot close " + path, e);
+        }
+        file = null;
+      }
+    }
+
+    @Override
+    public int compareTo(ChunkRequest other) {
+      int cmp = path.compareTo(other.path);
+      if (cmp == 0) {
+        cmp = Long.valueOf(chunk.startOffset).compareTo(other.chunk.startOffset);
+      }
+      if (cmp == 0) {
+        cmp = Long.valueOf(sequence).compareTo(other.sequence);
+      }
+      return cmp;
+    }
+  }
+
+  private class DiskQueue {
+    private final TreeSet<ChunkRequest> pending = new TreeSet<ChunkRequest>();
+    private ChunkRequest cursor;
+    private int inFlight = 0;
+
+    /**
+     * It takes the chunks to be sent in the scan order, and marks the chunks following them to be read ahead.
+     */
+    void poll(List<ChunkRequest> ready, List<ChunkRequest> readaheads) {
+      while (inFlight < maxInFlight && !pending.isEmpty()) {
+        ChunkRequest next = cursor == null ? null : pending.ceiling(cursor);
+        if (next == null) {
+          next = pending.first();
+        }
+        pending.remove(next);
+        cursor = next;
+        inFlight++;
+        ready.add(next);
+      }
+
+      if (readaheadPool != null && cursor != null) {
+        Iterator<ChunkRequest> it = pending.tailSet(cursor, false).iterator();
+        for (int i = 0; i < readaheadNum && i < pending.size(); i++) {
+          if (!it.hasNext()) {
+            it = pending.iterator();
+          }
+          ChunkRequest upcoming = it.next();
+          if (!upcoming.readahead) {
+            upcoming.readahead = true;
+            readaheads.add(upcoming);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * It submits a response. The response is started immediately unless a previous response of the same channel
+   * is still being written.
+   */
+  public void submit(final Response response) {
+    boolean start;
+    synchronized (this) {
+      LinkedList<Response> responses = channelResponses.get(response.channelKey);
+      start = responses == null;
+      if (start) {
+        responses = new LinkedList<Response>();
+        channelResponses.put(response.channelKey, responses);
+      }
+      responses.add(response);
+    }
+
+    if (start) {
+      execute(new Runnable() {
+        @Override
+        public void run() {
+          startResponse(response);
+        }
+      });
+    }
+  }
+
+  private void execute(Runnable action) {
+    LinkedList<Runnable> actions = deferredActions.get();
+    if (actions != null) {
+      actions.add(action);
+      return;
+    }
+
+    actions = new LinkedList<Runnable>();
+    deferredActions.set(actions);
+    try {
+      action.run();
+      while (!actions.isEmpty()) {
+        actions.removeFirst().run();
+      }
+    } finally {
+      deferredActions.remove();
+    }
+  }
+
+  private void startResponse(Response response) {
+    response.writeHeader();
+    if (response.chunks.isEmpty()) {
+      finishResponse(response, true);
+    } else {
+      enqueueNextChunk(response);
+    }
+  }
+
+  private void enqueueNextChunk(Response response) {
+    FileChunk chunk = response.chunks.get(response.nextChunk++);
+    List<ChunkRequest> ready = new ArrayList<ChunkRequest>();
+    List<ChunkRequest> readaheads = new ArrayList<ChunkRequest>();
+    synchronized (this) {
+      ChunkRequest request = new ChunkRequest(response, chunk, sequence++);
+      DiskQueue disk = getDiskQueue(request.path);
+      disk.pending.add(request);
+      disk.poll(ready, readaheads);
+    }
+    dispatch(ready, readaheads);
+  }
+
+  private DiskQueue getDiskQueue(String path) {
+    String diskRoot = "";
+    for (String root : diskRoots) {
+      if (path.startsWith(root)) {
+        diskRoot = root;
+        break;
+      }
+    }
+
+    DiskQueue disk = disks.get(diskRoot);
+    if (disk == null) {
+      disk = new DiskQueue();
+      disks.put(diskRoot, disk);
+    }
+    return disk;
+  }
+
+  private void dispatch(List<ChunkRequest> ready, List<ChunkRequest> readaheads) {
+    for (ChunkRequest request : ready) {
+      send(request);
+    }
+    for (ChunkRequest request : readaheads) {
+      readahead(request);
+    }
+  }
+
+  private void readahead(ChunkRequest request) {
+    try {
+      RandomAccessFile file = request.open();
+      readaheadPool.readaheadStream(request.path, file.getFD(), request.chunk.startOffset,
+          Math.min(readaheadLength, request.chunk.length), request.chunk.startOffset + request.chunk.length, null);
+    } catch (IOException e) {
+      // the error is reported when the chunk is sent.
+      LOG.debug("Cannot read ahead " + request.path, e);
+    }
+  }
+
+  private void send(final ChunkRequest request) {
+    ChannelFuture future;
+    try {
+      future = request.response.writeChunk(request.chunk, request.open());
+    } catch (IOException e) {
+      LOG.warn("Cannot send " + request.chunk, e);
+      future = null;
+    }
+
+    if (future == null) {
+      request.close();
+      chunkDone(request, false);
+    } else {
+      future.addListener(new ChannelFutureListener() {
+        @Override
+        public void operationComplete(final ChannelFuture future) {
+          execute(new Runnable() {
+            @Override
+            public void run() {
+              chunkDone(request, future.isSuccess());
+            }
+          });
+        }
+      });
+    }
+  }
+
+  private void chunkDone(ChunkRequest request, boolean success) {
+    List<ChunkRequest> ready = new ArrayList<ChunkRequest>();
+    List<ChunkRequest> readaheads = new ArrayList<ChunkRequest>();
+    synchronized (this) {
+      DiskQueue disk = getDiskQueue(request.path);
+      disk.inFlight--;
+      disk.poll(ready, readaheads);
+    }
+    dispatch(ready, readaheads);
+
+    Response response = request.response;
+    if (success && response.nextChunk < response.chunks.size()) {
+      enqueueNextChunk(response);
+    } else {
+      finishResponse(response, success);
+    }
+  }
+
+  private void finishResponse(Response response, boolean success) {
+    response.complete(success);
+
+    Response next = null;
+    List<Response> dropped = Collections.emptyList();
+    synchronized (this) {
+      LinkedList<Response> responses = channelResponses.get(response.channelKey);
+      responses.removeFirst();
+      if (!success) {
+        // the channel cannot be used any more.
+        dropped = responses;
+        channelResponses.remove(response.channelKey);
+      } else if (responses.isEmpty()) {
+        channelResponses.remove(response.channelKey);
+      } else {
+        next = responses.getFirst();
+      }
+    }
+
+    for (Response eachDropped : dropped) {
+      eachDropped.complete(false);
+    }
+    if (next != null) {
+      startResponse(next);
+    }
+  }
+
+  /**
+   * @return the number of chunks queued or being sent
+   */
+  public synchronized int getOutstandingChunkNum() {
+    int num = 0;
+    for (DiskQueue disk : disks.values()) {
+      num += disk.pending.size() + disk.inFlight;
+    }
+    return num;
+  }
+}
@@ -18,6 +18,7 @@
 
 package org.apache.tajo.pullserver;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.logging.Log;
@@ -45,6 +46,7 @@ import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.pullserver.retriever.FileChunk;
 import org.apache.tajo.rpc.RpcChannelFactory;
+import org.apache.tajo.storage.HashShuffleIndex;
 import org.apache.tajo.storage.RowStoreUtil;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.TupleComparator;
@@ -67,7 +69,10 @@ import java.io.RandomAccessFile;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -91,6 +96,24 @@ public class TajoPullServerService extends AbstractService {
   public static final String SHUFFLE_READAHEAD_BYTES = "tajo.pullserver.readahead.bytes";
   public static final int DEFAULT_SHUFFLE_READAHEAD_BYTES = 4 * 1024 * 1024;
 
+  public static final String INDEX_CACHE_SIZE_BYTES = "tajo.pullserver.index-cache.size.bytes";
+  public static final long DEFAULT_INDEX_CACHE_SIZE_BYTES = 64 * 1024 * 1024;
+
+  public static final String INDEX_CACHE_MAX_READERS = "tajo.pullserver.index-cache.max-readers";
+  public static final int DEFAULT_INDEX_CACHE_MAX_READERS = 1024;
+
+  public static final String IO_SCHEDULER_ENABLED = "tajo.pullserver.io-scheduler.enabled";
+  public static final boolean DEFAULT_IO_SCHEDULER_ENABLED = true;
+
+  public static final String IO_SCHEDULER_DISK_MAX_INFLIGHT = "tajo.pullserver.io-scheduler.disk.max-inflight-chunks";
+  public static final int DEFAULT_IO_SCHEDULER_DISK_MAX_INFLIGHT = 8;
+
+  public static final String IO_SCHEDULER_READAHEAD_CHUNKS = "tajo.pullserver.io-scheduler.readahead-chunks";
+  public static final int DEFAULT_IO_SCHEDULER_READAHEAD_CHUNKS = 2;
+
+  public static final String SHUFFLE_MMAP_MAX_BYTES = "tajo.pullserver.mmap.max-bytes";
+  public static final long DEFAULT_SHUFFLE_MMAP_MAX_BYTES = 0;
+
   private int port;
   private ChannelFactory selector;
   private final ChannelGroup accepted = new DefaultChannelGroup();
@@ -107,6 +130,11 @@ public class TajoPullServerService extends AbstractService {
   private boolean manageOsCache;
   private int readaheadLength;
   private ReadaheadPool readaheadPool = ReadaheadPool.getInstance();
+  /**
+   * The chunks not larger than this are sent from memory-mapped buffers. 0 disables it.
+   */
+  private long mmapMaxBytes;
+  private BSTIndexReaderCache indexCache;
 
 
   public static final String PULLSERVER_SERVICEID = "tajo.pullserver";
@@ -130,6 +158,19 @@ public class TajoPullServerService extends AbstractService {
     MutableCounterInt shuffleOutputsOK;
     @Metric({"Connections","# of current shuffle connections"})
     MutableGaugeInt shuffleConnections;
+    BSTIndexReaderCache indexCache;
+
+    @Metric(value={"IndexCacheHits","# of range shuffle requests served by cached index readers"},
+        type=Metric.Type.COUNTER)
+    public long getIndexCacheHits() {
+      return indexCache == null ? 0 : indexCache.getHitCount();
+    }
+
+    @Metric(value={"IndexCacheMisses","# of range shuffle requests which opened index readers"},
+        type=Metric.Type.COUNTER)
+    public long getIndexCacheMisses() {
+      return indexCache == null ? 0 : indexCache.getMissCount();
+    }
 
     @Override
     public void operationComplete(ChannelFuture future) throws Exception {
@@ -199,12 +240,18 @@ public class TajoPullServerService extends AbstractService {
       readaheadLength = conf.getInt(SHUFFLE_READAHEAD_BYTES,
           DEFAULT_SHUFFLE_READAHEAD_BYTES);
 
+      mmapMaxBytes = conf.getLong(SHUFFLE_MMAP_MAX_BYTES, DEFAULT_SHUFFLE_MMAP_MAX_BYTES);
+
       int workerNum = conf.getInt("tajo.shuffle.rpc.server.io-thread-num",
           Runtime.getRuntime().availableProcessors() * 2);
 
       selector = RpcChannelFactory.createServerChannelFactory("PullServerAuxService", workerNum);
 
       localFS = new LocalFileSystem();
+      indexCache = new BSTIndexReaderCache(new TajoConf(conf),
+          conf.getLong(INDEX_CACHE_SIZE_BYTES, DEFAULT_INDEX_CACHE_SIZE_BYTES),
+          conf.getInt(INDEX_CACHE_MAX_READERS, DEFAULT_INDEX_CACHE_MAX_READERS));
+      metrics.indexCache = indexCache;
       super.init(new Configuration(conf));
 
       this.getConfig().setInt(TajoConf.ConfVars.PULLSERVER_PORT.varname
@@ -244,6 +291,15 @@ public class TajoPullServerService extends AbstractService {
     return port;
   }
 
+  /**
+   * Releases the resources kept for the shuffle outputs of a finished query.
+   */
+  public void cleanupQuery(String queryId) {
+    if (indexCache != null) {
+      indexCache.evictQuery(queryId);
+    }
+  }
+
   @Override
   public synchronized void stop() {
     try {
@@ -252,6 +308,7 @@ public class TajoPullServerService extends AbstractService {
       bootstrap.releaseExternalResources();
       pipelineFact.destroy();
 
+      indexCache.clear();
       localFS.close();
     } catch (Throwable t) {
       LOG.error(t);
@@ -297,7 +354,8 @@ public class TajoPullServerService extends AbstractService {
         pipeline.addLast("ssl", new SslHandler(sslFactory.createSSLEngine()));
       }
       pipeline.addLast("decoder", new HttpRequestDecoder());
-      pipeline.addLast("aggregator", new HttpChunkAggregator(1 << 16));
+      // a batched fetch request carries the query strings of its parts in the content.
+      pipeline.addLast("aggregator", new HttpChunkAggregator(1 << 20));
       pipeline.addLast("encoder", new HttpResponseEncoder());
       pipeline.addLast("chunking", new ChunkedWriteHandler());
       pipeline.addLast("shuffle", PullServer);
@@ -315,12 +373,21 @@ public class TajoPullServerService extends AbstractService {
     private final LocalDirAllocator lDirAlloc =
       new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
     private int port;
+    private final PullServerIOScheduler ioScheduler;
 
     public PullServer(Configuration conf) {
       this.conf = conf;
 //      indexCache = new IndexCache(new JobConf(conf));
       this.port = conf.getInt(ConfVars.PULLSERVER_PORT.varname,
           ConfVars.PULLSERVER_PORT.defaultIntVal);
+      if (conf.getBoolean(IO_SCHEDULER_ENABLED, DEFAULT_IO_SCHEDULER_ENABLED)) {
+        ioScheduler = new PullServerIOScheduler(conf.getTrimmedStringCollection(ConfVars.WORKER_TEMPORAL_DIR.varname),
+            conf.getInt(IO_SCHEDULER_DISK_MAX_INFLIGHT, DEFAULT_IO_SCHEDULER_DISK_MAX_INFLIGHT),
+            conf.getInt(IO_SCHEDULER_READAHEAD_CHUNKS, DEFAULT_IO_SCHEDULER_READAHEAD_CHUNKS),
+            readaheadLength, readaheadPool);
+      } else {
+        ioScheduler = null;
+      }
     }
     
     public void setPort(int port) {
@@ -353,6 +420,10 @@ public class TajoPullServerService extends AbstractService {
         throws Exception {
 
       HttpRequest request = (HttpRequest) e.getMessage();
+      if (BatchFetchProtocol.isBatchRequest(request)) {
+        sendBatch(ctx, e, request);
+        return;
+      }
       if (request.getMethod() != GET) {
         sendError(ctx, METHOD_NOT_ALLOWED);
         return;
@@ -408,7 +479,7 @@ public class TajoPullServerService extends AbstractService {
 
         FileChunk chunk;
         try {
-          chunk = getFileCunks(path, startKey, endKey, last);
+          chunk = getFileCunks(queryId, sid + "/" + ta, path, startKey, endKey, last);
         } catch (Throwable t) {
           LOG.error("ERROR Request: " + request.getUri(), t);
           sendError(ctx, "Cannot get file chunks to be sent", BAD_REQUEST);
@@ -420,14 +491,8 @@ public class TajoPullServerService extends AbstractService {
 
         // if a subquery requires a hash shuffle
       } else if (shuffleType.equals("h")) {
-        for (String ta : taskIds) {
-          Path path = localFS.makeQualified(
-              lDirAlloc.getLocalPathToRead(queryBaseDir + "/" + sid + "/" +
-                  ta + "/output/" + partId, conf));
-          File file = new File(path.toUri());
-          FileChunk chunk = new FileChunk(file, 0, file.length());
-          chunks.add(chunk);
-        }
+        chunks.addAll(getHashShuffleChunks(lDirAlloc, localFS, conf, queryBaseDir, sid, Integer.parseInt(partId),
+            taskIds));
       } else {
         LOG.error("Unknown shuffle type: " + shuffleType);
         return;
@@ -450,6 +515,11 @@ public class TajoPullServerService extends AbstractService {
         }
         setContentLength(response, totalSize);
 
+        if (ioScheduler != null) {
+          ioScheduler.submit(new ScheduledResponse(ch, response, Arrays.asList(file), isKeepAlive(request)));
+          return;
+        }
+
         // Write the initial line and the header.
         ch.write(response);
 
@@ -471,6 +541,89 @@ public class TajoPullServerService extends AbstractService {
       }
     }
 
+    /**
+     * Sends the data of all parts of a batched fetch request in a single response. Only hash shuffle parts can be
+     * batched.
+     */
+    private void sendBatch(ChannelHandlerContext ctx, MessageEvent e, HttpRequest request) throws IOException {
+      List<List<FileChunk>> parts = Lists.newArrayList();
+      for (Map<String, List<String>> params : BatchFetchProtocol.decodeRequest(request)) {
+        List<String> types = params.get("type");
+        List<String> qids = params.get("qid");
+        List<String> subQueryIds = params.get("sid");
+        List<String> partIds = params.get("p");
+        List<String> taskIdList = params.get("ta");
+        if (types == null || qids == null || subQueryIds == null || partIds == null || taskIdList == null
+            || !types.get(0).equals("h")) {
+          sendError(ctx, "Required qid, sid, part id and taskIds of hash shuffles", BAD_REQUEST);
+          return;
+        }
+        parts.add(getHashShuffleChunks(lDirAlloc, localFS, conf, qids.get(0) + "/output", subQueryIds.get(0),
+            Integer.parseInt(partIds.get(0)), splitMaps(taskIdList)));
+      }
+      LOG.info("PullServer batched request: " + parts.size() + " parts");
+
+      Channel ch = e.getChannel();
+      if (ioScheduler != null) {
+        List<FileChunk> chunks = Lists.newArrayList();
+        for (List<FileChunk> partChunks : parts) {
+          chunks.addAll(partChunks);
+        }
+        ioScheduler.submit(new ScheduledResponse(ch, BatchFetchProtocol.newResponse(parts), chunks,
+            isKeepAlive(request)));
+        return;
+      }
+
+      ChannelFuture writeFuture = ch.write(BatchFetchProtocol.newResponse(parts));
+      for (List<FileChunk> chunks : parts) {
+        for (FileChunk chunk : chunks) {
+          writeFuture = sendFile(ctx, ch, chunk);
+          if (writeFuture == null) {
+            sendError(ctx, NOT_FOUND);
+            return;
+          }
+        }
+      }
+
+      if (!isKeepAlive(request)) {
+        writeFuture.addListener(ChannelFutureListener.CLOSE);
+      }
+    }
+
+    /**
+     * A response whose chunks are sent in the order decided by the I/O scheduler. If a chunk cannot be sent after
+     * the header is written, the connection is closed because the response cannot be completed any more.
+     */
+    private class ScheduledResponse extends PullServerIOScheduler.Response {
+      private final Channel ch;
+      private final HttpResponse header;
+      private final boolean keepAlive;
+
+      ScheduledResponse(Channel ch, HttpResponse header, List<FileChunk> chunks, boolean keepAlive) {
+        super(ch, chunks);
+        this.ch = ch;
+        this.header = header;
+        this.keepAlive = keepAlive;
+      }
+
+      @Override
+      protected void writeHeader() {
+        ch.write(header);
+      }
+
+      @Override
+      protected ChannelFuture writeChunk(FileChunk chunk, RandomAccessFile file) throws IOException {
+        return sendFile(ch, chunk, file);
+      }
+
+      @Override
+      protected void complete(boolean success) {
+        if (!success || !keepAlive) {
+          ch.close();
+        }
+      }
+    }
+
     private ChannelFuture sendFile(ChannelHandlerContext ctx,
                                    Channel ch,
                                    FileChunk file) throws IOException {
@@ -481,8 +634,21 @@ public class TajoPullServerService extends AbstractService {
         LOG.info(file.getFile() + " not found");
         return null;
       }
+      return sendFile(ch, file, spill);
+    }
+
+    private ChannelFuture sendFile(Channel ch, FileChunk file, RandomAccessFile spill) throws IOException {
       ChannelFuture writeFuture;
-      if (ch.getPipeline().get(SslHandler.class) == null) {
+      if (mmapMaxBytes > 0 && file.length() <= mmapMaxBytes) {
+        // small outputs are served from memory-mapped buffers instead of being transferred by sendfile.
+        MappedByteBuffer buffer;
+        try {
+          buffer = spill.getChannel().map(FileChannel.MapMode.READ_ONLY, file.startOffset, file.length());
+        } finally {
+          spill.close();
+        }
+        writeFuture = ch.write(ChannelBuffers.wrappedBuffer(buffer));
+      } else if (ch.getPipeline().get(SslHandler.class) == null) {
         final FadvisedFileRegion filePart = new FadvisedFileRegion(spill,
             file.startOffset, file.length(), manageOsCache, readaheadLength,
             readaheadPool, file.getFile().getAbsolutePath());
@@ -542,20 +708,87 @@ public class TajoPullServerService extends AbstractService {
     }
   }
 
-  public FileChunk getFileCunks(Path outDir,
-                                      String startKey,
-                                      String endKey,
-                                      boolean last) throws IOException {
-    BSTIndex index = new BSTIndex(new TajoConf());
-    BSTIndex.BSTIndexReader idxReader =
-        index.getIndexReader(new Path(outDir, "index"));
-    idxReader.open();
+  /**
+   * Returns the file chunk of a hash shuffle partition written by a task. If the task wrote a consolidated output,
+   * the chunk is the byte range of the partition in the data file, and it returns null if the partition is empty.
+   * Otherwise, the chunk is the whole file of the partition.
+   */
+  public static FileChunk getHashShuffleChunk(LocalDirAllocator lDirAlloc, FileSystem localFS, Configuration conf,
+                                              String outputDir, int partId) throws IOException {
+    // LocalDirAllocator::ifExists() cannot be called before the allocator reads the local dirs.
+    File dir = new File(localFS.makeQualified(lDirAlloc.getLocalPathToRead(outputDir, conf)).toUri());
+    File indexFile = new File(dir, HashShuffleIndex.INDEX_FILE_NAME);
+    if (indexFile.exists()) {
+      HashShuffleIndex index = HashShuffleIndex.read(indexFile);
+      int idx = index.find(partId);
+      if (idx < 0) {
+        return null;
+      }
+      File dataFile = new File(indexFile.getParentFile(), HashShuffleIndex.DATA_FILE_NAME);
+      return new FileChunk(dataFile, index.getOffset(idx), index.getLength(idx));
+    }
+
+    Path path = localFS.makeQualified(lDirAlloc.getLocalPathToRead(outputDir + "/" + partId, conf));
+    File file = new File(path.toUri());
+    return new FileChunk(file, 0, file.length());
+  }
+
+  /**
+   * Returns the file chunks of a hash shuffle partition written by the given tasks of a subquery.
+   */
+  public static List<FileChunk> getHashShuffleChunks(LocalDirAllocator lDirAlloc, FileSystem localFS,
+                                                     Configuration conf, String queryBaseDir, String sid, int partId,
+                                                     List<String> taskIds) throws IOException {
+    List<FileChunk> chunks = Lists.newArrayList();
+    for (String ta : taskIds) {
+      FileChunk chunk = getHashShuffleChunk(lDirAlloc, localFS, conf, queryBaseDir + "/" + sid + "/" + ta + "/output",
+          partId);
+      if (chunk != null) {
+        chunks.add(chunk);
+      }
+    }
+    return chunks;
+  }
+
+  public FileChunk getFileCunks(String queryId,
+                                String indexKey,
+                                Path outDir,
+                                String startKey,
+                                String endKey,
+                                boolean last) throws IOException {
+    return getFileCunks(indexCache, queryId, indexKey, outDir, startKey, endKey, last);
+  }
+
+  /**
+   * A cached index reader is shared by the concurrent requests for the same output, and each lookup moves
+   * the cursors of the reader. So, the start and the end keys are looked up with the lock of the entry held.
+   */
+  @VisibleForTesting
+  static FileChunk getFileCunks(BSTIndexReaderCache indexCache,
+                                String queryId,
+                                String indexKey,
+                                Path outDir,
+                                String startKey,
+                                String endKey,
+                                boolean last) throws IOException {
+    BSTIndexReaderCache.CachedIndexReader cached = indexCache.acquire(queryId, indexKey, new Path(outDir, "index"));
+    try {
+      synchronized (cached) {
+        return getFileCunks(cached.getReader(), outDir, startKey, endKey, last);
+      }
+    } finally {
+      indexCache.release(cached);
+    }
+  }
+
+  private static FileChunk getFileCunks(BSTIndex.BSTIndexReader idxReader,
+                                 Path outDir,
+                                 String startKey,
+                                 String endKey,
+                                 boolean last) throws IOException {
     Schema keySchema = idxReader.getKeySchema();
     TupleComparator comparator = idxReader.getComparator();
 
-    LOG.info("BSTIndex is loaded from disk (" + idxReader.getFirstKey() + ", "
-        + idxReader.getLastKey());
-
     File data = new File(URI.create(outDir.toUri() + "/output"));
     byte [] startBytes = Base64.decodeBase64(startKey);
     byte [] endBytes = Base64.decodeBase64(endKey);
@@ -642,8 +875,6 @@ public class TajoPullServerService extends AbstractService {
       endOffset = data.length();
     }
 
-    idxReader.close();
-
     FileChunk chunk = new FileChunk(data, startOffset, endOffset - startOffset);
     LOG.info("Retrieve File Chunk: " + chunk);
     return chunk;
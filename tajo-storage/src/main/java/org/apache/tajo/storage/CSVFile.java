@@ -41,10 +41,8 @@ import org.apache.tajo.storage.compress.CodecPool;
 import org.apache.tajo.storage.exception.AlreadyExistsStorageException;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.rcfile.NonSyncByteArrayOutputStream;
-import org.apache.tajo.util.Bytes;
 
 import java.io.*;
-import java.util.ArrayList;
 import java.util.Arrays;
 
 public class CSVFile {
@@ -272,6 +270,7 @@ public class CSVFile {
     }
 
     private final static int DEFAULT_PAGE_SIZE = 256 * 1024;
+    private final static int DEFAULT_ROW_NUM_PER_PAGE = 1024;
     private char delimiter;
     private FileSystem fs;
     private FSDataInputStream fis;
@@ -287,11 +286,14 @@ public class CSVFile {
     private boolean eof = false;
     private final byte[] nullChars;
     private SplitLineReader reader;
-    private ArrayList<Long> fileOffsets = new ArrayList<Long>();
-    private ArrayList<Integer> rowLengthList = new ArrayList<Integer>();
-    private ArrayList<Integer> startOffsets = new ArrayList<Integer>();
+    // the file offsets, the start offsets in the page buffer and the lengths of the rows in the current page
+    private long [] fileOffsets = new long[DEFAULT_ROW_NUM_PER_PAGE];
+    private int [] startOffsets = new int[DEFAULT_ROW_NUM_PER_PAGE];
+    private int [] rowLengths = new int[DEFAULT_ROW_NUM_PER_PAGE];
     private NonSyncByteArrayOutputStream buffer = new NonSyncByteArrayOutputStream(DEFAULT_PAGE_SIZE);
     private SerializerDeserializer serde;
+    // It is reused for all rows. Fields are located in the page buffer and deserialized only when accessed.
+    private TextFieldTuple tuple;
 
     @Override
     public void init() throws IOException {
@@ -300,7 +302,7 @@ public class CSVFile {
       if(fs == null) {
         fs = FileScanner.getFileSystem((TajoConf)conf, fragment.getPath());
       }
-      if(fis == null) fis = fs.open(fragment.getPath());
+      if(fis == null) fis = PrefetchInputStream.open(conf, fs, fragment.getPath());
 
       recordCount = 0;
       pos = startOffset = fragment.getStartKey();
@@ -350,6 +352,7 @@ public class CSVFile {
 
       super.init();
       Arrays.sort(targetColumnIndexes);
+      tuple = new TextFieldTuple(schema, (byte) delimiter, targetColumnIndexes, nullChars, serde);
       if (LOG.isDebugEnabled()) {
         LOG.debug("CSVScanner open:" + fragment.getPath() + "," + startOffset + "," + end +
             "," + fs.getFileStatus(fragment.getPath()).getLen());
@@ -388,9 +391,6 @@ public class CSVFile {
       int bufferedSize = 0;
 
       buffer.reset();
-      startOffsets.clear();
-      rowLengthList.clear();
-      fileOffsets.clear();
 
       if(eof) {
         return;
@@ -398,15 +398,21 @@ public class CSVFile {
 
       while (DEFAULT_PAGE_SIZE >= bufferedSize){
 
-        int ret = reader.readDefaultLine(buffer, rowLengthList, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        int ret = reader.readDefaultLine(buffer, Integer.MAX_VALUE, Integer.MAX_VALUE);
 
         if(ret == 0){
           break;
         } else {
-          fileOffsets.add(pos);
+          if (validIdx == fileOffsets.length) {
+            fileOffsets = Arrays.copyOf(fileOffsets, validIdx * 2);
+            startOffsets = Arrays.copyOf(startOffsets, validIdx * 2);
+            rowLengths = Arrays.copyOf(rowLengths, validIdx * 2);
+          }
+          fileOffsets[validIdx] = pos;
           pos += ret;
-          startOffsets.add(currentBufferPos);
-          currentBufferPos += rowLengthList.get(rowLengthList.size() - 1);
+          startOffsets[validIdx] = currentBufferPos;
+          rowLengths[validIdx] = buffer.getLength() - currentBufferPos;
+          currentBufferPos = buffer.getLength();
           bufferedSize += ret;
           validIdx++;
           recordCount++;
@@ -460,15 +466,14 @@ public class CSVFile {
 
         long offset = -1;
         if(!isCompress()){
-          offset = fileOffsets.get(currentIdx);
+          offset = fileOffsets[currentIdx];
         }
 
-        byte[][] cells = Bytes.splitPreserveAllTokens(buffer.getData(), startOffsets.get(currentIdx),
-            rowLengthList.get(currentIdx),  delimiter, targetColumnIndexes);
+        tuple.set(buffer.getData(), startOffsets[currentIdx], rowLengths[currentIdx], offset);
         currentIdx++;
-        return new LazyTuple(schema, cells, offset, nullChars, serde);
+        return tuple;
       } catch (Throwable t) {
-        LOG.error("Tuple list length: " + (fileOffsets != null ? fileOffsets.size() : 0), t);
+        LOG.error("Tuple list length: " + validIdx, t);
         LOG.error("Tuple list current index: " + currentIdx, t);
         throw new IOException(t);
       }
@@ -529,7 +534,7 @@ public class CSVFile {
     public void seek(long offset) throws IOException {
       if(isCompress()) throw new UnsupportedException();
 
-      int tupleIndex = Arrays.binarySearch(fileOffsets.toArray(), offset);
+      int tupleIndex = Arrays.binarySearch(fileOffsets, 0, validIdx, offset);
 
       if (tupleIndex > -1) {
         this.currentIdx = tupleIndex;
@@ -562,7 +567,7 @@ public class CSVFile {
           if(currentIdx == validIdx) return -1;
         }
       }
-      return fileOffsets.get(currentIdx);
+      return fileOffsets[currentIdx];
     }
 
     @Override
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.datum.Datum;
+
+import java.util.Arrays;
+
+/**
+ * A simple predicate on a single column, which a scanner can evaluate without the eval tree. It is one of
+ * <code>column op constant</code>, <code>column IN (constants)</code>, <code>column IS NULL</code> and
+ * <code>column IS NOT NULL</code>. Like SQL, a null value satisfies only <code>IS NULL</code>.
+ */
+public class ColumnPredicate {
+  public static enum Operator {
+    EQUAL,
+    NOT_EQUAL,
+    LTH,
+    LEQ,
+    GTH,
+    GEQ,
+    IN,
+    IS_NULL,
+    IS_NOT_NULL
+  }
+
+  private final Column column;
+  private final Operator operator;
+  private final Datum [] values;
+
+  /**
+   * @param values the constant of a comparison or the constants of IN. It is empty for IS NULL and IS NOT NULL.
+   */
+  public ColumnPredicate(Column column, Operator operator, Datum... values) {
+    this.column = column;
+    this.operator = operator;
+    this.values = values;
+  }
+
+  public Column getColumn() {
+    return column;
+  }
+
+  public Operator getOperator() {
+    return operator;
+  }
+
+  public Datum [] getValues() {
+    return values;
+  }
+
+  /**
+   * @return true if a given value satisfies this predicate
+   */
+  public boolean isTrue(Datum value) {
+    if (operator == Operator.IS_NULL) {
+      return value == null || value.isNull();
+    } else if (value == null || value.isNull()) {
+      return false;
+    }
+
+    switch (operator) {
+    case EQUAL: return value.compareTo(values[0]) == 0;
+    case NOT_EQUAL: return value.compareTo(values[0]) != 0;
+    case LTH: return value.compareTo(values[0]) < 0;
+    case LEQ: return value.compareTo(values[0]) <= 0;
+    case GTH: return value.compareTo(values[0]) > 0;
+    case GEQ: return value.compareTo(values[0]) >= 0;
+    case IN:
+      for (Datum datum : values) {
+        if (value.compareTo(datum) == 0) {
+          return true;
+        }
+      }
+      return false;
+    case IS_NOT_NULL: return true;
+    default: return true;
+    }
+  }
+
+  /**
+   * It examines the statistics of a block of rows, such as a row group. If it returns false, no row in the block
+   * satisfies this predicate, and the block can be skipped.
+   *
+   * @param min the minimum non-null value of the block, or null if unknown
+   * @param max the maximum non-null value of the block, or null if unknown
+   * @param nullCount the number of null values of the block
+   * @param rowNum the number of rows of the block
+   * @return false if no row in the block satisfies this predicate
+   */
+  public boolean mightMatch(Datum min, Datum max, long nullCount, long rowNum) {
+    switch (operator) {
+    case IS_NULL:
+      return nullCount > 0;
+    case IS_NOT_NULL:
+      return nullCount < rowNum;
+    default:
+      if (nullCount >= rowNum) {
+        return false;
+      }
+    }
+
+    if (min == null || max == null) {
+      return true;
+    }
+
+    switch (operator) {
+    case EQUAL:
+      return inRange(values[0], min, max);
+    case NOT_EQUAL:
+      return !(min.compareTo(values[0]) == 0 && max.compareTo(values[0]) == 0);
+    case LTH:
+      return min.compareTo(values[0]) < 0;
+    case LEQ:
+      return min.compareTo(values[0]) <= 0;
+    case GTH:
+      return max.compareTo(values[0]) > 0;
+    case GEQ:
+      return max.compareTo(values[0]) >= 0;
+    case IN:
+      for (Datum datum : values) {
+        if (inRange(datum, min, max)) {
+          return true;
+        }
+      }
+      return false;
+    default:
+      return true;
+    }
+  }
+
+  private static boolean inRange(Datum value, Datum min, Datum max) {
+    return min.compareTo(value) <= 0 && max.compareTo(value) >= 0;
+  }
+
+  @Override
+  public String toString() {
+    switch (operator) {
+    case IS_NULL: return column + " IS NULL";
+    case IS_NOT_NULL: return column + " IS NOT NULL";
+    case IN: return column + " IN " + Arrays.toString(values);
+    default: return column + " " + operator + " " + values[0];
+    }
+  }
+}
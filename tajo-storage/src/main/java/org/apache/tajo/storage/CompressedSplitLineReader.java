@@ -175,6 +175,22 @@ public class CompressedSplitLineReader extends SplitLineReader {
     return bytesRead;
   }
 
+  @Override
+  public int readDefaultLine(NonSyncByteArrayOutputStream str, int maxLineLength, int maxBytesToConsume)
+      throws IOException {
+    int bytesRead = 0;
+    if (!finished) {
+      // only allow at most one more record to be read after the stream
+      // reports the split ended
+      if (scin.getPos() > scin.getAdjustedEnd()) {
+        finished = true;
+      }
+
+      bytesRead = super.readDefaultLine(str, maxLineLength, maxBytesToConsume);
+    }
+    return bytesRead;
+  }
+
   @Override
   public boolean needAdditionalRecordAfterSplit() {
     return !finished && needAdditionalRecord;
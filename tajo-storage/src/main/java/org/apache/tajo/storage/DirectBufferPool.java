@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of reusable direct buffers of the same size. Direct buffers are expensive to allocate and are freed
+ * only by GC, so released buffers are kept and handed out again. At most <code>maxBufferNum</code> buffers are ever
+ * allocated; when all of them are in use, {@link #acquire()} returns null instead of blocking.
+ */
+public class DirectBufferPool {
+  private final int bufferSize;
+  private final int maxBufferNum;
+  private final Queue<ByteBuffer> freeBuffers = new ConcurrentLinkedQueue<ByteBuffer>();
+  private final AtomicInteger allocatedNum = new AtomicInteger(0);
+
+  public DirectBufferPool(int bufferSize, int maxBufferNum) {
+    this.bufferSize = bufferSize;
+    this.maxBufferNum = maxBufferNum;
+  }
+
+  /**
+   * @return a cleared buffer, or null if all buffers are in use
+   */
+  public ByteBuffer acquire() {
+    ByteBuffer buffer = freeBuffers.poll();
+    if (buffer != null) {
+      return buffer;
+    }
+
+    int allocated;
+    do {
+      allocated = allocatedNum.get();
+      if (allocated >= maxBufferNum) {
+        return null;
+      }
+    } while (!allocatedNum.compareAndSet(allocated, allocated + 1));
+    return ByteBuffer.allocateDirect(bufferSize);
+  }
+
+  /**
+   * Returns a buffer acquired from this pool. The buffer must not be used after it is released.
+   */
+  public void release(ByteBuffer buffer) {
+    buffer.clear();
+    freeBuffers.offer(buffer);
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * @return the number of buffers allocated so far, including the free ones
+   */
+  public int getAllocatedNum() {
+    return allocatedNum.get();
+  }
+
+  public int getFreeNum() {
+    return freeBuffers.size();
+  }
+}
@@ -45,6 +45,9 @@ public abstract class FileScanner implements Scanner {
 
   protected Column [] targets;
 
+  /** the search condition pushed down by {@link #setSearchCondition(Object)}. It is null if not given. */
+  protected ScanPredicate searchCondition;
+
   protected float progress;
 
   protected TableStats tableStats;
@@ -92,6 +95,9 @@ public abstract class FileScanner implements Scanner {
     if (inited) {
       throw new IllegalStateException("Should be called before init()");
     }
+    if (expr instanceof ScanPredicate) {
+      this.searchCondition = (ScanPredicate) expr;
+    }
   }
 
   public static FileSystem getFileSystem(TajoConf tajoConf, Path path) throws IOException {
@@ -23,7 +23,6 @@ package org.apache.tajo.storage;
 
 import com.google.common.base.Preconditions;
 import org.apache.tajo.datum.Datum;
-import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.exception.UnsupportedException;
 
 /**
@@ -70,7 +69,7 @@ public class FrameTuple implements Tuple, Cloneable {
 
   @Override
   public boolean isNull(int fieldid) {
-    return get(fieldid) instanceof NullDatum;
+    return fieldid < leftSize ? left.isNull(fieldid) : right.isNull(fieldid - leftSize);
   }
 
   @Override
@@ -122,7 +121,7 @@ public class FrameTuple implements Tuple, Cloneable {
 
   @Override
   public boolean getBool(int fieldId) {
-    return get(fieldId).asBool();
+    return fieldId < leftSize ? left.getBool(fieldId) : right.getBool(fieldId - leftSize);
   }
 
   @Override
@@ -142,27 +141,27 @@ public class FrameTuple implements Tuple, Cloneable {
 
   @Override
   public short getInt2(int fieldId) {
-    return get(fieldId).asInt2();
+    return fieldId < leftSize ? left.getInt2(fieldId) : right.getInt2(fieldId - leftSize);
   }
 
   @Override
   public int getInt4(int fieldId) {
-    return get(fieldId).asInt4();
+    return fieldId < leftSize ? left.getInt4(fieldId) : right.getInt4(fieldId - leftSize);
   }
 
   @Override
   public long getInt8(int fieldId) {
-    return get(fieldId).asInt8();
+    return fieldId < leftSize ? left.getInt8(fieldId) : right.getInt8(fieldId - leftSize);
   }
 
   @Override
   public float getFloat4(int fieldId) {
-    return get(fieldId).asFloat4();
+    return fieldId < leftSize ? left.getFloat4(fieldId) : right.getFloat4(fieldId - leftSize);
   }
 
   @Override
   public double getFloat8(int fieldId) {
-    return get(fieldId).asFloat8();
+    return fieldId < leftSize ? left.getFloat8(fieldId) : right.getFloat8(fieldId - leftSize);
   }
 
   @Override
@@ -0,0 +1,124 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage;
+
+import com.google.common.base.Preconditions;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * <code>HashShuffleIndex</code> describes a consolidated hash shuffle output. Instead of writing one file per
+ * partition, a task writes the rows of all partitions into a single data file where the rows of each partition
+ * occupy a contiguous byte range. The index maps each partition id to its byte range, and the pull server uses it
+ * to serve a partition as a region of the data file.
+ *
+ * The index file consists of the number of entries followed by (partition id, offset, length) entries sorted by
+ * the partition id. Only partitions with at least one row are included.
+ */
+public class HashShuffleIndex {
+  public static final String DATA_FILE_NAME = "data";
+  public static final String INDEX_FILE_NAME = "index";
+
+  private int [] partIds;
+  private long [] offsets;
+  private long [] lengths;
+  private int size = 0;
+
+  public HashShuffleIndex() {
+    this(16);
+  }
+
+  public HashShuffleIndex(int initialCapacity) {
+    partIds = new int[Math.max(1, initialCapacity)];
+    offsets = new long[partIds.length];
+    lengths = new long[partIds.length];
+  }
+
+  /**
+   * Adds the byte range of a partition. Partitions must be added in the ascending order of partition ids.
+   */
+  public void add(int partId, long offset, long length) {
+    Preconditions.checkArgument(size == 0 || partIds[size - 1] < partId,
+        "Partition ids must be added in ascending order: " + partId);
+    if (size == partIds.length) {
+      int newCapacity = partIds.length * 2;
+      partIds = Arrays.copyOf(partIds, newCapacity);
+      offsets = Arrays.copyOf(offsets, newCapacity);
+      lengths = Arrays.copyOf(lengths, newCapacity);
+    }
+    partIds[size] = partId;
+    offsets[size] = offset;
+    lengths[size] = length;
+    size++;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int getPartId(int idx) {
+    return partIds[idx];
+  }
+
+  public long getOffset(int idx) {
+    return offsets[idx];
+  }
+
+  public long getLength(int idx) {
+    return lengths[idx];
+  }
+
+  /**
+   * @return the entry index of the given partition, or -1 if the partition does not have any row.
+   */
+  public int find(int partId) {
+    int idx = Arrays.binarySearch(partIds, 0, size, partId);
+    return idx < 0 ? -1 : idx;
+  }
+
+  public void write(File file) throws IOException {
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    try {
+      out.writeInt(size);
+      for (int i = 0; i < size; i++) {
+        out.writeInt(partIds[i]);
+        out.writeLong(offsets[i]);
+        out.writeLong(lengths[i]);
+      }
+    } finally {
+      out.close();
+    }
+  }
+
+  public static HashShuffleIndex read(File file) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+    try {
+      int num = in.readInt();
+      HashShuffleIndex index = new HashShuffleIndex(num);
+      for (int i = 0; i < num; i++) {
+        index.add(in.readInt(), in.readLong(), in.readLong());
+      }
+      return index;
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.tajo.storage;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.Text;
+import org.apache.tajo.util.ByteSearcher;
 import org.apache.tajo.storage.rcfile.NonSyncByteArrayOutputStream;
 
 import java.io.Closeable;
@@ -227,17 +228,27 @@ public class LineReader implements Closeable {
           break; // EOF
         }
       }
-      for (; bufferPosn < bufferLength; ++bufferPosn) { //search for newline
-        if (buffer[bufferPosn] == LF) {
-          newlineLength = (prevCharCR) ? 2 : 1;
-          ++bufferPosn; // at next invocation proceed from following byte
+      while (bufferPosn < bufferLength) { //search for newline
+        if (prevCharCR) {
+          if (buffer[bufferPosn] == LF) {
+            newlineLength = 2;
+            ++bufferPosn; // at next invocation proceed from following byte
+          } else { //CR + notLF, we are at notLF
+            newlineLength = 1;
+          }
           break;
         }
-        if (prevCharCR) { //CR + notLF, we are at notLF
+        int newlinePosn = ByteSearcher.indexOfAny(buffer, bufferPosn, bufferLength, LF, CR);
+        if (newlinePosn < 0) {
+          bufferPosn = bufferLength;
+          break;
+        }
+        bufferPosn = newlinePosn + 1;
+        if (buffer[newlinePosn] == LF) {
           newlineLength = 1;
           break;
         }
-        prevCharCR = (buffer[bufferPosn] == CR);
+        prevCharCR = true;
       }
       int readLength = bufferPosn - startPosn;
       if (prevCharCR && newlineLength == 0) {
@@ -266,6 +277,25 @@ public class LineReader implements Closeable {
   public int readDefaultLine(NonSyncByteArrayOutputStream str, ArrayList<Integer> offsets, int maxLineLength
       , int maxBytesToConsume)
       throws IOException {
+    int startLength = str.getLength();
+    int bytesConsumed = appendDefaultLine(str, maxLineLength, maxBytesToConsume);
+    if (bytesConsumed > 0) offsets.add(str.getLength() - startLength);
+    return bytesConsumed;
+  }
+
+  /**
+   * Read a line terminated by one of CR, LF, or CRLF, and append it without the terminator to a given buffer.
+   * The length of the line is the increase of the buffer length.
+   *
+   * @return the number of bytes consumed, including the terminator
+   */
+  public int readDefaultLine(NonSyncByteArrayOutputStream str, int maxLineLength, int maxBytesToConsume)
+      throws IOException {
+    return appendDefaultLine(str, maxLineLength, maxBytesToConsume);
+  }
+
+  private int appendDefaultLine(NonSyncByteArrayOutputStream str, int maxLineLength, int maxBytesToConsume)
+      throws IOException {
     /* We're reading data from in, but the head of the stream may be
      * already buffered in buffer, so we have several cases:
      * 1. No newline characters are in the buffer, so we need to copy
@@ -299,17 +329,27 @@ public class LineReader implements Closeable {
           break; // EOF
         }
       }
-      for (; bufferPosn < bufferLength; ++bufferPosn) { //search for newline
-        if (buffer[bufferPosn] == LF) {
-          newlineLength = (prevCharCR) ? 2 : 1;
-          ++bufferPosn; // at next invocation proceed from following byte
+      while (bufferPosn < bufferLength) { //search for newline
+        if (prevCharCR) {
+          if (buffer[bufferPosn] == LF) {
+            newlineLength = 2;
+            ++bufferPosn; // at next invocation proceed from following byte
+          } else { //CR + notLF, we are at notLF
+            newlineLength = 1;
+          }
           break;
         }
-        if (prevCharCR) { //CR + notLF, we are at notLF
+        int newlinePosn = ByteSearcher.indexOfAny(buffer, bufferPosn, bufferLength, LF, CR);
+        if (newlinePosn < 0) {
+          bufferPosn = bufferLength;
+          break;
+        }
+        bufferPosn = newlinePosn + 1;
+        if (buffer[newlinePosn] == LF) {
           newlineLength = 1;
           break;
         }
-        prevCharCR = (buffer[bufferPosn] == CR);
+        prevCharCR = true;
       }
       int readLength = bufferPosn - startPosn;
       if (prevCharCR && newlineLength == 0) {
@@ -330,7 +370,6 @@ public class LineReader implements Closeable {
       throw new IOException("Too many bytes before newline: " + bytesConsumed);
     }
 
-    if (bytesConsumed > 0) offsets.add(txtLength);
     return (int) bytesConsumed;
   }
 
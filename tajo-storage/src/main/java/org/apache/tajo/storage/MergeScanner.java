@@ -27,12 +27,14 @@ import org.apache.tajo.catalog.statistics.ColumnStats;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+import org.apache.tajo.storage.vector.VectorizedScanner;
 
 import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
 
-public class MergeScanner implements Scanner {
+public class MergeScanner implements VectorizedScanner {
   private Configuration conf;
   private TableMeta meta;
   private Schema schema;
@@ -44,6 +46,7 @@ public class MergeScanner implements Scanner {
   private boolean projectable = false;
   private boolean selectable = false;
   private Schema target;
+  private Object searchCondition;
   private float progress;
   protected TableStats tableStats;
 
@@ -97,14 +100,7 @@ public class MergeScanner implements Scanner {
     if (tuple != null) {
       return tuple;
     } else {
-      if (currentScanner != null) {
-        currentScanner.close();
-        TableStats scannerTableStsts = currentScanner.getInputStats();
-        if (scannerTableStsts != null) {
-          tableStats.setReadBytes(tableStats.getReadBytes() + scannerTableStsts.getReadBytes());
-          tableStats.setNumRows(tableStats.getNumRows() + scannerTableStsts.getNumRows());
-        }
-      }
+      closeCurrentScanner();
       currentScanner = getNextScanner();
       if (currentScanner != null) {
         tuple = currentScanner.next();
@@ -113,6 +109,34 @@ public class MergeScanner implements Scanner {
     return tuple;
   }
 
+  /**
+   * Each scanner fills batches by itself, so a scanner of a vectorized format decodes rows into the batch directly.
+   */
+  @Override
+  public int nextBatch(VectorizedRowBatch batch) throws IOException {
+    while (currentScanner != null) {
+      int rowNum = batch.fill(currentScanner);
+      if (rowNum > 0) {
+        return rowNum;
+      }
+      closeCurrentScanner();
+      currentScanner = getNextScanner();
+    }
+    batch.reset();
+    return 0;
+  }
+
+  private void closeCurrentScanner() throws IOException {
+    if (currentScanner != null) {
+      currentScanner.close();
+      TableStats scannerTableStsts = currentScanner.getInputStats();
+      if (scannerTableStsts != null) {
+        tableStats.setReadBytes(tableStats.getReadBytes() + scannerTableStsts.getReadBytes());
+        tableStats.setNumRows(tableStats.getNumRows() + scannerTableStsts.getNumRows());
+      }
+    }
+  }
+
   @Override
   public void reset() throws IOException {
     this.iterator = fragments.iterator();
@@ -124,6 +148,9 @@ public class MergeScanner implements Scanner {
       currentFragment = iterator.next();
       currentScanner = StorageManagerFactory.getStorageManager((TajoConf)conf).getScanner(meta, schema,
           currentFragment, target);
+      if (searchCondition != null && currentScanner.isSelectable()) {
+        currentScanner.setSearchCondition(searchCondition);
+      }
       currentScanner.init();
       return currentScanner;
     } else {
@@ -157,6 +184,12 @@ public class MergeScanner implements Scanner {
 
   @Override
   public void setSearchCondition(Object expr) {
+    this.searchCondition = expr;
+    // the first scanner is already opened by the constructor, so it is opened again with the condition.
+    if (currentScanner != null) {
+      currentScanner.close();
+    }
+    reset();
   }
 
   @Override
@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import java.util.Comparator;
+
+/**
+ * A normalized sort key of a tuple, which is created by {@link NormalizedKeyEncoder}. The first 8 bytes of
+ * the encoded key are kept as a long prefix, so most comparisons finish with a single long comparison.
+ * Only keys having the same prefix compare the remaining bytes.
+ */
+public final class NormalizedKey {
+  /** It keeps no state, so it can be shared among threads. */
+  public static final Comparator<NormalizedKey> COMPARATOR = new Comparator<NormalizedKey>() {
+    @Override
+    public int compare(NormalizedKey key1, NormalizedKey key2) {
+      if (key1.prefix != key2.prefix) {
+        return key1.prefix < key2.prefix ? -1 : 1;
+      }
+      return compareRemains(key1.remains, key2.remains);
+    }
+  };
+
+  private static final byte [] EMPTY = new byte[0];
+
+  /** the first 8 bytes in big-endian, whose sign bit is flipped so that a signed comparison works */
+  private final long prefix;
+  /** the bytes after the prefix */
+  private final byte [] remains;
+  private final Tuple tuple;
+
+  NormalizedKey(long prefix, byte [] remains, Tuple tuple) {
+    this.prefix = prefix;
+    this.remains = remains == null ? EMPTY : remains;
+    this.tuple = tuple;
+  }
+
+  public long getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * @return the tuple from which this key is encoded
+   */
+  public Tuple getTuple() {
+    return tuple;
+  }
+
+  private static int compareRemains(byte [] remains1, byte [] remains2) {
+    int len = Math.min(remains1.length, remains2.length);
+    for (int i = 0; i < len; i++) {
+      int b1 = remains1[i] & 0xff;
+      int b2 = remains2[i] & 0xff;
+      if (b1 != b2) {
+        return b1 - b2;
+      }
+    }
+    return remains1.length - remains2.length;
+  }
+}
@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.NullDatum;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * It encodes the sort keys of a tuple into an order-preserving byte string, called a normalized key.
+ * Comparing two normalized keys as unsigned byte strings gives the same order as {@link TupleComparator} with
+ * the same sort specs. The ascending or descending order and the position of nulls are folded into the bytes.
+ *
+ * Each sort key is encoded into a null marker byte followed by its value:
+ * <ul>
+ *   <li>INT2, INT4, INT8, DATE and TIMESTAMP - big-endian bytes whose sign bit is flipped</li>
+ *   <li>FLOAT4 and FLOAT8 - IEEE 754 bits flipped so that they are ordered as unsigned integers</li>
+ *   <li>TEXT and CHAR - bytes whose zero bytes are escaped, followed by two zero bytes</li>
+ * </ul>
+ * A descending key inverts all bytes of its value. A null key has no value bytes.
+ *
+ * For float keys, -0.0 is encoded as 0.0 and all NaNs are encoded as the greatest value. {@link TupleComparator}
+ * regards NaN as equal to any value, which is not a consistent order.
+ *
+ * An encoder reuses its internal buffer, so it must not be shared among threads.
+ */
+public class NormalizedKeyEncoder {
+  private static final int PREFIX_SIZE = 8;
+  private static final byte NULL_FIRST = 0x00;
+  private static final byte NOT_NULL = 0x01;
+  private static final byte NULL_LAST = 0x02;
+
+  private final int [] keyIds;
+  private final Type [] types;
+  private final boolean [] asc;
+  private final boolean [] nullFirsts;
+
+  private byte [] buffer = new byte[64];
+  private int length;
+
+  public NormalizedKeyEncoder(Schema schema, SortSpec [] sortSpecs) {
+    keyIds = new int[sortSpecs.length];
+    types = new Type[sortSpecs.length];
+    asc = new boolean[sortSpecs.length];
+    nullFirsts = new boolean[sortSpecs.length];
+
+    for (int i = 0; i < sortSpecs.length; i++) {
+      keyIds[i] = schema.getColumnId(sortSpecs[i].getSortKey().getQualifiedName());
+      types[i] = schema.getColumn(keyIds[i]).getDataType().getType();
+      if (!isSupportedType(types[i])) {
+        throw new IllegalArgumentException("Normalized key does not support " + types[i]);
+      }
+      asc[i] = sortSpecs[i].isAscending();
+      nullFirsts[i] = sortSpecs[i].isNullFirst();
+    }
+  }
+
+  /**
+   * @return true if all sort keys can be encoded into normalized keys
+   */
+  public static boolean isSupported(Schema schema, SortSpec [] sortSpecs) {
+    if (sortSpecs.length == 0) {
+      return false;
+    }
+    for (SortSpec sortSpec : sortSpecs) {
+      int keyId = schema.getColumnId(sortSpec.getSortKey().getQualifiedName());
+      if (keyId < 0 || !isSupportedType(schema.getColumn(keyId).getDataType().getType())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isSupportedType(Type type) {
+    switch (type) {
+      case INT2:
+      case INT4:
+      case INT8:
+      case DATE:
+      case TIMESTAMP:
+      case FLOAT4:
+      case FLOAT8:
+      case TEXT:
+      case CHAR:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * It encodes the sort keys of a tuple. The tuple is referred to by the returned key, not copied.
+   */
+  public NormalizedKey encode(Tuple tuple) {
+    length = 0;
+    for (int i = 0; i < keyIds.length; i++) {
+      Datum datum = tuple.get(keyIds[i]);
+      if (datum == null || datum instanceof NullDatum) {
+        // the position of nulls does not depend on the order of a key as TupleComparator does.
+        writeByte(nullFirsts[i] ? NULL_FIRST : NULL_LAST);
+        continue;
+      }
+
+      writeByte(NOT_NULL);
+      int start = length;
+      switch (types[i]) {
+        case INT2:
+          writeInt(datum.asInt2() ^ Short.MIN_VALUE, 2);
+          break;
+        case INT4:
+        case DATE:
+          writeInt(datum.asInt4() ^ Integer.MIN_VALUE, 4);
+          break;
+        case INT8:
+        case TIMESTAMP:
+          writeLong(datum.asInt8() ^ Long.MIN_VALUE);
+          break;
+        case FLOAT4: {
+          float val = datum.asFloat4();
+          int bits = Float.floatToIntBits(val == 0.0f ? 0.0f : val);
+          writeInt(bits < 0 ? ~bits : bits ^ Integer.MIN_VALUE, 4);
+          break;
+        }
+        case FLOAT8: {
+          double val = datum.asFloat8();
+          long bits = Double.doubleToLongBits(val == 0.0d ? 0.0d : val);
+          writeLong(bits < 0 ? ~bits : bits ^ Long.MIN_VALUE);
+          break;
+        }
+        default:
+          writeEscapedBytes(datum.asByteArray());
+      }
+
+      if (!asc[i]) {
+        for (int j = start; j < length; j++) {
+          buffer[j] = (byte) ~buffer[j];
+        }
+      }
+    }
+
+    long prefix = 0;
+    for (int i = 0; i < PREFIX_SIZE; i++) {
+      prefix = (prefix << 8) | (i < length ? buffer[i] & 0xff : 0);
+    }
+    byte [] remains = length > PREFIX_SIZE ? Arrays.copyOfRange(buffer, PREFIX_SIZE, length) : null;
+    return new NormalizedKey(prefix ^ Long.MIN_VALUE, remains, tuple);
+  }
+
+  /**
+   * It sorts tuples in place by their normalized keys. The sort is stable.
+   */
+  public void sort(List<Tuple> tuples) {
+    NormalizedKey [] keys = new NormalizedKey[tuples.size()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = encode(tuples.get(i));
+    }
+    Arrays.sort(keys, NormalizedKey.COMPARATOR);
+    for (int i = 0; i < keys.length; i++) {
+      tuples.set(i, keys[i].getTuple());
+    }
+  }
+
+  private void ensureCapacity(int required) {
+    if (length + required > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + required));
+    }
+  }
+
+  private void writeByte(byte b) {
+    ensureCapacity(1);
+    buffer[length++] = b;
+  }
+
+  /**
+   * It writes the lower bytes of a value in big-endian.
+   */
+  private void writeInt(int val, int size) {
+    ensureCapacity(size);
+    for (int i = size - 1; i >= 0; i--) {
+      buffer[length++] = (byte) (val >>> (i * 8));
+    }
+  }
+
+  private void writeLong(long val) {
+    ensureCapacity(8);
+    for (int i = 7; i >= 0; i--) {
+      buffer[length++] = (byte) (val >>> (i * 8));
+    }
+  }
+
+  /**
+   * Zero bytes are escaped into 0x00 0xFF, and the end is marked by 0x00 0x00. So, no encoded string is a prefix of
+   * another one, and a shorter string comes first.
+   */
+  private void writeEscapedBytes(byte [] bytes) {
+    ensureCapacity(bytes.length * 2 + 2);
+    for (byte b : bytes) {
+      buffer[length++] = b;
+      if (b == 0) {
+        buffer[length++] = (byte) 0xff;
+      }
+    }
+    buffer[length++] = 0;
+    buffer[length++] = 0;
+  }
+}
@@ -0,0 +1,196 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An append-only row store which serializes tuples into large byte pages. Compared to keeping
+ * a {@link VTuple} of boxed datums for each row, it needs only a few bytes of overhead per field, and it puts
+ * much less pressure on the garbage collector.
+ *
+ * A row is addressed by a long value, i.e., (page index &lt;&lt; 32 | offset in the page). Each row has a link
+ * field, which is a row address or -1. It can be used to chain rows.
+ *
+ * The layout of a row is as follows:
+ * <pre>
+ *   [link (8 bytes)] [field 0] [field 1] ... [field n-1]
+ * </pre>
+ * Each field consists of a type tag and a value. The type tag is the number of the actual datum type, and it is
+ * 0 for null. The value of BOOLEAN, INT2, INT4, INT8, FLOAT4 and FLOAT8 is stored in its fixed width. The value
+ * of the other types is stored as a 4 byte length followed by the bytes of {@link Datum#asByteArray()}.
+ *
+ * Rows are read through {@link PagedTuple}.
+ */
+public class PagedRowStore {
+  public static final int DEFAULT_PAGE_SIZE = 1024 * 1024;
+  static final int LINK_SIZE = 8;
+  static final byte NULL_TAG = 0;
+
+  private final Schema schema;
+  private final int pageSize;
+  private final List<ByteBuffer> pages = new ArrayList<ByteBuffer>();
+  private ByteBuffer currentPage;
+  private long allocatedBytes = 0;
+  private int rowNum = 0;
+
+  public PagedRowStore(Schema schema) {
+    this(schema, DEFAULT_PAGE_SIZE);
+  }
+
+  public PagedRowStore(Schema schema, int pageSize) {
+    this.schema = schema;
+    this.pageSize = pageSize;
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /**
+   * @return the number of rows added
+   */
+  public int size() {
+    return rowNum;
+  }
+
+  /**
+   * @return the number of bytes allocated for pages
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  ByteBuffer getPage(long address) {
+    return pages.get((int) (address >>> 32));
+  }
+
+  static int getOffset(long address) {
+    return (int) address;
+  }
+
+  /**
+   * It serializes a tuple into a page.
+   *
+   * @return the address of the added row. Its link is initialized to -1.
+   */
+  public long add(Tuple tuple) {
+    int columnNum = schema.size();
+    int rowSize = LINK_SIZE;
+    for (int i = 0; i < columnNum; i++) {
+      rowSize += fieldSize(tuple.get(i));
+    }
+
+    ByteBuffer page = reserve(rowSize);
+    int offset = page.position();
+    long address = ((long) (pages.size() - 1) << 32) | offset;
+
+    page.putLong(-1L);
+    for (int i = 0; i < columnNum; i++) {
+      writeField(page, tuple.get(i));
+    }
+    rowNum++;
+    return address;
+  }
+
+  public long getLink(long address) {
+    return getPage(address).getLong(getOffset(address));
+  }
+
+  public void setLink(long address, long link) {
+    getPage(address).putLong(getOffset(address), link);
+  }
+
+  public void clear() {
+    pages.clear();
+    currentPage = null;
+    allocatedBytes = 0;
+    rowNum = 0;
+  }
+
+  private ByteBuffer reserve(int rowSize) {
+    if (currentPage == null || currentPage.remaining() < rowSize) {
+      // a row larger than the page size gets its own page.
+      currentPage = ByteBuffer.allocate(Math.max(pageSize, rowSize));
+      pages.add(currentPage);
+      allocatedBytes += currentPage.capacity();
+    }
+    return currentPage;
+  }
+
+  private static int fieldSize(Datum datum) {
+    if (datum == null || datum.isNull()) {
+      return 1;
+    }
+    switch (datum.type()) {
+    case BOOLEAN: return 1 + 1;
+    case INT2: return 1 + 2;
+    case INT4: return 1 + 4;
+    case INT8: return 1 + 8;
+    case FLOAT4: return 1 + 4;
+    case FLOAT8: return 1 + 8;
+    default: return 1 + 4 + datum.asByteArray().length;
+    }
+  }
+
+  private static void writeField(ByteBuffer page, Datum datum) {
+    if (datum == null || datum.isNull()) {
+      page.put(NULL_TAG);
+      return;
+    }
+
+    Type type = datum.type();
+    page.put((byte) type.getNumber());
+    switch (type) {
+    case BOOLEAN: page.put((byte) (datum.asBool() ? 1 : 0)); break;
+    case INT2: page.putShort(datum.asInt2()); break;
+    case INT4: page.putInt(datum.asInt4()); break;
+    case INT8: page.putLong(datum.asInt8()); break;
+    case FLOAT4: page.putFloat(datum.asFloat4()); break;
+    case FLOAT8: page.putDouble(datum.asFloat8()); break;
+    default:
+      byte [] bytes = datum.asByteArray();
+      page.putInt(bytes.length);
+      page.put(bytes);
+    }
+  }
+
+  /**
+   * @return the size of a field value following the type tag
+   */
+  static int valueSize(ByteBuffer page, int tagOffset) {
+    switch (page.get(tagOffset)) {
+    case NULL_TAG: return 0;
+    case Type.BOOLEAN_VALUE: return 1;
+    case Type.INT2_VALUE: return 2;
+    case Type.INT4_VALUE: return 4;
+    case Type.INT8_VALUE: return 8;
+    case Type.FLOAT4_VALUE: return 4;
+    case Type.FLOAT8_VALUE: return 8;
+    default: return 4 + page.getInt(tagOffset + 1);
+    }
+  }
+}
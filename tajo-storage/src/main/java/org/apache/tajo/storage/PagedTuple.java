@@ -0,0 +1,309 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.exception.UnsupportedException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A read-only view of a row in {@link PagedRowStore}. A PagedTuple can be moved to another row by
+ * {@link #set(long)}, so one instance can be reused for all rows.
+ *
+ * Fields are located and decoded lazily. The primitive getters read values directly from a page without
+ * creating any datum, and {@link #get(int)} decodes a datum only once for each field of the current row.
+ */
+public class PagedTuple implements Tuple, Cloneable {
+  private final PagedRowStore store;
+  private final int size;
+
+  private ByteBuffer page;
+  private long address = -1;
+  /** offsets of the type tags of fields. Only the first locatedNum elements are valid. */
+  private final int [] tagOffsets;
+  private int locatedNum;
+  /** decoded datums of the current row */
+  private final Datum [] datums;
+
+  public PagedTuple(PagedRowStore store) {
+    this.store = store;
+    this.size = store.getSchema().size();
+    this.tagOffsets = new int[Math.max(size, 1)];
+    this.datums = new Datum[size];
+  }
+
+  /**
+   * It moves this tuple to the row of a given address.
+   */
+  public void set(long address) {
+    ByteBuffer newPage = store.getPage(address);
+    // the page is also compared because the store may have been cleared and refilled.
+    if (this.address != address || this.page != newPage) {
+      this.address = address;
+      this.page = newPage;
+      this.tagOffsets[0] = PagedRowStore.getOffset(address) + PagedRowStore.LINK_SIZE;
+      this.locatedNum = 1;
+      Arrays.fill(datums, null);
+    }
+  }
+
+  public long getAddress() {
+    return address;
+  }
+
+  private int tagOffset(int fieldId) {
+    while (locatedNum <= fieldId) {
+      int prev = tagOffsets[locatedNum - 1];
+      tagOffsets[locatedNum] = prev + 1 + PagedRowStore.valueSize(page, prev);
+      locatedNum++;
+    }
+    return tagOffsets[fieldId];
+  }
+
+  private byte tag(int fieldId) {
+    return page.get(tagOffset(fieldId));
+  }
+
+  /**
+   * It checks if a field is equal to a given datum in terms of {@link Datum#equals(Object)}. A null field
+   * is never equal to any datum.
+   */
+  public boolean equalsTo(int fieldId, Datum datum) {
+    int tagOffset = tagOffset(fieldId);
+    byte tag = page.get(tagOffset);
+    if (tag == PagedRowStore.NULL_TAG || datum.isNull() || tag != datum.type().getNumber()) {
+      return false;
+    }
+
+    int valueOffset = tagOffset + 1;
+    switch (tag) {
+    case Type.BOOLEAN_VALUE: return (page.get(valueOffset) == 1) == datum.asBool();
+    case Type.INT2_VALUE: return page.getShort(valueOffset) == datum.asInt2();
+    case Type.INT4_VALUE: return page.getInt(valueOffset) == datum.asInt4();
+    case Type.INT8_VALUE: return page.getLong(valueOffset) == datum.asInt8();
+    case Type.FLOAT4_VALUE: return page.getFloat(valueOffset) == datum.asFloat4();
+    case Type.FLOAT8_VALUE: return page.getDouble(valueOffset) == datum.asFloat8();
+    default:
+      byte [] bytes = datum.asByteArray();
+      int length = page.getInt(valueOffset);
+      if (length != bytes.length) {
+        return false;
+      }
+      int start = valueOffset + 4;
+      for (int i = 0; i < length; i++) {
+        if (page.get(start + i) != bytes[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean contains(int fieldid) {
+    return fieldid < size;
+  }
+
+  @Override
+  public boolean isNull(int fieldid) {
+    return tag(fieldid) == PagedRowStore.NULL_TAG;
+  }
+
+  @Override
+  public Datum get(int fieldId) {
+    if (datums[fieldId] == null) {
+      datums[fieldId] = decode(fieldId);
+    }
+    return datums[fieldId];
+  }
+
+  private Datum decode(int fieldId) {
+    int tagOffset = tagOffset(fieldId);
+    byte tag = page.get(tagOffset);
+    int valueOffset = tagOffset + 1;
+
+    switch (tag) {
+    case PagedRowStore.NULL_TAG: return NullDatum.get();
+    case Type.BOOLEAN_VALUE: return DatumFactory.createBool(page.get(valueOffset) == 1);
+    case Type.INT2_VALUE: return DatumFactory.createInt2(page.getShort(valueOffset));
+    case Type.INT4_VALUE: return DatumFactory.createInt4(page.getInt(valueOffset));
+    case Type.INT8_VALUE: return DatumFactory.createInt8(page.getLong(valueOffset));
+    case Type.FLOAT4_VALUE: return DatumFactory.createFloat4(page.getFloat(valueOffset));
+    case Type.FLOAT8_VALUE: return DatumFactory.createFloat8(page.getDouble(valueOffset));
+    default:
+      byte [] bytes = new byte[page.getInt(valueOffset)];
+      int start = valueOffset + 4;
+      for (int i = 0; i < bytes.length; i++) {
+        bytes[i] = page.get(start + i);
+      }
+      DataType columnType = store.getSchema().getColumn(fieldId).getDataType();
+      DataType dataType = columnType.getType().getNumber() == tag ?
+          columnType : CatalogUtil.newSimpleDataType(Type.valueOf(tag));
+      return DatumFactory.createFromBytes(dataType, bytes);
+    }
+  }
+
+  @Override
+  public boolean getBool(int fieldId) {
+    int tagOffset = tagOffset(fieldId);
+    if (page.get(tagOffset) == Type.BOOLEAN_VALUE) {
+      return page.get(tagOffset + 1) == 1;
+    }
+    return get(fieldId).asBool();
+  }
+
+  @Override
+  public byte getByte(int fieldId) {
+    return get(fieldId).asByte();
+  }
+
+  @Override
+  public char getChar(int fieldId) {
+    return get(fieldId).asChar();
+  }
+
+  @Override
+  public byte [] getBytes(int fieldId) {
+    return get(fieldId).asByteArray();
+  }
+
+  @Override
+  public short getInt2(int fieldId) {
+    int tagOffset = tagOffset(fieldId);
+    if (page.get(tagOffset) == Type.INT2_VALUE) {
+      return page.getShort(tagOffset + 1);
+    }
+    return get(fieldId).asInt2();
+  }
+
+  @Override
+  public int getInt4(int fieldId) {
+    int tagOffset = tagOffset(fieldId);
+    switch (page.get(tagOffset)) {
+    case Type.INT2_VALUE: return page.getShort(tagOffset + 1);
+    case Type.INT4_VALUE: return page.getInt(tagOffset + 1);
+    default: return get(fieldId).asInt4();
+    }
+  }
+
+  @Override
+  public long getInt8(int fieldId) {
+    int tagOffset = tagOffset(fieldId);
+    switch (page.get(tagOffset)) {
+    case Type.INT2_VALUE: return page.getShort(tagOffset + 1);
+    case Type.INT4_VALUE: return page.getInt(tagOffset + 1);
+    case Type.INT8_VALUE: return page.getLong(tagOffset + 1);
+    default: return get(fieldId).asInt8();
+    }
+  }
+
+  @Override
+  public float getFloat4(int fieldId) {
+    int tagOffset = tagOffset(fieldId);
+    if (page.get(tagOffset) == Type.FLOAT4_VALUE) {
+      return page.getFloat(tagOffset + 1);
+    }
+    return get(fieldId).asFloat4();
+  }
+
+  @Override
+  public double getFloat8(int fieldId) {
+    int tagOffset = tagOffset(fieldId);
+    switch (page.get(tagOffset)) {
+    case Type.FLOAT4_VALUE: return page.getFloat(tagOffset + 1);
+    case Type.FLOAT8_VALUE: return page.getDouble(tagOffset + 1);
+    default: return get(fieldId).asFloat8();
+    }
+  }
+
+  @Override
+  public String getText(int fieldId) {
+    return get(fieldId).asChars();
+  }
+
+  @Override
+  public Datum [] getValues() {
+    Datum [] values = new Datum[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = get(i);
+    }
+    return values;
+  }
+
+  /**
+   * @return a {@link VTuple} which copies all fields of the current row
+   */
+  @Override
+  public Tuple clone() throws CloneNotSupportedException {
+    return new VTuple(getValues());
+  }
+
+  @Override
+  public void clear() {
+    throw new UnsupportedException();
+  }
+
+  @Override
+  public void put(int fieldId, Datum value) {
+    throw new UnsupportedException();
+  }
+
+  @Override
+  public void put(int fieldId, Datum [] values) {
+    throw new UnsupportedException();
+  }
+
+  @Override
+  public void put(int fieldId, Tuple tuple) {
+    throw new UnsupportedException();
+  }
+
+  @Override
+  public void put(Datum [] values) {
+    throw new UnsupportedException();
+  }
+
+  @Override
+  public void setOffset(long offset) {
+    throw new UnsupportedException();
+  }
+
+  @Override
+  public long getOffset() {
+    throw new UnsupportedException();
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(getValues());
+  }
+}
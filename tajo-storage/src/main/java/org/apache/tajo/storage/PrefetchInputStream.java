@@ -0,0 +1,496 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.*;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A double-buffered input stream which reads ahead asynchronously. While a scanner consumes the current buffer, a
+ * background reader fills the next buffer from the underlying stream. The two buffers are direct buffers taken from
+ * a bounded {@link DirectBufferPool}, and they are returned to the pool on close. If the pool has no free buffers,
+ * the stream just delegates all calls to the underlying stream.
+ *
+ * A seek within the current or the next buffer does not touch the underlying stream. Any other seek discards the
+ * read-ahead data. At most one background read of a stream is in flight, and it is awaited before the underlying
+ * stream is used by the calling thread.
+ *
+ * The buffer pool and the reader threads are shared by all streams in a JVM. They are created with the configuration
+ * of the first stream opened.
+ *
+ * @see ConfVars#STORAGE_PREFETCH_ENABLED
+ */
+public class PrefetchInputStream extends InputStream
+    implements Seekable, PositionedReadable, ByteBufferReadable, ReadableByteChannel {
+  private static final Log LOG = LogFactory.getLog(PrefetchInputStream.class);
+  private static final int STAGING_BUFFER_SIZE = 64 * 1024;
+
+  private static DirectBufferPool sharedBufferPool;
+  private static ExecutorService sharedReaderService;
+
+  private final FSDataInputStream in;
+  private final DirectBufferPool bufferPool;
+  private final ExecutorService readerService;
+  private final boolean prefetching;
+  private final boolean byteBufferReadable;
+  // a heap buffer to copy bytes into a byte buffer if the underlying stream cannot read into a byte buffer
+  private final byte [] staging;
+
+  // the buffer being consumed, which is in the read mode
+  private ByteBuffer current;
+  // the buffer being filled in background
+  private ByteBuffer next;
+  // the file offsets of the first bytes of the current and the next buffers
+  private long currentStart;
+  private long nextStart;
+  // the read of the next buffer, which is null if no read is in flight or the result is consumed
+  private Future<Integer> nextFill;
+  // true if the last read of the underlying stream reached its end
+  private boolean sourceEof = false;
+  private boolean closed = false;
+
+  public PrefetchInputStream(FSDataInputStream in, DirectBufferPool bufferPool, ExecutorService readerService)
+      throws IOException {
+    this.in = in;
+    this.bufferPool = bufferPool;
+    this.readerService = readerService;
+
+    current = bufferPool.acquire();
+    next = current != null ? bufferPool.acquire() : null;
+    if (next == null) {
+      if (current != null) {
+        bufferPool.release(current);
+        current = null;
+      }
+      LOG.debug("No free prefetch buffers. The stream is read without prefetching.");
+    }
+    prefetching = next != null;
+
+    byteBufferReadable = in.getWrappedStream() instanceof ByteBufferReadable;
+    staging = byteBufferReadable ? null : new byte[STAGING_BUFFER_SIZE];
+    if (prefetching) {
+      currentStart = in.getPos();
+      current.limit(0);
+    }
+  }
+
+  public static boolean isEnabled(Configuration conf) {
+    return conf.getBoolean(ConfVars.STORAGE_PREFETCH_ENABLED.varname,
+        ConfVars.STORAGE_PREFETCH_ENABLED.defaultBoolVal);
+  }
+
+  /**
+   * Opens a file. The stream reads ahead if prefetching is enabled.
+   */
+  public static FSDataInputStream open(Configuration conf, FileSystem fs, Path path) throws IOException {
+    return open(conf, fs, path, conf.getInt("io.file.buffer.size", 4096));
+  }
+
+  /**
+   * Opens a file. The stream reads ahead if prefetching is enabled.
+   */
+  public static FSDataInputStream open(Configuration conf, FileSystem fs, Path path, int bufferSize)
+      throws IOException {
+    FSDataInputStream in = fs.open(path, bufferSize);
+    if (!isEnabled(conf)) {
+      return in;
+    }
+    return new FSDataInputStream(wrap(conf, in));
+  }
+
+  /**
+   * @return a prefetching stream over a given stream, which uses the shared buffer pool and reader threads
+   */
+  public static PrefetchInputStream wrap(Configuration conf, FSDataInputStream in) throws IOException {
+    return new PrefetchInputStream(in, getSharedBufferPool(conf), getSharedReaderService(conf));
+  }
+
+  static synchronized DirectBufferPool getSharedBufferPool(Configuration conf) {
+    if (sharedBufferPool == null) {
+      int bufferSize = conf.getInt(ConfVars.STORAGE_PREFETCH_BUFFER_SIZE.varname,
+          ConfVars.STORAGE_PREFETCH_BUFFER_SIZE.defaultIntVal);
+      int maxBufferNum = conf.getInt(ConfVars.STORAGE_PREFETCH_MAX_BUFFER_NUM.varname,
+          ConfVars.STORAGE_PREFETCH_MAX_BUFFER_NUM.defaultIntVal);
+      sharedBufferPool = new DirectBufferPool(bufferSize, maxBufferNum);
+    }
+    return sharedBufferPool;
+  }
+
+  static synchronized ExecutorService getSharedReaderService(Configuration conf) {
+    if (sharedReaderService == null) {
+      int threadNum = conf.getInt(ConfVars.STORAGE_PREFETCH_THREAD_NUM.varname,
+          ConfVars.STORAGE_PREFETCH_THREAD_NUM.defaultIntVal);
+      sharedReaderService = Executors.newFixedThreadPool(threadNum,
+          new ThreadFactoryBuilder().setNameFormat("Prefetch reader #%d").setDaemon(true).build());
+    }
+    return sharedReaderService;
+  }
+
+  /**
+   * @return true if the stream reads ahead. It is false if no buffer was available.
+   */
+  public boolean isPrefetching() {
+    return prefetching;
+  }
+
+  /**
+   * Fills a buffer from the underlying stream until the buffer is full or the stream reaches its end.
+   * It is called by a reader thread, or by the calling thread when no read is in flight.
+   *
+   * @return the number of bytes read
+   */
+  private int fill(ByteBuffer buffer) throws IOException {
+    buffer.clear();
+    while (buffer.hasRemaining()) {
+      int read;
+      if (byteBufferReadable) {
+        read = in.read(buffer);
+      } else {
+        read = in.read(staging, 0, Math.min(staging.length, buffer.remaining()));
+        if (read > 0) {
+          buffer.put(staging, 0, read);
+        }
+      }
+      if (read <= 0) {
+        break;
+      }
+    }
+    buffer.flip();
+    return buffer.limit();
+  }
+
+  private void prefetch() {
+    if (sourceEof) {
+      return;
+    }
+
+    nextStart = currentStart + current.limit();
+    final ByteBuffer buffer = next;
+    nextFill = readerService.submit(new Callable<Integer>() {
+      @Override
+      public Integer call() throws IOException {
+        return fill(buffer);
+      }
+    });
+  }
+
+  /**
+   * Waits for the read of the next buffer without being interrupted, because the buffer and the underlying stream
+   * must not be used until the read finishes.
+   *
+   * @return the number of bytes read
+   */
+  private int awaitFill() throws IOException {
+    try {
+      return Uninterruptibles.getUninterruptibly(nextFill);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /**
+   * Discards the read-ahead data. The underlying stream is positioned at the end of the read data.
+   */
+  private void discardNext() {
+    if (nextFill != null) {
+      try {
+        awaitFill();
+      } catch (IOException e) {
+        LOG.debug("The discarded prefetch has failed: " + e.getMessage());
+      }
+      nextFill = null;
+    }
+  }
+
+  private void switchToNext(int filled) {
+    ByteBuffer tmp = current;
+    current = next;
+    next = tmp;
+    currentStart = nextStart;
+    nextFill = null;
+    sourceEof = filled < current.capacity();
+    prefetch();
+  }
+
+  /**
+   * Moves to the next buffer if the current buffer is consumed.
+   *
+   * @return false if the stream reaches its end
+   */
+  private boolean ensureAvailable() throws IOException {
+    if (current.hasRemaining()) {
+      return true;
+    }
+
+    if (nextFill != null) {
+      switchToNext(awaitFill());
+    } else if (!sourceEof) {
+      currentStart += current.limit();
+      sourceEof = fill(current) < current.capacity();
+      prefetch();
+    }
+    return current.hasRemaining();
+  }
+
+  private void checkOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream is closed");
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!prefetching) {
+      return in.read();
+    }
+    checkOpen();
+    if (!ensureAvailable()) {
+      return -1;
+    }
+    return current.get() & 0xFF;
+  }
+
+  /**
+   * Unlike {@link InputStream#read(byte[], int, int)}, it reads <code>len</code> bytes unless the stream reaches its
+   * end.
+   */
+  @Override
+  public int read(byte [] b, int off, int len) throws IOException {
+    if (!prefetching) {
+      return in.read(b, off, len);
+    }
+    checkOpen();
+    if (len == 0) {
+      return 0;
+    }
+
+    int read = 0;
+    while (read < len && ensureAvailable()) {
+      int n = Math.min(len - read, current.remaining());
+      current.get(b, off + read, n);
+      read += n;
+    }
+    return read > 0 ? read : -1;
+  }
+
+  /**
+   * It reads until the buffer is full or the stream reaches its end.
+   */
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    if (!prefetching) {
+      return readDirectly(dst);
+    }
+    checkOpen();
+    if (!dst.hasRemaining()) {
+      return 0;
+    }
+
+    int read = 0;
+    while (dst.hasRemaining() && ensureAvailable()) {
+      int n = Math.min(dst.remaining(), current.remaining());
+      ByteBuffer src = current.duplicate();
+      src.limit(src.position() + n);
+      dst.put(src);
+      current.position(current.position() + n);
+      read += n;
+    }
+    return read > 0 ? read : -1;
+  }
+
+  /**
+   * Reads the underlying stream into a byte buffer without prefetching. Like {@link #read(ByteBuffer)}, it reads
+   * until the buffer is full or the stream reaches its end.
+   */
+  private int readDirectly(ByteBuffer dst) throws IOException {
+    if (byteBufferReadable) {
+      return in.read(dst);
+    }
+    checkOpen();
+    if (!dst.hasRemaining()) {
+      return 0;
+    }
+
+    int read = 0;
+    while (dst.hasRemaining()) {
+      int n;
+      if (dst.hasArray()) {
+        n = in.read(dst.array(), dst.arrayOffset() + dst.position(), dst.remaining());
+        if (n > 0) {
+          dst.position(dst.position() + n);
+        }
+      } else {
+        n = in.read(staging, 0, Math.min(staging.length, dst.remaining()));
+        if (n > 0) {
+          dst.put(staging, 0, n);
+        }
+      }
+      if (n <= 0) {
+        break;
+      }
+      read += n;
+    }
+    return read > 0 ? read : -1;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    if (!prefetching) {
+      return in.skip(n);
+    }
+    checkOpen();
+
+    long skipped = 0;
+    while (skipped < n && ensureAvailable()) {
+      int skip = (int) Math.min(n - skipped, current.remaining());
+      current.position(current.position() + skip);
+      skipped += skip;
+    }
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    if (!prefetching) {
+      return in.available();
+    }
+    checkOpen();
+    return current.remaining();
+  }
+
+  @Override
+  public void seek(long pos) throws IOException {
+    if (!prefetching) {
+      in.seek(pos);
+      return;
+    }
+    checkOpen();
+
+    if (pos >= currentStart && pos <= currentStart + current.limit()) {
+      current.position((int) (pos - currentStart));
+      return;
+    }
+
+    if (nextFill != null && pos >= nextStart) {
+      int filled = awaitFill();
+      if (pos <= nextStart + filled) {
+        switchToNext(filled);
+        current.position((int) (pos - currentStart));
+        return;
+      }
+    }
+
+    discardNext();
+    in.seek(pos);
+    currentStart = pos;
+    current.clear();
+    current.limit(0);
+    sourceEof = false;
+  }
+
+  @Override
+  public long getPos() throws IOException {
+    if (!prefetching) {
+      return in.getPos();
+    }
+    // the position is kept in currentStart after close
+    return current != null ? currentStart + current.position() : currentStart;
+  }
+
+  @Override
+  public boolean seekToNewSource(long targetPos) throws IOException {
+    if (!prefetching) {
+      return in.seekToNewSource(targetPos);
+    }
+    checkOpen();
+
+    discardNext();
+    boolean found = in.seekToNewSource(targetPos);
+    currentStart = in.getPos();
+    current.clear();
+    current.limit(0);
+    sourceEof = false;
+    return found;
+  }
+
+  @Override
+  public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+    if (nextFill != null) {
+      awaitFill();
+    }
+    return in.read(position, buffer, offset, length);
+  }
+
+  @Override
+  public void readFully(long position, byte[] buffer, int offset, int length) throws IOException {
+    if (nextFill != null) {
+      awaitFill();
+    }
+    in.readFully(position, buffer, offset, length);
+  }
+
+  @Override
+  public void readFully(long position, byte[] buffer) throws IOException {
+    readFully(position, buffer, 0, buffer.length);
+  }
+
+  @Override
+  public boolean isOpen() {
+    return !closed;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    try {
+      if (prefetching) {
+        discardNext();
+        currentStart = getPos();
+        bufferPool.release(current);
+        bufferPool.release(next);
+        current = null;
+        next = null;
+      }
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -22,15 +22,24 @@ import com.google.protobuf.Message;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.CatalogConstants;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.datum.ProtobufDatumFactory;
+import org.apache.tajo.storage.compress.BlockCodec;
 import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.vector.ColumnVector;
+import org.apache.tajo.storage.vector.DoubleColumnVector;
+import org.apache.tajo.storage.vector.LongColumnVector;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+import org.apache.tajo.storage.vector.VectorizedScanner;
 import org.apache.tajo.util.BitArray;
 
 import java.io.File;
@@ -39,12 +48,30 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 
+/**
+ * RAW is a row-oriented binary format for intermediate data. If the table meta has a compression codec
+ * ({@link CatalogConstants#COMPRESSION_CODEC}), the rows are written in compressed blocks (see {@link BlockCodec}),
+ * and a compressed file cannot seek.
+ */
 public class RawFile {
   private static final Log LOG = LogFactory.getLog(RawFile.class);
 
-  public static class RawFileScanner extends FileScanner implements SeekableScanner {
-    private FileChannel channel;
+  /** A block is stored uncompressed if its compression ratio is greater than this ratio. */
+  public static final String BLOCK_COMPRESSION_MAX_RATIO = "rawfile.compression.max-ratio";
+  public static final String DEFAULT_BLOCK_COMPRESSION_MAX_RATIO = "0.9";
+
+  public static class RawFileScanner extends FileScanner implements SeekableScanner, VectorizedScanner {
+    private ReadableByteChannel channel;
+    // it is null if the scanner reads a stream or prefetches a file.
+    private FileChannel fileChannel;
+    // it is null unless the scanner prefetches a file.
+    private PrefetchInputStream prefetchIn;
+    private long channelPos;
+    // they are null if the file is not compressed.
+    private BlockCodec blockCodec;
+    private BlockCodec.BlockReadChannel blockChannel;
     private DataType[] columnTypes;
     private Path path;
 
@@ -70,27 +97,77 @@ public class RawFile {
       this(conf, schema, meta, fragment.getPath());
     }
 
+    /**
+     * Creates a scanner reading a RAW byte stream, such as shuffle data being fetched. A stream scanner cannot seek
+     * or reset, and it must be initialized by {@link #init()}.
+     *
+     * @param channel the stream. Each read must fill the buffer unless the stream reaches its end.
+     * @param size the number of bytes of the stream
+     */
+    public RawFileScanner(Configuration conf, Schema schema, TableMeta meta, ReadableByteChannel channel, long size) {
+      super(conf, schema, meta, null);
+      this.channel = channel;
+      this.fileSize = size;
+    }
+
     public void init() throws IOException {
-      File file;
-      try {
-        if (path.toUri().getScheme() != null) {
-          file = new File(path.toUri());
+      if (path != null) {
+        File file;
+        try {
+          if (path.toUri().getScheme() != null) {
+            file = new File(path.toUri());
+          } else {
+            file = new File(path.toString());
+          }
+        } catch (IllegalArgumentException iae) {
+          throw new IOException(iae);
+        }
+
+        // the scanner may be initialized again.
+        if (prefetchIn != null) {
+          prefetchIn.close();
+          prefetchIn = null;
+        }
+        if (fis != null) {
+          fis.close();
+          fis = null;
+          fileChannel = null;
+        }
+        if (PrefetchInputStream.isEnabled(conf)) {
+          FileSystem localFs = FileSystem.getLocal(conf).getRawFileSystem();
+          prefetchIn = PrefetchInputStream.wrap(conf, localFs.open(new Path(file.toURI())));
+          if (!prefetchIn.isPrefetching()) {
+            // all prefetch buffers are in use, so the file channel reads the file with less copying.
+            prefetchIn.close();
+            prefetchIn = null;
+          }
+        }
+        if (prefetchIn != null) {
+          channel = prefetchIn;
+          fileSize = file.length();
         } else {
-          file = new File(path.toString());
+          fis = new FileInputStream(file);
+          fileChannel = fis.getChannel();
+          channel = fileChannel;
+          fileSize = fileChannel.size();
         }
-      } catch (IllegalArgumentException iae) {
-        throw new IOException(iae);
       }
+      channelPos = 0;
 
-      fis = new FileInputStream(file);
-      channel = fis.getChannel();
-      fileSize = channel.size();
+      String codecName = meta.getOption(CatalogConstants.COMPRESSION_CODEC);
+      if (codecName != null) {
+        if (blockCodec != null) {
+          blockCodec.close();
+        }
+        blockCodec = new BlockCodec(conf, codecName, 1.0f);
+        blockChannel = blockCodec.newReadChannel(channel);
+      }
 
       if (tableStats != null) {
         tableStats.setNumBytes(fileSize);
       }
       if (LOG.isDebugEnabled()) {
-        LOG.debug("RawFileScanner open:" + path + "," + channel.position() + ", size :" + channel.size());
+        LOG.debug("RawFileScanner open:" + path + ", size :" + fileSize);
       }
 
       buffer = ByteBuffer.allocateDirect(128 * 1024);
@@ -103,7 +180,7 @@ public class RawFile {
       tuple = new VTuple(columnTypes.length);
 
       // initial read
-      channel.read(buffer);
+      readChannel();
       buffer.flip();
 
       nullFlags = new BitArray(schema.size());
@@ -114,26 +191,62 @@ public class RawFile {
 
     @Override
     public long getNextOffset() throws IOException {
-      return channel.position() - buffer.remaining();
+      return channelPos - buffer.remaining();
     }
 
     @Override
     public void seek(long offset) throws IOException {
-      long currentPos = channel.position();
+      if (fileChannel == null && prefetchIn == null) {
+        throw new UnsupportedOperationException("A stream cannot seek");
+      }
+      if (blockChannel != null) {
+        throw new UnsupportedOperationException("A compressed file cannot seek");
+      }
+      if (prefetchIn != null) {
+        // unless eof, the buffer has the bytes in [channelPos - buffer.limit(), channelPos) of the file.
+        long bufferStart = channelPos - buffer.limit();
+        if (!eof && bufferStart <= offset && offset < channelPos) {
+          buffer.position((int) (offset - bufferStart));
+        } else {
+          buffer.clear();
+          prefetchIn.seek(offset);
+          channelPos = offset;
+          readChannel();
+          buffer.flip();
+        }
+        eof = false;
+        return;
+      }
+      long currentPos = fileChannel.position();
       if(currentPos < offset &&  offset < currentPos + buffer.limit()){
         buffer.position((int)(offset - currentPos));
       } else {
         buffer.clear();
-        channel.position(offset);
-        channel.read(buffer);
+        fileChannel.position(offset);
+        channelPos = offset;
+        readChannel();
         buffer.flip();
         eof = false;
       }
     }
 
+    private int readChannel() throws IOException {
+      if (blockChannel != null) {
+        int readBytes = blockChannel.read(buffer);
+        channelPos = blockChannel.getPosition();
+        return readBytes;
+      }
+
+      int readBytes = channel.read(buffer);
+      if (readBytes > 0) {
+        channelPos += readBytes;
+      }
+      return readBytes;
+    }
+
     private boolean fillBuffer() throws IOException {
       buffer.compact();
-      if (channel.read(buffer) == -1) {
+      if (readChannel() == -1) {
         eof = true;
         return false;
       } else {
@@ -224,13 +337,15 @@ public class RawFile {
       throw new IOException("Invalid Variable int64");
     }
 
-    @Override
-    public Tuple next() throws IOException {
-      if(eof) return null;
-
+    /**
+     * It reads the header of the next record, and it makes the whole record available in the buffer.
+     *
+     * @return false if there are no more records
+     */
+    private boolean readRecordHeader() throws IOException {
       if (buffer.remaining() < headerSize) {
         if (!fillBuffer()) {
-          return null;
+          return false;
         }
       }
 
@@ -246,129 +361,249 @@ public class RawFile {
       //buffer.position(recordOffset + headerSize);
       if (buffer.remaining() < (recordSize - headerSize)) {
         if (!fillBuffer()) {
-          return null;
+          return false;
         }
       }
 
       recordCount++;
+      return true;
+    }
 
-      for (int i = 0; i < columnTypes.length; i++) {
-        // check if the i'th column is null
-        if (nullFlags.get(i)) {
-          tuple.put(i, DatumFactory.createNullDatum());
-          continue;
-        }
+    private void checkEndOfRecords() {
+      if(!buffer.hasRemaining() && channelPos == fileSize && (blockChannel == null || !blockChannel.hasPending())){
+        eof = true;
+      }
+    }
 
-        switch (columnTypes[i].getType()) {
-          case BOOLEAN :
-            tuple.put(i, DatumFactory.createBool(buffer.get()));
-            break;
+    /**
+     * It reads a non-null field of the current record.
+     */
+    private Datum readField(int i) throws IOException {
+      switch (columnTypes[i].getType()) {
+        case BOOLEAN :
+          return DatumFactory.createBool(buffer.get());
 
-          case BIT :
-            tuple.put(i, DatumFactory.createBit(buffer.get()));
-            break;
+        case BIT :
+          return DatumFactory.createBit(buffer.get());
 
-          case CHAR :
-            int realLen = readRawVarint32();
-            byte[] buf = new byte[realLen];
-            buffer.get(buf);
-            tuple.put(i, DatumFactory.createChar(buf));
-            break;
+        case CHAR :
+          int realLen = readRawVarint32();
+          byte[] buf = new byte[realLen];
+          buffer.get(buf);
+          return DatumFactory.createChar(buf);
 
-          case INT2 :
-            tuple.put(i, DatumFactory.createInt2(buffer.getShort()));
-            break;
+        case INT2 :
+          return DatumFactory.createInt2(buffer.getShort());
 
-          case INT4 :
-            tuple.put(i, DatumFactory.createInt4(decodeZigZag32(readRawVarint32())));
-            break;
+        case INT4 :
+          return DatumFactory.createInt4(decodeZigZag32(readRawVarint32()));
 
-          case INT8 :
-            tuple.put(i, DatumFactory.createInt8(decodeZigZag64(readRawVarint64())));
-            break;
+        case INT8 :
+          return DatumFactory.createInt8(decodeZigZag64(readRawVarint64()));
 
-          case FLOAT4 :
-            tuple.put(i, DatumFactory.createFloat4(buffer.getFloat()));
-            break;
+        case FLOAT4 :
+          return DatumFactory.createFloat4(buffer.getFloat());
 
-          case FLOAT8 :
-            tuple.put(i, DatumFactory.createFloat8(buffer.getDouble()));
-            break;
+        case FLOAT8 :
+          return DatumFactory.createFloat8(buffer.getDouble());
 
-          case TEXT : {
-            int len = readRawVarint32();
-            byte [] strBytes = new byte[len];
-            buffer.get(strBytes);
-            tuple.put(i, DatumFactory.createText(new String(strBytes)));
-            break;
-          }
+        case TEXT : {
+          int len = readRawVarint32();
+          byte [] strBytes = new byte[len];
+          buffer.get(strBytes);
+          return DatumFactory.createText(new String(strBytes));
+        }
 
-          case BLOB : {
-            int len = readRawVarint32();
-            byte [] rawBytes = new byte[len];
-            buffer.get(rawBytes);
-            tuple.put(i, DatumFactory.createBlob(rawBytes));
-            break;
-          }
+        case BLOB : {
+          int len = readRawVarint32();
+          byte [] rawBytes = new byte[len];
+          buffer.get(rawBytes);
+          return DatumFactory.createBlob(rawBytes);
+        }
 
-          case PROTOBUF: {
-            int len = readRawVarint32();
-            byte [] rawBytes = new byte[len];
-            buffer.get(rawBytes);
-
-            ProtobufDatumFactory factory = ProtobufDatumFactory.get(columnTypes[i]);
-            Message.Builder builder = factory.newBuilder();
-            builder.mergeFrom(rawBytes);
-            tuple.put(i, factory.createDatum(builder.build()));
-            break;
-          }
+        case PROTOBUF: {
+          int len = readRawVarint32();
+          byte [] rawBytes = new byte[len];
+          buffer.get(rawBytes);
 
-          case INET4 :
-            byte [] ipv4Bytes = new byte[4];
-            buffer.get(ipv4Bytes);
-            tuple.put(i, DatumFactory.createInet4(ipv4Bytes));
-            break;
+          ProtobufDatumFactory factory = ProtobufDatumFactory.get(columnTypes[i]);
+          Message.Builder builder = factory.newBuilder();
+          builder.mergeFrom(rawBytes);
+          return factory.createDatum(builder.build());
+        }
 
-          case DATE: {
-            int val = buffer.getInt();
-            if (val < Integer.MIN_VALUE + 1) {
-              tuple.put(i, DatumFactory.createNullDatum());
-            } else {
-              tuple.put(i, DatumFactory.createFromInt4(columnTypes[i], val));
-            }
-            break;
+        case INET4 :
+          byte [] ipv4Bytes = new byte[4];
+          buffer.get(ipv4Bytes);
+          return DatumFactory.createInet4(ipv4Bytes);
+
+        case DATE: {
+          int val = buffer.getInt();
+          if (val < Integer.MIN_VALUE + 1) {
+            return DatumFactory.createNullDatum();
+          } else {
+            return DatumFactory.createFromInt4(columnTypes[i], val);
           }
-          case TIME:
-          case TIMESTAMP: {
-            long val = buffer.getLong();
-            if (val < Long.MIN_VALUE + 1) {
-              tuple.put(i, DatumFactory.createNullDatum());
-            } else {
-              tuple.put(i, DatumFactory.createFromInt8(columnTypes[i], val));
-            }
-            break;
+        }
+        case TIME:
+        case TIMESTAMP: {
+          long val = buffer.getLong();
+          if (val < Long.MIN_VALUE + 1) {
+            return DatumFactory.createNullDatum();
+          } else {
+            return DatumFactory.createFromInt8(columnTypes[i], val);
           }
-          case NULL_TYPE:
-            tuple.put(i, NullDatum.get());
-            break;
+        }
+        case NULL_TYPE:
+          return NullDatum.get();
 
-          default:
+        default:
+          return null;
+      }
+    }
+
+    /**
+     * It skips a non-null field of the current record without decoding it.
+     */
+    private void skipField(int i) throws IOException {
+      switch (columnTypes[i].getType()) {
+        case BOOLEAN :
+        case BIT :
+          buffer.position(buffer.position() + 1);
+          break;
+        case INT2 :
+          buffer.position(buffer.position() + 2);
+          break;
+        case INT4 :
+          readRawVarint32();
+          break;
+        case INT8 :
+          readRawVarint64();
+          break;
+        case FLOAT4 :
+        case INET4 :
+        case DATE :
+          buffer.position(buffer.position() + 4);
+          break;
+        case FLOAT8 :
+        case TIME :
+        case TIMESTAMP :
+          buffer.position(buffer.position() + 8);
+          break;
+        case CHAR :
+        case TEXT :
+        case BLOB :
+        case PROTOBUF : {
+          int len = readRawVarint32();
+          buffer.position(buffer.position() + len);
+          break;
         }
+        default:
       }
+    }
 
-      if(!buffer.hasRemaining() && channel.position() == fileSize){
-        eof = true;
+    @Override
+    public Tuple next() throws IOException {
+      if(eof) return null;
+
+      if (!readRecordHeader()) {
+        return null;
+      }
+
+      for (int i = 0; i < columnTypes.length; i++) {
+        // check if the i'th column is null
+        if (nullFlags.get(i)) {
+          tuple.put(i, DatumFactory.createNullDatum());
+          continue;
+        }
+
+        Datum datum = readField(i);
+        if (datum != null) {
+          tuple.put(i, datum);
+        }
       }
+
+      checkEndOfRecords();
       return new VTuple(tuple);
     }
 
+    /**
+     * Integer and floating point fields are decoded into primitive vectors, and the fields of the columns not in
+     * the batch are skipped.
+     */
+    @Override
+    public int nextBatch(VectorizedRowBatch batch) throws IOException {
+      batch.reset();
+
+      int capacity = batch.getCapacity();
+      int row = 0;
+      while (row < capacity && !eof && readRecordHeader()) {
+        for (int i = 0; i < columnTypes.length; i++) {
+          ColumnVector vector = batch.columns[i];
+          if (nullFlags.get(i)) {
+            if (vector != null) {
+              vector.setNull(row);
+            }
+            continue;
+          }
+
+          if (vector == null) {
+            skipField(i);
+            continue;
+          }
+
+          switch (columnTypes[i].getType()) {
+            case INT2:
+              ((LongColumnVector) vector).vector[row] = buffer.getShort();
+              break;
+            case INT4:
+              ((LongColumnVector) vector).vector[row] = decodeZigZag32(readRawVarint32());
+              break;
+            case INT8:
+              ((LongColumnVector) vector).vector[row] = decodeZigZag64(readRawVarint64());
+              break;
+            case FLOAT4:
+              ((DoubleColumnVector) vector).vector[row] = buffer.getFloat();
+              break;
+            case FLOAT8:
+              ((DoubleColumnVector) vector).vector[row] = buffer.getDouble();
+              break;
+            default:
+              Datum datum = readField(i);
+              if (datum == null || datum.isNull()) {
+                vector.setNull(row);
+              } else {
+                vector.setDatum(row, datum);
+              }
+          }
+        }
+
+        checkEndOfRecords();
+        row++;
+      }
+
+      batch.size = row;
+      return row;
+    }
+
     @Override
     public void reset() throws IOException {
+      if (fileChannel == null && prefetchIn == null) {
+        throw new UnsupportedOperationException("A stream cannot be reset");
+      }
       // clear the buffer
       buffer.clear();
       // reload initial buffer
-      channel.position(0);
-      channel.read(buffer);
+      if (prefetchIn != null) {
+        prefetchIn.seek(0);
+      } else {
+        fileChannel.position(0);
+      }
+      channelPos = 0;
+      if (blockChannel != null) {
+        blockChannel.reset();
+      }
+      readChannel();
       buffer.flip();
       eof = false;
     }
@@ -381,7 +616,12 @@ public class RawFile {
       }
       buffer.clear();
       channel.close();
-      fis.close();
+      if (fis != null) {
+        fis.close();
+      }
+      if (blockCodec != null) {
+        blockCodec.close();
+      }
     }
 
     @Override
@@ -401,27 +641,22 @@ public class RawFile {
 
     @Override
     public float getProgress() {
-      try {
-        tableStats.setNumRows(recordCount);
-        long filePos = 0;
-        if (channel != null) {
-          filePos = channel.position();
-          tableStats.setReadBytes(filePos);
-        }
+      tableStats.setNumRows(recordCount);
+      long filePos = 0;
+      if (channel != null) {
+        filePos = channelPos;
+        tableStats.setReadBytes(filePos);
+      }
 
-        if(eof || channel == null) {
-          tableStats.setReadBytes(fileSize);
-          return 1.0f;
-        }
+      if(eof || channel == null) {
+        tableStats.setReadBytes(fileSize);
+        return 1.0f;
+      }
 
-        if (filePos == 0) {
-          return 0.0f;
-        } else {
-          return Math.min(1.0f, ((float)filePos / (float)fileSize));
-        }
-      } catch (IOException e) {
-        LOG.error(e.getMessage(), e);
+      if (filePos == 0) {
         return 0.0f;
+      } else {
+        return Math.min(1.0f, ((float)filePos / (float)fileSize));
       }
     }
   }
@@ -436,6 +671,8 @@ public class RawFile {
     private int headerSize = 0;
     private static final int RECORD_SIZE = 4;
     private long pos;
+    // it is null if the file is not compressed.
+    private BlockCodec blockCodec;
 
     private TableStatistics stats;
 
@@ -466,6 +703,12 @@ public class RawFile {
 
       buffer = ByteBuffer.allocateDirect(64 * 1024);
 
+      String codecName = meta.getOption(CatalogConstants.COMPRESSION_CODEC);
+      if (codecName != null) {
+        blockCodec = new BlockCodec(conf, codecName, Float.parseFloat(
+            meta.getOption(BLOCK_COMPRESSION_MAX_RATIO, DEFAULT_BLOCK_COMPRESSION_MAX_RATIO)));
+      }
+
       // comput the number of bytes, representing the null flags
 
       nullFlags = new BitArray(schema.size());
@@ -478,15 +721,38 @@ public class RawFile {
       super.init();
     }
 
+    /**
+     * If the file is compressed, it flushes the buffered rows into a block, so the returned offset is always at a
+     * block boundary.
+     */
     @Override
     public long getOffset() throws IOException {
+      if (blockCodec != null) {
+        flushBuffer();
+        return blockCodec.getWrittenBytes();
+      }
+      return pos;
+    }
+
+    /**
+     * @return the number of bytes of the written rows before compression
+     */
+    public long getUncompressedBytes() {
       return pos;
     }
 
+    private void writeBuffer() throws IOException {
+      if (blockCodec != null) {
+        blockCodec.writeBlock(buffer, channel);
+      } else {
+        channel.write(buffer);
+      }
+    }
+
     private void flushBuffer() throws IOException {
       buffer.limit(buffer.position());
       buffer.flip();
-      channel.write(buffer);
+      writeBuffer();
       buffer.clear();
     }
 
@@ -500,7 +766,7 @@ public class RawFile {
         int limit = buffer.position();
         buffer.limit(recordOffset);
         buffer.flip();
-        channel.write(buffer);
+        writeBuffer();
         buffer.position(recordOffset);
         buffer.limit(limit);
         buffer.compact();
@@ -719,6 +985,12 @@ public class RawFile {
       if (LOG.isDebugEnabled()) {
         LOG.debug("RawFileAppender written: " + getOffset() + " bytes, path: " + path);
       }
+      if (blockCodec != null) {
+        if (LOG.isDebugEnabled()) {
+          LOG.debug(blockCodec.getUncompressedBlockNum() + " blocks are stored uncompressed, path: " + path);
+        }
+        blockCodec.close();
+      }
       channel.close();
       randomAccessFile.close();
     }
@@ -84,7 +84,7 @@ public class RowFile {
     public void init() throws IOException {
       // set default page size.
       fs = fragment.getPath().getFileSystem(conf);
-      in = fs.open(fragment.getPath());
+      in = PrefetchInputStream.open(conf, fs, fragment.getPath());
       buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE * schema.size());
       buffer.flip();
 
@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+
+import java.util.Arrays;
+
+/**
+ * A search condition given to {@link Scanner#setSearchCondition(Object)}. It is a conjunction of
+ * {@link ColumnPredicate}s, which are a part of the search condition of a scan.
+ *
+ * A scanner may drop rows which do not satisfy it, but it does not have to drop all of them. So, the caller
+ * still evaluates the whole search condition on the returned rows.
+ */
+public class ScanPredicate {
+  private final ColumnPredicate [] predicates;
+
+  public ScanPredicate(ColumnPredicate... predicates) {
+    this.predicates = predicates;
+  }
+
+  public ColumnPredicate [] getPredicates() {
+    return predicates;
+  }
+
+  /**
+   * @return the ids of the predicate columns in a given schema. An id is -1 if the schema does not have the column.
+   */
+  public int [] getColumnIds(Schema schema) {
+    int [] columnIds = new int[predicates.length];
+    for (int i = 0; i < predicates.length; i++) {
+      Column column = predicates[i].getColumn();
+      columnIds[i] = schema.containsByQualifiedName(column.getQualifiedName()) ?
+          schema.getColumnId(column.getQualifiedName()) : schema.getColumnIdByName(column.getSimpleName());
+    }
+    return columnIds;
+  }
+
+  /**
+   * @param tuple a tuple of the schema which the column ids are resolved against
+   * @param columnIds the column ids returned by {@link #getColumnIds(Schema)}
+   * @return true if a given tuple satisfies all predicates. A predicate on an unknown column is ignored.
+   */
+  public boolean isTrue(Tuple tuple, int [] columnIds) {
+    for (int i = 0; i < predicates.length; i++) {
+      if (columnIds[i] >= 0 && !predicates[i].isTrue(tuple.get(columnIds[i]))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(predicates);
+  }
+}
@@ -79,7 +79,8 @@ public interface Scanner extends SchemaObject, Closeable {
   boolean isSelectable();
 
   /**
-   * Set a search condition
+   * Set a search condition. It must be called before {@link #init()}. A file scanner accepts a
+   * {@link ScanPredicate}, and it may drop rows which do not satisfy the condition.
    * @param expr to be searched
    *
    * TODO - to be changed Object type
@@ -0,0 +1,370 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.util.ByteSearcher;
+import org.apache.tajo.util.Bytes;
+
+import java.util.Arrays;
+
+/**
+ * A reusable tuple over a delimited text row in a shared byte buffer. {@link #set(byte[], int, int, long)} only
+ * records the start and length of each target field, and a field is deserialized when it is accessed for the first
+ * time. With {@link TextSerializerDeserializer}, the primitive getters parse integers and doubles directly from the
+ * buffer without creating any datum.
+ *
+ * A datum returned by {@link #get(int)} does not refer to the buffer, but the tuple itself is valid only until the
+ * next call of {@link #set(byte[], int, int, long)}.
+ */
+public class TextFieldTuple implements Tuple, Cloneable {
+  /** the field length of a column which is not a target */
+  private static final int NOT_PROJECTED = -1;
+  /** the field length of a target column which the row does not have */
+  private static final int ABSENT = -2;
+
+  private final Schema schema;
+  private final Type [] types;
+  private final byte delimiter;
+  private final int [] targetColumnIds;
+  private final byte [] nullBytes;
+  private final SerializerDeserializer serde;
+  private final boolean textSerde;
+
+  private byte [] data;
+  private final int [] starts;
+  private final int [] lengths;
+  private final Datum [] values;
+  private long offset;
+
+  /**
+   * @param targetColumnIds the ids of target columns in ascending order
+   */
+  public TextFieldTuple(Schema schema, byte delimiter, int [] targetColumnIds, byte [] nullBytes,
+                        SerializerDeserializer serde) {
+    this.schema = schema;
+    this.types = new Type[schema.size()];
+    for (int i = 0; i < types.length; i++) {
+      types[i] = schema.getColumn(i).getDataType().getType();
+    }
+    this.delimiter = delimiter;
+    this.targetColumnIds = targetColumnIds;
+    this.nullBytes = nullBytes;
+    this.serde = serde;
+    this.textSerde = serde.getClass() == TextSerializerDeserializer.class;
+
+    this.starts = new int[schema.size()];
+    this.lengths = new int[schema.size()];
+    this.values = new Datum[schema.size()];
+    Arrays.fill(lengths, NOT_PROJECTED);
+  }
+
+  /**
+   * It points to a new row. Only the delimiters up to the last target field are searched.
+   *
+   * @param data the buffer containing the row
+   * @param start the start of the row in the buffer
+   * @param length the length of the row without the line terminator
+   * @param offset the offset of the row in the file
+   */
+  public void set(byte [] data, int start, int length, long offset) {
+    this.data = data;
+    this.offset = offset;
+    Arrays.fill(values, null);
+
+    int targetIdx = 0;
+    int fieldId = 0;
+    int fieldStart = start;
+    int end = start + length;
+    int delimiterPosn;
+    while (targetIdx < targetColumnIds.length &&
+        (delimiterPosn = ByteSearcher.indexOf(data, fieldStart, end, delimiter)) >= 0) {
+      if (fieldId == targetColumnIds[targetIdx]) {
+        starts[fieldId] = fieldStart;
+        lengths[fieldId] = delimiterPosn - fieldStart;
+        targetIdx++;
+      }
+      fieldId++;
+      fieldStart = delimiterPosn + 1;
+    }
+
+    // the last field is not followed by any delimiter.
+    if (targetIdx < targetColumnIds.length && fieldId == targetColumnIds[targetIdx]) {
+      starts[fieldId] = fieldStart;
+      lengths[fieldId] = end - fieldStart;
+      targetIdx++;
+    }
+    for (; targetIdx < targetColumnIds.length; targetIdx++) {
+      lengths[targetColumnIds[targetIdx]] = ABSENT;
+    }
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+
+  @Override
+  public boolean contains(int fieldid) {
+    return values[fieldid] != null || lengths[fieldid] != NOT_PROJECTED;
+  }
+
+  @Override
+  public boolean isNull(int fieldid) {
+    if (values[fieldid] == null && textSerde && lengths[fieldid] >= 0) {
+      return isNullField(fieldid);
+    }
+    return get(fieldid) instanceof NullDatum;
+  }
+
+  /**
+   * It follows the null representation of {@link TextSerializerDeserializer}.
+   */
+  private boolean isNullField(int fieldId) {
+    int length = lengths[fieldId];
+    if (length == 0) {
+      return types[fieldId] != Type.TEXT && types[fieldId] != Type.CHAR;
+    }
+    return length == nullBytes.length && Bytes.equals(data, starts[fieldId], length, nullBytes, 0, nullBytes.length);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(values, null);
+    Arrays.fill(lengths, NOT_PROJECTED);
+  }
+
+  //////////////////////////////////////////////////////
+  // Setter
+  //////////////////////////////////////////////////////
+  @Override
+  public void put(int fieldId, Datum value) {
+    values[fieldId] = value;
+  }
+
+  @Override
+  public void put(int fieldId, Datum[] values) {
+    System.arraycopy(values, 0, this.values, fieldId, values.length);
+  }
+
+  @Override
+  public void put(int fieldId, Tuple tuple) {
+    for (int i = fieldId, j = 0; j < tuple.size(); i++, j++) {
+      values[i] = tuple.get(j);
+    }
+  }
+
+  @Override
+  public void put(Datum[] values) {
+    System.arraycopy(values, 0, this.values, 0, size());
+  }
+
+  //////////////////////////////////////////////////////
+  // Getter
+  //////////////////////////////////////////////////////
+  @Override
+  public Datum get(int fieldId) {
+    if (values[fieldId] != null) {
+      return values[fieldId];
+    }
+
+    int length = lengths[fieldId];
+    if (length == NOT_PROJECTED) {
+      return null;
+    } else if (length == ABSENT) {
+      values[fieldId] = NullDatum.get();  // split error. (col : 3, separator: ',', row text: "a,")
+    } else {
+      try {
+        values[fieldId] = serde.deserialize(schema.getColumn(fieldId), data, starts[fieldId], length, nullBytes);
+      } catch (Exception e) {
+        values[fieldId] = NullDatum.get();
+      }
+    }
+    return values[fieldId];
+  }
+
+  /**
+   * @return true if the field can be parsed from the buffer directly
+   */
+  private boolean isDirectlyParsable(int fieldId) {
+    return values[fieldId] == null && textSerde && lengths[fieldId] >= 0 && !isNullField(fieldId);
+  }
+
+  @Override
+  public void setOffset(long offset) {
+    this.offset = offset;
+  }
+
+  @Override
+  public long getOffset() {
+    return this.offset;
+  }
+
+  @Override
+  public boolean getBool(int fieldId) {
+    return get(fieldId).asBool();
+  }
+
+  @Override
+  public byte getByte(int fieldId) {
+    return get(fieldId).asByte();
+  }
+
+  @Override
+  public char getChar(int fieldId) {
+    return get(fieldId).asChar();
+  }
+
+  @Override
+  public byte [] getBytes(int fieldId) {
+    return get(fieldId).asByteArray();
+  }
+
+  @Override
+  public short getInt2(int fieldId) {
+    if (isDirectlyParsable(fieldId) && (types[fieldId] == Type.INT2 || types[fieldId] == Type.INT4)) {
+      try {
+        return (short) Bytes.parseInt(data, starts[fieldId], lengths[fieldId]);
+      } catch (NumberFormatException e) {
+        // falls back to the datum
+      }
+    }
+    return get(fieldId).asInt2();
+  }
+
+  @Override
+  public int getInt4(int fieldId) {
+    if (isDirectlyParsable(fieldId) && (types[fieldId] == Type.INT2 || types[fieldId] == Type.INT4)) {
+      try {
+        return Bytes.parseInt(data, starts[fieldId], lengths[fieldId]);
+      } catch (NumberFormatException e) {
+        // falls back to the datum
+      }
+    }
+    return get(fieldId).asInt4();
+  }
+
+  @Override
+  public long getInt8(int fieldId) {
+    if (isDirectlyParsable(fieldId)) {
+      try {
+        switch (types[fieldId]) {
+        case INT2:
+        case INT4:
+          return Bytes.parseInt(data, starts[fieldId], lengths[fieldId]);
+        case INT8:
+          return Bytes.parseLong(data, starts[fieldId], lengths[fieldId]);
+        default:
+        }
+      } catch (NumberFormatException e) {
+        // falls back to the datum
+      }
+    }
+    return get(fieldId).asInt8();
+  }
+
+  @Override
+  public float getFloat4(int fieldId) {
+    return get(fieldId).asFloat4();
+  }
+
+  @Override
+  public double getFloat8(int fieldId) {
+    if (isDirectlyParsable(fieldId)) {
+      try {
+        switch (types[fieldId]) {
+        case INT2:
+        case INT4:
+          return Bytes.parseInt(data, starts[fieldId], lengths[fieldId]);
+        case INT8:
+          return Bytes.parseLong(data, starts[fieldId], lengths[fieldId]);
+        case FLOAT8:
+          return Bytes.parseDouble(data, starts[fieldId], lengths[fieldId]);
+        default:
+        }
+      } catch (NumberFormatException e) {
+        // falls back to the datum
+      }
+    }
+    return get(fieldId).asFloat8();
+  }
+
+  @Override
+  public String getText(int fieldId) {
+    return get(fieldId).asChars();
+  }
+
+  public String toString() {
+    boolean first = true;
+    StringBuilder str = new StringBuilder();
+    str.append("(");
+    Datum d;
+    for (int i = 0; i < values.length; i++) {
+      d = get(i);
+      if (d != null) {
+        if (first) {
+          first = false;
+        } else {
+          str.append(", ");
+        }
+        str.append(i)
+            .append("=>")
+            .append(d);
+      }
+    }
+    str.append(")");
+    return str.toString();
+  }
+
+  @Override
+  public int hashCode() {
+    return TupleHash.hash(this);
+  }
+
+  @Override
+  public Datum[] getValues() {
+    Datum[] datums = new Datum[values.length];
+    for (int i = 0; i < values.length; i++) {
+      datums[i] = get(i);
+    }
+    return datums;
+  }
+
+  /**
+   * @return a materialized copy, which is independent of the buffer and the next row
+   */
+  @Override
+  public Tuple clone() throws CloneNotSupportedException {
+    VTuple tuple = new VTuple(getValues());
+    tuple.setOffset(offset);
+    return tuple;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof Tuple) {
+      Tuple other = (Tuple) obj;
+      return Arrays.equals(getValues(), other.getValues());
+    }
+    return false;
+  }
+}
@@ -42,10 +42,6 @@ public class TupleComparator implements Comparator<Tuple>, ProtoObject<TupleComp
   @SuppressWarnings("unused")
   private final boolean[] nullFirsts;  
 
-  private Datum left;
-  private Datum right;
-  private int compVal;
-
   /**
    * @param schema The schema of input tuples
    * @param sortKeys The description of sort keys
@@ -82,14 +78,21 @@ public class TupleComparator implements Comparator<Tuple>, ProtoObject<TupleComp
     return this.asc[0];
   }
 
+  /**
+   * This method keeps no intermediate state, so a comparator can be shared among threads.
+   */
   @Override
   public int compare(Tuple tuple1, Tuple tuple2) {
+    Datum left;
+    Datum right;
+    int compVal = 0;
     for (int i = 0; i < sortKeyIds.length; i++) {
       left = tuple1.get(sortKeyIds[i]);
       right = tuple2.get(sortKeyIds[i]);
 
       if (left instanceof NullDatum || right instanceof NullDatum) {
-        if (!left.equals(right)) {
+        // equals() of some datums cannot take a null, so it just checks if both are null.
+        if (!(left instanceof NullDatum && right instanceof NullDatum)) {
           if (left instanceof NullDatum) {
             compVal = 1;
           } else if (right instanceof NullDatum) {
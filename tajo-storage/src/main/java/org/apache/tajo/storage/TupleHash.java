@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.util.MurmurHash;
+
+/**
+ * It computes position-aware hash values of tuples. Each column value is hashed from its primitive value or
+ * raw bytes, and column hashes are combined in the manner of MurmurHash3. So, (a, b) and (b, a) produce
+ * different hash values, and the same values in correlated columns do not cancel each other out.
+ *
+ * Integral values are hashed by their long values, and real values by their double values. So, equal values
+ * of different widths have the same hash value.
+ */
+public class TupleHash {
+  private static final long SEED = 0x2f1a3b5cL;
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+  private static final long NULL_HASH = 0x5bd1e9955bd1e995L;
+
+  /**
+   * It returns the hash value of all columns of a tuple.
+   */
+  public static int hash(Tuple tuple) {
+    long h = SEED;
+    int size = tuple.size();
+    for (int i = 0; i < size; i++) {
+      h = combine(h, hashDatum(tuple.get(i)));
+    }
+    return (int) MurmurHash.fmix64(h ^ size);
+  }
+
+  /**
+   * It returns the hash value of the given columns of a tuple. It is the same as the hash value of
+   * a tuple which consists of only the given columns.
+   */
+  public static int hash(Tuple tuple, int [] columnIds) {
+    long h = SEED;
+    for (int i = 0; i < columnIds.length; i++) {
+      h = combine(h, hashDatum(tuple.get(columnIds[i])));
+    }
+    return (int) MurmurHash.fmix64(h ^ columnIds.length);
+  }
+
+  private static long combine(long h, long k) {
+    k *= C1;
+    k = Long.rotateLeft(k, 31);
+    k *= C2;
+
+    h ^= k;
+    h = Long.rotateLeft(h, 27);
+    return h * 5 + 0x52dce729;
+  }
+
+  /**
+   * It returns a 64-bit hash value of a datum.
+   */
+  public static long hashDatum(Datum datum) {
+    if (datum == null) {
+      return NULL_HASH;
+    }
+
+    switch (datum.type()) {
+    case NULL_TYPE:
+      return NULL_HASH;
+    case BOOLEAN:
+      return datum.asBool() ? 1 : 0;
+    case BIT:
+      return datum.asByte();
+    case INT1:
+    case INT2:
+    case INT4:
+    case INT8:
+      return datum.asInt8();
+    case FLOAT4:
+    case FLOAT8: {
+      double value = datum.asFloat8();
+      // -0.0 is equal to 0.0
+      return value == 0.0d ? 0 : Double.doubleToLongBits(value);
+    }
+    case CHAR:
+    case TEXT:
+    case BLOB:
+      return MurmurHash.hash64(datum.asByteArray());
+    default:
+      return datum.hashCode();
+    }
+  }
+}
@@ -201,16 +201,7 @@ public class VTuple implements Tuple, Cloneable {
 	
 	@Override
 	public int hashCode() {
-	  int hashCode = 37;
-	  for (int i=0; i < values.length; i++) {
-	    if(values[i] != null) {
-        hashCode ^= (values[i].hashCode() * 41);
-	    } else {
-	      hashCode = hashCode ^ (i + 17);
-	    }
-	  }
-	  
-	  return hashCode;
+	  return TupleHash.hash(this);
 	}
 
   @Override
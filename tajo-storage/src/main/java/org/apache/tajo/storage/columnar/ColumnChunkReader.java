@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.columnar;
+
+import com.google.protobuf.CodedInputStream;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.columnar.ColumnarProtos.ChunkEncoding;
+import org.apache.tajo.storage.columnar.ColumnarProtos.ColumnChunkProto;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * It decodes a column chunk written by {@link ColumnChunkWriter}, and it returns the values of the chunk in order.
+ * The datums of dictionary entries are created once for each chunk, and they are shared by the rows.
+ */
+public class ColumnChunkReader {
+  private final DataType dataType;
+  private final boolean fixedWidth;
+  private final int plainWidth;
+
+  private int rowNum;
+  private int rowIdx;
+  private int valueIdx;
+  /** It is null if the chunk has no null. */
+  private byte [] presence;
+
+  // for fixed-width types and the ids of dictionary entries
+  private long [] values = new long[1024];
+  // for the plain encoding of variable-width types
+  private byte [][] plainValues = new byte[1024][];
+  // for the dictionary encoding of variable-width types
+  private Datum [] dictionary;
+
+  public ColumnChunkReader(DataType dataType) {
+    this.dataType = dataType;
+    this.fixedWidth = ColumnChunkWriter.isFixedWidth(dataType);
+    this.plainWidth = ColumnChunkWriter.getPlainWidth(dataType);
+  }
+
+  /**
+   * It decodes a column chunk.
+   *
+   * @param chunk the bytes of the chunk
+   * @param rowNum the number of rows of the row group
+   */
+  public void load(byte [] chunk, int length, ColumnChunkProto meta, int rowNum) throws IOException {
+    this.rowNum = rowNum;
+    this.rowIdx = 0;
+    this.valueIdx = 0;
+
+    CodedInputStream in = CodedInputStream.newInstance(chunk, 0, length);
+    in.setSizeLimit(Integer.MAX_VALUE);
+    if (meta.getNullCount() > 0) {
+      presence = in.readRawBytes((rowNum + 7) / 8);
+    } else {
+      presence = null;
+    }
+
+    int valueNum = rowNum - meta.getNullCount();
+    dictionary = null;
+    if (values.length < valueNum) {
+      values = new long[Math.max(valueNum, values.length * 2)];
+    }
+
+    if (fixedWidth) {
+      IntegerEncodings.read(in, meta.getEncoding(), values, valueNum, plainWidth);
+    } else if (meta.getEncoding() == ChunkEncoding.DICTIONARY) {
+      dictionary = new Datum[in.readRawVarint32()];
+      for (int i = 0; i < dictionary.length; i++) {
+        dictionary[i] = DatumFactory.createFromBytes(dataType, in.readRawBytes(in.readRawVarint32()));
+      }
+      ChunkEncoding idEncoding = ChunkEncoding.valueOf(in.readRawVarint32());
+      IntegerEncodings.read(in, idEncoding, values, valueNum, 4);
+    } else {
+      if (plainValues.length < valueNum) {
+        plainValues = new byte[Math.max(valueNum, plainValues.length * 2)][];
+      }
+      for (int i = 0; i < valueNum; i++) {
+        plainValues[i] = in.readRawBytes(in.readRawVarint32());
+      }
+    }
+  }
+
+  public boolean hasNext() {
+    return rowIdx < rowNum;
+  }
+
+  /**
+   * @return the value of the next row
+   */
+  public Datum next() {
+    int row = rowIdx++;
+    if (presence != null && (presence[row >> 3] & (1 << (row & 7))) == 0) {
+      return NullDatum.get();
+    }
+
+    int idx = valueIdx++;
+    if (fixedWidth) {
+      return toDatum(values[idx]);
+    } else if (dictionary != null) {
+      return dictionary[(int) values[idx]];
+    } else {
+      byte [] bytes = plainValues[idx];
+      plainValues[idx] = null;
+      return DatumFactory.createFromBytes(dataType, bytes);
+    }
+  }
+
+  private Datum toDatum(long value) {
+    switch (dataType.getType()) {
+    case BOOLEAN:
+      return DatumFactory.createBool((byte) value);
+    case BIT:
+      return DatumFactory.createBit((byte) value);
+    case INT2:
+      return DatumFactory.createInt2((short) value);
+    case INT4:
+      return DatumFactory.createInt4((int) value);
+    case DATE:
+      return DatumFactory.createFromInt4(dataType, (int) value);
+    case FLOAT4:
+      return DatumFactory.createFloat4(Float.intBitsToFloat((int) value));
+    case FLOAT8:
+      return DatumFactory.createFloat8(Double.longBitsToDouble(value));
+    case INT8:
+    case TIME:
+    case TIMESTAMP:
+      return DatumFactory.createFromInt8(dataType, value);
+    default:
+      return NullDatum.get();
+    }
+  }
+
+  /**
+   * @return the minimum value of a column chunk, or null if it is not kept
+   */
+  public static Datum getMinValue(DataType dataType, ColumnChunkProto meta) {
+    return meta.hasMinValue() ? DatumFactory.createFromBytes(dataType, meta.getMinValue().toByteArray()) : null;
+  }
+
+  /**
+   * @return the maximum value of a column chunk, or null if it is not kept
+   */
+  public static Datum getMaxValue(DataType dataType, ColumnChunkProto meta) {
+    return meta.hasMaxValue() ? DatumFactory.createFromBytes(dataType, meta.getMaxValue().toByteArray()) : null;
+  }
+
+  public void clear() {
+    presence = null;
+    dictionary = null;
+    Arrays.fill(plainValues, null);
+    rowNum = 0;
+    rowIdx = 0;
+  }
+}
@@ -0,0 +1,359 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.columnar;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.storage.columnar.ColumnarProtos.ChunkEncoding;
+import org.apache.tajo.storage.columnar.ColumnarProtos.ColumnChunkProto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * It buffers the values of a column in a row group, and it writes them as a column chunk with the smallest encoding.
+ * A column chunk consists of a presence bitmap, which is omitted if there is no null, and the encoded non-null
+ * values. It also keeps the number of nulls and the minimum and maximum values of the chunk.
+ */
+public abstract class ColumnChunkWriter {
+  /** The minimum and maximum values longer than it are not kept as statistics. */
+  private static final int MAX_STATS_VALUE_BYTES = 1024;
+
+  protected final DataType dataType;
+  private final boolean comparable;
+
+  private int rowNum = 0;
+  private final BitSet nulls = new BitSet();
+  private int nullCount = 0;
+  private Datum min;
+  private Datum max;
+
+  protected ColumnChunkWriter(DataType dataType) {
+    this.dataType = dataType;
+    this.comparable = isComparable(dataType);
+  }
+
+  public static ColumnChunkWriter newInstance(DataType dataType, int maxDictionarySize) throws IOException {
+    if (isFixedWidth(dataType)) {
+      return new FixedWidthChunkWriter(dataType);
+    } else if (isVariableWidth(dataType)) {
+      return new VariableWidthChunkWriter(dataType, maxDictionarySize);
+    } else {
+      throw new IOException("Cannot support data type: " + dataType.getType());
+    }
+  }
+
+  /**
+   * Values of fixed-width types are encoded as long values. NULL_TYPE is included because it only has nulls.
+   */
+  static boolean isFixedWidth(DataType dataType) {
+    switch (dataType.getType()) {
+    case NULL_TYPE:
+    case BOOLEAN:
+    case BIT:
+    case INT2:
+    case INT4:
+    case INT8:
+    case FLOAT4:
+    case FLOAT8:
+    case DATE:
+    case TIME:
+    case TIMESTAMP:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  static boolean isVariableWidth(DataType dataType) {
+    switch (dataType.getType()) {
+    case CHAR:
+    case TEXT:
+    case BLOB:
+    case INET4:
+    case PROTOBUF:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * @return true if the minimum and maximum values of the type are kept
+   */
+  static boolean isComparable(DataType dataType) {
+    switch (dataType.getType()) {
+    case INT2:
+    case INT4:
+    case INT8:
+    case FLOAT4:
+    case FLOAT8:
+    case DATE:
+    case TIME:
+    case TIMESTAMP:
+    case CHAR:
+    case TEXT:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * @return the bytes of a value in the plain encoding
+   */
+  static int getPlainWidth(DataType dataType) {
+    switch (dataType.getType()) {
+    case BOOLEAN:
+    case BIT:
+      return 1;
+    case INT2:
+      return 2;
+    case INT4:
+    case FLOAT4:
+    case DATE:
+      return 4;
+    default:
+      return 8;
+    }
+  }
+
+  public void addNull() {
+    nulls.set(rowNum);
+    nullCount++;
+    rowNum++;
+  }
+
+  public void add(Datum datum) {
+    addValue(datum);
+    if (comparable) {
+      if (min == null || datum.compareTo(min) < 0) {
+        min = datum;
+      }
+      if (max == null || datum.compareTo(max) > 0) {
+        max = datum;
+      }
+    }
+    rowNum++;
+  }
+
+  protected abstract void addValue(Datum datum);
+
+  /**
+   * @return the estimated bytes of buffered values
+   */
+  public abstract long getBufferedBytes();
+
+  /**
+   * It writes the buffered values as a column chunk.
+   *
+   * @return the metadata of the chunk except its offset and length
+   */
+  public ColumnChunkProto.Builder write(CodedOutputStream out) throws IOException {
+    ColumnChunkProto.Builder builder = ColumnChunkProto.newBuilder();
+    builder.setNullCount(nullCount);
+    if (nullCount > 0) {
+      byte [] presence = new byte[(rowNum + 7) / 8];
+      for (int i = 0; i < rowNum; i++) {
+        if (!nulls.get(i)) {
+          presence[i >> 3] |= 1 << (i & 7);
+        }
+      }
+      out.writeRawBytes(presence);
+    }
+    builder.setEncoding(writeValues(out));
+
+    if (min != null) {
+      byte [] minBytes = min.asByteArray();
+      byte [] maxBytes = max.asByteArray();
+      if (minBytes.length <= MAX_STATS_VALUE_BYTES && maxBytes.length <= MAX_STATS_VALUE_BYTES) {
+        builder.setMinValue(ByteString.copyFrom(minBytes));
+        builder.setMaxValue(ByteString.copyFrom(maxBytes));
+      }
+    }
+    return builder;
+  }
+
+  protected abstract ChunkEncoding writeValues(CodedOutputStream out) throws IOException;
+
+  public void reset() {
+    rowNum = 0;
+    nulls.clear();
+    nullCount = 0;
+    min = null;
+    max = null;
+  }
+
+  /**
+   * A chunk writer for fixed-width types. Each value is kept as a long value, and the values are written with one of
+   * the integer encodings.
+   */
+  static class FixedWidthChunkWriter extends ColumnChunkWriter {
+    private final int plainWidth;
+    private long [] values = new long[1024];
+    private int valueNum = 0;
+
+    FixedWidthChunkWriter(DataType dataType) {
+      super(dataType);
+      this.plainWidth = getPlainWidth(dataType);
+    }
+
+    @Override
+    protected void addValue(Datum datum) {
+      if (valueNum == values.length) {
+        values = Arrays.copyOf(values, values.length * 2);
+      }
+      values[valueNum++] = toLong(datum);
+    }
+
+    private long toLong(Datum datum) {
+      switch (dataType.getType()) {
+      case BOOLEAN:
+      case BIT:
+        return datum.asByte();
+      case INT2:
+        return datum.asInt2();
+      case INT4:
+      case DATE:
+        return datum.asInt4();
+      case FLOAT4:
+        return Float.floatToRawIntBits(datum.asFloat4());
+      case FLOAT8:
+        return Double.doubleToRawLongBits(datum.asFloat8());
+      default:
+        return datum.asInt8();
+      }
+    }
+
+    @Override
+    public long getBufferedBytes() {
+      return (long) valueNum * plainWidth;
+    }
+
+    @Override
+    protected ChunkEncoding writeValues(CodedOutputStream out) throws IOException {
+      ChunkEncoding encoding = IntegerEncodings.choose(values, valueNum, plainWidth);
+      IntegerEncodings.write(out, encoding, values, valueNum, plainWidth);
+      return encoding;
+    }
+
+    @Override
+    public void reset() {
+      super.reset();
+      valueNum = 0;
+    }
+  }
+
+  /**
+   * A chunk writer for variable-width types. It builds a dictionary of distinct values until the dictionary exceeds
+   * the maximum size. If the dictionary is smaller than the plain values, the values are written as the dictionary
+   * and the encoded ids of its entries.
+   */
+  static class VariableWidthChunkWriter extends ColumnChunkWriter {
+    private final int maxDictionarySize;
+    private byte [][] values = new byte[1024][];
+    private int valueNum = 0;
+    private long valueBytes = 0;
+
+    /** It is null if the number of distinct values exceeds the maximum dictionary size. */
+    private Map<ByteBuffer, Integer> dictionary = new HashMap<ByteBuffer, Integer>();
+    private final List<byte []> dictionaryEntries = new ArrayList<byte[]>();
+    private long dictionaryBytes = 0;
+    private long [] ids = new long[1024];
+
+    VariableWidthChunkWriter(DataType dataType, int maxDictionarySize) {
+      super(dataType);
+      this.maxDictionarySize = maxDictionarySize;
+    }
+
+    @Override
+    protected void addValue(Datum datum) {
+      byte [] bytes = datum.asByteArray();
+      if (valueNum == values.length) {
+        values = Arrays.copyOf(values, values.length * 2);
+        ids = Arrays.copyOf(ids, ids.length * 2);
+      }
+
+      if (dictionary != null) {
+        ByteBuffer key = ByteBuffer.wrap(bytes);
+        Integer id = dictionary.get(key);
+        if (id == null) {
+          if (dictionary.size() < maxDictionarySize) {
+            id = dictionary.size();
+            dictionary.put(key, id);
+            dictionaryEntries.add(bytes);
+            dictionaryBytes += bytes.length + CodedOutputStream.computeRawVarint32Size(bytes.length);
+          } else {
+            dictionary = null;
+            dictionaryEntries.clear();
+          }
+        }
+        if (id != null) {
+          ids[valueNum] = id;
+        }
+      }
+
+      values[valueNum++] = bytes;
+      valueBytes += bytes.length + CodedOutputStream.computeRawVarint32Size(bytes.length);
+    }
+
+    @Override
+    public long getBufferedBytes() {
+      return valueBytes;
+    }
+
+    @Override
+    protected ChunkEncoding writeValues(CodedOutputStream out) throws IOException {
+      if (dictionary != null) {
+        ChunkEncoding idEncoding = IntegerEncodings.choose(ids, valueNum, 4);
+        long idBytes = IntegerEncodings.getEncodedSize(ids, valueNum, 4, idEncoding);
+        if (dictionaryBytes + idBytes < valueBytes) {
+          out.writeRawVarint32(dictionaryEntries.size());
+          for (byte [] entry : dictionaryEntries) {
+            out.writeRawVarint32(entry.length);
+            out.writeRawBytes(entry);
+          }
+          out.writeRawVarint32(idEncoding.getNumber());
+          IntegerEncodings.write(out, idEncoding, ids, valueNum, 4);
+          return ChunkEncoding.DICTIONARY;
+        }
+      }
+
+      for (int i = 0; i < valueNum; i++) {
+        out.writeRawVarint32(values[i].length);
+        out.writeRawBytes(values[i]);
+      }
+      return ChunkEncoding.PLAIN;
+    }
+
+    @Override
+    public void reset() {
+      super.reset();
+      Arrays.fill(values, 0, valueNum, null);
+      valueNum = 0;
+      valueBytes = 0;
+      dictionary = new HashMap<ByteBuffer, Integer>();
+      dictionaryEntries.clear();
+      dictionaryBytes = 0;
+    }
+  }
+}
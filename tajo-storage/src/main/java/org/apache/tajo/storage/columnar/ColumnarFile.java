@@ -0,0 +1,432 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.columnar;
+
+import com.google.protobuf.CodedOutputStream;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.storage.ColumnPredicate;
+import org.apache.tajo.storage.FileAppender;
+import org.apache.tajo.storage.FileScanner;
+import org.apache.tajo.storage.TableStatistics;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.columnar.ColumnarProtos.ColumnChunkProto;
+import org.apache.tajo.storage.columnar.ColumnarProtos.FooterProto;
+import org.apache.tajo.storage.columnar.ColumnarProtos.RowGroupProto;
+import org.apache.tajo.storage.fragment.FileFragment;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * COLUMNAR is a column-oriented file format. A file consists of row groups, and a row group consists of a column
+ * chunk for each column. Each column chunk is encoded with the smallest one of the plain, run-length, bit-packed
+ * and dictionary encodings (see {@link ColumnChunkWriter}). The footer at the end of the file keeps the offsets of
+ * the row groups and column chunks, and the number of nulls and the minimum and maximum values of each chunk.
+ *
+ * <pre>
+ * MAGIC | row group 0 | ... | row group n-1 | footer (FooterProto) | footer length (int) | MAGIC
+ * </pre>
+ *
+ * A scanner reads only the chunks of its target columns, and a fragment reads the row groups starting in its range.
+ */
+public class ColumnarFile {
+  private static final Log LOG = LogFactory.getLog(ColumnarFile.class);
+
+  public static final byte [] MAGIC = new byte[] {'T', 'C', 'F', 1};
+
+  /** the maximum number of rows of a row group */
+  public static final String ROW_GROUP_ROW_NUM = "columnar.row-group.row-num";
+  public static final String DEFAULT_ROW_GROUP_ROW_NUM = "100000";
+  /** the maximum number of entries of a dictionary */
+  public static final String DICTIONARY_MAX_SIZE = "columnar.dictionary.max-size";
+  public static final String DEFAULT_DICTIONARY_MAX_SIZE = "65536";
+  /** A row group is written if its buffered values exceed this bytes even if it does not have enough rows. */
+  private static final long ROW_GROUP_MAX_BYTES = 128 * 1024 * 1024;
+
+  public static class ColumnarAppender extends FileAppender {
+    private FSDataOutputStream out;
+    private ColumnChunkWriter [] writers;
+    private int rowGroupRowNum;
+    private int bufferedRowNum = 0;
+    private final FooterProto.Builder footer = FooterProto.newBuilder();
+
+    private TableStatistics stats = null;
+
+    public ColumnarAppender(Configuration conf, Schema schema, TableMeta meta, Path path) throws IOException {
+      super(conf, schema, meta, path);
+    }
+
+    @Override
+    public void init() throws IOException {
+      FileSystem fs = path.getFileSystem(conf);
+      if (!fs.exists(path.getParent())) {
+        throw new FileNotFoundException(path.toString());
+      }
+
+      rowGroupRowNum = Integer.parseInt(meta.getOption(ROW_GROUP_ROW_NUM, DEFAULT_ROW_GROUP_ROW_NUM));
+      int maxDictionarySize = Integer.parseInt(meta.getOption(DICTIONARY_MAX_SIZE, DEFAULT_DICTIONARY_MAX_SIZE));
+      writers = new ColumnChunkWriter[schema.size()];
+      for (int i = 0; i < schema.size(); i++) {
+        writers[i] = ColumnChunkWriter.newInstance(schema.getColumn(i).getDataType(), maxDictionarySize);
+      }
+      footer.setColumnNum(schema.size());
+
+      out = fs.create(path);
+      out.write(MAGIC);
+
+      if (enabledStats) {
+        this.stats = new TableStatistics(this.schema);
+      }
+
+      super.init();
+    }
+
+    @Override
+    public long getOffset() throws IOException {
+      return out.getPos();
+    }
+
+    @Override
+    public void addTuple(Tuple t) throws IOException {
+      long bufferedBytes = 0;
+      for (int i = 0; i < schema.size(); i++) {
+        if (enabledStats) {
+          stats.analyzeField(i, t.get(i));
+        }
+
+        if (t.isNull(i)) {
+          writers[i].addNull();
+        } else {
+          writers[i].add(t.get(i));
+        }
+        bufferedBytes += writers[i].getBufferedBytes();
+      }
+      bufferedRowNum++;
+
+      if (enabledStats) {
+        stats.incrementRow();
+      }
+
+      if (bufferedRowNum >= rowGroupRowNum || bufferedBytes > ROW_GROUP_MAX_BYTES) {
+        writeRowGroup();
+      }
+    }
+
+    private void writeRowGroup() throws IOException {
+      RowGroupProto.Builder rowGroup = RowGroupProto.newBuilder();
+      rowGroup.setOffset(out.getPos());
+      rowGroup.setRowNum(bufferedRowNum);
+
+      for (ColumnChunkWriter writer : writers) {
+        long chunkOffset = out.getPos();
+        CodedOutputStream cos = CodedOutputStream.newInstance(out);
+        ColumnChunkProto.Builder chunk = writer.write(cos);
+        cos.flush();
+        chunk.setOffset(chunkOffset);
+        chunk.setLength((int) (out.getPos() - chunkOffset));
+        rowGroup.addChunks(chunk);
+        writer.reset();
+      }
+
+      footer.addRowGroups(rowGroup);
+      bufferedRowNum = 0;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (out == null) {
+        return;
+      }
+
+      if (bufferedRowNum > 0) {
+        writeRowGroup();
+      }
+      byte [] footerBytes = footer.build().toByteArray();
+      out.write(footerBytes);
+      out.writeInt(footerBytes.length);
+      out.write(MAGIC);
+
+      if (enabledStats) {
+        stats.setNumBytes(out.getPos());
+      }
+      out.close();
+      out = null;
+    }
+
+    @Override
+    public TableStats getStats() {
+      if (enabledStats) {
+        return stats.getTableStat();
+      } else {
+        return null;
+      }
+    }
+  }
+
+  /**
+   * It reads the footer of a columnar file.
+   */
+  public static FooterProto readFooter(FSDataInputStream in, long fileLength, Path path) throws IOException {
+    int tailLength = 4 + MAGIC.length;
+    if (fileLength < MAGIC.length + tailLength) {
+      throw new IOException(path + " is not a columnar file");
+    }
+    byte [] magic = new byte[MAGIC.length];
+    in.seek(fileLength - tailLength);
+    int footerLength = in.readInt();
+    in.readFully(magic);
+    if (!Arrays.equals(MAGIC, magic)) {
+      throw new IOException(path + " is not a columnar file");
+    }
+
+    byte [] footerBytes = new byte[footerLength];
+    in.seek(fileLength - tailLength - footerLength);
+    in.readFully(footerBytes);
+    return FooterProto.parseFrom(footerBytes);
+  }
+
+  public static class ColumnarScanner extends FileScanner {
+    private FSDataInputStream in;
+    private FooterProto footer;
+    /** the row groups starting in the range of the fragment */
+    private final List<RowGroupProto> rowGroups = new ArrayList<RowGroupProto>();
+    private int rowGroupIdx;
+    private int rowNum;
+    private int rowIdx;
+    private long readRowNum;
+
+    /** the column ids of target columns */
+    private int [] targetColumnIds;
+    private ColumnChunkReader [] readers;
+    private byte [][] chunkBuffers;
+
+    /** the ids of the predicate columns in the schema */
+    private int [] predicateColumnIds;
+    /** the same as predicateColumnIds except that a predicate on a non-target column is -1 */
+    private int [] rowPredicateColumnIds;
+    private long skippedRowGroupNum;
+
+    public ColumnarScanner(Configuration conf, Schema schema, TableMeta meta, FileFragment fragment)
+        throws IOException {
+      super(conf, schema, meta, fragment);
+    }
+
+    @Override
+    public void init() throws IOException {
+      if (targets == null) {
+        targets = schema.toArray();
+      }
+
+      targetColumnIds = new int[targets.length];
+      readers = new ColumnChunkReader[targets.length];
+      chunkBuffers = new byte[targets.length][];
+      for (int i = 0; i < targets.length; i++) {
+        targetColumnIds[i] = schema.getColumnIdByName(targets[i].getSimpleName());
+        Column column = schema.getColumn(targetColumnIds[i]);
+        readers[i] = new ColumnChunkReader(column.getDataType());
+        chunkBuffers[i] = new byte[0];
+      }
+
+      Path path = fragment.getPath();
+      FileSystem fs = path.getFileSystem(conf);
+      long fileLength = fs.getFileStatus(path).getLen();
+      in = fs.open(path);
+      footer = readFooter(in, fileLength, path);
+
+      if (searchCondition != null) {
+        predicateColumnIds = searchCondition.getColumnIds(schema);
+        rowPredicateColumnIds = new int[predicateColumnIds.length];
+        Arrays.fill(rowPredicateColumnIds, -1);
+        for (int i = 0; i < predicateColumnIds.length; i++) {
+          for (int targetColumnId : targetColumnIds) {
+            if (predicateColumnIds[i] == targetColumnId) {
+              rowPredicateColumnIds[i] = targetColumnId;
+            }
+          }
+        }
+      }
+
+      long start = fragment.getStartKey();
+      long end = start + fragment.getEndKey();
+      skippedRowGroupNum = 0;
+      for (RowGroupProto rowGroup : footer.getRowGroupsList()) {
+        if (rowGroup.getOffset() >= start && rowGroup.getOffset() < end) {
+          if (mightMatch(rowGroup)) {
+            rowGroups.add(rowGroup);
+          } else {
+            skippedRowGroupNum++;
+          }
+        }
+      }
+
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("ColumnarScanner open:" + path + "," + start + "," + fragment.getEndKey() + ", row groups: " +
+            rowGroups.size() + ", skipped row groups: " + skippedRowGroupNum);
+      }
+
+      rowGroupIdx = 0;
+      rowNum = 0;
+      rowIdx = 0;
+      super.init();
+    }
+
+    /**
+     * @return false if the statistics of a row group show that no row satisfies the search condition
+     */
+    private boolean mightMatch(RowGroupProto rowGroup) {
+      if (searchCondition == null) {
+        return true;
+      }
+
+      ColumnPredicate [] predicates = searchCondition.getPredicates();
+      for (int i = 0; i < predicates.length; i++) {
+        if (predicateColumnIds[i] < 0) {
+          continue;
+        }
+        DataType dataType = schema.getColumn(predicateColumnIds[i]).getDataType();
+        ColumnChunkProto chunk = rowGroup.getChunks(predicateColumnIds[i]);
+        if (!predicates[i].mightMatch(ColumnChunkReader.getMinValue(dataType, chunk),
+            ColumnChunkReader.getMaxValue(dataType, chunk), chunk.getNullCount(), rowGroup.getRowNum())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * It reads the chunks of target columns in the next row group.
+     *
+     * @return false if there is no more row group
+     */
+    private boolean loadNextRowGroup() throws IOException {
+      if (rowGroupIdx >= rowGroups.size()) {
+        return false;
+      }
+
+      RowGroupProto rowGroup = rowGroups.get(rowGroupIdx++);
+      for (int i = 0; i < targetColumnIds.length; i++) {
+        ColumnChunkProto chunk = rowGroup.getChunks(targetColumnIds[i]);
+        if (chunkBuffers[i].length < chunk.getLength()) {
+          chunkBuffers[i] = new byte[chunk.getLength()];
+        }
+        in.readFully(chunk.getOffset(), chunkBuffers[i], 0, chunk.getLength());
+        readers[i].load(chunkBuffers[i], chunk.getLength(), chunk, rowGroup.getRowNum());
+      }
+      rowNum = rowGroup.getRowNum();
+      rowIdx = 0;
+      progress = (float) rowGroupIdx / rowGroups.size();
+      return true;
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+      Tuple tuple;
+      do {
+        while (rowIdx >= rowNum) {
+          if (!loadNextRowGroup()) {
+            progress = 1.0f;
+            return null;
+          }
+        }
+
+        tuple = new VTuple(columnNum);
+        for (int i = 0; i < targetColumnIds.length; i++) {
+          tuple.put(targetColumnIds[i], readers[i].next());
+        }
+        rowIdx++;
+        readRowNum++;
+      } while (searchCondition != null && !searchCondition.isTrue(tuple, rowPredicateColumnIds));
+      return tuple;
+    }
+
+    /**
+     * @return the number of row groups skipped by the statistics of the search condition
+     */
+    public long getSkippedRowGroupNum() {
+      return skippedRowGroupNum;
+    }
+
+    @Override
+    public void reset() throws IOException {
+      rowGroupIdx = 0;
+      rowNum = 0;
+      rowIdx = 0;
+      readRowNum = 0;
+      progress = 0.0f;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (tableStats != null) {
+        tableStats.setNumRows(readRowNum);
+      }
+      if (in != null) {
+        in.close();
+        in = null;
+      }
+      if (readers != null) {
+        for (ColumnChunkReader reader : readers) {
+          reader.clear();
+        }
+      }
+    }
+
+    /**
+     * @return the footer of the file. It is available after {@link #init()}.
+     */
+    public FooterProto getFooter() {
+      return footer;
+    }
+
+    @Override
+    public boolean isProjectable() {
+      return true;
+    }
+
+    @Override
+    public boolean isSelectable() {
+      return true;
+    }
+
+    @Override
+    public boolean isSplittable() {
+      return true;
+    }
+  }
+}
@@ -0,0 +1,245 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.columnar;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import org.apache.tajo.storage.columnar.ColumnarProtos.ChunkEncoding;
+
+import java.io.IOException;
+
+/**
+ * Encodings of integral values, which are the values of fixed-width types or the ids of dictionary entries.
+ *
+ * <ul>
+ *   <li>PLAIN: each value is written in the fixed width of its type.</li>
+ *   <li>RUN_LENGTH: a sequence of (run length, zigzag-encoded value) pairs.</li>
+ *   <li>BIT_PACKED: a base value and a bit width, and then the differences from the base value packed
+ *   in the bit width.</li>
+ * </ul>
+ */
+public class IntegerEncodings {
+
+  /**
+   * It chooses the encoding which makes the values the smallest.
+   *
+   * @param plainWidth the bytes of a value in the plain encoding
+   */
+  public static ChunkEncoding choose(long [] values, int num, int plainWidth) {
+    long [] sizes = computeSizes(values, num, plainWidth);
+    if (sizes[1] <= sizes[2] && sizes[1] < sizes[0]) {
+      return ChunkEncoding.RUN_LENGTH;
+    } else if (sizes[2] < sizes[0]) {
+      return ChunkEncoding.BIT_PACKED;
+    } else {
+      return ChunkEncoding.PLAIN;
+    }
+  }
+
+  /**
+   * @return the bytes of the values written in the given encoding
+   */
+  public static long getEncodedSize(long [] values, int num, int plainWidth, ChunkEncoding encoding) {
+    long [] sizes = computeSizes(values, num, plainWidth);
+    switch (encoding) {
+    case RUN_LENGTH: return sizes[1];
+    case BIT_PACKED: return sizes[2];
+    default: return sizes[0];
+    }
+  }
+
+  /**
+   * @return the encoded bytes in the plain, run-length and bit-packed encodings
+   */
+  private static long [] computeSizes(long [] values, int num, int plainWidth) {
+    if (num == 0) {
+      return new long[] {0, 0, 9};
+    }
+
+    long rleSize = 0;
+    long min = values[0];
+    long max = values[0];
+    int runStart = 0;
+    for (int i = 1; i <= num; i++) {
+      if (i == num || values[i] != values[runStart]) {
+        rleSize += CodedOutputStream.computeRawVarint32Size(i - runStart) +
+            CodedOutputStream.computeSInt64SizeNoTag(values[runStart]);
+        runStart = i;
+      }
+      if (i < num) {
+        min = Math.min(min, values[i]);
+        max = Math.max(max, values[i]);
+      }
+    }
+    long bitPackedSize = 9 + ((long) num * getBitWidth(max - min) + 7) / 8;
+    return new long[] {(long) num * plainWidth, rleSize, bitPackedSize};
+  }
+
+  /**
+   * @param range the difference between the maximum and minimum values. A negative range means an overflow.
+   */
+  static int getBitWidth(long range) {
+    return Long.SIZE - Long.numberOfLeadingZeros(range);
+  }
+
+  public static void write(CodedOutputStream out, ChunkEncoding encoding, long [] values, int num, int plainWidth)
+      throws IOException {
+    switch (encoding) {
+    case PLAIN:
+      for (int i = 0; i < num; i++) {
+        writePlain(out, values[i], plainWidth);
+      }
+      break;
+
+    case RUN_LENGTH: {
+      int runStart = 0;
+      for (int i = 1; i <= num; i++) {
+        if (i == num || values[i] != values[runStart]) {
+          out.writeRawVarint32(i - runStart);
+          out.writeSInt64NoTag(values[runStart]);
+          runStart = i;
+        }
+      }
+      break;
+    }
+
+    case BIT_PACKED: {
+      long min = Long.MAX_VALUE;
+      long max = Long.MIN_VALUE;
+      for (int i = 0; i < num; i++) {
+        min = Math.min(min, values[i]);
+        max = Math.max(max, values[i]);
+      }
+      int bitWidth = num > 0 ? getBitWidth(max - min) : 0;
+      out.writeRawLittleEndian64(min);
+      out.writeRawByte(bitWidth);
+
+      // values are packed from the least significant bit of each byte.
+      int current = 0;
+      int bitPos = 0;
+      for (int i = 0; i < num; i++) {
+        long delta = values[i] - min;
+        int remaining = bitWidth;
+        while (remaining > 0) {
+          int bits = Math.min(remaining, 8 - bitPos);
+          current |= (int) (delta & ((1L << bits) - 1)) << bitPos;
+          delta >>>= bits;
+          remaining -= bits;
+          bitPos += bits;
+          if (bitPos == 8) {
+            out.writeRawByte(current);
+            current = 0;
+            bitPos = 0;
+          }
+        }
+      }
+      if (bitPos > 0) {
+        out.writeRawByte(current);
+      }
+      break;
+    }
+
+    default:
+      throw new IOException("Unsupported integer encoding: " + encoding);
+    }
+  }
+
+  public static void read(CodedInputStream in, ChunkEncoding encoding, long [] values, int num, int plainWidth)
+      throws IOException {
+    switch (encoding) {
+    case PLAIN:
+      for (int i = 0; i < num; i++) {
+        values[i] = readPlain(in, plainWidth);
+      }
+      break;
+
+    case RUN_LENGTH: {
+      int i = 0;
+      while (i < num) {
+        int runLength = in.readRawVarint32();
+        long value = in.readSInt64();
+        for (int end = i + runLength; i < end; i++) {
+          values[i] = value;
+        }
+      }
+      break;
+    }
+
+    case BIT_PACKED: {
+      long base = in.readRawLittleEndian64();
+      int bitWidth = in.readRawByte();
+
+      int current = 0;
+      int bitPos = 8;
+      for (int i = 0; i < num; i++) {
+        long delta = 0;
+        int filled = 0;
+        while (filled < bitWidth) {
+          if (bitPos == 8) {
+            current = in.readRawByte() & 0xff;
+            bitPos = 0;
+          }
+          int bits = Math.min(bitWidth - filled, 8 - bitPos);
+          delta |= ((long) (current >>> bitPos) & ((1L << bits) - 1)) << filled;
+          bitPos += bits;
+          filled += bits;
+        }
+        values[i] = base + delta;
+      }
+      break;
+    }
+
+    default:
+      throw new IOException("Unsupported integer encoding: " + encoding);
+    }
+  }
+
+  private static void writePlain(CodedOutputStream out, long value, int width) throws IOException {
+    switch (width) {
+    case 1:
+      out.writeRawByte((int) value);
+      break;
+    case 2:
+      out.writeRawByte((int) value);
+      out.writeRawByte((int) (value >> 8));
+      break;
+    case 4:
+      out.writeRawLittleEndian32((int) value);
+      break;
+    default:
+      out.writeRawLittleEndian64(value);
+    }
+  }
+
+  /**
+   * A value narrower than 8 bytes is sign-extended.
+   */
+  private static long readPlain(CodedInputStream in, int width) throws IOException {
+    switch (width) {
+    case 1:
+      return in.readRawByte();
+    case 2:
+      return (short) ((in.readRawByte() & 0xff) | (in.readRawByte() << 8));
+    case 4:
+      return in.readRawLittleEndian32();
+    default:
+      return in.readRawLittleEndian64();
+    }
+  }
+}
@@ -0,0 +1,293 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage.compress;
+
+import com.google.common.base.Preconditions;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.compress.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * BlockCodec compresses a byte stream into length-prefixed blocks. Each block starts with the number of uncompressed
+ * bytes (int) and the number of stored bytes (int). If a block is not compressed well enough, it is stored
+ * uncompressed, and then its stored size is the same as its uncompressed size.
+ *
+ * Every block is decoded by itself, so a byte range which starts and ends at block boundaries can be read alone.
+ */
+public class BlockCodec {
+  public static final int BLOCK_HEADER_SIZE = 8;
+
+  private final CompressionCodec codec;
+  private final float maxRatio;
+  private Compressor compressor;
+  private Decompressor decompressor;
+
+  private final DataOutputBuffer compressed = new DataOutputBuffer();
+  private final ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+  private byte [] rawBytes = new byte[0];
+
+  private long uncompressedBytes;
+  private long writtenBytes;
+  private int uncompressedBlockNum;
+
+  /**
+   * @param codecClassName the class name of a compression codec
+   * @param maxRatio a block is stored compressed only if its compressed size is less than or equal to its
+   *                 uncompressed size multiplied by this ratio.
+   */
+  public BlockCodec(Configuration conf, String codecClassName, float maxRatio) throws IOException {
+    Preconditions.checkArgument(maxRatio > 0 && maxRatio <= 1, "The ratio must be in (0, 1]: " + maxRatio);
+    this.codec = new CompressionCodecFactory(conf).getCodecByClassName(codecClassName);
+    if (codec == null) {
+      throw new IOException("Unknown compression codec: " + codecClassName);
+    }
+    this.maxRatio = maxRatio;
+  }
+
+  public CompressionCodec getCodec() {
+    return codec;
+  }
+
+  /**
+   * Writes the remaining bytes of a buffer as a block.
+   *
+   * @return the number of bytes written to the channel
+   */
+  public int writeBlock(ByteBuffer raw, WritableByteChannel out) throws IOException {
+    int rawLength = raw.remaining();
+    if (rawLength == 0) {
+      return 0;
+    }
+    if (rawBytes.length < rawLength) {
+      rawBytes = new byte[rawLength];
+    }
+    raw.get(rawBytes, 0, rawLength);
+
+    if (compressor == null) {
+      compressor = CodecPool.getCompressor(codec);
+    }
+    compressed.reset();
+    CompressionOutputStream cout;
+    // some codecs, such as gzip without the native library, do not provide their compressors.
+    if (compressor != null) {
+      compressor.reset();
+      cout = codec.createOutputStream(compressed, compressor);
+    } else {
+      cout = codec.createOutputStream(compressed);
+    }
+    cout.write(rawBytes, 0, rawLength);
+    cout.finish();
+
+    ByteBuffer stored;
+    if (compressed.getLength() < rawLength && compressed.getLength() <= rawLength * maxRatio) {
+      stored = ByteBuffer.wrap(compressed.getData(), 0, compressed.getLength());
+    } else {
+      stored = ByteBuffer.wrap(rawBytes, 0, rawLength);
+      uncompressedBlockNum++;
+    }
+
+    header.clear();
+    header.putInt(rawLength);
+    header.putInt(stored.remaining());
+    header.flip();
+    int written = BLOCK_HEADER_SIZE + stored.remaining();
+    while (header.hasRemaining()) {
+      out.write(header);
+    }
+    while (stored.hasRemaining()) {
+      out.write(stored);
+    }
+
+    uncompressedBytes += rawLength;
+    writtenBytes += written;
+    return written;
+  }
+
+  /**
+   * @return the number of bytes given to {@link #writeBlock}
+   */
+  public long getUncompressedBytes() {
+    return uncompressedBytes;
+  }
+
+  /**
+   * @return the number of bytes written by {@link #writeBlock}, including the block headers
+   */
+  public long getWrittenBytes() {
+    return writtenBytes;
+  }
+
+  /**
+   * @return the number of blocks stored uncompressed due to their poor compression ratios
+   */
+  public int getUncompressedBlockNum() {
+    return uncompressedBlockNum;
+  }
+
+  /**
+   * Returns a channel which reads the uncompressed bytes of the blocks read from a given channel. Each read of the
+   * returned channel fills the buffer unless it reaches the end of blocks.
+   */
+  public BlockReadChannel newReadChannel(ReadableByteChannel in) {
+    return new BlockReadChannel(in);
+  }
+
+  public void close() {
+    if (compressor != null) {
+      CodecPool.returnCompressor(compressor);
+      compressor = null;
+    }
+    if (decompressor != null) {
+      CodecPool.returnDecompressor(decompressor);
+      decompressor = null;
+    }
+  }
+
+  public class BlockReadChannel implements ReadableByteChannel {
+    private final ReadableByteChannel in;
+    private final ByteBuffer blockHeader = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+    private byte [] storedBytes = new byte[0];
+    private byte [] blockBytes = new byte[0];
+    private ByteBuffer block = ByteBuffer.allocate(0);
+    private long position;
+    private boolean eof;
+
+    BlockReadChannel(ReadableByteChannel in) {
+      this.in = in;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      int total = 0;
+      while (dst.hasRemaining()) {
+        if (!block.hasRemaining() && !nextBlock()) {
+          break;
+        }
+        int length = Math.min(dst.remaining(), block.remaining());
+        int limit = block.limit();
+        block.limit(block.position() + length);
+        dst.put(block);
+        block.limit(limit);
+        total += length;
+      }
+      return total == 0 && eof ? -1 : total;
+    }
+
+    private boolean nextBlock() throws IOException {
+      if (eof) {
+        return false;
+      }
+      blockHeader.clear();
+      int headerRead = readFully(in, blockHeader);
+      if (headerRead == 0) {
+        eof = true;
+        return false;
+      } else if (headerRead < BLOCK_HEADER_SIZE) {
+        throw new EOFException("Truncated block header (" + headerRead + " bytes)");
+      }
+      blockHeader.flip();
+      int rawLength = blockHeader.getInt();
+      int storedLength = blockHeader.getInt();
+
+      if (storedBytes.length < storedLength) {
+        storedBytes = new byte[storedLength];
+      }
+      if (readFully(in, ByteBuffer.wrap(storedBytes, 0, storedLength)) < storedLength) {
+        throw new EOFException("Truncated block (" + storedLength + " bytes)");
+      }
+      position += BLOCK_HEADER_SIZE + storedLength;
+
+      if (storedLength == rawLength) {
+        block = ByteBuffer.wrap(storedBytes, 0, rawLength);
+      } else {
+        if (blockBytes.length < rawLength) {
+          blockBytes = new byte[rawLength];
+        }
+        if (decompressor == null) {
+          decompressor = CodecPool.getDecompressor(codec);
+        }
+        ByteArrayInputStream storedIn = new ByteArrayInputStream(storedBytes, 0, storedLength);
+        CompressionInputStream cin;
+        if (decompressor != null) {
+          decompressor.reset();
+          cin = codec.createInputStream(storedIn, decompressor);
+        } else {
+          cin = codec.createInputStream(storedIn);
+        }
+        IOUtils.readFully(cin, blockBytes, 0, rawLength);
+        block = ByteBuffer.wrap(blockBytes, 0, rawLength);
+      }
+      return true;
+    }
+
+    private int readFully(ReadableByteChannel channel, ByteBuffer dst) throws IOException {
+      int total = 0;
+      while (dst.hasRemaining()) {
+        int read = channel.read(dst);
+        if (read < 0) {
+          break;
+        }
+        total += read;
+      }
+      return total;
+    }
+
+    /**
+     * @return the number of bytes read from the underlying channel
+     */
+    public long getPosition() {
+      return position;
+    }
+
+    /**
+     * @return true if the uncompressed bytes of the current block are not read yet
+     */
+    public boolean hasPending() {
+      return block.hasRemaining();
+    }
+
+    /**
+     * Discards the current block. It should be called when the underlying channel is rewound to the beginning.
+     */
+    public void reset() {
+      block = ByteBuffer.allocate(0);
+      position = 0;
+      eof = false;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return in.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
@@ -612,7 +612,10 @@ public class BSTIndex implements IndexMethod {
     @Override
     public void close() throws IOException {
       this.indexIn.close();
-      this.subIn.close();
+      // a one level index does not have the sub index stream.
+      if (this.subIn != null) {
+        this.subIn.close();
+      }
     }
 
     @Override
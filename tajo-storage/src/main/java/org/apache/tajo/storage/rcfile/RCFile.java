@@ -40,6 +40,11 @@ import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.vector.ColumnVector;
+import org.apache.tajo.storage.vector.DoubleColumnVector;
+import org.apache.tajo.storage.vector.LongColumnVector;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
+import org.apache.tajo.storage.vector.VectorizedScanner;
 import org.apache.tajo.util.Bytes;
 
 import java.io.*;
@@ -458,6 +463,14 @@ public class RCFile {
     NonSyncDataInputBuffer decompressBuffer = new NonSyncDataInputBuffer();
     private long readBytes = 0;
 
+    // If it is true, compressed columns are kept as they are read, and each one is decompressed by
+    // load(int) when it is needed for the first time in the current row group.
+    private boolean lazyDecompress = false;
+    private byte [][] compressedColumns;
+    private int [] compressedLengths;
+    private int [] uncompressedLengths;
+    private boolean [] loaded;
+
 
     public ValueBuffer(KeyBuffer currentKey, int columnNumber,
                        int[] targets, CompressionCodec codec, boolean[] skippedIDs)
@@ -474,6 +487,14 @@ public class RCFile {
       for (int i = 0; i < targets.length; i++) {
         loadedColumnsValueBuffer[i] = new NonSyncByteArrayOutputStream();
       }
+      compressedColumns = new byte[targets.length][];
+      compressedLengths = new int[targets.length];
+      uncompressedLengths = new int[targets.length];
+      loaded = new boolean[targets.length];
+    }
+
+    public void setLazyDecompress(boolean lazyDecompress) {
+      this.lazyDecompress = lazyDecompress;
     }
 
     public void readFields(DataInput in) throws IOException {
@@ -497,34 +518,24 @@ public class RCFile {
         NonSyncByteArrayOutputStream valBuf;
         if (codec != null) {
           // load into compressed buf first
-
-          byte[] compressedBytes = new byte[vaRowsLen];
-          in.readFully(compressedBytes, 0, vaRowsLen);
-
-          decompressBuffer.reset(compressedBytes, vaRowsLen);
-          if(decompressor != null) decompressor.reset();
-
-          DataInputStream is;
-          if (codec instanceof SplittableCompressionCodec) {
-            SplitCompressionInputStream deflatFilter = ((SplittableCompressionCodec) codec).createInputStream(
-                decompressBuffer, decompressor, 0, vaRowsLen, SplittableCompressionCodec.READ_MODE.BYBLOCK);
-            is = new DataInputStream(deflatFilter);
-          } else {
-            CompressionInputStream deflatFilter = codec.createInputStream(decompressBuffer, decompressor);
-            is = new DataInputStream(deflatFilter);
+          if (compressedColumns[addIndex] == null || compressedColumns[addIndex].length < vaRowsLen) {
+            compressedColumns[addIndex] = new byte[vaRowsLen];
           }
+          in.readFully(compressedColumns[addIndex], 0, vaRowsLen);
+          compressedLengths[addIndex] = vaRowsLen;
+          uncompressedLengths[addIndex] = keyBuffer.eachColumnUncompressedValueLen[i];
+          loaded[addIndex] = false;
 
-          valBuf = loadedColumnsValueBuffer[addIndex];
-          valBuf.reset();
-          valBuf.write(is, keyBuffer.eachColumnUncompressedValueLen[i]);
-          is.close();
-          decompressBuffer.close();
+          if (!lazyDecompress) {
+            readBytes += load(addIndex);
+          }
         } else {
           valBuf = loadedColumnsValueBuffer[addIndex];
           valBuf.reset();
           valBuf.write(in, vaRowsLen);
+          loaded[addIndex] = true;
+          readBytes += keyBuffer.eachColumnUncompressedValueLen[i];
         }
-        readBytes += keyBuffer.eachColumnUncompressedValueLen[i];
         addIndex++;
       }
 
@@ -533,6 +544,40 @@ public class RCFile {
       }
     }
 
+    /**
+     * It decompresses a column of the current row group if it is not decompressed yet.
+     *
+     * @param addIndex the index of the column among the loaded columns
+     * @return the number of decompressed bytes
+     */
+    public long load(int addIndex) throws IOException {
+      if (loaded[addIndex]) {
+        return 0;
+      }
+
+      int vaRowsLen = compressedLengths[addIndex];
+      decompressBuffer.reset(compressedColumns[addIndex], vaRowsLen);
+      if(decompressor != null) decompressor.reset();
+
+      DataInputStream is;
+      if (codec instanceof SplittableCompressionCodec) {
+        SplitCompressionInputStream deflatFilter = ((SplittableCompressionCodec) codec).createInputStream(
+            decompressBuffer, decompressor, 0, vaRowsLen, SplittableCompressionCodec.READ_MODE.BYBLOCK);
+        is = new DataInputStream(deflatFilter);
+      } else {
+        CompressionInputStream deflatFilter = codec.createInputStream(decompressBuffer, decompressor);
+        is = new DataInputStream(deflatFilter);
+      }
+
+      NonSyncByteArrayOutputStream valBuf = loadedColumnsValueBuffer[addIndex];
+      valBuf.reset();
+      valBuf.write(is, uncompressedLengths[addIndex]);
+      is.close();
+      decompressBuffer.close();
+      loaded[addIndex] = true;
+      return uncompressedLengths[addIndex];
+    }
+
     public long getReadBytes() {
       return readBytes;
     }
@@ -1118,7 +1163,7 @@ public class RCFile {
   /**
    * Read KeyBuffer/ValueBuffer pairs from a RCFile.
    */
-  public static class RCFileScanner extends FileScanner {
+  public static class RCFileScanner extends FileScanner implements VectorizedScanner {
     private static class SelectedColumn {
       public int colIndex;
       public int rowReadIndex;
@@ -1176,6 +1221,14 @@ public class RCFile {
     private byte[] nullChars;
     private SerializerDeserializer serde;
 
+    // for the search condition. Predicate columns are read first, and the other columns are read and
+    // decompressed only for matched rows.
+    private boolean filtering = false;
+    private int[] predicateColumnIds;
+    private boolean[] predicateSelected;
+    // keeps the predicate columns of a row in the vectorized scan
+    private Tuple predicateTuple;
+
     public RCFileScanner(Configuration conf, final Schema schema, final TableMeta meta,
                          final FileFragment fragment) throws IOException {
       super(conf, schema, meta, fragment);
@@ -1263,14 +1316,42 @@ public class RCFile {
         }
       }
 
+      initSearchCondition();
+
       currentKey = createKeyBuffer();
       currentValue = new ValueBuffer(null, columnNumber, targetColumnIndexes, codec, skippedColIDs);
+      currentValue.setLazyDecompress(filtering);
 
       if (startOffset > getPosition()) {    // TODO use sync cache
         sync(startOffset); // sync to start
       }
     }
 
+    /**
+     * It finds the selected columns used by the search condition. A predicate on a column which is not selected
+     * is ignored.
+     */
+    private void initSearchCondition() {
+      if (searchCondition == null) {
+        return;
+      }
+
+      int[] columnIds = searchCondition.getColumnIds(schema);
+      predicateColumnIds = new int[columnIds.length];
+      Arrays.fill(predicateColumnIds, -1);
+      predicateSelected = new boolean[targetColumnIndexes.length];
+      for (int i = 0; i < targetColumnIndexes.length; i++) {
+        int tid = targetColumnIndexes[i];
+        for (int j = 0; j < columnIds.length; j++) {
+          if (tid < columnNumber && columnIds[j] == tid) {
+            predicateColumnIds[j] = tid;
+            predicateSelected[i] = true;
+            filtering = true;
+          }
+        }
+      }
+    }
+
     /**
      * Return the metadata (Text to Text map) that was written into the
      * file.
@@ -1293,7 +1374,7 @@ public class RCFile {
      * {@link FSDataInputStream} returned.
      */
     protected FSDataInputStream openFile(FileSystem fs, Path file, int bufferSize) throws IOException {
-      return fs.open(file, bufferSize);
+      return PrefetchInputStream.open(conf, fs, file, bufferSize);
     }
 
     private void initHeader() throws IOException {
@@ -1632,10 +1713,102 @@ public class RCFile {
       }
 
       Tuple tuple = new VTuple(schema.size());
-      getCurrentRow(tuple);
+      if (!filtering) {
+        getCurrentRow(tuple);
+        return tuple;
+      }
+
+      while (!getCurrentRowIfMatched(tuple)) {
+        more = nextBuffer(rowId);
+        if (!more || lastSeenSyncPos() >= endOffset) {
+          more = false;
+          return null;
+        }
+      }
       return tuple;
     }
 
+    /**
+     * Integer and floating point values of the binary serde are decoded into primitive vectors. If the search
+     * condition is given, only the predicate columns of each row are read into a tuple to evaluate the condition.
+     */
+    @Override
+    public int nextBatch(VectorizedRowBatch batch) throws IOException {
+      batch.reset();
+
+      int capacity = batch.getCapacity();
+      int row = 0;
+      while (row < capacity && more) {
+        more = nextBuffer(rowId);
+        if (!more || lastSeenSyncPos() >= endOffset) {
+          more = false;
+          break;
+        }
+
+        if (!keyInit || rowFetched) {
+          continue;
+        }
+        if (!currentValue.inited) {
+          currentValueBuffer();
+        }
+
+        if (filtering && !isCurrentRowMatched()) {
+          rowFetched = true;
+          continue;
+        }
+
+        for (int j = 0; j < selectedColumns.length; ++j) {
+          ColumnVector vector = batch.columns[selectedColumns[j].colIndex];
+          if (filtering && predicateSelected[j]) {
+            // it is already read for the search condition.
+            if (vector != null) {
+              Datum datum = predicateTuple.get(selectedColumns[j].colIndex);
+              if (datum.isNull()) {
+                vector.setNull(row);
+              } else {
+                vector.setDatum(row, datum);
+              }
+            }
+          } else if (vector == null) {
+            skipColumn(j);
+          } else {
+            readColumn(j, vector, row);
+          }
+        }
+        rowFetched = true;
+        row++;
+      }
+
+      batch.size = row;
+      return row;
+    }
+
+    /**
+     * It reads the predicate columns of the current row, and it evaluates the search condition with them. If the
+     * row does not satisfy the condition, the other columns are skipped.
+     */
+    private boolean isCurrentRowMatched() throws IOException {
+      if (predicateTuple == null) {
+        predicateTuple = new VTuple(schema.size());
+      }
+
+      for (int j = 0; j < selectedColumns.length; ++j) {
+        if (predicateSelected[j]) {
+          readColumn(j, predicateTuple);
+        }
+      }
+
+      if (searchCondition.isTrue(predicateTuple, predicateColumnIds)) {
+        return true;
+      }
+      for (int j = 0; j < selectedColumns.length; ++j) {
+        if (!predicateSelected[j]) {
+          skipColumn(j);
+        }
+      }
+      return false;
+    }
+
     @Override
     public float getProgress() {
       try {
@@ -1700,21 +1873,123 @@ public class RCFile {
       }
 
       for (int j = 0; j < selectedColumns.length; ++j) {
-        SelectedColumn col = selectedColumns[j];
-        int i = col.colIndex;
+        readColumn(j, tuple);
+      }
+      rowFetched = true;
+    }
 
-        if (col.isNulled) {
-          tuple.put(i, NullDatum.get());
-        } else {
-          colAdvanceRow(j, col);
+    /**
+     * It reads the predicate columns of the current row first, and it evaluates the search condition with them.
+     * The other columns are read only if the row satisfies the condition. Otherwise, they are just skipped without
+     * decompression.
+     *
+     * @return true if the current row satisfies the search condition
+     */
+    private boolean getCurrentRowIfMatched(Tuple tuple) throws IOException {
+      if (!keyInit || rowFetched) {
+        return false;
+      }
+
+      if (!currentValue.inited) {
+        currentValueBuffer();
+      }
+
+      for (int j = 0; j < selectedColumns.length; ++j) {
+        if (predicateSelected[j]) {
+          readColumn(j, tuple);
+        }
+      }
 
-          Datum datum = serde.deserialize(schema.getColumn(i),
-              currentValue.loadedColumnsValueBuffer[j].getData(), col.rowReadIndex, col.prvLength, nullChars);
-          tuple.put(i, datum);
-          col.rowReadIndex += col.prvLength;
+      boolean matched = searchCondition.isTrue(tuple, predicateColumnIds);
+      for (int j = 0; j < selectedColumns.length; ++j) {
+        if (!predicateSelected[j]) {
+          if (matched) {
+            readColumn(j, tuple);
+          } else {
+            skipColumn(j);
+          }
         }
       }
       rowFetched = true;
+      return matched;
+    }
+
+    private void readColumn(int selCol, Tuple tuple) throws IOException {
+      SelectedColumn col = selectedColumns[selCol];
+      int i = col.colIndex;
+
+      if (col.isNulled) {
+        tuple.put(i, NullDatum.get());
+      } else {
+        colAdvanceRow(selCol, col);
+        readBytes += currentValue.load(selCol);
+
+        Datum datum = serde.deserialize(schema.getColumn(i),
+            currentValue.loadedColumnsValueBuffer[selCol].getData(), col.rowReadIndex, col.prvLength, nullChars);
+        tuple.put(i, datum);
+        col.rowReadIndex += col.prvLength;
+      }
+    }
+
+    private void readColumn(int selCol, ColumnVector vector, int row) throws IOException {
+      SelectedColumn col = selectedColumns[selCol];
+      if (col.isNulled) {
+        vector.setNull(row);
+        return;
+      }
+
+      colAdvanceRow(selCol, col);
+      readBytes += currentValue.load(selCol);
+      byte[] bytes = currentValue.loadedColumnsValueBuffer[selCol].getData();
+      Column column = schema.getColumn(col.colIndex);
+
+      if (serde instanceof BinarySerializerDeserializer && col.prvLength > 0
+          && readPrimitive(column, bytes, col.rowReadIndex, col.prvLength, vector, row)) {
+        col.rowReadIndex += col.prvLength;
+        return;
+      }
+
+      Datum datum = serde.deserialize(column, bytes, col.rowReadIndex, col.prvLength, nullChars);
+      if (datum.isNull()) {
+        vector.setNull(row);
+      } else {
+        vector.setDatum(row, datum);
+      }
+      col.rowReadIndex += col.prvLength;
+    }
+
+    /**
+     * It decodes a non-null value of the binary serde into a primitive vector.
+     *
+     * @return false if the type does not have a primitive vector
+     */
+    private boolean readPrimitive(Column column, byte[] bytes, int offset, int length, ColumnVector vector, int row) {
+      BinarySerializerDeserializer binarySerde = (BinarySerializerDeserializer) serde;
+      switch (column.getDataType().getType()) {
+        case INT2:
+          ((LongColumnVector) vector).vector[row] = Bytes.toShort(bytes, offset, length);
+          return true;
+        case INT4:
+        case INT8:
+          ((LongColumnVector) vector).vector[row] = Bytes.readVLong(bytes, offset);
+          return true;
+        case FLOAT4:
+          ((DoubleColumnVector) vector).vector[row] = binarySerde.toFloat(bytes, offset, length);
+          return true;
+        case FLOAT8:
+          ((DoubleColumnVector) vector).vector[row] = binarySerde.toDouble(bytes, offset, length);
+          return true;
+        default:
+          return false;
+      }
+    }
+
+    private void skipColumn(int selCol) throws IOException {
+      SelectedColumn col = selectedColumns[selCol];
+      if (!col.isNulled) {
+        colAdvanceRow(selCol, col);
+        col.rowReadIndex += col.prvLength;
+      }
     }
 
     /**
@@ -1775,7 +2050,7 @@ public class RCFile {
 
     @Override
     public boolean isSelectable() {
-      return false;
+      return true;
     }
 
     @Override
@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.vector;
+
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.NullDatum;
+
+import java.util.Arrays;
+
+/**
+ * A column of values for a batch of rows. A subclass keeps values in a primitive array.
+ */
+public abstract class ColumnVector {
+  /** data type of values */
+  protected final Type type;
+  /** If isNull[i] is true, the i-th value is null. It is valid only if noNulls is false. */
+  public final boolean [] isNull;
+  /** If true, no value is null. */
+  public boolean noNulls = true;
+  /** If true, all values are the same as the first value. */
+  public boolean isRepeating = false;
+
+  protected ColumnVector(Type type, int capacity) {
+    this.type = type;
+    this.isNull = new boolean[capacity];
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  public final boolean isNullAt(int row) {
+    return !noNulls && isNull[isRepeating ? 0 : row];
+  }
+
+  public void setNull(int row) {
+    isNull[row] = true;
+    noNulls = false;
+  }
+
+  /**
+   * It sets a non-null value of a given row.
+   */
+  public abstract void setDatum(int row, Datum datum);
+
+  /**
+   * It returns the value of a given row as a datum.
+   */
+  public Datum getDatum(int row) {
+    if (isNullAt(row)) {
+      return NullDatum.get();
+    }
+    return getNonNullDatum(isRepeating ? 0 : row);
+  }
+
+  protected abstract Datum getNonNullDatum(int row);
+
+  public void reset() {
+    if (!noNulls) {
+      Arrays.fill(isNull, false);
+    }
+    noNulls = true;
+    isRepeating = false;
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.vector;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.storage.Scanner;
+import org.apache.tajo.storage.Tuple;
+
+import java.io.IOException;
+
+/**
+ * A batch of rows which are kept in column vectors. Only the columns being read have vectors.
+ *
+ * The selection vector keeps the row indexes which are still alive after filtering. If
+ * <code>selectedInUse</code> is false, all rows from 0 to <code>size - 1</code> are alive.
+ */
+public class VectorizedRowBatch {
+  public static final int DEFAULT_SIZE = 1024;
+
+  /** column vectors indexed by column ids. A column which is not read has null. */
+  public final ColumnVector [] columns;
+  /** the number of alive rows */
+  public int size;
+  public final int [] selected;
+  public boolean selectedInUse;
+
+  private final int capacity;
+  private final int [] columnIds;
+
+  /**
+   * @param schema the schema of tuples which will be read
+   * @param columnIds ids of columns to be kept in vectors
+   */
+  public VectorizedRowBatch(Schema schema, int [] columnIds, int capacity) {
+    this.capacity = capacity;
+    this.columnIds = columnIds;
+    this.columns = new ColumnVector[schema.size()];
+    for (int columnId : columnIds) {
+      columns[columnId] = createVector(schema.getColumn(columnId).getDataType().getType(), capacity);
+    }
+    this.selected = new int[capacity];
+  }
+
+  public VectorizedRowBatch(Schema schema, int [] columnIds) {
+    this(schema, columnIds, DEFAULT_SIZE);
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public static boolean isLongType(Type type) {
+    return type == Type.INT2 || type == Type.INT4 || type == Type.INT8;
+  }
+
+  public static boolean isDoubleType(Type type) {
+    return type == Type.FLOAT4 || type == Type.FLOAT8;
+  }
+
+  public static ColumnVector createVector(Type type, int capacity) {
+    if (isLongType(type)) {
+      return new LongColumnVector(type, capacity);
+    } else if (isDoubleType(type)) {
+      return new DoubleColumnVector(type, capacity);
+    } else {
+      return new DatumColumnVector(type, capacity);
+    }
+  }
+
+  public void reset() {
+    for (int columnId : columnIds) {
+      columns[columnId].reset();
+    }
+    size = 0;
+    selectedInUse = false;
+  }
+
+  /**
+   * It fills this batch with the next rows of a scanner. A {@link VectorizedScanner} decodes rows into this batch
+   * directly. For the other scanners, the values of tuples are copied into vectors.
+   *
+   * @return the number of rows being read. Zero means the end of the scanner.
+   */
+  public int fill(Scanner scanner) throws IOException {
+    if (scanner instanceof VectorizedScanner) {
+      return ((VectorizedScanner) scanner).nextBatch(this);
+    }
+    reset();
+
+    Tuple tuple;
+    int row = 0;
+    while (row < capacity && (tuple = scanner.next()) != null) {
+      for (int columnId : columnIds) {
+        Datum datum = tuple.get(columnId);
+        if (datum == null || datum.isNull()) {
+          columns[columnId].setNull(row);
+        } else {
+          columns[columnId].setDatum(row, datum);
+        }
+      }
+      row++;
+    }
+
+    size = row;
+    return size;
+  }
+}
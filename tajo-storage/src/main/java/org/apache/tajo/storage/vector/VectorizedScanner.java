@@ -0,0 +1,38 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.vector;
+
+import org.apache.tajo.storage.Scanner;
+
+import java.io.IOException;
+
+/**
+ * A scanner which decodes rows directly into the column vectors of a batch. Primitive values are written into
+ * primitive vectors without creating tuples or datums.
+ */
+public interface VectorizedScanner extends Scanner {
+
+  /**
+   * It resets a batch and fills it with the next rows. Only the columns which have vectors in the batch are
+   * decoded, and the other columns are skipped. Vectors are indexed by the column ids of the scanner's schema.
+   *
+   * @return the number of rows being read. Zero means the end of the scanner.
+   */
+  int nextBatch(VectorizedRowBatch batch) throws IOException;
+}
@@ -33,6 +33,7 @@ import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.rcfile.RCFile;
 import org.apache.tajo.util.CommonTestingUtil;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -65,7 +66,8 @@ public class TestCompressionStorages {
   public static Collection<Object[]> generateParameters() {
     return Arrays.asList(new Object[][]{
         {StoreType.CSV},
-        {StoreType.RCFILE}
+        {StoreType.RCFILE},
+        {StoreType.RAW}
     });
   }
 
@@ -168,6 +170,64 @@ public class TestCompressionStorages {
     assertEquals(tupleNum, tupleCnt);
   }
 
+  @Test
+  public void testSearchConditionWithCompression() throws IOException {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+
+    TableMeta meta = CatalogUtil.newTableMeta(storeType);
+    meta.putOption("compression.codec", DeflateCodec.class.getCanonicalName());
+    meta.putOption("rcfile.serde", TextSerializerDeserializer.class.getName());
+    conf.setInt(RCFile.RECORD_INTERVAL_CONF_STR, 1000);
+
+    Path tablePath = new Path(testDir, "SearchCondition");
+    Appender appender = StorageManagerFactory.getStorageManager(conf).getAppender(meta, schema, tablePath);
+    appender.init();
+
+    String extension = "";
+    if (appender instanceof CSVFile.CSVAppender) {
+      extension = ((CSVFile.CSVAppender) appender).getExtension();
+    }
+
+    int tupleNum = 10000;
+    VTuple vTuple;
+    for (int i = 0; i < tupleNum; i++) {
+      vTuple = new VTuple(2);
+      vTuple.put(0, DatumFactory.createInt4(i + 1));
+      vTuple.put(1, DatumFactory.createText(String.valueOf(i)));
+      appender.addTuple(vTuple);
+    }
+    appender.close();
+    tablePath = tablePath.suffix(extension);
+
+    FileStatus status = fs.getFileStatus(tablePath);
+    FileFragment fragment = new FileFragment("SearchCondition", tablePath, 0, status.getLen());
+    Scanner scanner = StorageManagerFactory.getStorageManager(conf).getScanner(meta, schema, fragment, schema);
+    if (!scanner.isSelectable()) {
+      return;
+    }
+
+    // id > 2500 AND id <= 2600 AND name IS NOT NULL
+    ScanPredicate predicate = new ScanPredicate(
+        new ColumnPredicate(schema.getColumn(0), ColumnPredicate.Operator.GTH, DatumFactory.createInt4(2500)),
+        new ColumnPredicate(schema.getColumn(0), ColumnPredicate.Operator.LEQ, DatumFactory.createInt4(2600)),
+        new ColumnPredicate(schema.getColumn(1), ColumnPredicate.Operator.IS_NOT_NULL));
+    scanner.setSearchCondition(predicate);
+    scanner.init();
+
+    int tupleCnt = 0;
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      int id = tuple.get(0).asInt4();
+      assertTrue(id > 2500 && id <= 2600);
+      assertEquals(String.valueOf(id - 1), tuple.get(1).asChars());
+      tupleCnt++;
+    }
+    scanner.close();
+    assertEquals(100, tupleCnt);
+  }
+
   private void storageCompressionTest(StoreType storeType, Class<? extends CompressionCodec> codec) throws IOException {
     Schema schema = new Schema();
     schema.addColumn("id", Type.INT4);
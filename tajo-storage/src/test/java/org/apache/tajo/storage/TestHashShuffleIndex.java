@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class TestHashShuffleIndex {
+
+  @Test
+  public final void testWriteAndRead() throws IOException {
+    HashShuffleIndex index = new HashShuffleIndex(2);
+    long offset = 0;
+    for (int partId = 1; partId < 1000; partId += 3) {
+      index.add(partId, offset, partId * 10);
+      offset += partId * 10;
+    }
+
+    File file = new File(CommonTestingUtil.getTestDir("target/test-data/TestHashShuffleIndex").toUri().getPath(),
+        HashShuffleIndex.INDEX_FILE_NAME);
+    index.write(file);
+    HashShuffleIndex read = HashShuffleIndex.read(file);
+    assertEquals(index.size(), read.size());
+
+    offset = 0;
+    for (int partId = 0; partId < 1000; partId++) {
+      int idx = read.find(partId);
+      if (partId % 3 != 1) {
+        assertEquals(-1, idx);
+        continue;
+      }
+      assertEquals(partId, read.getPartId(idx));
+      assertEquals(offset, read.getOffset(idx));
+      assertEquals(partId * 10, read.getLength(idx));
+      offset += partId * 10;
+    }
+  }
+
+  @Test
+  public final void testEmptyIndex() throws IOException {
+    File file = new File(CommonTestingUtil.getTestDir("target/test-data/TestHashShuffleIndex").toUri().getPath(),
+        HashShuffleIndex.INDEX_FILE_NAME);
+    new HashShuffleIndex().write(file);
+    HashShuffleIndex read = HashShuffleIndex.read(file);
+    assertEquals(0, read.size());
+    assertEquals(-1, read.find(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public final void testUnorderedPartitions() {
+    HashShuffleIndex index = new HashShuffleIndex();
+    index.add(3, 0, 10);
+    index.add(2, 10, 10);
+  }
+}
@@ -90,6 +90,11 @@ public class TestLazyTuple {
     assertEquals(DatumFactory.createInet4("192.168.0.1"), t1.get(10));
     assertEquals(NullDatum.get(), t1.get(11));
     assertEquals(NullDatum.get(), t1.get(12));
+
+    assertEquals(59, t1.getInt4(4));
+    assertEquals(23l, t1.getInt8(5));
+    assertEquals(77.9f, t1.getFloat4(6), 0.0f);
+    assertEquals(271.9f, t1.getFloat8(7), 0.0d);
   }
 
   @Test
@@ -0,0 +1,193 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.*;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestNormalizedKeyEncoder {
+  private static final Type [] TYPES = new Type[] {
+      Type.INT2, Type.INT4, Type.INT8, Type.FLOAT4, Type.FLOAT8, Type.TEXT, Type.CHAR, Type.DATE, Type.TIMESTAMP};
+
+  private final Random rnd = new Random(1234);
+
+  private static Schema createSchema() {
+    Schema schema = new Schema();
+    for (int i = 0; i < TYPES.length; i++) {
+      schema.addColumn("col" + i, TYPES[i]);
+    }
+    return schema;
+  }
+
+  /**
+   * Values are drawn from small domains so that many keys are equal.
+   */
+  private Datum createDatum(Type type) {
+    if (rnd.nextInt(10) == 0) {
+      return NullDatum.get();
+    }
+
+    switch (type) {
+      case INT2:
+        return DatumFactory.createInt2((short) (rnd.nextBoolean() ? rnd.nextInt(20) - 10 :
+            (rnd.nextBoolean() ? Short.MIN_VALUE : Short.MAX_VALUE)));
+      case INT4:
+        return DatumFactory.createInt4(rnd.nextBoolean() ? rnd.nextInt(20) - 10 : rnd.nextInt());
+      case INT8:
+        return DatumFactory.createInt8(rnd.nextBoolean() ? rnd.nextInt(20) - 10 : rnd.nextLong());
+      case FLOAT4: {
+        float [] specials = {0.0f, -0.0f, Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, Float.MIN_VALUE,
+            -Float.MAX_VALUE};
+        return DatumFactory.createFloat4(rnd.nextBoolean() ? specials[rnd.nextInt(specials.length)] :
+            (rnd.nextInt(20) - 10) / 3.0f);
+      }
+      case FLOAT8: {
+        double [] specials = {0.0d, -0.0d, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.MIN_VALUE,
+            -Double.MAX_VALUE};
+        return DatumFactory.createFloat8(rnd.nextBoolean() ? specials[rnd.nextInt(specials.length)] :
+            (rnd.nextInt(20) - 10) / 3.0d);
+      }
+      case TEXT:
+      case CHAR: {
+        byte [] bytes = new byte[rnd.nextInt(4)];
+        for (int i = 0; i < bytes.length; i++) {
+          // zero and negative bytes are included.
+          bytes[i] = (byte) (rnd.nextInt(3) == 0 ? 0 : (rnd.nextBoolean() ? 'a' + rnd.nextInt(2) : 0xf0));
+        }
+        return type == Type.TEXT ? DatumFactory.createText(bytes) : DatumFactory.createChar(bytes);
+      }
+      case DATE:
+        return new DateDatum(1970 + rnd.nextInt(3) * 100, 1 + rnd.nextInt(12), 1 + rnd.nextInt(2));
+      case TIMESTAMP:
+        return new TimestampDatum(rnd.nextInt(5) * 1000000 - 2000000);
+      default:
+        throw new IllegalArgumentException(type.name());
+    }
+  }
+
+  private List<Tuple> createTuples(int num) {
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    for (int i = 0; i < num; i++) {
+      Tuple tuple = new VTuple(TYPES.length);
+      for (int j = 0; j < TYPES.length; j++) {
+        tuple.put(j, createDatum(TYPES[j]));
+      }
+      tuples.add(tuple);
+    }
+    return tuples;
+  }
+
+  private static SortSpec createSortSpec(Schema schema, int columnId, boolean asc, boolean nullFirst) {
+    return new SortSpec(schema.getColumn(columnId), asc, nullFirst);
+  }
+
+  private void assertSameOrder(Schema schema, SortSpec [] sortSpecs, List<Tuple> tuples) {
+    TupleComparator comparator = new TupleComparator(schema, sortSpecs);
+    NormalizedKeyEncoder encoder = new NormalizedKeyEncoder(schema, sortSpecs);
+
+    NormalizedKey [] keys = new NormalizedKey[tuples.size()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = encoder.encode(tuples.get(i));
+    }
+    for (int i = 0; i < keys.length; i++) {
+      for (int j = 0; j < 50; j++) {
+        int other = rnd.nextInt(keys.length);
+        int expected = Integer.signum(comparator.compare(tuples.get(i), tuples.get(other)));
+        if (expected != Integer.signum(NormalizedKey.COMPARATOR.compare(keys[i], keys[other]))) {
+          fail(tuples.get(i) + " vs " + tuples.get(other) + " should be " + expected);
+        }
+      }
+    }
+
+    // both sorts are stable, so they should produce the same sequence.
+    List<Tuple> expected = new ArrayList<Tuple>(tuples);
+    Collections.sort(expected, comparator);
+    List<Tuple> sorted = new ArrayList<Tuple>(tuples);
+    encoder.sort(sorted);
+    for (int i = 0; i < expected.size(); i++) {
+      assertSame(expected.get(i), sorted.get(i));
+    }
+  }
+
+  @Test
+  public final void testSingleKeys() {
+    Schema schema = createSchema();
+    List<Tuple> tuples = createTuples(500);
+    for (int i = 0; i < TYPES.length; i++) {
+      for (boolean asc : new boolean[] {true, false}) {
+        for (boolean nullFirst : new boolean[] {true, false}) {
+          assertSameOrder(schema, new SortSpec[] {createSortSpec(schema, i, asc, nullFirst)}, tuples);
+        }
+      }
+    }
+  }
+
+  @Test
+  public final void testMultipleKeys() {
+    Schema schema = createSchema();
+    List<Tuple> tuples = createTuples(2000);
+    for (int n = 0; n < 50; n++) {
+      SortSpec [] sortSpecs = new SortSpec[1 + rnd.nextInt(4)];
+      for (int i = 0; i < sortSpecs.length; i++) {
+        sortSpecs[i] = createSortSpec(schema, rnd.nextInt(TYPES.length), rnd.nextBoolean(), rnd.nextBoolean());
+      }
+      assertSameOrder(schema, sortSpecs, tuples);
+    }
+  }
+
+  @Test
+  public final void testFloatSpecialValues() {
+    Schema schema = new Schema();
+    schema.addColumn("col1", Type.FLOAT8);
+    SortSpec [] sortSpecs = new SortSpec[] {new SortSpec(schema.getColumn(0))};
+    NormalizedKeyEncoder encoder = new NormalizedKeyEncoder(schema, sortSpecs);
+
+    NormalizedKey zero = encoder.encode(new VTuple(new Datum[] {DatumFactory.createFloat8(0.0d)}));
+    NormalizedKey negativeZero = encoder.encode(new VTuple(new Datum[] {DatumFactory.createFloat8(-0.0d)}));
+    NormalizedKey infinity = encoder.encode(new VTuple(new Datum[] {DatumFactory.createFloat8(Double.POSITIVE_INFINITY)}));
+    NormalizedKey nan = encoder.encode(new VTuple(new Datum[] {DatumFactory.createFloat8(Double.NaN)}));
+    assertEquals(0, NormalizedKey.COMPARATOR.compare(zero, negativeZero));
+    assertTrue(NormalizedKey.COMPARATOR.compare(infinity, nan) < 0);
+  }
+
+  @Test
+  public final void testSupportedTypes() {
+    Schema schema = new Schema();
+    schema.addColumn("col1", Type.INT4);
+    schema.addColumn("col2", Type.BLOB);
+    schema.addColumn("col3", Type.BOOLEAN);
+    assertTrue(NormalizedKeyEncoder.isSupported(schema, new SortSpec[] {new SortSpec(schema.getColumn(0))}));
+    assertFalse(NormalizedKeyEncoder.isSupported(schema, new SortSpec[] {
+        new SortSpec(schema.getColumn(0)), new SortSpec(schema.getColumn(1))}));
+    assertFalse(NormalizedKeyEncoder.isSupported(schema, new SortSpec[] {new SortSpec(schema.getColumn(2))}));
+    assertFalse(NormalizedKeyEncoder.isSupported(schema, new SortSpec[] {
+        new SortSpec(new Column("unknown", Type.INT4))}));
+  }
+}
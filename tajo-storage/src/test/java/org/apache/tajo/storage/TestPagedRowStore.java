@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TestPagedRowStore {
+
+  private static Schema createSchema() {
+    Schema schema = new Schema();
+    schema.addColumn("col1", Type.BOOLEAN);
+    schema.addColumn("col2", Type.INT2);
+    schema.addColumn("col3", Type.INT4);
+    schema.addColumn("col4", Type.INT8);
+    schema.addColumn("col5", Type.FLOAT4);
+    schema.addColumn("col6", Type.FLOAT8);
+    schema.addColumn("col7", Type.TEXT);
+    schema.addColumn("col8", Type.BLOB);
+    return schema;
+  }
+
+  private static Tuple createTuple(int i) {
+    return new VTuple(new Datum[] {
+        DatumFactory.createBool(i % 2 == 0),
+        DatumFactory.createInt2((short) i),
+        DatumFactory.createInt4(i),
+        DatumFactory.createInt8(i * 100000000L),
+        DatumFactory.createFloat4(i + 0.5f),
+        DatumFactory.createFloat8(i + 0.25d),
+        DatumFactory.createText("text_" + i),
+        DatumFactory.createBlob(("blob_" + i).getBytes())
+    });
+  }
+
+  @Test
+  public final void testRoundTrip() {
+    PagedRowStore store = new PagedRowStore(createSchema(), 4096);
+    long [] addresses = new long[1000];
+    for (int i = 0; i < addresses.length; i++) {
+      addresses[i] = store.add(createTuple(i));
+    }
+    assertEquals(1000, store.size());
+    // 1000 rows cannot fit into a single 4KB page.
+    assertTrue(store.getAllocatedBytes() > 4096);
+
+    PagedTuple tuple = new PagedTuple(store);
+    for (int i = 0; i < addresses.length; i++) {
+      Tuple expected = createTuple(i);
+      tuple.set(addresses[i]);
+      assertEquals(addresses[i], tuple.getAddress());
+      assertEquals(expected.size(), tuple.size());
+      for (int j = 0; j < expected.size(); j++) {
+        assertFalse(tuple.isNull(j));
+        assertEquals(expected.get(j), tuple.get(j));
+        assertTrue(tuple.equalsTo(j, expected.get(j)));
+      }
+      assertTrue(Arrays.equals(expected.getValues(), tuple.getValues()));
+
+      assertEquals(i % 2 == 0, tuple.getBool(0));
+      assertEquals((short) i, tuple.getInt2(1));
+      assertEquals(i, tuple.getInt4(2));
+      assertEquals(i * 100000000L, tuple.getInt8(3));
+      assertEquals(i + 0.5f, tuple.getFloat4(4), 0.0f);
+      assertEquals(i + 0.25d, tuple.getFloat8(5), 0.0d);
+    }
+  }
+
+  @Test
+  public final void testNullsAndTypeStrictEquality() {
+    PagedRowStore store = new PagedRowStore(createSchema());
+    Tuple nullTuple = new VTuple(8);
+    for (int i = 0; i < 8; i++) {
+      nullTuple.put(i, NullDatum.get());
+    }
+    nullTuple.put(2, DatumFactory.createInt4(7));
+
+    PagedTuple tuple = new PagedTuple(store);
+    tuple.set(store.add(nullTuple));
+    for (int i = 0; i < 8; i++) {
+      if (i == 2) {
+        assertFalse(tuple.isNull(i));
+      } else {
+        assertTrue(tuple.isNull(i));
+        assertTrue(tuple.get(i) instanceof NullDatum);
+        // null never matches anything, not even another null.
+        assertFalse(tuple.equalsTo(i, NullDatum.get()));
+      }
+    }
+    assertTrue(tuple.equalsTo(2, DatumFactory.createInt4(7)));
+    assertFalse(tuple.equalsTo(2, DatumFactory.createInt4(8)));
+    assertFalse(tuple.equalsTo(2, DatumFactory.createInt8(7)));
+  }
+
+  @Test
+  public final void testLinks() {
+    PagedRowStore store = new PagedRowStore(createSchema(), 4096);
+    long [] addresses = new long[500];
+    for (int i = 0; i < addresses.length; i++) {
+      addresses[i] = store.add(createTuple(i));
+      assertEquals(-1, store.getLink(addresses[i]));
+    }
+    for (int i = 1; i < addresses.length; i++) {
+      store.setLink(addresses[i - 1], addresses[i]);
+    }
+
+    PagedTuple tuple = new PagedTuple(store);
+    int count = 0;
+    for (long address = addresses[0]; address != -1; address = store.getLink(address)) {
+      tuple.set(address);
+      assertEquals(count, tuple.getInt4(2));
+      count++;
+    }
+    assertEquals(addresses.length, count);
+  }
+
+  @Test
+  public final void testRowLargerThanPage() {
+    PagedRowStore store = new PagedRowStore(createSchema(), 128);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      sb.append('a');
+    }
+    Tuple large = createTuple(1);
+    large.put(6, DatumFactory.createText(sb.toString()));
+
+    long first = store.add(createTuple(0));
+    long second = store.add(large);
+    long third = store.add(createTuple(2));
+
+    PagedTuple tuple = new PagedTuple(store);
+    tuple.set(second);
+    assertEquals(sb.toString(), tuple.get(6).asChars());
+    tuple.set(first);
+    assertEquals(0, tuple.getInt4(2));
+    tuple.set(third);
+    assertEquals(2, tuple.getInt4(2));
+  }
+
+  @Test
+  public final void testClear() {
+    PagedRowStore store = new PagedRowStore(createSchema());
+    PagedTuple tuple = new PagedTuple(store);
+    long address = store.add(createTuple(1));
+    tuple.set(address);
+    assertEquals(1, tuple.getInt4(2));
+
+    store.clear();
+    assertEquals(0, store.size());
+
+    // the same address must not return the stale row of the cleared store.
+    assertEquals(address, store.add(createTuple(2)));
+    tuple.set(address);
+    assertEquals(2, tuple.getInt4(2));
+    assertEquals(DatumFactory.createText("text_2"), tuple.get(6));
+  }
+}
@@ -0,0 +1,206 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class TestPrefetchInputStream {
+  private static final String TEST_PATH = "target/test-data/TestPrefetchInputStream";
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private TajoConf conf;
+  private FileSystem fs;
+  private Path filePath;
+  private byte [] data;
+  private ExecutorService readerService;
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new TajoConf();
+    Path testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    fs = testDir.getFileSystem(conf);
+
+    // not a multiple of the buffer size
+    data = new byte[10 * BUFFER_SIZE + 123];
+    new Random(1234).nextBytes(data);
+    filePath = new Path(testDir, "data");
+    FSDataOutputStream out = fs.create(filePath);
+    out.write(data);
+    out.close();
+
+    readerService = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void tearDown() {
+    readerService.shutdownNow();
+  }
+
+  private void assertRead(FSDataInputStream in, int length) throws IOException {
+    long pos = in.getPos();
+    byte [] bytes = new byte[length];
+    in.readFully(bytes);
+    for (int i = 0; i < length; i++) {
+      assertEquals(data[(int) pos + i], bytes[i]);
+    }
+    assertEquals(pos + length, in.getPos());
+  }
+
+  @Test
+  public void testSequentialRead() throws IOException {
+    DirectBufferPool pool = new DirectBufferPool(BUFFER_SIZE, 2);
+    PrefetchInputStream prefetchIn = new PrefetchInputStream(fs.open(filePath), pool, readerService);
+    assertTrue(prefetchIn.isPrefetching());
+
+    FSDataInputStream in = new FSDataInputStream(prefetchIn);
+    assertRead(in, 100);
+    assertRead(in, BUFFER_SIZE * 3);
+    assertEquals(data[BUFFER_SIZE * 3 + 100], (byte) in.read());
+
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE * 2 + 10);
+    assertEquals(buffer.capacity(), in.read(buffer));
+    assertEquals(data[BUFFER_SIZE * 5 + 110], buffer.get(buffer.capacity() - 1));
+
+    // reads the rest
+    assertRead(in, (int) (data.length - in.getPos()));
+    assertEquals(-1, in.read());
+    assertEquals(-1, in.read(new byte[10], 0, 10));
+
+    in.close();
+    assertEquals(2, pool.getAllocatedNum());
+    assertEquals(2, pool.getFreeNum());
+  }
+
+  @Test
+  public void testSeekAndSkip() throws IOException {
+    DirectBufferPool pool = new DirectBufferPool(BUFFER_SIZE, 2);
+    FSDataInputStream in = new FSDataInputStream(new PrefetchInputStream(fs.open(filePath), pool, readerService));
+
+    Random rnd = new Random(5678);
+    for (int i = 0; i < 200; i++) {
+      switch (rnd.nextInt(4)) {
+      case 0: // anywhere
+        in.seek(rnd.nextInt(data.length - 1000));
+        break;
+      case 1: // within the current or the next buffer
+        in.seek(Math.min(data.length - 1000, in.getPos() + rnd.nextInt(BUFFER_SIZE * 2)));
+        break;
+      case 2: // backward
+        in.seek(Math.max(0, in.getPos() - rnd.nextInt(100)));
+        break;
+      default:
+        long pos = in.getPos();
+        long skipped = in.skip(rnd.nextInt(BUFFER_SIZE * 3));
+        assertEquals(pos + skipped, in.getPos());
+        if (in.getPos() > data.length - 1000) {
+          in.seek(0);
+        }
+      }
+      assertRead(in, rnd.nextInt(1000));
+    }
+
+    // a positioned read does not change the position.
+    long pos = in.getPos();
+    byte [] bytes = new byte[100];
+    in.readFully(1000, bytes);
+    assertEquals(data[1000], bytes[0]);
+    assertEquals(data[1099], bytes[99]);
+    assertEquals(pos, in.getPos());
+
+    in.close();
+    assertEquals(2, pool.getFreeNum());
+  }
+
+  @Test
+  public void testWithoutFreeBuffers() throws IOException {
+    DirectBufferPool pool = new DirectBufferPool(BUFFER_SIZE, 3);
+    PrefetchInputStream first = new PrefetchInputStream(fs.open(filePath), pool, readerService);
+    assertTrue(first.isPrefetching());
+
+    // only one buffer is left, so the stream reads the file directly.
+    PrefetchInputStream second = new PrefetchInputStream(fs.open(filePath), pool, readerService);
+    assertFalse(second.isPrefetching());
+    assertEquals(1, pool.getFreeNum());
+
+    FSDataInputStream in = new FSDataInputStream(second);
+    in.seek(BUFFER_SIZE + 1);
+    assertRead(in, BUFFER_SIZE);
+    in.close();
+
+    // the raw local file system, as RawFile opens it, cannot read into a byte buffer by itself.
+    PrefetchInputStream third = new PrefetchInputStream(
+        FileSystem.getLocal(conf).getRawFileSystem().open(filePath), pool, readerService);
+    assertFalse(third.isPrefetching());
+
+    third.seek(BUFFER_SIZE + 1);
+    ByteBuffer direct = ByteBuffer.allocateDirect(BUFFER_SIZE * 2 + 10);
+    assertEquals(direct.capacity(), third.read(direct));
+    assertEquals(data[BUFFER_SIZE + 1], direct.get(0));
+    assertEquals(data[BUFFER_SIZE * 3 + 10], direct.get(direct.capacity() - 1));
+
+    ByteBuffer heap = ByteBuffer.allocate(BUFFER_SIZE);
+    heap.position(10);
+    assertEquals(BUFFER_SIZE - 10, third.read(heap));
+    assertEquals(data[BUFFER_SIZE * 3 + 11], heap.get(10));
+
+    // reads the rest, and then the end of the file
+    third.seek(data.length - 100);
+    direct.clear();
+    assertEquals(100, third.read(direct));
+    assertEquals(data[data.length - 1], direct.get(99));
+    assertEquals(-1, third.read(direct));
+    third.close();
+
+    first.close();
+    assertEquals(3, pool.getFreeNum());
+    assertEquals(3, pool.getAllocatedNum());
+  }
+
+  @Test
+  public void testOpenOnlyIfEnabled() throws IOException {
+    // prefetching is disabled by default.
+    FSDataInputStream in = PrefetchInputStream.open(conf, fs, filePath);
+    assertFalse(in.getWrappedStream() instanceof PrefetchInputStream);
+    assertRead(in, 100);
+    in.close();
+
+    TajoConf enabledConf = new TajoConf(conf);
+    enabledConf.setBoolVar(TajoConf.ConfVars.STORAGE_PREFETCH_ENABLED, true);
+    in = PrefetchInputStream.open(enabledConf, fs, filePath);
+    assertTrue(in.getWrappedStream() instanceof PrefetchInputStream);
+    assertRead(in, 100);
+    in.close();
+  }
+}
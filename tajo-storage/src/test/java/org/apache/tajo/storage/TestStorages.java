@@ -34,6 +34,9 @@ import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.datum.ProtobufDatumFactory;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.rcfile.RCFile;
+import org.apache.tajo.storage.vector.DoubleColumnVector;
+import org.apache.tajo.storage.vector.LongColumnVector;
+import org.apache.tajo.storage.vector.VectorizedRowBatch;
 import org.apache.tajo.util.CommonTestingUtil;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -43,8 +46,7 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
 
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.*;
 
 @RunWith(Parameterized.class)
 public class TestStorages {
@@ -80,6 +82,7 @@ public class TestStorages {
         {StoreType.RAW, false, false},
         {StoreType.RCFILE, true, true},
         {StoreType.TREVNI, false, true},
+        {StoreType.COLUMNAR, true, true},
     });
   }
 		
@@ -172,7 +175,8 @@ public class TestStorages {
     int tupleCnt = 0;
     Tuple tuple;
     while ((tuple = scanner.next()) != null) {
-      if (storeType == StoreType.RCFILE || storeType == StoreType.TREVNI || storeType == StoreType.CSV) {
+      if (storeType == StoreType.RCFILE || storeType == StoreType.TREVNI || storeType == StoreType.CSV ||
+          storeType == StoreType.COLUMNAR) {
         assertTrue(tuple.get(0) == null);
       }
       assertTrue(tupleCnt + 2 == tuple.get(1).asInt8());
@@ -184,6 +188,59 @@ public class TestStorages {
     assertEquals(tupleNum, tupleCnt);
   }
 
+  @Test
+  public void testVectorizedScan() throws IOException {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("age", Type.INT8);
+    schema.addColumn("score", Type.FLOAT8);
+    schema.addColumn("name", Type.TEXT);
+
+    TableMeta meta = CatalogUtil.newTableMeta(storeType);
+    Path tablePath = new Path(testDir, "testVectorizedScan.data");
+    Appender appender = StorageManagerFactory.getStorageManager(conf).getAppender(meta, schema, tablePath);
+    appender.init();
+    int tupleNum = 2500;
+    boolean withNulls = storeType != StoreType.TREVNI;
+    for (int i = 0; i < tupleNum; i++) {
+      VTuple vTuple = new VTuple(4);
+      vTuple.put(0, DatumFactory.createInt4(i));
+      vTuple.put(1, withNulls && i % 7 == 0 ? NullDatum.get() : DatumFactory.createInt8(i * 10000000000l));
+      vTuple.put(2, DatumFactory.createFloat8(i + 0.5));
+      vTuple.put(3, DatumFactory.createText("name" + i));
+      appender.addTuple(vTuple);
+    }
+    appender.close();
+
+    FileStatus status = fs.getFileStatus(tablePath);
+    FileFragment fragment = new FileFragment("testVectorizedScan", tablePath, 0, status.getLen());
+    Scanner scanner = StorageManagerFactory.getStorageManager(conf).getScanner(meta, schema, fragment, schema);
+    scanner.init();
+
+    // the first column is not kept in the batch.
+    VectorizedRowBatch batch = new VectorizedRowBatch(schema, new int[] {1, 2, 3});
+    assertNull(batch.columns[0]);
+    int rowNum = 0;
+    while (batch.fill(scanner) > 0) {
+      assertFalse(batch.selectedInUse);
+      LongColumnVector ages = (LongColumnVector) batch.columns[1];
+      DoubleColumnVector scores = (DoubleColumnVector) batch.columns[2];
+      for (int row = 0; row < batch.size; row++, rowNum++) {
+        if (withNulls && rowNum % 7 == 0) {
+          assertTrue(ages.isNullAt(row));
+        } else {
+          assertFalse(ages.isNullAt(row));
+          assertEquals(rowNum * 10000000000l, ages.vector[row]);
+        }
+        assertEquals(rowNum + 0.5, scores.vector[row], 0);
+        assertEquals("name" + rowNum, batch.columns[3].getDatum(row).asChars());
+      }
+    }
+    scanner.close();
+
+    assertEquals(tupleNum, rowNum);
+  }
+
   @Test
   public void testVariousTypes() throws IOException {
     Schema schema = new Schema();
@@ -0,0 +1,147 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.util.Bytes;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestTextFieldTuple {
+
+  Schema schema;
+  byte[] nullbytes;
+  SerializerDeserializer serde;
+
+  @Before
+  public void setUp() {
+    nullbytes = "\\N".getBytes();
+
+    schema = new Schema();
+    schema.addColumn("col1", TajoDataTypes.Type.INT2);
+    schema.addColumn("col2", TajoDataTypes.Type.INT4);
+    schema.addColumn("col3", TajoDataTypes.Type.INT8);
+    schema.addColumn("col4", TajoDataTypes.Type.FLOAT8);
+    schema.addColumn("col5", TajoDataTypes.Type.TEXT);
+    schema.addColumn("col6", TajoDataTypes.Type.INT4);
+    serde = new TextSerializerDeserializer();
+  }
+
+  private static int [] allColumns(Schema schema) {
+    int [] ids = new int[schema.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = i;
+    }
+    return ids;
+  }
+
+  @Test
+  public void testGetDatumAndPrimitives() {
+    TextFieldTuple tuple = new TextFieldTuple(schema, (byte) '|', allColumns(schema), nullbytes, serde);
+
+    byte [] page = "garbage|17|59|-9223372036854775808|271.5|str|\\N".getBytes();
+    int start = "garbage|".length();
+    tuple.set(page, start, page.length - start, 100);
+
+    assertEquals(100, tuple.getOffset());
+    assertEquals(17, tuple.getInt2(0));
+    assertEquals(59, tuple.getInt4(1));
+    assertEquals(Long.MIN_VALUE, tuple.getInt8(2));
+    assertEquals(271.5, tuple.getFloat8(3), 0.0d);
+    assertEquals(59.0, tuple.getFloat8(1), 0.0d);
+    assertTrue(tuple.isNull(5));
+
+    assertEquals(DatumFactory.createInt2((short) 17), tuple.get(0));
+    assertEquals(DatumFactory.createInt4(59), tuple.get(1));
+    assertEquals(DatumFactory.createInt8(Long.MIN_VALUE), tuple.get(2));
+    assertEquals(DatumFactory.createFloat8(271.5), tuple.get(3));
+    assertEquals(DatumFactory.createText("str"), tuple.get(4));
+    assertEquals(NullDatum.get(), tuple.get(5));
+  }
+
+  @Test
+  public void testReuse() throws CloneNotSupportedException {
+    TextFieldTuple tuple = new TextFieldTuple(schema, (byte) '|', allColumns(schema), nullbytes, serde);
+
+    byte [] row1 = "1|2|3|4.0|first|6".getBytes();
+    tuple.set(row1, 0, row1.length, 0);
+    Tuple copied = tuple.clone();
+    assertEquals(DatumFactory.createText("first"), tuple.get(4));
+
+    // the empty text is not null, but empty numbers are null. The last field is absent.
+    byte [] row2 = "|||||".getBytes();
+    tuple.set(row2, 0, row2.length - 1, 1);
+    assertTrue(tuple.isNull(0));
+    assertEquals(NullDatum.get(), tuple.get(1));
+    assertFalse(tuple.isNull(4));
+    assertEquals(DatumFactory.createText(""), tuple.get(4));
+    assertTrue(tuple.isNull(5));
+
+    // a copied tuple is independent of the next rows.
+    assertEquals(DatumFactory.createInt2((short) 1), copied.get(0));
+    assertEquals(DatumFactory.createText("first"), copied.get(4));
+    assertEquals(0, copied.getOffset());
+  }
+
+  @Test
+  public void testProjection() {
+    TextFieldTuple tuple = new TextFieldTuple(schema, (byte) ',', new int [] {1, 4}, nullbytes, serde);
+
+    byte [] row = "1,2,3,4.0,five,6".getBytes();
+    tuple.set(row, 0, row.length, 0);
+    assertFalse(tuple.contains(0));
+    assertNull(tuple.get(0));
+    assertTrue(tuple.contains(1));
+    assertEquals(2, tuple.getInt4(1));
+    assertNull(tuple.get(3));
+    assertEquals("five", tuple.getText(4));
+    assertNull(tuple.get(5));
+
+    // a malformed number falls back to the datum, which is null.
+    row = "1,x2,3".getBytes();
+    tuple.set(row, 0, row.length, 0);
+    assertEquals(NullDatum.get(), tuple.get(1));
+    assertEquals(NullDatum.get(), tuple.get(4));
+  }
+
+  @Test
+  public void testParseLong() {
+    byte [][] values = new byte[][] {"0".getBytes(), "-1".getBytes(), "+42".getBytes(),
+        "9223372036854775807".getBytes(), "-9223372036854775808".getBytes()};
+    for (byte [] value : values) {
+      assertEquals(Long.parseLong(new String(value)), Bytes.parseLong(value, 0, value.length));
+    }
+
+    byte [][] invalids = new byte[][] {"".getBytes(), "-".getBytes(), "1.5".getBytes(),
+        "9223372036854775808".getBytes(), "12a".getBytes()};
+    for (byte [] invalid : invalids) {
+      try {
+        Bytes.parseLong(invalid, 0, invalid.length);
+        fail("NumberFormatException is expected: " + new String(invalid));
+      } catch (NumberFormatException e) {
+        // expected
+      }
+    }
+  }
+}
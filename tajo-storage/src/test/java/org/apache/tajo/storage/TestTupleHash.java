@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TestTupleHash {
+
+  private static Tuple createTuple(Datum... datums) {
+    return new VTuple(datums);
+  }
+
+  @Test
+  public void testPositionAware() {
+    Tuple t1 = createTuple(DatumFactory.createInt4(1), DatumFactory.createInt4(2));
+    Tuple t2 = createTuple(DatumFactory.createInt4(2), DatumFactory.createInt4(1));
+    assertTrue(TupleHash.hash(t1) != TupleHash.hash(t2));
+
+    // the same values in two columns should not cancel each other out.
+    Set<Integer> hashes = new HashSet<Integer>();
+    for (int i = 0; i < 1000; i++) {
+      hashes.add(TupleHash.hash(createTuple(DatumFactory.createInt4(i), DatumFactory.createInt4(i))));
+    }
+    assertEquals(1000, hashes.size());
+  }
+
+  @Test
+  public void testEqualValues() {
+    Tuple t1 = createTuple(DatumFactory.createInt4(7), DatumFactory.createText("tajo"),
+        DatumFactory.createFloat8(0.0d), NullDatum.get());
+    Tuple t2 = createTuple(DatumFactory.createInt8(7), DatumFactory.createText("tajo"),
+        DatumFactory.createFloat8(-0.0d), null);
+    assertEquals(TupleHash.hash(t1), TupleHash.hash(t2));
+    assertEquals(t1.hashCode(), TupleHash.hash(t1));
+
+    Tuple t3 = createTuple(DatumFactory.createInt4(7), DatumFactory.createText("taj0"),
+        DatumFactory.createFloat8(0.0d), NullDatum.get());
+    assertTrue(TupleHash.hash(t1) != TupleHash.hash(t3));
+  }
+
+  @Test
+  public void testHashWithColumnIds() {
+    Tuple tuple = createTuple(DatumFactory.createInt4(1), DatumFactory.createText("abcdefghijk"),
+        DatumFactory.createInt8(3), DatumFactory.createFloat4(4.5f));
+    Tuple keyTuple = createTuple(tuple.get(3), tuple.get(1));
+    assertEquals(TupleHash.hash(keyTuple), TupleHash.hash(tuple, new int[] {3, 1}));
+  }
+}
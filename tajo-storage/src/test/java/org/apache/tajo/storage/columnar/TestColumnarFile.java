@@ -0,0 +1,262 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.columnar;
+
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.columnar.ColumnarProtos.ChunkEncoding;
+import org.apache.tajo.storage.columnar.ColumnarProtos.ColumnChunkProto;
+import org.apache.tajo.storage.columnar.ColumnarProtos.FooterProto;
+import org.apache.tajo.storage.columnar.ColumnarProtos.RowGroupProto;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class TestColumnarFile {
+  private static final String TEST_PATH = "target/test-data/TestColumnarFile";
+  private static final int ROW_NUM = 10000;
+  private static final int ROW_GROUP_ROW_NUM = 3000;
+
+  private TajoConf conf;
+  private Path testDir;
+  private FileSystem fs;
+  private Schema schema;
+  private TableMeta meta;
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new TajoConf();
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    fs = testDir.getFileSystem(conf);
+
+    schema = new Schema();
+    schema.addColumn("id", Type.INT8);      // distinct increasing values
+    schema.addColumn("run", Type.INT4);     // long runs
+    schema.addColumn("small", Type.INT4);   // small range
+    schema.addColumn("dept", Type.TEXT);    // low cardinality
+    schema.addColumn("name", Type.TEXT);    // high cardinality
+    schema.addColumn("score", Type.FLOAT8);
+    schema.addColumn("nullable", Type.INT4);
+
+    meta = CatalogUtil.newTableMeta(StoreType.COLUMNAR);
+    meta.putOption(ColumnarFile.ROW_GROUP_ROW_NUM, String.valueOf(ROW_GROUP_ROW_NUM));
+    meta.putOption(ColumnarFile.DICTIONARY_MAX_SIZE, "100");
+  }
+
+  private Tuple createTuple(int i) {
+    Tuple tuple = new VTuple(schema.size());
+    tuple.put(0, DatumFactory.createInt8(1000000000000l + i));
+    tuple.put(1, DatumFactory.createInt4(i / 1000));
+    tuple.put(2, DatumFactory.createInt4(100000 + (i * 7) % 13));
+    tuple.put(3, DatumFactory.createText("dept_" + (i % 5)));
+    tuple.put(4, DatumFactory.createText("name_" + i));
+    tuple.put(5, DatumFactory.createFloat8(i * 0.5));
+    tuple.put(6, i % 3 == 0 ? NullDatum.get() : DatumFactory.createInt4(i));
+    return tuple;
+  }
+
+  private Path writeTable(String name) throws IOException {
+    Path tablePath = new Path(testDir, name);
+    Appender appender = StorageManagerFactory.getStorageManager(conf).getAppender(meta, schema, tablePath);
+    appender.enableStats();
+    appender.init();
+    for (int i = 0; i < ROW_NUM; i++) {
+      appender.addTuple(createTuple(i));
+    }
+    appender.close();
+    assertEquals(ROW_NUM, appender.getStats().getNumRows().longValue());
+    return tablePath;
+  }
+
+  @Test
+  public void testEncodingsAndStatistics() throws IOException {
+    Path tablePath = writeTable("encodings.data");
+    FileStatus status = fs.getFileStatus(tablePath);
+    FileFragment fragment = new FileFragment("encodings", tablePath, 0, status.getLen());
+
+    ColumnarFile.ColumnarScanner scanner = new ColumnarFile.ColumnarScanner(conf, schema, meta, fragment);
+    scanner.init();
+    FooterProto footer = scanner.getFooter();
+    scanner.close();
+
+    assertEquals(schema.size(), footer.getColumnNum());
+    assertEquals((ROW_NUM + ROW_GROUP_ROW_NUM - 1) / ROW_GROUP_ROW_NUM, footer.getRowGroupsCount());
+
+    int rowNum = 0;
+    for (RowGroupProto rowGroup : footer.getRowGroupsList()) {
+      int first = rowNum;
+      int last = rowNum + rowGroup.getRowNum() - 1;
+      rowNum += rowGroup.getRowNum();
+
+      assertEquals(ChunkEncoding.BIT_PACKED, rowGroup.getChunks(0).getEncoding());
+      assertEquals(ChunkEncoding.RUN_LENGTH, rowGroup.getChunks(1).getEncoding());
+      assertEquals(ChunkEncoding.BIT_PACKED, rowGroup.getChunks(2).getEncoding());
+      assertEquals(ChunkEncoding.DICTIONARY, rowGroup.getChunks(3).getEncoding());
+      assertEquals(ChunkEncoding.PLAIN, rowGroup.getChunks(4).getEncoding());
+
+      ColumnChunkProto idChunk = rowGroup.getChunks(0);
+      assertEquals(0, idChunk.getNullCount());
+      assertEquals(DatumFactory.createInt8(1000000000000l + first),
+          ColumnChunkReader.getMinValue(schema.getColumn(0).getDataType(), idChunk));
+      assertEquals(DatumFactory.createInt8(1000000000000l + last),
+          ColumnChunkReader.getMaxValue(schema.getColumn(0).getDataType(), idChunk));
+
+      ColumnChunkProto deptChunk = rowGroup.getChunks(3);
+      assertEquals(DatumFactory.createText("dept_0"),
+          ColumnChunkReader.getMinValue(schema.getColumn(3).getDataType(), deptChunk));
+      assertEquals(DatumFactory.createText("dept_4"),
+          ColumnChunkReader.getMaxValue(schema.getColumn(3).getDataType(), deptChunk));
+
+      int expectedNulls = 0;
+      for (int i = first; i <= last; i++) {
+        if (i % 3 == 0) {
+          expectedNulls++;
+        }
+      }
+      assertEquals(expectedNulls, rowGroup.getChunks(6).getNullCount());
+    }
+    assertEquals(ROW_NUM, rowNum);
+  }
+
+  @Test
+  public void testReadAll() throws IOException {
+    Path tablePath = writeTable("readall.data");
+    FileStatus status = fs.getFileStatus(tablePath);
+    FileFragment fragment = new FileFragment("readall", tablePath, 0, status.getLen());
+
+    Scanner scanner = StorageManagerFactory.getStorageManager(conf).getScanner(meta, schema, fragment);
+    scanner.init();
+    Tuple tuple;
+    int i = 0;
+    while ((tuple = scanner.next()) != null) {
+      Tuple expected = createTuple(i);
+      for (int j = 0; j < schema.size(); j++) {
+        assertEquals(expected.get(j), tuple.get(j));
+      }
+      i++;
+    }
+    scanner.close();
+    assertEquals(ROW_NUM, i);
+  }
+
+  @Test
+  public void testSplitByRowGroups() throws IOException {
+    Path tablePath = writeTable("split.data");
+    FileStatus status = fs.getFileStatus(tablePath);
+    long fileLen = status.getLen();
+    long splitOffset = fileLen / 2;
+
+    FileFragment [] fragments = new FileFragment[2];
+    fragments[0] = new FileFragment("split", tablePath, 0, splitOffset);
+    fragments[1] = new FileFragment("split", tablePath, splitOffset, fileLen - splitOffset);
+
+    Schema target = new Schema();
+    target.addColumn(schema.getColumn(0));
+    target.addColumn(schema.getColumn(3));
+
+    int i = 0;
+    for (FileFragment fragment : fragments) {
+      Scanner scanner = StorageManagerFactory.getStorageManager(conf).getScanner(meta, schema, fragment, target);
+      scanner.init();
+      Tuple tuple;
+      while ((tuple = scanner.next()) != null) {
+        Tuple expected = createTuple(i);
+        assertEquals(expected.get(0), tuple.get(0));
+        assertNull(tuple.get(1));
+        assertNull(tuple.get(2));
+        assertEquals(expected.get(3), tuple.get(3));
+        i++;
+      }
+      scanner.close();
+    }
+    assertEquals(ROW_NUM, i);
+  }
+
+  @Test
+  public void testSearchCondition() throws IOException {
+    Path tablePath = writeTable("search.data");
+    FileStatus status = fs.getFileStatus(tablePath);
+    FileFragment fragment = new FileFragment("search", tablePath, 0, status.getLen());
+
+    // id >= 1000000006500 AND dept IN ('dept_1', 'dept_9')
+    ScanPredicate predicate = new ScanPredicate(
+        new ColumnPredicate(schema.getColumn(0), ColumnPredicate.Operator.GEQ,
+            DatumFactory.createInt8(1000000006500l)),
+        new ColumnPredicate(schema.getColumn(3), ColumnPredicate.Operator.IN,
+            DatumFactory.createText("dept_1"), DatumFactory.createText("dept_9")));
+
+    ColumnarFile.ColumnarScanner scanner = new ColumnarFile.ColumnarScanner(conf, schema, meta, fragment);
+    assertTrue(scanner.isSelectable());
+    scanner.setSearchCondition(predicate);
+    scanner.init();
+    // the first two row groups have only smaller ids
+    assertEquals(2, scanner.getSkippedRowGroupNum());
+
+    Tuple tuple;
+    int count = 0;
+    while ((tuple = scanner.next()) != null) {
+      assertTrue(tuple.get(0).asInt8() >= 1000000006500l);
+      assertEquals("dept_1", tuple.get(3).asChars());
+      count++;
+    }
+    scanner.close();
+    assertEquals(700, count);
+  }
+
+  @Test
+  public void testSearchConditionOnNulls() throws IOException {
+    Path tablePath = writeTable("search_nulls.data");
+    FileStatus status = fs.getFileStatus(tablePath);
+    FileFragment fragment = new FileFragment("search_nulls", tablePath, 0, status.getLen());
+
+    // No row group has only nulls in the column 'nullable', and the column 'name' has no null.
+    ScanPredicate predicate = new ScanPredicate(
+        new ColumnPredicate(schema.getColumn(6), ColumnPredicate.Operator.IS_NULL),
+        new ColumnPredicate(schema.getColumn(4), ColumnPredicate.Operator.IS_NOT_NULL));
+
+    ColumnarFile.ColumnarScanner scanner = new ColumnarFile.ColumnarScanner(conf, schema, meta, fragment);
+    scanner.setSearchCondition(predicate);
+    scanner.init();
+    assertEquals(0, scanner.getSkippedRowGroupNum());
+
+    Tuple tuple;
+    int count = 0;
+    while ((tuple = scanner.next()) != null) {
+      assertTrue(tuple.isNull(6));
+      count++;
+    }
+    scanner.close();
+    assertEquals((ROW_NUM + 2) / 3, count);
+  }
+}
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.apache.tajo.storage.compress;
+
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.compress.DefaultCodec;
+import org.apache.tajo.conf.TajoConf;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestBlockCodec {
+  private final TajoConf conf = new TajoConf();
+
+  private static byte [] createCompressibleBytes(int length) {
+    byte [] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) ('a' + (i / 100) % 26);
+    }
+    return bytes;
+  }
+
+  private static byte [] createRandomBytes(int length) {
+    byte [] bytes = new byte[length];
+    new Random(1).nextBytes(bytes);
+    return bytes;
+  }
+
+  private static byte [] readAll(BlockCodec codec, byte [] stored, int offset, int length, int expectedLength)
+      throws IOException {
+    ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(stored, offset, length));
+    BlockCodec.BlockReadChannel channel = codec.newReadChannel(in);
+    ByteBuffer buffer = ByteBuffer.allocate(expectedLength);
+    // a read fills the buffer across blocks.
+    assertEquals(expectedLength, channel.read(buffer));
+    assertEquals(-1, channel.read(ByteBuffer.allocate(1)));
+    assertEquals(length, channel.getPosition());
+    assertFalse(channel.hasPending());
+    channel.close();
+    return buffer.array();
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    BlockCodec codec = new BlockCodec(conf, DefaultCodec.class.getName(), 0.9f);
+    DataOutputBuffer out = new DataOutputBuffer();
+    WritableByteChannel channel = Channels.newChannel(out);
+
+    byte [] compressible = createCompressibleBytes(64 * 1024);
+    byte [] random = createRandomBytes(32 * 1024);
+    int first = codec.writeBlock(ByteBuffer.wrap(compressible), channel);
+    int second = codec.writeBlock(ByteBuffer.wrap(random), channel);
+    assertEquals(0, codec.writeBlock(ByteBuffer.allocate(0), channel));
+
+    assertEquals(first + second, out.getLength());
+    assertEquals(first + second, codec.getWrittenBytes());
+    assertEquals(compressible.length + random.length, codec.getUncompressedBytes());
+    assertTrue(first < compressible.length / 10);
+    // random bytes cannot be compressed, so they are stored as they are.
+    assertEquals(BlockCodec.BLOCK_HEADER_SIZE + random.length, second);
+    assertEquals(1, codec.getUncompressedBlockNum());
+
+    byte [] stored = Arrays.copyOf(out.getData(), out.getLength());
+    byte [] expected = Arrays.copyOf(compressible, compressible.length + random.length);
+    System.arraycopy(random, 0, expected, compressible.length, random.length);
+    assertArrayEquals(expected, readAll(codec, stored, 0, stored.length, expected.length));
+
+    // a range at block boundaries can be read alone.
+    assertArrayEquals(random, readAll(codec, stored, first, second, random.length));
+    codec.close();
+  }
+
+  @Test(expected = EOFException.class)
+  public void testTruncatedBlock() throws IOException {
+    BlockCodec codec = new BlockCodec(conf, DefaultCodec.class.getName(), 0.9f);
+    DataOutputBuffer out = new DataOutputBuffer();
+    int written = codec.writeBlock(ByteBuffer.wrap(createCompressibleBytes(10000)), Channels.newChannel(out));
+
+    ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(out.getData(), 0, written - 1));
+    try {
+      codec.newReadChannel(in).read(ByteBuffer.allocate(10000));
+    } finally {
+      codec.close();
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnknownCodec() throws IOException {
+    new BlockCodec(conf, "org.apache.tajo.UnknownCodec", 0.9f);
+  }
+}